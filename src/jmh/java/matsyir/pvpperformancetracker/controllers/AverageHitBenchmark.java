@@ -0,0 +1,82 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// closed-form average hit math compared with the per-roll loops it replaced
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AverageHitBenchmark
+{
+	@Param({"30", "60", "120"})
+	private int maxHit;
+
+	private int minHit = 16;
+	private double accuracy = 0.63;
+
+	@Benchmark
+	public double averageRollWithMinimum()
+	{
+		return PvpDamageCalc.getAverageRollWithMinimum(minHit, maxHit);
+	}
+
+	@Benchmark
+	public double averageRollWithMinimumLoop()
+	{
+		int total = 0;
+		for (int i = 0; i <= maxHit; i++)
+		{
+			total += Math.max(i, minHit);
+		}
+		return (double) total / (maxHit + 1);
+	}
+
+	@Benchmark
+	public int darkBowSpecRolls()
+	{
+		return PvpDamageCalc.sumRollsClampedToMinimum(minHit, maxHit, minHit / accuracy);
+	}
+
+	@Benchmark
+	public int darkBowSpecRollsLoop()
+	{
+		int total = 0;
+		for (int i = 0; i <= maxHit; i++)
+		{
+			total += i < minHit ? minHit / accuracy : i;
+		}
+		return total;
+	}
+
+	@Benchmark
+	public double burningClawDamage()
+	{
+		return PvpDamageCalc.getAverageBurningClawDamage((int) Math.floor(0.75 * maxHit), (int) Math.floor(1.75 * maxHit));
+	}
+
+	@Benchmark
+	public double burningClawDamageLoop()
+	{
+		int minD = (int) Math.floor(0.75 * maxHit);
+		int maxD = (int) Math.floor(1.75 * maxHit);
+		double totalDamageSum = 0;
+		for (int D = minD; D <= maxD; D++)
+		{
+			totalDamageSum += (int) Math.floor(0.25 * D) + (int) Math.floor(0.25 * D) + (int) Math.floor(0.5 * D);
+		}
+		return totalDamageSum / (maxD - minD + 1);
+	}
+}
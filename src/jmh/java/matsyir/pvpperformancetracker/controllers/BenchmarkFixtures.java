@@ -0,0 +1,95 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.lang.reflect.Field;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.FightType;
+import matsyir.pvpperformancetracker.utils.PvpUtils;
+import net.runelite.api.ItemID;
+import net.runelite.api.PlayerComposition;
+import net.runelite.api.kit.KitType;
+
+// Synthetic fights & players for the benchmarks, so they can run without a client.
+@SuppressWarnings("deprecation") // ItemID deprecation isnt a problem
+final class BenchmarkFixtures
+{
+	static final String COMPETITOR_NAME = "Competitor";
+	static final String OPPONENT_NAME = "Opponent";
+
+	// equipment ids as returned by PlayerComposition::getEquipmentIds
+	static final int[] MELEE_GEAR = gear(ItemID.DRAGON_CLAWS, ItemID.NEITIZNOT_FACEGUARD, ItemID.BANDOS_CHESTPLATE, ItemID.BANDOS_TASSETS);
+	static final int[] RANGED_GEAR = gear(ItemID.DARK_BOW, ItemID.ARMADYL_HELMET, ItemID.BLACK_DHIDE_BODY, ItemID.BLACK_DHIDE_CHAPS);
+	static final int[] CROSSBOW_GEAR = gear(ItemID.RUNE_CROSSBOW, ItemID.ARMADYL_HELMET, ItemID.BLACK_DHIDE_BODY, ItemID.BLACK_DHIDE_CHAPS);
+	static final int[] MAGE_GEAR = gear(ItemID.KODAI_WAND, ItemID.ANCESTRAL_HAT, ItemID.ANCESTRAL_ROBE_TOP, ItemID.ANCESTRAL_ROBE_BOTTOM);
+
+	private BenchmarkFixtures()
+	{
+	}
+
+	// CONFIG is needed for default levels, ring & ammo choices: use the config's default values.
+	static void installConfig()
+	{
+		if (PvpPerformanceTrackerPlugin.CONFIG != null)
+		{
+			return;
+		}
+
+		PvpPerformanceTrackerPlugin.CONFIG = TestFixtures.defaultConfig();
+	}
+
+	// bonus lookups go through the ItemManager on a cache miss, so pre-fill the cache with fixed bonuses.
+	static void seedEquipmentBonuses()
+	{
+		EquipmentBonusCache bonusCache = PvpDamageCalc.getBonusCache();
+		bonusCache.put(MELEE_GEAR, PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), new int[] {41, 98, 13, -22, -6, 118, 111, 106, -11, 122, 89, 0, 0});
+		bonusCache.put(RANGED_GEAR, PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), new int[] {0, 0, 0, -20, 137, 93, 87, 99, 82, 96, 4, 60, 0});
+		bonusCache.put(CROSSBOW_GEAR, PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), new int[] {0, 0, 0, -15, 132, 93, 87, 99, 82, 96, 4, 115, 0});
+		bonusCache.put(MAGE_GEAR, PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), new int[] {0, 0, 0, 119, 0, 28, 24, 36, 82, 0, 4, 0, 20});
+	}
+
+	static FightPerformance fight()
+	{
+		FightPerformance fight = new FightPerformance();
+		fight.fightType = FightType.NORMAL;
+		fight.competitor = new Fighter(COMPETITOR_NAME);
+		fight.opponent = new Fighter(OPPONENT_NAME);
+		return fight;
+	}
+
+	// a complete attack, as if it was logged from the client.
+	static FightLogEntry attack(String attackerName, int[] attackerGear, int[] defenderGear, AnimationData animationData, int tick)
+	{
+		FightLogEntry entry = new FightLogEntry(attackerGear, 20, 0.5, 0, 45, defenderGear, attackerName, tick, tick * 600L);
+		setField(entry, "animationData", animationData);
+		setField(entry, "isFullEntry", true);
+		setField(entry, "splash", false);
+		setField(entry, "expectedHits", PvpUtils.getExpectedHits(animationData));
+		entry.setHitsplatMatchTick(tick);
+		return entry;
+	}
+
+	private static int[] gear(int weapon, int head, int torso, int legs)
+	{
+		int[] equipmentIds = new int[KitType.values().length];
+		equipmentIds[KitType.WEAPON.getIndex()] = weapon + PlayerComposition.ITEM_OFFSET;
+		equipmentIds[KitType.HEAD.getIndex()] = head + PlayerComposition.ITEM_OFFSET;
+		equipmentIds[KitType.TORSO.getIndex()] = torso + PlayerComposition.ITEM_OFFSET;
+		equipmentIds[KitType.LEGS.getIndex()] = legs + PlayerComposition.ITEM_OFFSET;
+		return equipmentIds;
+	}
+
+	private static void setField(FightLogEntry entry, String fieldName, Object value)
+	{
+		try
+		{
+			Field field = FightLogEntry.class.getDeclaredField(fieldName);
+			field.setAccessible(true);
+			field.set(entry, value);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalStateException("Couldn't set FightLogEntry." + fieldName, e);
+		}
+	}
+}
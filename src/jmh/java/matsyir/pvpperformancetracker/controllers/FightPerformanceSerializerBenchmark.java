@@ -0,0 +1,143 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.COMPETITOR_NAME;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.MAGE_GEAR;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.MELEE_GEAR;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.OPPONENT_NAME;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.RANGED_GEAR;
+
+// gzipped JSON & binary round-trips of a fight history chunk, in memory, and plain JSON (de)serialization with the
+// streaming adapters of the FightDataTypeAdapterFactory vs Gson's reflective adapters.
+// user.home is redirected since the serializer creates its data folders under the RuneLite dir when loaded.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Duser.home=build/jmh-home")
+public class FightPerformanceSerializerBenchmark
+{
+	@Param({"1", "50"})
+	private int fightCount;
+
+	private List<FightPerformance> fights;
+	private byte[] serializedFights;
+	private byte[] binarySerializedFights;
+	private Gson reflectiveGson;
+	private String fightsJson;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		BenchmarkFixtures.installConfig();
+		PvpPerformanceTrackerPlugin.GSON = PvpPerformanceTrackerPlugin.createFightDataGson(new Gson());
+
+		fights = new ArrayList<>();
+		for (int i = 0; i < fightCount; i++)
+		{
+			fights.add(syntheticFight(i * 1000));
+		}
+		serializedFights = write();
+		binarySerializedFights = writeBinary();
+
+		reflectiveGson = new GsonBuilder()
+			.excludeFieldsWithoutExposeAnnotation()
+			.registerTypeAdapter(Double.class, (JsonSerializer<Double>) (value, theType, context) ->
+				new JsonPrimitive(FightDataTypeAdapterFactory.roundDouble(value)))
+			.create();
+		fightsJson = toJson();
+	}
+
+	@Benchmark
+	public byte[] write() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FightPerformanceSerializer.writeFightArray(fights, out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public FightPerformance[] read() throws IOException
+	{
+		return FightPerformanceSerializer.readFightArray(new ByteArrayInputStream(serializedFights));
+	}
+
+	@Benchmark
+	public byte[] writeBinary() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FightPerformanceSerializer.writeFightArray(fights, out, true);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public FightPerformance[] readBinary() throws IOException
+	{
+		return FightPerformanceSerializer.readFightArray(new ByteArrayInputStream(binarySerializedFights));
+	}
+
+	@Benchmark
+	public String toJson()
+	{
+		return PvpPerformanceTrackerPlugin.GSON.toJson(fights);
+	}
+
+	@Benchmark
+	public String toJsonReflective()
+	{
+		return reflectiveGson.toJson(fights);
+	}
+
+	@Benchmark
+	public FightPerformance[] fromJson()
+	{
+		return PvpPerformanceTrackerPlugin.GSON.fromJson(fightsJson, FightPerformance[].class);
+	}
+
+	@Benchmark
+	public FightPerformance[] fromJsonReflective()
+	{
+		return reflectiveGson.fromJson(fightsJson, FightPerformance[].class);
+	}
+
+	// a fight of ~40 attacks per fighter, alternating styles like a typical tribrid fight
+	private static FightPerformance syntheticFight(int startTick)
+	{
+		FightPerformance fight = BenchmarkFixtures.fight();
+		fight.lastFightTime = startTick * 600L;
+		for (int i = 0; i < 40; i++)
+		{
+			int tick = startTick + i * 5;
+			fight.competitor.getFightLogEntries().add(i % 2 == 0 ?
+				BenchmarkFixtures.attack(COMPETITOR_NAME, MELEE_GEAR, MAGE_GEAR, AnimationData.MELEE_DAGGER_SLASH, tick) :
+				BenchmarkFixtures.attack(COMPETITOR_NAME, RANGED_GEAR, MAGE_GEAR, AnimationData.RANGED_DARK_BOW, tick));
+			fight.opponent.getFightLogEntries().add(
+				BenchmarkFixtures.attack(OPPONENT_NAME, MAGE_GEAR, MELEE_GEAR, AnimationData.MAGIC_ANCIENT_MULTI_TARGET, tick + 2));
+		}
+		return fight;
+	}
+}
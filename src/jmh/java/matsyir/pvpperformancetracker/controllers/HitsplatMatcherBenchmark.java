@@ -0,0 +1,117 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.concurrent.TimeUnit;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import net.runelite.api.Hitsplat;
+import net.runelite.api.HitsplatID;
+import net.runelite.api.Player;
+import net.runelite.api.events.HitsplatApplied;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.COMPETITOR_NAME;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.MAGE_GEAR;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.MELEE_GEAR;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.OPPONENT_NAME;
+
+// one game tick of hitsplat matching, as done in onGameTick: attacks from both fighters land along with
+// a vengeance hit, then the previous tick's hitsplats get matched to the pending attacks.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitsplatMatcherBenchmark
+{
+	// attacks landing per fighter on the same tick (multi-hit specs, stacked attacks)
+	@Param({"1", "4"})
+	private int attacksPerFighter;
+
+	private HitsplatMatcher hitsplatMatcher;
+	private FightPerformance fight;
+	private Player localPlayer;
+	private Player opponentPlayer;
+	private FightLogEntry[] competitorAttacks;
+	private FightLogEntry[] opponentAttacks;
+	private HitsplatApplied[] hitsOnOpponent;
+	private HitsplatApplied[] hitsOnCompetitor;
+	private HitsplatApplied vengeanceHit;
+	private int tick = 1000;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkFixtures.installConfig();
+
+		hitsplatMatcher = new HitsplatMatcher();
+		fight = BenchmarkFixtures.fight();
+		localPlayer = TestFixtures.player(COMPETITOR_NAME, 20, 30);
+		opponentPlayer = TestFixtures.player(OPPONENT_NAME, 25, 30);
+		fight.competitor.setPlayer(localPlayer);
+		fight.opponent.setPlayer(opponentPlayer);
+
+		competitorAttacks = new FightLogEntry[attacksPerFighter];
+		opponentAttacks = new FightLogEntry[attacksPerFighter];
+		hitsOnOpponent = new HitsplatApplied[attacksPerFighter];
+		hitsOnCompetitor = new HitsplatApplied[attacksPerFighter];
+		for (int i = 0; i < attacksPerFighter; i++)
+		{
+			competitorAttacks[i] = BenchmarkFixtures.attack(COMPETITOR_NAME, MELEE_GEAR, MAGE_GEAR, AnimationData.MELEE_DAGGER_SLASH, tick);
+			opponentAttacks[i] = BenchmarkFixtures.attack(OPPONENT_NAME, MAGE_GEAR, MELEE_GEAR, AnimationData.MAGIC_ANCIENT_MULTI_TARGET, tick);
+			hitsOnOpponent[i] = hitsplat(opponentPlayer, 12 + i);
+			hitsOnCompetitor[i] = hitsplat(localPlayer, 20 + i);
+		}
+		// 75% of the first hit on the competitor
+		vengeanceHit = hitsplat(opponentPlayer, 15);
+	}
+
+	@Benchmark
+	public void processTick()
+	{
+		int hitsplatTick = tick++;
+		for (int i = 0; i < attacksPerFighter; i++)
+		{
+			fight.competitor.getPendingAttacks().add(resetAttack(competitorAttacks[i], hitsplatTick));
+			fight.opponent.getPendingAttacks().add(resetAttack(opponentAttacks[i], hitsplatTick));
+		}
+
+		for (int i = 0; i < attacksPerFighter; i++)
+		{
+			hitsplatMatcher.bufferHitsplat(hitsplatTick, hitsOnCompetitor[i], localPlayer, opponentPlayer);
+			hitsplatMatcher.bufferHitsplat(hitsplatTick, hitsOnOpponent[i], localPlayer, opponentPlayer);
+		}
+		hitsplatMatcher.bufferHitsplat(hitsplatTick, vengeanceHit, localPlayer, opponentPlayer);
+
+		hitsplatMatcher.processTick(fight, hitsplatTick + 1, localPlayer, 99);
+	}
+
+	private static FightLogEntry resetAttack(FightLogEntry attack, int tick)
+	{
+		attack.setTick(tick);
+		attack.setHitsplatMatchTick(tick);
+		attack.setHitsplatTick(-1);
+		attack.setMatchedHitsCount(0);
+		attack.setActualDamageSum(0);
+		attack.setKoChanceCalculated(false);
+		return attack;
+	}
+
+	private static HitsplatApplied hitsplat(Player target, int amount)
+	{
+		HitsplatApplied event = new HitsplatApplied();
+		event.setActor(target);
+		event.setHitsplat(new Hitsplat(HitsplatID.DAMAGE_OTHER, amount, 0));
+		return event;
+	}
+}
@@ -0,0 +1,64 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.concurrent.TimeUnit;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.COMPETITOR_NAME;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.CROSSBOW_GEAR;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.MAGE_GEAR;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.MELEE_GEAR;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.OPPONENT_NAME;
+import static matsyir.pvpperformancetracker.controllers.BenchmarkFixtures.RANGED_GEAR;
+
+// per-attack damage calc, for the styles & specs most commonly seen in a fight
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PvpDamageCalcBenchmark
+{
+	private PvpDamageCalc pvpDamageCalc;
+	private FightLogEntry[] attacks;
+	private FightLogEntry defenderLog;
+	private int nextAttack;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkFixtures.installConfig();
+		BenchmarkFixtures.seedEquipmentBonuses();
+
+		pvpDamageCalc = new PvpDamageCalc(BenchmarkFixtures.fight());
+		attacks = new FightLogEntry[] {
+			BenchmarkFixtures.attack(COMPETITOR_NAME, MELEE_GEAR, MAGE_GEAR, AnimationData.MELEE_DAGGER_SLASH, 100),
+			BenchmarkFixtures.attack(COMPETITOR_NAME, MELEE_GEAR, MAGE_GEAR, AnimationData.MELEE_DRAGON_CLAWS_SPEC, 104),
+			BenchmarkFixtures.attack(COMPETITOR_NAME, RANGED_GEAR, MAGE_GEAR, AnimationData.RANGED_DARK_BOW_SPEC, 108),
+			BenchmarkFixtures.attack(COMPETITOR_NAME, CROSSBOW_GEAR, MAGE_GEAR, AnimationData.RANGED_RUNE_CROSSBOW, 112),
+			BenchmarkFixtures.attack(COMPETITOR_NAME, MAGE_GEAR, RANGED_GEAR, AnimationData.MAGIC_ANCIENT_MULTI_TARGET, 116),
+		};
+		defenderLog = BenchmarkFixtures.attack(OPPONENT_NAME, MAGE_GEAR, MELEE_GEAR, AnimationData.MAGIC_ANCIENT_MULTI_TARGET, 100);
+	}
+
+	@Benchmark
+	public double updateDamageStats()
+	{
+		FightLogEntry attack = attacks[nextAttack];
+		nextAttack = (nextAttack + 1) % attacks.length;
+
+		pvpDamageCalc.updateDamageStats(attack, defenderLog);
+		return pvpDamageCalc.getAverageHit();
+	}
+}
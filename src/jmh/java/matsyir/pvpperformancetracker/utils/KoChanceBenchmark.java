@@ -0,0 +1,51 @@
+package matsyir.pvpperformancetracker.utils;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// KO chance calculations done for every matched attack
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KoChanceBenchmark
+{
+	@Param({"20", "35", "48"})
+	private int hpBefore;
+
+	@Benchmark
+	public Double koChance()
+	{
+		return PvpUtils.calculateKoChance(0.62, 0, 48, hpBefore);
+	}
+
+	@Benchmark
+	public Double multiHitClampedKoChance()
+	{
+		// seeking dragon arrows from a dark bow
+		return PvpUtils.calculateMultiHitClampedKoChance(0.58, 16, 96, 2, hpBefore);
+	}
+
+	@Benchmark
+	public Double clawsTwoPhaseKo()
+	{
+		return PvpUtils.calculateClawsTwoPhaseKo(0.94, 73, hpBefore, 0);
+	}
+
+	@Benchmark
+	public Double darkBowTwoPhaseKo()
+	{
+		return PvpUtils.calculateDarkBowTwoPhaseKo(0.58, 16, 96, hpBefore, 0);
+	}
+}
@@ -838,24 +838,6 @@ public interface PvpPerformanceTrackerConfig extends Config
 
 	// ================================= Misc/Less-Used-General =================================
 
-	@Range(
-		min = 1,
-		max = 250
-	)
-	@ConfigItem(
-		keyName = "fightHistoryRenderLimit",
-		name = "Max Rendered Fights",
-		description = "Maximum number of previous fights to be displayed in the fight history side-panel. You do <b><u>not</b></u> need" +
-			"<br>to increase this in order to see more filtered results, or total stats, that's via the Max Saved Fights config." +
-			"<br><br>WILL cause lag spikes at very high numbers. This should be small if you have low RAM or a lower-end PC." +
-			"<br>You should probably avoid increasing this above 100 unless you really need to.",
-		position = 20500
-	)
-	default int fightHistoryRenderLimit()
-	{
-		return 30;
-	}
-
 	@Range(
 		min = 1,
 		max = 10000
@@ -907,6 +889,19 @@ public interface PvpPerformanceTrackerConfig extends Config
 		return false;
 	}
 
+	@ConfigItem(
+		keyName = "recordFightEvents",
+		name = "Record Fight Events",
+		description = "Record the game events used to track fights, so they can be replayed to test or benchmark the plugin." +
+			"<br>Recordings are saved in the pvp-performance-tracker2/FightEventRecordings folder." +
+			"<br><strong>This is only meant for development/testing.</strong>",
+		position = 24100
+	)
+	default boolean recordFightEvents()
+	{
+		return false;
+	}
+
 	@ConfigItem(
 		keyName = "displayPanelSocialButtons",
 		name = "Show Panel Social Buttons",
@@ -31,6 +31,7 @@ import java.awt.event.FocusEvent;
 import java.awt.event.MouseEvent;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -40,10 +41,12 @@ import javax.inject.Inject;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.JLabel;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
+import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.border.Border;
@@ -51,8 +54,9 @@ import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import lombok.extern.slf4j.Slf4j;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.CONFIG;
-import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.PLUGIN;
 import matsyir.pvpperformancetracker.controllers.FightPerformance;
+import matsyir.pvpperformancetracker.controllers.CompiledFightFilter;
+import matsyir.pvpperformancetracker.controllers.FightFilterIndex;
 import matsyir.pvpperformancetracker.controllers.FightPerformanceFilter;
 import matsyir.pvpperformancetracker.utils.MouseAndFocusListener;
 import matsyir.pvpperformancetracker.utils.PvpUtils;
@@ -61,6 +65,7 @@ import matsyir.pvpperformancetracker.views.JShadowedButton;
 import matsyir.pvpperformancetracker.views.PanelFactory;
 import matsyir.pvpperformancetracker.views.PlaceholderIconTextField;
 import matsyir.pvpperformancetracker.utils.SocialIcon;
+import matsyir.pvpperformancetracker.views.FightHistoryList;
 import matsyir.pvpperformancetracker.views.TotalStatsPanel;
 import static matsyir.pvpperformancetracker.views.TotalStatsPanel.WIKI_HELP_URL;
 import net.runelite.api.Client;
@@ -83,14 +88,9 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 	public static final int PVP_HUB_HIDDEN_NAME_BTN_HEIGHT = 25;
 	public static final int FIGHT_FILTER_HEIGHT = 28; //34
 
-	// put a small delay on the name filtering behavior so it doesn't lag too much if typing quickly
-	public static final int BASE_NAME_FILTER_DELAY = 45; // base delay in ms
-	// additional delay of 3ms per 100 fights saved
-	// this would be +300ms if you have the max of 10,000 fights saved. Would be a bit long/appear a bit stuttery, but
-	// it likely wouldn't be ideal to try filtering 10,000 fights every 50ms while typing
-	private static final double nameFilterDelayPer100fights = 3;
-	private static final double nameFilterDelayForFightCount = 100;
-	public static final double NAME_FILTER_DELAY_PER_SAVED_FIGHT = nameFilterDelayPer100fights / nameFilterDelayForFightCount; // 3ms per 100 fights
+	// put a small delay on the name filtering behavior so it doesn't rebuild on every key if typing quickly.
+	// Filters are looked up in the FightFilterIndex, so this doesn't need to grow with the fight history size.
+	public static final int NAME_FILTER_DELAY = 45; // delay in ms
 
 	// prevent spamming rebuilds too quickly for no reason if the panel isn't visible anyways.
 	// For example if people are changing multiple configs which require rebuild, like the colors.
@@ -100,15 +100,21 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 
 	private static final String DISCORD_INVITE_URL = "https://discord.gg/hg26xeJnY5";
 
-	// The main fight history container, this will hold all the individual FightPerformancePanels.
-	private final JPanel fightHistoryContainer = new JPanel();
+	// The main fight history container, this will hold the FightPerformancePanels of the fights in view.
+	private final FightHistoryList fightHistoryList = new FightHistoryList(this::createFightPanelFor);
 	private final TotalStatsPanel totalStatsPanel;
 	private final JPanel pvpHubHiddenNameLine = new JPanel(new BorderLayout());
 	private final JPanel wikiAndDiscordButtonsLine = new JPanel(new BorderLayout());
+	private final JLabel fightHistoryLoadingLabel = new JLabel("", SwingConstants.CENTER);
 	private JShadowedButton pvpHubHiddenNameBtn;
 	private boolean hiddenNameIsVisible = false;
 	private int filteredFightCount = 0;
 	private String appliedFightFilter = null;
+	// the fight history's filterable attributes & indexes, only used from the client thread
+	private final FightFilterIndex fightFilterIndex = new FightFilterIndex();
+	private CompiledFightFilter compiledFightFilter = CompiledFightFilter.MATCH_ALL;
+	private String compiledFightFilterText = "";
+	private boolean compiledWithExactNameFilter = false;
 
 	private final PvpPerformanceTrackerPlugin plugin;
 	private final PvpPerformanceTrackerConfig config;
@@ -119,7 +125,7 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 	private final Set<Integer> pendingWorldLocationLoads = ConcurrentHashMap.newKeySet();
 
 
-	private final Timer panelFilterTask = new Timer(BASE_NAME_FILTER_DELAY, e ->
+	private final Timer panelFilterTask = new Timer(NAME_FILTER_DELAY, e ->
 	{
 		PvpPerformanceTrackerPanel.this.forceRebuild(true); // rebuild entire panel/fight history using new name filter.
 	});
@@ -147,8 +153,6 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 		panelFilterTask.setRepeats(false);
 		enqueueRebuildTask.setRepeats(false);
 
-		fightHistoryContainer.setLayout(new BoxLayout(fightHistoryContainer, BoxLayout.Y_AXIS));
-
 		totalStatsPanel = new TotalStatsPanel();
 		add(totalStatsPanel);
 		add(Box.createVerticalStrut(1));
@@ -241,8 +245,10 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 			"<br><b>2)</b> Searching for the Border style, for example you can search for \"max hit ko\" or \"spec ko\"" +
 			"<br><br>Along with these, there are many preset filter types, which you can try by using the dropdown menu on the right of this textbox." +
 			"<br>Some of these preset filter types are static, such as '::fav' to show favorited fights." +
-			"<br>Others are dynamic, such as searching '::ed>50' to find fights where you earned over 50 Expected Damage.";
-		// to view these preset filters, see FightPerformanceFilter.matches
+			"<br>Others are dynamic, such as searching '::ed>50' to find fights where you earned over 50 Expected Damage." +
+			"<br><br>Filters can be combined using '" + CompiledFightFilter.AND + "' (all must match) and '" + CompiledFightFilter.OR + "' (any can match)," +
+			"<br>for example '::kill " + CompiledFightFilter.AND + " ::world=330 " + CompiledFightFilter.OR + " ::double'.";
+		// to view these preset filters, see FightPerformanceFilter
 
 		filterLine.setForeground(ColorScheme.TEXT_COLOR);
 		filterLine.setBackground(ColorScheme.BORDER_COLOR);
@@ -381,42 +387,53 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 		add(filterLine);
 		add(Box.createVerticalStrut(1));
 
+		// shown while saved fights are still being loaded in the background
+		fightHistoryLoadingLabel.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+		fightHistoryLoadingLabel.setAlignmentX(CENTER_ALIGNMENT);
+		fightHistoryLoadingLabel.setVisible(false);
+		add(fightHistoryLoadingLabel);
+
 		// wrap mainContent with scrollpane so it's scrollable
 		JScrollPane scrollableContainer = new JScrollPane(mainContent,
 			JScrollPane.VERTICAL_SCROLLBAR_ALWAYS, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
 		scrollableContainer.setBackground(ColorScheme.SCROLL_TRACK_COLOR);
 		scrollableContainer.getVerticalScrollBar().setPreferredSize(new Dimension(FIGHT_HISTORY_SCROLL_WIDTH, 0));
 
-		scrollableContainer.getViewport().addChangeListener(e -> scrollableContainer.getViewport().repaint());
+		scrollableContainer.getViewport().addChangeListener(e ->
+		{
+			fightHistoryList.updateVisibleRows();
+			scrollableContainer.getViewport().repaint();
+		});
 
-		mainContent.add(fightHistoryContainer, BorderLayout.NORTH);
+		mainContent.add(fightHistoryList, BorderLayout.NORTH);
 		add(scrollableContainer);
 
 		setPreferredSize(new Dimension(FULL_PANEL_WIDTH, getPreferredSize().height));
 	}
 
+	// update the fight history loading progress, hiding it once every chunk is loaded. Can be called from any thread.
+	public void setFightHistoryLoadProgress(int loadedChunks, int totalChunks)
+	{
+		SwingUtilities.invokeLater(() ->
+		{
+			boolean loading = loadedChunks < totalChunks;
+			fightHistoryLoadingLabel.setText(loading ? "Loading fights... " + loadedChunks + "/" + totalChunks : "");
+			fightHistoryLoadingLabel.setVisible(loading);
+		});
+	}
+
 	public void addFight(FightPerformance fight)
 	{
 		// skip adding the fight to panels if it doesn't respect the name filter
-		if (!FightPerformanceFilter.matches(fight))
+		if (!getFightFilter().matches(fightFilterIndex.add(fight)))
 		{
 			return;
 		}
 		filteredFightCount++;
 
-		totalStatsPanel.addFight(fight.getPvpHubDisplayFight());
-		// run all of this on UI thread, since we're adding and removing containers in it.
-		SwingUtilities.invokeLater(() ->
-		{
-			fightHistoryContainer.add(createFightPanelFor(fight), 0);
-
-			// if we now have more fights than we want to render, then remove fights from the container in order to only render our max.
-			int c;
-			while ((c = fightHistoryContainer.getComponentCount()) > config.fightHistoryRenderLimit())
-			{
-				fightHistoryContainer.remove(c - 1);
-			}
-		});
+		totalStatsPanel.addFight(fight);
+		// run this on UI thread, since the list adds and removes panels.
+		SwingUtilities.invokeLater(() -> fightHistoryList.addFirst(fight));
 
 		updateUI();
 	}
@@ -424,11 +441,21 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 	public void addFights(ArrayDeque<FightPerformance> fights, boolean skipUpdatesIfFightCountUnchanged)
 	{
 		String requestedFightFilter = config.fightFilter();
+		if (!skipUpdatesIfFightCountUnchanged)
+		{
+			// the fights' attributes may have changed, e.g. their border style after a re-calculation
+			fightFilterIndex.clear();
+		}
+		fightFilterIndex.sync(fights);
+
 		// skip adding any fights to panels if they don't respect the name filter
-		// see FightPerformanceFilter.matches for filter behavior details
-		if (!requestedFightFilter.isEmpty())
+		// see CompiledFightFilter & FightPerformanceFilter for filter behavior details
+		CompiledFightFilter fightFilter = getFightFilter();
+		if (!fightFilter.isMatchAll())
 		{
-			fights.removeIf((FightPerformance f) -> !FightPerformanceFilter.matches(f));
+			List<FightPerformance> matchingFights = fightFilter.select(fightFilterIndex);
+			fights.clear();
+			fights.addAll(matchingFights);
 		}
 
 		//log.info("Panel.addFights: skipUpdatesIfFightCountUnchanged=" + skipUpdatesIfFightCountUnchanged + ", fights.size=" + fights.size() + ", filteredFightCount=" + filteredFightCount);
@@ -440,41 +467,58 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 		appliedFightFilter = requestedFightFilter;
 		filteredFightCount = fights.size();
 
-		totalStatsPanel.reset();
-		ArrayList<FightPerformance> displayFights = new ArrayList<>();
-		fights.forEach(f -> displayFights.add(f.getPvpHubDisplayFight()));
-		totalStatsPanel.addFights(displayFights);
-
-		// if we're adding more fights than we want to render at all, then reduce the number of fights we're adding
-		while(fights.size() > config.fightHistoryRenderLimit())
+		if (skipUpdatesIfFightCountUnchanged)
 		{
-			fights.removeFirst();
+			// only the filter or the fight history changed, so only add/remove the fights that changed
+			totalStatsPanel.setFights(fights);
+		}
+		else
+		{
+			// something affecting the fights themselves may have changed, e.g. config or PvP-Hub syncs
+			totalStatsPanel.reset();
+			totalStatsPanel.addFights(fights);
 		}
 
-		// initializing all the panels on the client thread before the UI thread call helps a lot,
-		// especially when we're doing 200 or potentially more.
-		ArrayList<FightPerformancePanel> panelsToAdd = new ArrayList<>();
-		fights.forEach((f) -> panelsToAdd.add(createFightPanelFor(f)));
-
-		// for bulk addFights, don't just add them to 0, since this causes visual flickering while they all get added.
-		// instead, start at 0 and go upwards, so the first few panels simply get replaced, and then while the rest
-		// of the fights get initialized, the only visual change would be the scrollbar length changing, rather than
-		// entire panels flickering.
-		// run all of this on UI thread, since we're removing and adding containers.
+		// newest fights are at the end of the fight history, but get displayed first.
+		// Only the panels of the fights in view are created, by the list itself on the UI thread.
+		ArrayList<FightPerformance> newestFirst = new ArrayList<>(fights.size());
+		fights.descendingIterator().forEachRemaining(newestFirst::add);
 		SwingUtilities.invokeLater(() ->
 		{
-			fightHistoryContainer.removeAll();
-			for (int i = 0; i < panelsToAdd.size(); i++)
-			{
-				int endBasedIndex = panelsToAdd.size() - (i+1); // end-based index
-				// get fight panels starting from the end of the fights, so we add the newest ones first
-				// (newest ones get added to the end of the fight array)
-				fightHistoryContainer.add(panelsToAdd.get(endBasedIndex), i);
-			}
+			fightHistoryList.setFights(newestFirst);
 			updateUI();
 		});
 	}
 
+	// remove a single fight from the panel, without rebuilding the rest of the fight history.
+	public void removeFight(FightPerformance fight)
+	{
+		fightFilterIndex.remove(fight);
+		if (!totalStatsPanel.hasFight(fight))
+		{
+			return;
+		}
+		filteredFightCount--;
+
+		totalStatsPanel.removeFight(fight);
+		SwingUtilities.invokeLater(() -> fightHistoryList.remove(fight));
+	}
+
+	// the compiled config filter, only re-compiled when the filter changes
+	private CompiledFightFilter getFightFilter()
+	{
+		String requestedFightFilter = config.fightFilter();
+		boolean exactNameFilter = config.exactNameFilter();
+		if (!Objects.equals(requestedFightFilter, compiledFightFilterText) || exactNameFilter != compiledWithExactNameFilter)
+		{
+			compiledFightFilter = CompiledFightFilter.compile(requestedFightFilter);
+			compiledFightFilterText = requestedFightFilter;
+			compiledWithExactNameFilter = exactNameFilter;
+		}
+
+		return compiledFightFilter;
+	}
+
 	private IntSupplier getWorldLocationSupplier(int world)
 	{
 		requestWorldLocation(world);
@@ -509,7 +553,7 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 			{
 				worldLocations.put(world, resolvedLocation);
 				pendingWorldLocationLoads.remove(world);
-				fightHistoryContainer.repaint();
+				fightHistoryList.repaint();
 			});
 		});
 	}
@@ -539,10 +583,6 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 		{
 			skipUpdatesIfFightCountUnchanged = false;
 		}
-		int newFilterDelay = BASE_NAME_FILTER_DELAY + (int)(NAME_FILTER_DELAY_PER_SAVED_FIGHT * PLUGIN.fightHistory.size());
-		panelFilterTask.setInitialDelay(newFilterDelay);
-		panelFilterTask.setDelay(newFilterDelay);
-
 		enqueueRebuildTask.stop();
 		panelFilterTask.stop();
 
@@ -561,7 +601,7 @@ public class PvpPerformanceTrackerPanel extends PluginPanel
 		{
 			totalStatsPanel.reset();
 			SwingUtilities.invokeLater(() -> {
-				fightHistoryContainer.removeAll();
+				fightHistoryList.clear();
 				totalStatsPanel.setLabels();
 				this.updateUI();
 			});
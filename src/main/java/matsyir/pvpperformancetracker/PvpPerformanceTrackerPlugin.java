@@ -34,24 +34,23 @@ import java.awt.Toolkit;
 import java.awt.datatransfer.StringSelection;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import static java.util.Map.entry;
+import static matsyir.pvpperformancetracker.utils.NumberFormatter.nf1;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import javax.inject.Inject;
 import javax.swing.ImageIcon;
 import javax.swing.JDialog;
@@ -61,18 +60,24 @@ import javax.swing.SwingUtilities;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import matsyir.pvpperformancetracker.controllers.EquipmentBonusCache;
+import matsyir.pvpperformancetracker.controllers.FightDataTypeAdapterFactory;
+import matsyir.pvpperformancetracker.controllers.FightHistoryLoader;
+import matsyir.pvpperformancetracker.controllers.FightHistoryRecalculator;
 import matsyir.pvpperformancetracker.controllers.FightPerformance;
 import matsyir.pvpperformancetracker.controllers.FightPerformanceSerializer;
-import matsyir.pvpperformancetracker.controllers.Fighter;
+import matsyir.pvpperformancetracker.controllers.FightRegistry;
 import matsyir.pvpperformancetracker.controllers.PvpHubFightSync;
+import matsyir.pvpperformancetracker.controllers.FightEventRecorder;
+import matsyir.pvpperformancetracker.controllers.PvpDamageCalc;
 import matsyir.pvpperformancetracker.controllers.PvpHubSyncRetryState;
 import matsyir.pvpperformancetracker.controllers.PvpHubUploader;
 import matsyir.pvpperformancetracker.models.AnimationData;
 import matsyir.pvpperformancetracker.models.CombatLevels;
-import matsyir.pvpperformancetracker.models.FightLogEntry;
-import matsyir.pvpperformancetracker.models.HitsplatInfo;
+import matsyir.pvpperformancetracker.models.LocalPlayerState;
 import matsyir.pvpperformancetracker.models.PrayerType;
 import matsyir.pvpperformancetracker.models.RangeAmmoData;
+import matsyir.pvpperformancetracker.utils.KoDistributionCache;
 import matsyir.pvpperformancetracker.utils.PvpColorScheme;
 import matsyir.pvpperformancetracker.utils.PvpHubPrivacy;
 import matsyir.pvpperformancetracker.utils.PvpUtils;
@@ -82,6 +87,7 @@ import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.HitsplatID;
+import net.runelite.api.InventoryID;
 import net.runelite.api.Player;
 import net.runelite.api.PlayerComposition;
 import net.runelite.api.Skill;
@@ -91,6 +97,7 @@ import net.runelite.api.events.GameTick;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.HitsplatApplied;
 import net.runelite.api.events.InteractingChanged;
+import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.events.StatChanged;
 import net.runelite.api.events.PlayerDespawned;
 import net.runelite.api.gameval.VarbitID;
@@ -151,6 +158,9 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 	private static final int PVP_HUB_SYNC_MAX_ATTEMPTS = 5;
 	private static final long PVP_HUB_SYNC_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
 	private static final long PVP_HUB_UPLOAD_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+	private static final long FIGHT_HISTORY_LOAD_REBUILD_DELAY_MILLIS = 500;
+	// how long to wait after a fight ends before saving it, so that back-to-back fights (e.g in LMS) are written together
+	private static final long SESSION_AUTOSAVE_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
 
 	static
 	{
@@ -222,15 +232,28 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 	// custom fields/props
 	public ArrayDeque<FightPerformance> fightHistory;
 	public ArrayDeque<FightPerformance> sessionFightHistory;
-	@Getter
-	private FightPerformance currentFight;
+	// ongoing fights against each opponent, only used on the client thread
+	private final FightRegistry fightRegistry = new FightRegistry();
+	private FightPerformance overlayFight;
 	private Map<Integer, ImageIcon> spriteCache; // sprite cache since a small amount of sprites is re-used a lot
+	// sprites being loaded into the sprite cache for getCachedSpriteIcon, with the callbacks to run once they're loaded,
+	// and sprites that couldn't be loaded, so they aren't requested again on every paint. Only used on the swing thread.
+	private final Map<Integer, List<Runnable>> pendingSpriteLoads = new HashMap<>();
+	private final Set<Integer> missingSprites = new HashSet<>();
 	// do not cache items in the same way since we could potentially cache a very large amount of them.
-	private final Map<Integer, List<HitsplatInfo>> hitsplatBuffer = new HashMap<>();
-	private final Map<Integer, List<HitsplatInfo>> incomingHitsplatsBuffer = new ConcurrentHashMap<>(); // Stores hitsplats *received* by players per tick.
-	private final Map<String, Integer> lastNonGmaulSpecTickByAttacker = new ConcurrentHashMap<>();
+	private final Runnable pollHitsplatHp = this::pollHitsplatHp;
+	private boolean hitsplatHpPollQueued = false;
 	private final PvpHubSyncRetryState pendingPvpHubSyncs = new PvpHubSyncRetryState(PVP_HUB_SYNC_MAX_ATTEMPTS, PVP_HUB_SYNC_RETRY_DELAY_MILLIS);
 	private File pvpHubSyncedFightsDir;
+	private FightHistoryLoader fightHistoryLoader;
+	private FightHistoryRecalculator fightHistoryRecalculator;
+	private long lastFightHistoryLoadRebuildMillis = 0;
+	// fights from chunks that were loaded since the last rebuild, imported together in one batch (client thread only)
+	private final List<FightPerformance> pendingLoadedFights = new ArrayList<>();
+	// pending batch save of the fights that ended this session, see scheduleSessionAutosave()
+	private ScheduledFuture<?> sessionAutosave;
+	// only set while the recordFightEvents config is enabled, only used on the client thread
+	private FightEventRecorder fightEventRecorder;
 
 	// #################################################################################################################
 	// ##################################### Core RL plugin functions & RL Events ######################################
@@ -250,12 +273,7 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		fightHistory = new ArrayDeque<>();
 		sessionFightHistory = new ArrayDeque<>();
 
-		GSON = injectedGson.newBuilder()
-			.excludeFieldsWithoutExposeAnnotation()
-			.registerTypeAdapter(Double.class, (JsonSerializer<Double>) (value, theType, context) ->
-				value.isNaN() ? new JsonPrimitive(0) // Convert NaN to zero, otherwise, return as BigDecimal with scale of 3.
-					: new JsonPrimitive(BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_UP))
-			).create();
+		GSON = createFightDataGson(injectedGson);
 		pvpHubSyncedFightsDir = new File(BASE_DATA_DIR, PvpHubFightSync.SYNCED_FIGHTS_DIR_NAME);
 		pvpHubSyncedFightsDir.mkdirs();
 
@@ -274,7 +292,8 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 			.panel(panel)
 			.build();
 
-		FightPerformanceSerializer.deserializeFightHistory(this::importFights);
+		fightHistoryRecalculator = new FightHistoryRecalculator(this::onFightHistoryRecalculated, executor);
+		loadFightHistory();
 		executor.scheduleWithFixedDelay(this::syncPendingPvpHubFights, 60, 60, TimeUnit.SECONDS);
 
 		// add the panel's nav button depending on config
@@ -287,7 +306,12 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 
 		overlayManager.add(overlay);
 
-		spriteCache = new HashMap<>(); // prepare sprite cache
+		if (config.recordFightEvents())
+		{
+			clientThread.invokeLater(this::startFightEventRecording);
+		}
+
+		spriteCache = new ConcurrentHashMap<>(); // prepare sprite cache, read from the swing thread & written from the client thread
 
 		// prepare default N/A or None symbol for eventual use.
 		clientThread.invokeLater(() -> DEFAULT_NONE_SYMBOL = itemManager.getImage(20594));
@@ -303,10 +327,45 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 
 	}
 
+	// Gson used to (de)serialize fight data: only @Expose fields, with doubles rounded to 3 decimals.
+	// The fight data classes themselves go through the streaming adapters of the FightDataTypeAdapterFactory,
+	// which follow the same rules without reflection.
+	public static Gson createFightDataGson(Gson baseGson)
+	{
+		return baseGson.newBuilder()
+			.excludeFieldsWithoutExposeAnnotation()
+			.registerTypeAdapter(Double.class, (JsonSerializer<Double>) (value, theType, context) ->
+				new JsonPrimitive(FightDataTypeAdapterFactory.roundDouble(value)))
+			.registerTypeAdapterFactory(new FightDataTypeAdapterFactory())
+			.create();
+	}
+
 	@Override
 	protected void shutDown() throws Exception
 	{
+		cancelFightHistoryLoad();
+		if (fightHistoryRecalculator != null)
+		{
+			fightHistoryRecalculator.shutdown();
+			fightHistoryRecalculator = null;
+		}
+		if (sessionAutosave != null)
+		{
+			sessionAutosave.cancel(false);
+			sessionAutosave = null;
+		}
 		FightPerformanceSerializer.serializeSessionFightHistory();
+		clientThread.invokeLater(this::stopFightEventRecording);
+
+		EquipmentBonusCache bonusCache = PvpDamageCalc.getBonusCache();
+		log.debug("Equipment bonus cache: {} hits, {} misses ({}% hit rate)",
+			bonusCache.getHits(), bonusCache.getMisses(), nf1.format(bonusCache.getHitRate() * 100));
+		bonusCache.clear();
+
+		KoDistributionCache koCache = PvpUtils.getKoDistributionCache();
+		log.debug("KO distribution cache: {} hits, {} misses ({}% hit rate)",
+			koCache.getHits(), koCache.getMisses(), nf1.format(koCache.getHitRate() * 100));
+		koCache.clear();
 
 		clientToolbar.removeNavigation(navButton);
 		overlayManager.remove(overlay);
@@ -377,6 +436,24 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 			case "robeHitFilter":
 				recalculateAllRobeHits(true);
 				break;
+			case "recordFightEvents":
+				clientThread.invokeLater(config.recordFightEvents() ? this::startFightEventRecording : this::stopFightEventRecording);
+				break;
+			// settings used by the damage calcs: re-calculate the expected damage of the whole fight history
+			case "attackLevel":
+			case "strengthLevel":
+			case "defenceLevel":
+			case "rangedLevel":
+			case "magicLevel":
+				PvpDamageCalc.invalidateLevelTables();
+				recalculateFightHistory();
+				break;
+			case "ringChoice":
+			case "boltChoice":
+			case "strongBoltChoice":
+			case "bpDartChoice":
+				recalculateFightHistory();
+				break;
 				case "uploadFightsToPvpHub":
 					if (!config.uploadFightsToPvpHub())
 					{
@@ -422,7 +499,6 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 			case "displayPanelSocialButtons":
 				panel.updateSocialButtons();
 				break;
-			case "fightHistoryRenderLimit":
 			case "exactNameFilter":
 			case "centerPanelLabels":
 			case "hidePanelBgImages":
@@ -447,13 +523,8 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 			return;
 		}
 
-		checkForFightEnd();
-
-		// if the client player already has a valid opponent AND the fight has started,
-		// or the event source/target aren't players, skip any processing.
-		if ((hasOpponent() && currentFight.fightStarted())
-			|| !(event.getSource() instanceof Player)
-			|| !(event.getTarget() instanceof Player))
+		// if the event source/target aren't players, skip any processing.
+		if (!(event.getSource() instanceof Player) || !(event.getTarget() instanceof Player))
 		{
 			return;
 		}
@@ -474,14 +545,44 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 			return;
 		}
 
-		// start a new fight with the newfound opponent, if a new one.
-		if (!hasOpponent() || !currentFight.getOpponent().getName().equals(opponent.getName()))
+		// remember the newfound opponent, if a new one: their fight is started by their first attack or hitsplat.
+		// Fights against other opponents keep being tracked alongside it, until they end.
+		if (opponent.getName() == null || fightRegistry.get(opponent.getName()) != null)
+		{
+			return;
+		}
+
+		fightRegistry.addPendingOpponent((Player) opponent);
+	}
+
+	// start a new fight against a pending opponent, returns null if it couldn't be tracked.
+	private FightRegistry.TrackedFight startFight(Player opponent)
+	{
+		FightPerformance newFight = new FightPerformance(client.getLocalPlayer(), opponent);
+		FightRegistry.TrackedFight trackedFight = fightRegistry.add(newFight);
+		if (trackedFight == null)
+		{
+			// every tracked fight is ongoing, ignore this potential opponent
+			return null;
+		}
+		updateOverlayFight();
+		if (fightEventRecorder != null)
+		{
+			fightEventRecorder.recordFightStart(client.getTickCount(), newFight, newFight.getCompetitor().getBaseLevels(),
+				client.getBoostedSkillLevel(Skill.HITPOINTS), client.getSkillExperience(Skill.MAGIC));
+		}
+		return trackedFight;
+	}
+
+	// the fight against the given opponent, started now if they're a pending opponent.
+	private FightRegistry.TrackedFight getOrStartFight(Player opponent)
+	{
+		FightRegistry.TrackedFight trackedFight = fightRegistry.get(opponent.getName());
+		if (trackedFight == null && fightRegistry.removePendingOpponent(opponent.getName()) != null)
 		{
-			currentFight = new FightPerformance(client.getLocalPlayer(), (Player)opponent);
-			overlay.setFight(currentFight);
-			hitsplatBuffer.clear();
-			incomingHitsplatsBuffer.clear();
+			trackedFight = startFight(opponent);
 		}
+		return trackedFight;
 	}
 
 	@Subscribe
@@ -519,9 +620,7 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 	@Subscribe
 	public void onAnimationChanged(AnimationChanged event)
 	{
-		if (!hasOpponent()) { return; }
-
-		checkForFightEnd();
+		if (!hasPotentialOpponent()) { return; }
 
 		Actor actor = event.getActor();
 		if (!(actor instanceof Player) || actor.getName() == null)
@@ -542,7 +641,7 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		// damage, and equipment updates are loaded after the animation updates.
 		clientThread.invokeLater(() ->
 		{
-			if (hasOpponent() && eventSource.getName() != null)
+			if (hasPotentialOpponent() && eventSource.getName() != null)
 			{
 				Actor interacting = eventSource.getInteracting();
 				if (!(interacting instanceof Player) || interacting.getName() == null)
@@ -550,13 +649,37 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 					return;
 				}
 
-				currentFight.checkForAttackAnimations(
+				// the local player's attacks belong to the fight against their target,
+				// anyone else's to the fight against them, if they are an opponent.
+				// Attacks between the local player & a pending opponent start their fight.
+				Player localPlayer = client.getLocalPlayer();
+				Player opponent = eventSource == localPlayer ? (Player) interacting : eventSource;
+				FightRegistry.TrackedFight trackedFight = eventSource == localPlayer || interacting == localPlayer ?
+					getOrStartFight(opponent) : fightRegistry.get(opponent.getName());
+				if (trackedFight == null)
+				{
+					return;
+				}
+
+				CombatLevels competitorLevels = new CombatLevels(client);
+				if (fightEventRecorder != null)
+				{
+					fightEventRecorder.recordAnimation(animationTick, animationTime, eventSource, (Player) interacting, animationData,
+						competitorLevels, new LocalPlayerState(client), currentlyUsedOffensivePray());
+				}
+
+				boolean attackAdded = trackedFight.getFight().checkForAttackAnimations(
 					eventSource,
 					interacting.getName(),
 					animationData,
 					animationTick,
 					animationTime,
-					new CombatLevels(client));
+					competitorLevels);
+				if (attackAdded)
+				{
+					fightRegistry.onAttack(trackedFight);
+					updateOverlayFight();
+				}
 			}
 		});
 	}
@@ -570,7 +693,7 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		// if there's no opponent, the target is not a player, or the hitsplat is not relevant to pvp damage,
 		// skip the hitsplat. Otherwise, add it to the fight, which will only include it if it is one of the
 		// Fighters in the fight being hit.
-		if (!hasOpponent() || !((target = event.getActor()) instanceof Player))
+		if (!hasPotentialOpponent() || !((target = event.getActor()) instanceof Player))
 		{
 			return;
 		}
@@ -595,7 +718,28 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 			}
 		}
 
-		currentFight.addDamageDealt(target.getName(), amount);
+		// hits on a pending opponent, or on the local player from one while no tracked opponent is targeting them,
+		// start the pending opponent's fight.
+		Player pendingOpponent = target == client.getLocalPlayer() ?
+			fightRegistry.getPendingOpponentTargeting(client.getLocalPlayer()) : fightRegistry.removePendingOpponent(target.getName());
+		if (pendingOpponent != null)
+		{
+			startFight(pendingOpponent);
+		}
+
+		FightRegistry.TrackedFight trackedFight = fightRegistry.getFightForHitsplat(target, client.getLocalPlayer());
+		if (trackedFight == null)
+		{
+			return;
+		}
+		FightPerformance fight = trackedFight.getFight();
+
+		if (fightEventRecorder != null)
+		{
+			fightEventRecorder.recordHitsplat(client.getTickCount(), (Player) target, trackedFight.getOpponentName(), hitType, amount);
+		}
+
+		fight.addDamageDealt(target.getName(), amount);
 
 		// Exclude certain hitsplat types (like heal, burn, poison, venom, disease)
 		// from the buffer used for HP-before-hit calculations.
@@ -610,30 +754,31 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 			return; // Don't buffer these types for HP calc / matching
 		}
 
-		// Store hitsplats received by competitor or opponent for potential vengeance trigger lookup
-		Player player = client.getLocalPlayer();
-		if (target == player || (hasOpponent() && target == currentFight.getOpponent().getPlayer()))
-		{
-			int currentTick = client.getTickCount();
-			incomingHitsplatsBuffer.computeIfAbsent(currentTick, k -> new CopyOnWriteArrayList<>()).add(new HitsplatInfo(event));
-		}
-
 		// Buffer the hitsplat event instead of processing immediately (unless excluded earlier)
-		// Vengeance damage hitsplats WILL be included here initially.
-		HitsplatInfo info = new HitsplatInfo(event);
-		int tick = client.getTickCount();
-		List<HitsplatInfo> tickEvents = hitsplatBuffer.computeIfAbsent(tick, k -> new ArrayList<>());
-		tickEvents.add(info);
+		// Hitsplats received by competitor or opponent are also indexed for potential vengeance/recoil lookup
+		trackedFight.getHitsplatMatcher().bufferHitsplat(client.getTickCount(), event, client.getLocalPlayer(), fight.getOpponent().getPlayer());
 
 		// Get the HP of the actor on the client thread, after the hitsplat has been applied.
-		clientThread.invokeLater(() ->
+		// All hitsplats buffered before the poll runs get their HP set by the same poll.
+		if (!hitsplatHpPollQueued)
 		{
-			Actor hitActor = info.getEvent().getActor();
-			if (hitActor != null)
-			{
-				info.setHp(hitActor.getHealthRatio(), hitActor.getHealthScale());
-			}
-		});
+			hitsplatHpPollQueued = true;
+			clientThread.invokeLater(pollHitsplatHp);
+		}
+	}
+
+	private void pollHitsplatHp()
+	{
+		hitsplatHpPollQueued = false;
+		if (fightEventRecorder != null)
+		{
+			fightEventRecorder.recordHpPoll();
+		}
+		List<FightRegistry.TrackedFight> fights = fightRegistry.getFights();
+		for (int i = 0; i < fights.size(); i++)
+		{
+			fights.get(i).getHitsplatMatcher().pollPendingHp();
+		}
 	}
 
 	@Subscribe
@@ -645,20 +790,39 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 
 		if (isCombatBoostSkill(skill))
 		{
-			currentFight.refreshCompetitorLevelsForTick(client.getTickCount(), new CombatLevels(client));
+			CombatLevels competitorLevels = new CombatLevels(client);
+			if (fightEventRecorder != null)
+			{
+				fightEventRecorder.recordCompetitorLevels(client.getTickCount(), competitorLevels);
+			}
+			List<FightRegistry.TrackedFight> fights = fightRegistry.getFights();
+			for (int i = 0; i < fights.size(); i++)
+			{
+				fights.get(i).getFight().refreshCompetitorLevelsForTick(client.getTickCount(), competitorLevels);
+			}
 		}
 
 		if (skill == Skill.HITPOINTS)
 		{
-			currentFight.updateCompetitorHp(client.getBoostedSkillLevel(Skill.HITPOINTS));
+			int competitorHp = client.getBoostedSkillLevel(Skill.HITPOINTS);
+			if (fightEventRecorder != null)
+			{
+				fightEventRecorder.recordCompetitorHp(competitorHp);
+			}
+			List<FightRegistry.TrackedFight> fights = fightRegistry.getFights();
+			for (int i = 0; i < fights.size(); i++)
+			{
+				fights.get(i).getFight().updateCompetitorHp(competitorHp);
+			}
 		}
 
 		if (skill == Skill.MAGIC)
 		{
 			int magicXp = client.getSkillExperience(Skill.MAGIC);
-			if (magicXp > currentFight.competitor.getLastGhostBarrageCheckedMageXp())
+			FightPerformance fight = getLocalTargetFight();
+			if (fight != null && magicXp > fight.competitor.getLastGhostBarrageCheckedMageXp())
 			{
-				currentFight.competitor.setLastGhostBarrageCheckedMageXp(PLUGIN.getClient().getSkillExperience(Skill.MAGIC));
+				fight.competitor.setLastGhostBarrageCheckedMageXp(PLUGIN.getClient().getSkillExperience(Skill.MAGIC));
 				clientThread.invokeLater(this::checkForGhostBarrage);
 			}
 		}
@@ -687,9 +851,10 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 	// we can only detect this for the local player
 	private void checkForGhostBarrage()
 	{
-		if (!hasOpponent()) { return; }
+		FightPerformance fight = getLocalTargetFight();
+		if (fight == null) { return; }
 
-		currentFight.checkForLocalGhostBarrage(new CombatLevels(client), client.getLocalPlayer());
+		fight.checkForLocalGhostBarrage(new CombatLevels(client), client.getLocalPlayer());
 	}
 
 	// When the config is reset, also reset the fight history data, as a way to restart
@@ -710,6 +875,7 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 	}
 
 	// when the client shuts down, save the fight history data locally.
+	// fights are already saved in batches as they end, so this only has to write the last few, if any.
 	@Subscribe
 	public void onClientShutdown(ClientShutdown event)
 	{
@@ -723,535 +889,38 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		// We should have enough extra ticks to calc any hitsplats during death animations and empty these queues.
 		if (!hasOpponent()) { return; }
 
-		currentFight.recordCurrentInventorySnapshot();
+		checkForFightEnds();
+		if (!hasOpponent()) { return; }
 
-		// Process hitsplats from the previous tick
-		int currentTick = client.getTickCount();
-		int tickToProcess = currentTick - 1;
-		int maxWindow = 5;
-		List<HitsplatInfo> hitsplatsToProcess = hitsplatBuffer.remove(tickToProcess);
+		// Determine max HP to use (Either uses config lvl, or override to 99 for LMS)
+		int maxHpToUse = isInLmsMatch() ? 99 : CONFIG.opponentHitpointsLevel();
 
-		// --- START: New Pre-processing Logic ---
-		if (hitsplatsToProcess != null && !hitsplatsToProcess.isEmpty())
+		List<FightRegistry.TrackedFight> fights = fightRegistry.getFights();
+		if (fightEventRecorder != null)
 		{
-			// 1. Calculate total expected hits from pending attacks for this tick
-			int totalExpectedAttackHits = 0;
-			Player player = client.getLocalPlayer();
-			// Assuming getOpponentName() and getOpponentActor() exist or accessing opponent/competitor directly
-			Actor opponentActor = currentFight.getOpponent().getPlayer();
-
-			// Sum expected hits from opponent's pending attacks targeting player
-			if (currentFight.getOpponent() != null)
-			{
-				totalExpectedAttackHits += currentFight.getOpponent().getPendingAttacks().stream()
-					.filter(e -> !e.isKoChanceCalculated() && e.isFullEntry() && !e.isSplash() &&
-						(tickToProcess - getHitsplatMatchTick(e) <= Math.max(5, getAttackLookback(e)))) // Check if attack could land now
-					.mapToInt(FightLogEntry::getExpectedHits)
-					.sum();
-			}
-			// Sum expected hits from competitor's pending attacks targeting opponent
-			if (currentFight.getCompetitor() != null)
-			{
-				totalExpectedAttackHits += currentFight.getCompetitor().getPendingAttacks().stream()
-					.filter(e -> !e.isKoChanceCalculated() && e.isFullEntry() && !e.isSplash() &&
-						(tickToProcess - getHitsplatMatchTick(e) <= Math.max(5, getAttackLookback(e)))) // Check if attack could land now
-					.mapToInt(FightLogEntry::getExpectedHits)
-					.sum();
-			}
-
-			// 2. Compare observed vs expected
-			if (hitsplatsToProcess.size() > totalExpectedAttackHits)
-			{
-				log.debug("Tick {}: Observed hits ({}) > Expected attack hits ({}). Checking for special hits...",
-					tickToProcess, hitsplatsToProcess.size(), totalExpectedAttackHits);
-
-				boolean removedHitInIteration;
-				int safetyBreakCounter = 0;
-				int maxIterations = hitsplatsToProcess.size() * 2; // Allow more iterations to be safe
-
-				// 3. Loop while observed > expected (or until no more candidates found)
-				while (hitsplatsToProcess.size() > totalExpectedAttackHits && safetyBreakCounter++ < maxIterations)
-				{
-					removedHitInIteration = false;
-					Iterator<HitsplatInfo> iterator = hitsplatsToProcess.iterator();
-
-					while (iterator.hasNext())
-					{
-						HitsplatInfo potentialSpecialHit = iterator.next();
-						Actor target = potentialSpecialHit.getEvent().getActor();
-						int hitAmount = potentialSpecialHit.getEvent().getHitsplat().getAmount();
-						boolean isCandidate = false;
-
-						// Determine who the 'other' player is (the one who might have *caused* veng/recoil)
-						Actor otherPlayer = null;
-						if (target == player)
-						{
-							otherPlayer = opponentActor;
-						}
-						else if (target == opponentActor)
-						{
-							otherPlayer = player;
-						}
-
-						// 4. Check Candidates (Vengeance/Recoil)
-						if (otherPlayer != null)
-						{
-							List<HitsplatInfo> incomingHitsOnOther = incomingHitsplatsBuffer.get(tickToProcess);
-							if (incomingHitsOnOther != null)
-							{
-								for (HitsplatInfo incomingHit : incomingHitsOnOther)
-								{
-									// Only check hits *received* by the other player
-									if (incomingHit.getEvent().getActor() == otherPlayer)
-									{
-										int incomingDamage = incomingHit.getEvent().getHitsplat().getAmount();
-
-										// Vengeance Check
-										int expectedVengeance = Math.max(1, (int) Math.floor(incomingDamage * 0.75));
-										if (hitAmount == expectedVengeance)
-										{
-											log.debug("Tick {}: Found potential Vengeance hit ({} damage) on {} based on {} incoming damage on {}",
-												tickToProcess, hitAmount, target.getName(), incomingDamage, otherPlayer.getName());
-											isCandidate = true;
-											break; // Found a reason, no need to check other incoming hits for this potentialSpecialHit
-										}
-
-										// Recoil Check
-										int expectedRecoil = Math.max(1, (int) Math.floor(incomingDamage * 0.10) + 1);
-										if (hitAmount == expectedRecoil)
-										{
-											log.debug("Tick {}: Found potential Recoil hit ({} damage) on {} based on {} incoming damage on {}",
-												tickToProcess, hitAmount, target.getName(), incomingDamage, otherPlayer.getName());
-											isCandidate = true;
-											break;
-										}
-									}
-								}
-							}
-						}
-
-						// burn hitsplats are excluded earlier in onHitsplatApplied
-
-						// 5. Remove if Candidate Found
-						if (isCandidate)
-						{
-							iterator.remove();
-							removedHitInIteration = true;
-							break; // Exit inner loop, re-check outer while condition
-						}
-					} // End inner iterator loop
-
-					// Safety break if no hits were removed in a full pass
-					if (!removedHitInIteration)
-					{
-						log.debug("Tick {}: No special hit candidates removed in iteration. Breaking pre-emptive removal.", tickToProcess);
-						break;
-					}
-				} // End outer while loop
-			} // End if (observed > expected)
+			fightEventRecorder.recordGameTick(client.getTickCount(), maxHpToUse, fights);
 		}
-		// --- END: New Pre-processing Logic ---
 
-
-		// Cleanup happens regardless of whether hitsplats were processed this tick
-		// Check if hitsplatsToProcess became null or empty after pre-processing
-		// If there is no active fight anymore, avoid accessing currentFight below.
-		if (hitsplatsToProcess == null || hitsplatsToProcess.isEmpty() || !hasOpponent())
+		// Match hitsplats from the previous tick to the fighters' attacks, separately for each fight.
+		// This only costs anything for fights that are tracked, not for every player around.
+		for (int i = 0; i < fights.size(); i++)
 		{
-			// Cleanup old entries from buffers
-			hitsplatBuffer.keySet().removeIf(tick -> tick < currentTick - maxWindow);
-			incomingHitsplatsBuffer.keySet().removeIf(tick -> tick < currentTick - maxWindow);
-			return;
+			FightRegistry.TrackedFight trackedFight = fights.get(i);
+			trackedFight.getHitsplatMatcher().processTick(trackedFight.getFight(), client.getTickCount(), client.getLocalPlayer(), maxHpToUse);
 		}
+	}
 
-		// --- Proceed with Regular Matching using the potentially modified hitsplatsToProcess ---
-
-		// Group hitsplats by the actor receiving them (remaining hitsplats after special removal)
-		final List<HitsplatInfo> finalHitsplatsToProcess = hitsplatsToProcess; // Create effectively final list
-		Map<Actor, List<HitsplatInfo>> hitsByActor = finalHitsplatsToProcess.stream()
-			.collect(Collectors.groupingBy((HitsplatInfo info) -> info.getEvent().getActor()));
-
-		List<FightLogEntry> processedEntriesThisTick = new ArrayList<>();
-
-		hitsByActor.forEach((opponent, hits) -> {
-			if (!(opponent instanceof Player)) return; // Only process hits on players
-
-			// Determine max HP to use (Either uses config lvl, or override to 99 for LMS)
-			int maxHpToUse;
-			if (isInLmsMatch())
-			{
-				maxHpToUse = 99;
-			}
-			else
-			{
-				maxHpToUse = CONFIG.opponentHitpointsLevel();
-			}
-
-			// Determine attacker safely (handle null names and prefer identity when possible)
-			String actorName = ((Player) opponent).getName();
-			Fighter attacker;
-			Player trackedOppPlayer = currentFight.getOpponent().getPlayer();
-			Player trackedCompPlayer = currentFight.getCompetitor().getPlayer();
-
-			boolean opponentIsTrackedOpponent = opponent == trackedOppPlayer || Objects.equals(actorName, currentFight.getOpponent().getName());
-			boolean opponentIsTrackedCompetitor = opponent == trackedCompPlayer || Objects.equals(actorName, currentFight.getCompetitor().getName());
-
-			if (opponentIsTrackedOpponent)
-			{
-				attacker = currentFight.getCompetitor();
-			}
-			else if (opponentIsTrackedCompetitor)
-			{
-				attacker = currentFight.getOpponent();
-			}
-			else
-			{
-				return;
-			}
-
-			// Get all potentially relevant, unprocessed entries sorted by animation tick
-			List<FightLogEntry> candidateEntries = attacker.getPendingAttacks().stream()
-				.filter(e -> !e.isKoChanceCalculated() && e.isFullEntry() && !e.isSplash())
-				.filter(e -> (client.getTickCount() - getHitsplatMatchTick(e)) <= Math.max(5, getAttackLookback(e)))
-				.sorted(Comparator.comparingInt(this::getHitsplatMatchTick).thenComparingInt(FightLogEntry::getTick))
-				.collect(Collectors.toList());
-
-			List<FightLogEntry> gmaulsMatchedThisTick = new ArrayList<>();
-			int totalGmaulHitsMatchedThisTick = 0;
-
-			// Iterate through candidate entries chronologically
-			for (FightLogEntry entry : candidateEntries)
-			{
-
-				// Apply specific lookback for the entry's style
-				int lookback = getAttackLookback(entry);
-				int hitsplatMatchTick = getHitsplatMatchTick(entry);
-				if (client.getTickCount() - hitsplatMatchTick > lookback)
-				{
-					entry.setKoChanceCalculated(true);
-					attacker.getPendingAttacks().remove(entry);
-					continue;
-				}
-
-				int toMatch = entry.getExpectedHits() - entry.getMatchedHitsCount();
-				if (toMatch <= 0)
-				{
-					entry.setKoChanceCalculated(true);
-					attacker.getPendingAttacks().remove(entry);
-					continue;
-				}
-
-				boolean isInstantGmaulCheck = entry.isGmaulSpecial() && hitsplatMatchTick == tickToProcess;
-				boolean isDelayedAttack = !isInstantGmaulCheck;
-
-				// Only try to match if it's either an instant GMaul or a delayed attack landing now
-				if (isInstantGmaulCheck || isDelayedAttack)
-				{
-					int matchedThisCycle = 0;
-					int damageThisCycle = 0;
-					HitsplatInfo lastMatchedInfo = null;
-					Iterator<HitsplatInfo> hitsIter = hits.iterator();
-
-					// Gmaul can hit twice, others match expected hits
-					int hitsToFind = entry.isGmaulSpecial() ? 2 : toMatch;
-
-					// Enforce Dragon Claws 2+2 sequencing: limit phase one to two hits
-					if (entry.getAnimationData() == AnimationData.MELEE_DRAGON_CLAWS_SPEC && entry.getMatchedHitsCount() < 2)
-					{
-						int remainingPhase1 = Math.max(0, 2 - entry.getMatchedHitsCount());
-						hitsToFind = Math.min(hitsToFind, remainingPhase1);
-					}
-
-					// Simple double-GMaul gate: if a different special fired on the previous tick, cap to a single hit
-					if (entry.isGmaulSpecial())
-					{
-						String attackerName = attacker.getName();
-						if (attackerName != null)
-						{
-							Integer lastSpec = lastNonGmaulSpecTickByAttacker.get(attackerName);
-							if (lastSpec != null && lastSpec == hitsplatMatchTick - 1)
-							{
-								hitsToFind = Math.min(hitsToFind, 1);
-							}
-						}
-					}
-
-					while (matchedThisCycle < hitsToFind && hitsIter.hasNext())
-					{
-						HitsplatInfo hInfo = hitsIter.next();
-						int amt = hInfo.getEvent().getHitsplat().getAmount();
-						damageThisCycle += amt;
-						matchedThisCycle++;
-						lastMatchedInfo = hInfo;
-						hitsIter.remove();
-					}
-
-					if (matchedThisCycle > 0)
-					{
-						entry.setActualDamageSum(entry.getActualDamageSum() + damageThisCycle);
-						entry.setMatchedHitsCount(entry.getMatchedHitsCount() + matchedThisCycle);
-						processedEntriesThisTick.add(entry);
-
-						if (entry.isGmaulSpecial())
-						{
-							gmaulsMatchedThisTick.add(entry);
-							totalGmaulHitsMatchedThisTick += matchedThisCycle;
-						}
-
-						if (entry.getHitsplatTick() < 0 && lastMatchedInfo != null)
-						{
-							entry.setHitsplatTick(tickToProcess);
-						}
-
-						// Calculate and set estimated HP Before using polled HP
-						int ratio = -1, scale = -1;
-						if (lastMatchedInfo != null)
-						{
-							ratio = lastMatchedInfo.getHealthRatio();
-							scale = lastMatchedInfo.getHealthScale();
-						}
-						// Fallback to current ratio/scale if polled is unavailable
-						if (ratio < 0 || scale <= 0) { ratio = opponent.getHealthRatio(); scale = opponent.getHealthScale(); }
-						int hpBefore = -1;
-						int hpBeforeThisCycle = -1;
-						if (ratio >= 0 && scale > 0 && maxHpToUse > 0)
-						{
-							hpBefore = PvpUtils.calculateHpBeforeHit(ratio, scale, maxHpToUse, entry.getActualDamageSum());
-							hpBeforeThisCycle = PvpUtils.calculateHpBeforeHit(ratio, scale, maxHpToUse, damageThisCycle);
-						}
-						if (hpBefore > 0)
-						{
-							entry.setEstimatedHpBeforeHit(hpBefore);
-							entry.setOpponentMaxHp(maxHpToUse);
-						}
-
-						if (entry.getAnimationData() == AnimationData.MELEE_DRAGON_CLAWS_SPEC)
-						{
-							int matched = entry.getMatchedHitsCount();
-							if (matched == 2 && entry.getClawsHpBeforePhase1() == null && hpBeforeThisCycle > 0)
-							{
-								entry.setClawsHpBeforePhase1(hpBeforeThisCycle);
-								entry.setClawsPhase1Damage(damageThisCycle);
-								entry.setClawsHpAfterPhase1(hpBeforeThisCycle - damageThisCycle);
-							}
-							if (matched >= entry.getExpectedHits() && entry.getClawsHpBeforePhase2() == null && hpBeforeThisCycle > 0)
-							{
-								entry.setClawsHpBeforePhase2(hpBeforeThisCycle);
-							}
-						}
-						else if (entry.getAnimationData() == AnimationData.RANGED_DARK_BOW ||
-							entry.getAnimationData() == AnimationData.RANGED_DARK_BOW_SPEC)
-						{
-							int matchedAfter = entry.getMatchedHitsCount();
-							int matchedBefore = matchedAfter - matchedThisCycle;
-
-							if (matchedBefore == 0 && matchedThisCycle >= 2)
-							{
-								entry.setDarkBowHitsStacked(true);
-								if (entry.getDarkBowHpBeforeHit1() == null && hpBeforeThisCycle > 0)
-								{
-									entry.setDarkBowHpBeforeHit1(hpBeforeThisCycle);
-								}
-							}
-							else
-							{
-								if (matchedAfter >= 1 && entry.getDarkBowHpBeforeHit1() == null && hpBeforeThisCycle > 0)
-								{
-									entry.setDarkBowHpBeforeHit1(hpBeforeThisCycle);
-									entry.setDarkBowHpAfterHit1(hpBeforeThisCycle - damageThisCycle);
-								}
-								if (matchedAfter >= entry.getExpectedHits() && entry.getDarkBowHpBeforeHit2() == null && hpBeforeThisCycle > 0)
-								{
-									entry.setDarkBowHpBeforeHit2(hpBeforeThisCycle);
-								}
-							}
-						}
-					}
-				}
-
-				// Mark entry as fully processed if all expected hits are matched OR if it's an instant Gmaul (even if only 1 hit matched)
-				if (entry.getMatchedHitsCount() >= entry.getExpectedHits() || isInstantGmaulCheck)
-				{
-					entry.setKoChanceCalculated(true);
-					attacker.getPendingAttacks().remove(entry);
-				}
-			}
-
-			// Gmaul Damage Scaling (Applied after all matching for the tick)
-			boolean isMultiHitGmaul = totalGmaulHitsMatchedThisTick >= 2;
-			if (isMultiHitGmaul)
-			{
-				for (FightLogEntry gmaulEntry : gmaulsMatchedThisTick)
-				{
-					int originalMin = gmaulEntry.getMinHit();
-					int originalMax = gmaulEntry.getMaxHit();
-					double originalExpected = gmaulEntry.getExpectedDamage();
-					gmaulEntry.setMaxHit(originalMax * totalGmaulHitsMatchedThisTick);
-					gmaulEntry.setMinHit(originalMin * totalGmaulHitsMatchedThisTick);
-					gmaulEntry.setExpectedDamage(originalExpected * totalGmaulHitsMatchedThisTick);
-				}
-			}
-		});
-
-		// Post-processing for Display HP/KO Chance
-		if (!processedEntriesThisTick.isEmpty())
-		{
-			// Group processed entries by the tick they landed and the attacker
-			Map<Integer, Map<String, List<FightLogEntry>>> groupedByTickAndAttacker = processedEntriesThisTick.stream()
-				.filter(e -> e.getHitsplatTick() >= 0)
-				.collect(Collectors.groupingBy(
-					FightLogEntry::getHitsplatTick,
-					Collectors.groupingBy(
-						FightLogEntry::getAttackerName,
-						Collectors.toList()
-					)
-				));
-
-			groupedByTickAndAttacker.forEach((tick, attackerMap) -> {
-				attackerMap.forEach((attackerName, entries) -> {
-					if (entries.isEmpty()) return;
-
-					// Sort entries within the tick group by their original animation tick
-					entries.sort(Comparator.comparingInt(FightLogEntry::getTick));
-
-					boolean isGroup = entries.size() > 1;
-
-					// Calculate Correct Starting HP for Forward Cascade
-					Integer hpBeforeSequence = null;
-					FightLogEntry lastEntry = entries.get(entries.size() - 1);
-					Integer hpBeforeLastHit = lastEntry.getEstimatedHpBeforeHit();
-					Integer lastHitDamage = lastEntry.getActualDamageSum();
-
-					// Ensure we have the necessary values from the last hit to calculate final HP
-					if (hpBeforeLastHit != null && lastHitDamage != null)
-					{
-						Integer hpAfterSequence = hpBeforeLastHit - lastHitDamage;
-
-						// Calculate total damage for the sequence
-						int totalDamageInSequence = entries.stream()
-							.mapToInt((FightLogEntry e) -> e.getActualDamageSum() != null ? e.getActualDamageSum() : 0)
-							.sum();
-
-						// Calculate HP Before the entire sequence
-						hpBeforeSequence = hpAfterSequence + totalDamageInSequence;
-					}
-
-					// If hpBeforeSequence is still null (calculation failed), try fallback using first entry's estimate
-					if (hpBeforeSequence == null)
-					{
-						hpBeforeSequence = entries.get(0).getEstimatedHpBeforeHit();
-					}
-
-					// Forward Cascade for Display
-					Integer currentHp = hpBeforeSequence;
-					for (FightLogEntry entry : entries)
-					{
-						Integer hpBeforeCurrent = currentHp;
-						int damageCurrent = entry.getActualDamageSum() != null ? entry.getActualDamageSum() : 0;
-						Integer hpAfterCurrent = (hpBeforeCurrent != null) ? hpBeforeCurrent - damageCurrent : null;
-
-						entry.setDisplayHpBefore(hpBeforeCurrent);
-						entry.setDisplayHpAfter(hpAfterCurrent);
-
-						Double koChanceCurrent = null;
-						boolean isClawsSpec = entry.getAnimationData() == AnimationData.MELEE_DRAGON_CLAWS_SPEC && entry.getExpectedHits() >= 4;
-						boolean isDarkBow = entry.getAnimationData() == AnimationData.RANGED_DARK_BOW ||
-							entry.getAnimationData() == AnimationData.RANGED_DARK_BOW_SPEC;
-						if (isClawsSpec)
-						{
-							if (hpBeforeCurrent != null && entry.getMatchedHitsCount() >= entry.getExpectedHits())
-							{
-								int healBetween = 0;
-								Integer hpAfterP1 = entry.getClawsHpAfterPhase1();
-								Integer hpBeforeP2 = entry.getClawsHpBeforePhase2();
-								if (hpAfterP1 != null && hpBeforeP2 != null)
-								{
-									healBetween = Math.max(0, hpBeforeP2 - hpAfterP1);
-								}
-								koChanceCurrent = PvpUtils.calculateClawsTwoPhaseKo(entry.getAccuracy(), entry.getMaxHit(), hpBeforeCurrent, healBetween);
-							}
-						}
-						else if (isDarkBow)
-						{
-							if (hpBeforeCurrent != null && entry.getMatchedHitsCount() >= entry.getExpectedHits())
-							{
-								int healBetween = 0;
-								if (!entry.isDarkBowHitsStacked())
-								{
-									Integer hpAfterHit1 = entry.getDarkBowHpAfterHit1();
-									Integer hpBeforeHit2 = entry.getDarkBowHpBeforeHit2();
-									if (hpAfterHit1 != null && hpBeforeHit2 != null)
-									{
-										healBetween = Math.max(0, hpBeforeHit2 - hpAfterHit1);
-									}
-								}
-								koChanceCurrent = PvpUtils.calculateDarkBowTwoPhaseKo(
-									entry.getAccuracy(),
-									entry.getMinHit(),
-									entry.getMaxHit(),
-									hpBeforeCurrent,
-									healBetween
-								);
-							}
-						}
-							else
-							{
-								if (hpBeforeCurrent != null)
-								{
-									switch (entry.getDamageRollDistribution())
-									{
-										case CLAMPED_TO_MINIMUM:
-											koChanceCurrent = PvpUtils.calculateClampedKoChance(
-												entry.getAccuracy(),
-												entry.getMinHit(),
-												entry.getMaxHit(),
-												hpBeforeCurrent
-											);
-											break;
-										case MULTI_HIT_CLAMPED_TO_MINIMUM:
-											koChanceCurrent = PvpUtils.calculateMultiHitClampedKoChance(
-												entry.getAccuracy(),
-												entry.getMinHit(),
-												entry.getMaxHit(),
-												entry.getDamageRollHitCount(),
-												hpBeforeCurrent
-											);
-											break;
-										case STANDARD:
-										default:
-											koChanceCurrent = PvpUtils.calculateKoChance(
-												entry.getAccuracy(),
-												entry.getMinHit(),
-												entry.getMaxHit(),
-												hpBeforeCurrent
-											);
-											break;
-									}
-								}
-							}
-
-						if (koChanceCurrent != null && koChanceCurrent <= 0.0)
-						{
-							koChanceCurrent = null;
-						}
-
-						entry.setDisplayKoChance(koChanceCurrent);
-						entry.setKoChance(koChanceCurrent);
-
-						currentFight.updateKoChanceStats(entry);
-
-						entry.setPartOfTickGroup(isGroup);
+	@Subscribe
+	// track inventory changes (brews, food, switches) only when the inventory actually changed, rather than every tick
+	public void onItemContainerChanged(ItemContainerChanged event)
+	{
+		if (!hasOpponent() || event.getContainerId() != InventoryID.INVENTORY.getId()) { return; }
 
-						// Update HP for the next iteration
-						currentHp = hpAfterCurrent;
-				}
-				});
-			});
+		List<FightRegistry.TrackedFight> fights = fightRegistry.getFights();
+		for (int i = 0; i < fights.size(); i++)
+		{
+			fights.get(i).getFight().updateInventory(client.getTickCount(), event.getItemContainer());
 		}
-
-		// Cleanup old entries from buffers at the end of the tick processing
-		hitsplatBuffer.keySet().removeIf(tick -> tick < currentTick - maxWindow);
-		incomingHitsplatsBuffer.keySet().removeIf(tick -> tick < currentTick - maxWindow);
 	}
 
 	@Subscribe
@@ -1261,44 +930,14 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		Player despawned = event.getPlayer();
 		if (despawned == null || despawned.getName() == null) { return; }
 
-		if (currentFight == null || currentFight.getOpponent() == null) { return; }
-		String opponentName = currentFight.getOpponent().getName();
-		if (opponentName == null) { return; }
+		FightRegistry.TrackedFight trackedFight = fightRegistry.get(despawned.getName());
+		if (trackedFight == null) { return; }
+		FightPerformance fight = trackedFight.getFight();
 
 		// End fight when opponent despawns after a death was observed on either side
-		if (despawned.getName().equals(opponentName) && (currentFight.getOpponent().isDead() || currentFight.getCompetitor().isDead()))
-		{
-			onFightEnded();
-		}
-	}
-
-	public void recordNonGmaulSpecial(String attackerName, int tick)
-	{
-		if (attackerName == null)
-		{
-			return;
-		}
-		lastNonGmaulSpecTickByAttacker.put(attackerName, tick);
-	}
-
-	private int getHitsplatMatchTick(FightLogEntry entry)
-	{
-		return entry.getHitsplatMatchTick() >= 0 ? entry.getHitsplatMatchTick() : entry.getTick();
-	}
-
-	private int getAttackLookback(FightLogEntry entry)
-	{
-		switch (entry.getAnimationData().attackStyle)
+		if (fight.getOpponent().isDead() || fight.getCompetitor().isDead())
 		{
-			case STAB:
-			case SLASH:
-			case CRUSH:
-				return 3;
-			case MAGIC:
-				return 6;
-			case RANGED:
-			default:
-				return 4;
+			onFightEnded(trackedFight);
 		}
 	}
 
@@ -1349,54 +988,132 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		boolean oldIs1_7to1_8_2 = oldVersion.startsWith("1.7.") || List.of("1.8.0", "1.8.1", "1.8.2").contains(oldVersion);
 		if (oldIs1_7to1_8_2)
 		{
-			// force-change default maxRenderedFights 200 -> 30, most people probably dont even need 30,
-			// with how the rendered vs. saved fights work its totally unnecessary to have 200
-			configManager.setConfiguration(CONFIG_KEY, "fightHistoryRenderLimit", 30);
-
 			FightPerformanceSerializer.updateFrom1_8_1to1_8_2();
 		}
 
+		// the fight history panel only builds the fights in view now, so the render limit config was removed.
+		configManager.unsetConfiguration(CONFIG_KEY, "fightHistoryRenderLimit");
+
 		configManager.setConfiguration(CONFIG_KEY, "pluginVersion", PLUGIN_VERSION);
 	}
 
+	private void startFightEventRecording()
+	{
+		if (fightEventRecorder != null)
+		{
+			return;
+		}
+
+		try
+		{
+			fightEventRecorder = FightEventRecorder.createRecordingFile();
+		}
+		catch (IOException e)
+		{
+			log.warn("Could not start recording fight events", e);
+		}
+	}
+
+	private void stopFightEventRecording()
+	{
+		if (fightEventRecorder == null)
+		{
+			return;
+		}
+
+		log.info("Stopped recording fight events after {} records", fightEventRecorder.getRecordCount());
+		fightEventRecorder.close();
+		fightEventRecorder = null;
+	}
+
 	// Returns true if the player has an opponent.
 	private boolean hasOpponent()
 	{
-		return currentFight != null;
+		return !fightRegistry.isEmpty();
 	}
 
+	// Returns true if the player has an opponent, or a pending opponent whose fight isn't started yet.
+	private boolean hasPotentialOpponent()
+	{
+		return hasOpponent() || fightRegistry.hasPendingOpponents();
+	}
 
-	private void checkForFightEnd()
+	// the fight displayed by the overlay: the one with the latest attack, or the newest one if none have started
+	public FightPerformance getCurrentFight()
 	{
-		if (!hasOpponent()) { return; }
+		FightRegistry.TrackedFight primary = fightRegistry.getPrimary();
+		return primary != null ? primary.getFight() : null;
+	}
+
+	// the fight against the local player's current target, or the current fight if they aren't targeting an opponent
+	private FightPerformance getLocalTargetFight()
+	{
+		Actor interacting = client.getLocalPlayer() != null ? client.getLocalPlayer().getInteracting() : null;
+		FightRegistry.TrackedFight trackedFight = interacting != null ? fightRegistry.get(interacting.getName()) : null;
+		return trackedFight != null ? trackedFight.getFight() : getCurrentFight();
+	}
+
+	private void updateOverlayFight()
+	{
+		FightPerformance fight = getCurrentFight();
+		if (fight != null && fight != overlayFight)
+		{
+			overlayFight = fight;
+			overlay.setFight(fight);
+		}
+	}
+
+	private void checkForFightEnds()
+	{
+		// walk backwards since ended fights are removed from the list
+		List<FightRegistry.TrackedFight> fights = fightRegistry.getFights();
+		for (int i = fights.size() - 1; i >= 0; i--)
+		{
+			checkForFightEnd(fights.get(i));
+		}
+	}
+
+	private void checkForFightEnd(FightRegistry.TrackedFight trackedFight)
+	{
+		FightPerformance fight = trackedFight.getFight();
 
 		// ensure we check for death animations so that Fighter.isDead gets set properly, but we don't need to
 		// use the state of deaths for ending fights YET (not instantly), we do that within onPlayerDespawned
 		// in order to give everything time to process and allow time to check for double deaths, hitsplats etc
-		currentFight.checkForDeathAnimations();
+		if (fightEventRecorder != null)
+		{
+			fightEventRecorder.recordFightEndCheck(client.getTickCount(), fight);
+		}
+		fight.checkForDeathAnimations();
 
-		// if the fight has been inactive for 20+ secs however (FightPerformance.NEW_FIGHT_DELAY, plus however long
-		// until they triggered an event for this check), just end it.
-		if (currentFight.isInactive())
+		// if the fight has been inactive for 20+ secs however (FightPerformance.NEW_FIGHT_DELAY, plus up to a tick
+		// until the next check), just end it.
+		if (fight.isInactive())
 		{
-			onFightEnded();
+			onFightEnded(trackedFight);
 		}
 	}
 
-	private void onFightEnded()
+	private void onFightEnded(FightRegistry.TrackedFight trackedFight)
 	{
+		FightPerformance fight = trackedFight.getFight();
+		if (fightEventRecorder != null)
+		{
+			fightEventRecorder.recordFightEnd(client.getTickCount(), trackedFight.getOpponentName());
+		}
+
 		// add fight to fight history if it actually started
-		if (currentFight.fightStarted())
+		if (fight.fightStarted())
 		{
-			currentFight.recordEndingInventorySnapshot();
-			currentFight.makeLogTicksRelativeToFightStart();
-			addToFightHistory(currentFight);
+			fight.recordEndingInventorySnapshot();
+			fight.makeLogTicksRelativeToFightStart();
+			addToFightHistory(fight);
 
 			// Upload to PvP-Hub if enabled and a fight ID was generated
-			if (CONFIG.uploadFightsToPvpHub() && currentFight.getFightId() != null
-					&& !currentFight.getFightId().isEmpty())
+			if (CONFIG.uploadFightsToPvpHub() && fight.getFightId() != null
+					&& !fight.getFightId().isEmpty())
 			{
-				final FightPerformance fightToUpload = currentFight;
+				final FightPerformance fightToUpload = fight;
 				final String hiddenName = config.hideRsnOnPvpHub() ? getPvpHubHiddenName() : null;
 				fightToUpload.recordPvpHubUploadName(hiddenName != null ? hiddenName : fightToUpload.getCompetitor().getName());
 				executor.schedule(() ->
@@ -1421,7 +1138,7 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 				if (userHasLeaderboard)
 				{
 					Map<String, Object> fightsToSend = Map.ofEntries(
-						entry("fight", GSON.toJson(currentFight))
+						entry("fight", GSON.toJson(fight))
 					);
 					eventBus.post(new PluginMessage("PvPLeaderboard", "onFightEnded", fightsToSend));
 				}
@@ -1431,9 +1148,8 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 				log.warn("onFightEnded - error while sending PluginMessage containing fight data for PvP Leaderboard.");
 			}
 		}
-		currentFight = null;
-		hitsplatBuffer.clear();
-		incomingHitsplatsBuffer.clear();
+		fightRegistry.remove(trackedFight);
+		updateOverlayFight();
 	}
 
 	// add fight to loaded fight history
@@ -1442,6 +1158,8 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		if (fight == null) { return; }
 		fightHistory.addLast(fight);
 		sessionFightHistory.addLast(fight);
+		FightPerformanceSerializer.queueSessionFight(fight);
+		scheduleSessionAutosave();
 		// no need to sort, since they sort chronologically, but they should automatically be added that way.
 		try {
 			fight.calculateRobeHits(config.robeHitFilter());
@@ -1457,7 +1175,7 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		// remove fights as necessary to respect the fightHistoryLimit.
 		while (config.fightHistoryLimit() > 0 && fightHistory.size() > config.fightHistoryLimit())
 		{
-			fightHistory.removeFirst();
+			panel.removeFight(fightHistory.removeFirst());
 		}
 
 		// unlikely to happen for the sessionFightHistory, but do the same limit validation to it.
@@ -1469,6 +1187,19 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		panel.addFight(fight);
 	}
 
+	// save the queued session fights on the executor once SESSION_AUTOSAVE_DELAY_MILLIS has passed since the first
+	// unsaved fight ended. Fights ending in the meantime join the same batch & chunk instead of each writing a file.
+	private void scheduleSessionAutosave()
+	{
+		if (sessionAutosave != null && !sessionAutosave.isDone())
+		{
+			return;
+		}
+
+		sessionAutosave = executor.schedule(FightPerformanceSerializer::serializeSessionFightHistory,
+			SESSION_AUTOSAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
 	private void enqueuePvpHubSync(FightPerformance fight)
 	{
 		if (fight == null || fight.getFightId() == null || fight.getFightId().trim().isEmpty() || fight.hasPvpHubSyncedFight())
@@ -1595,9 +1326,9 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 					f.getPvpHubDisplayFight().calculateRobeHits(config.robeHitFilter());
 				}
 			}
-			if (currentFight != null)
+			for (FightRegistry.TrackedFight trackedFight : fightRegistry.getFights())
 			{
-				currentFight.calculateRobeHits(config.robeHitFilter());
+				trackedFight.getFight().calculateRobeHits(config.robeHitFilter());
 			}
 			if (rebuildPanel)
 			{
@@ -1613,8 +1344,9 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 	public void initializeImportedFight(FightPerformance f)
 	{
 		// check for nulls in case the data was corrupted and entries are corrupted.
+		// fights loaded from the summary index don't have their fight logs, they're loaded when they're needed.
 		if (f.getCompetitor() == null || f.getOpponent() == null ||
-			f.getCompetitor().getFightLogEntries() == null || f.getOpponent().getFightLogEntries() == null)
+			(!f.hasFightLogs() && f.getSavedSummary() == null))
 		{
 			return;
 		}
@@ -1641,7 +1373,114 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		}
 	}
 
-	// process and add a list of deserialized json fights to the currently loaded fights
+	// read saved fights in the background, adding them to the fight history on the client thread as they're loaded.
+	// chunks come in newest first. The chunks loaded since the last rebuild are imported & rebuilt together,
+	// at most every FIGHT_HISTORY_LOAD_REBUILD_DELAY_MILLIS, so the panel isn't rebuilt for every chunk.
+	private void loadFightHistory()
+	{
+		cancelFightHistoryLoad();
+
+		fightHistoryLoader = new FightHistoryLoader(this::initializeImportedFight, new FightHistoryLoader.Listener()
+		{
+			@Override
+			public void onChunkLoaded(FightHistoryLoader loader, List<FightPerformance> fights, int loadedChunks, int totalChunks)
+			{
+				clientThread.invokeLater(() ->
+				{
+					if (loader != fightHistoryLoader || loader.isCancelled())
+					{
+						return;
+					}
+
+					pendingLoadedFights.addAll(fights);
+					panel.setFightHistoryLoadProgress(loadedChunks, totalChunks);
+
+					long now = System.currentTimeMillis();
+					if (now - lastFightHistoryLoadRebuildMillis >= FIGHT_HISTORY_LOAD_REBUILD_DELAY_MILLIS)
+					{
+						lastFightHistoryLoadRebuildMillis = now;
+						importPendingLoadedFights();
+						panel.enqueueRebuild(true);
+					}
+				});
+			}
+
+			@Override
+			public void onLoadFinished(FightHistoryLoader loader, int totalChunks)
+			{
+				clientThread.invokeLater(() ->
+				{
+					if (loader != fightHistoryLoader || loader.isCancelled())
+					{
+						return;
+					}
+
+					fightHistoryLoader = null;
+					importPendingLoadedFights();
+					panel.setFightHistoryLoadProgress(totalChunks, totalChunks);
+					panel.enqueueRebuild(true);
+
+					// now that the chunks were read, re-write the ones with fights removed in the journal
+					executor.execute(FightPerformanceSerializer::compactFightJournal);
+				});
+			}
+		});
+		fightHistoryLoader.start();
+	}
+
+	// add the fights of every chunk loaded since the last rebuild to the fight history, as a single merge.
+	private void importPendingLoadedFights()
+	{
+		if (pendingLoadedFights.isEmpty()) { return; }
+
+		importFights(new ArrayList<>(pendingLoadedFights));
+		pendingLoadedFights.clear();
+	}
+
+	// stop loading the fight history, any chunks that were not yet added are dropped.
+	private void cancelFightHistoryLoad()
+	{
+		if (fightHistoryLoader == null) { return; }
+
+		fightHistoryLoader.cancel();
+		fightHistoryLoader = null;
+		pendingLoadedFights.clear();
+		if (panel != null)
+		{
+			panel.setFightHistoryLoadProgress(0, 0);
+		}
+	}
+
+	// re-calculate the expected damage of every loaded fight with the current config, in the background.
+	// a recalculation that is still running is restarted, so quick successive config changes only apply once.
+	private void recalculateFightHistory()
+	{
+		clientThread.invokeLater(() ->
+		{
+			if (fightHistoryRecalculator != null)
+			{
+				fightHistoryRecalculator.start(new ArrayList<>(fightHistory));
+			}
+		});
+	}
+
+	// apply all of the recalculated fights at once, then rebuild the panel & total stats with them.
+	private void onFightHistoryRecalculated(int generation, List<FightHistoryRecalculator.Result> results)
+	{
+		clientThread.invokeLater(() ->
+		{
+			if (fightHistoryRecalculator == null || !fightHistoryRecalculator.isLatest(generation))
+			{
+				return;
+			}
+
+			results.forEach(FightHistoryRecalculator.Result::apply);
+			panel.enqueueRebuild();
+		});
+	}
+
+	// process and add a list of deserialized json fights to the currently loaded fights.
+	// fights should already be initialized with initializeImportedFight.
 	// can throw NullPointerException if some of the serialized data is corrupted
 	void importFights(List<FightPerformance> fights) throws NullPointerException
 	{
@@ -1649,18 +1488,33 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 
 		fights.removeIf(Objects::isNull);
 		fights.sort(FightPerformance::compareTo); // ensure sorted by date, though this should happen automatically as well
-		fightHistory.addAll(fights);
 
-		// remove fights to respect the fightHistoryLimit if we're above it.
-		while (config.fightHistoryLimit() > 0 && fightHistory.size() > config.fightHistoryLimit())
+		// fights are imported a chunk at a time, and new fights can be added in between, so merge them
+		// into the already sorted history instead of appending them.
+		ArrayList<FightPerformance> mergedHistory = new ArrayList<>(fightHistory.size() + fights.size());
+		Iterator<FightPerformance> loadedFights = fightHistory.iterator();
+		FightPerformance nextLoaded = loadedFights.hasNext() ? loadedFights.next() : null;
+		for (FightPerformance importedFight : fights)
 		{
-			fightHistory.removeFirst();
+			while (nextLoaded != null && nextLoaded.compareTo(importedFight) <= 0)
+			{
+				mergedHistory.add(nextLoaded);
+				nextLoaded = loadedFights.hasNext() ? loadedFights.next() : null;
+			}
+			mergedHistory.add(importedFight);
+		}
+		while (nextLoaded != null)
+		{
+			mergedHistory.add(nextLoaded);
+			nextLoaded = loadedFights.hasNext() ? loadedFights.next() : null;
 		}
+		fightHistory.clear();
+		fightHistory.addAll(mergedHistory);
 
-		// set fight log names since they aren't serialized but are on the parent class
-		for (FightPerformance f : fightHistory)
+		// remove fights to respect the fightHistoryLimit if we're above it.
+		while (config.fightHistoryLimit() > 0 && fightHistory.size() > config.fightHistoryLimit())
 		{
-			initializeImportedFight(f);
+			fightHistory.removeFirst();
 		}
 	}
 
@@ -1679,8 +1533,13 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 	{
 		clientThread.invokeLater(() ->
 		{
+			// don't keep adding saved fights while they're being removed
+			cancelFightHistoryLoad();
+
 			if (deletePermanently)
 			{
+				// unsaved favorites were already written to their own file, so none of the queued fights are kept.
+				FightPerformanceSerializer.clearSessionFightQueue();
 				FightPerformanceSerializer.removeAllFights(deleteFavorites);
 			}
 			else // if we're just hiding the fights temporarily (as opposed to deleting permanently), we should save
@@ -1722,22 +1581,20 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		{
 			if (deletePermanently)
 			{
-				// if the fight wasn't loaded from a file, it won't have its fileName set to find where to delete/update,
-				// so this won't really do anything. Don't have to do much validation outside this call.
-				FightPerformanceSerializer.removeFight(fight, fight.getLoadedFromFname());
-				// if the fight wasn't loaded from a file, then it's in the current session history, and we have to
-				// remove it from there, or it will get saved next time we write.
-				if (!fight.isSavedToFile())
+				// if the fight wasn't saved yet, it's still queued in the session fights to save, and we have to
+				// remove it from there, or it will get saved next time we write. Otherwise, delete/update its file.
+				if (!FightPerformanceSerializer.unqueueSessionFight(fight))
 				{
-					sessionFightHistory.remove(fight);
+					FightPerformanceSerializer.removeFight(fight, fight.getLoadedFromFname());
 				}
+				sessionFightHistory.remove(fight);
 			}
-			// if we aren't deleting permanently, then don't remove from sessionFightHistory, as those
+			// if we aren't deleting permanently, then leave unsaved fights queued, as they
 			// aren't saved to file yet and would inadvertently be deleted permanently
 
 			// remove fight from the total/global loaded fightHistory regardless
 			fightHistory.remove(fight);
-			panel.enqueueRebuild();
+			panel.removeFight(fight);
 		});
 	}
 
@@ -1795,7 +1652,20 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 	public void exportFightAsJson(FightPerformance fight)
 	{
 		if (fight == null) { return; }
-		String fightDataJson = GSON.toJson(fight, FightPerformance.class);
+		// saved fights may have had their fight logs released, read them back just for the export.
+		boolean acquiredFightLogs = fight.acquireFightLogs();
+		String fightDataJson;
+		try
+		{
+			fightDataJson = GSON.toJson(fight, FightPerformance.class);
+		}
+		finally
+		{
+			if (acquiredFightLogs)
+			{
+				fight.releaseAcquiredFightLogs();
+			}
+		}
 		final StringSelection contents = new StringSelection(fightDataJson);
 		Toolkit.getDefaultToolkit().getSystemClipboard().setContents(contents, null);
 
@@ -1885,6 +1755,63 @@ public class PvpPerformanceTrackerPlugin extends Plugin
 		addSpriteToLabelIfValid(label, spriteId, null);
 	}
 
+	// for components that look sprites up when painted, e.g. table renderers, rather than holding their own label:
+	// returns the sprite's icon if it's in the sprite cache, otherwise returns null and loads it into the cache,
+	// running swingCallback once it's loaded. Invalid or missing sprites use the DEFAULT_NONE_SYMBOL.
+	// Only call from the swing thread.
+	public ImageIcon getCachedSpriteIcon(int spriteId, Runnable swingCallback)
+	{
+		if (spriteId <= 0 || missingSprites.contains(spriteId))
+		{
+			return DEFAULT_NONE_SYMBOL != null ? new ImageIcon(DEFAULT_NONE_SYMBOL) : null;
+		}
+
+		ImageIcon icon = spriteCache.get(spriteId);
+		if (icon != null)
+		{
+			return icon;
+		}
+
+		// only load each sprite once, even if many cells are waiting for it
+		List<Runnable> callbacks = pendingSpriteLoads.get(spriteId);
+		if (callbacks != null)
+		{
+			if (swingCallback != null)
+			{
+				callbacks.add(swingCallback);
+			}
+			return null;
+		}
+		callbacks = new ArrayList<>();
+		if (swingCallback != null)
+		{
+			callbacks.add(swingCallback);
+		}
+		pendingSpriteLoads.put(spriteId, callbacks);
+
+		clientThread.invokeLater(() ->
+		{
+			BufferedImage sprite = spriteManager.getSprite(spriteId, 0);
+			if (sprite != null)
+			{
+				spriteCache.put(spriteId, new ImageIcon(sprite));
+			}
+			SwingUtilities.invokeLater(() ->
+			{
+				if (sprite == null)
+				{
+					missingSprites.add(spriteId);
+				}
+				List<Runnable> loadedCallbacks = pendingSpriteLoads.remove(spriteId);
+				if (loadedCallbacks != null)
+				{
+					loadedCallbacks.forEach(Runnable::run);
+				}
+			});
+		});
+		return null;
+	}
+
 	// if verifyId is true, takes in itemId directly from PlayerComposition
 	// otherwise, assume valid itemId
 	public void addItemToLabelIfValid(JLabel label, int itemId, boolean verifyId, Runnable swingCallback, String tooltipOverride, boolean includeItemIdOnTooltip)
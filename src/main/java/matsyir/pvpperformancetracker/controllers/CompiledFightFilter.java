@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import joptsimple.internal.Strings;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A fight filter parsed once into a tree of terms, rather than re-parsing the filter text for every fight.
+ *
+ * Terms can be combined: '&' requires every term to match, '|' requires any of them to match, with '&' binding
+ * tighter. For example, "::kill & ::world=330 | ::double" shows kills on world 330, along with every double-death.
+ * Each term on its own works like the whole filter used to, see FightPerformanceFilter.
+ *
+ * Terms which can be looked up in a FightFilterIndex (names, worlds, fight types, dates & border styles) only
+ * evaluate the fights found by the index.
+ */
+@Slf4j
+public final class CompiledFightFilter
+{
+	public static final String AND = "&";
+	public static final String OR = "|";
+	private static final Pattern AND_SPLITTER = Pattern.compile(Pattern.quote(AND));
+	private static final Pattern OR_SPLITTER = Pattern.compile(Pattern.quote(OR));
+
+	public static final CompiledFightFilter MATCH_ALL = new CompiledFightFilter("", null);
+	// matches no fight, e.g. for an invalid dynamic filter like '::atk>'
+	static final Term NONE = indexed(e -> false, index -> Collections.emptyList());
+
+	@Getter
+	private final String filter;
+	private final Term root; // null if every fight matches
+
+	private CompiledFightFilter(String filter, Term root)
+	{
+		this.filter = filter;
+		this.root = root;
+	}
+
+	public static CompiledFightFilter compile(String filter)
+	{
+		return compile(filter, FightPerformanceFilter::compileTerm);
+	}
+
+	static CompiledFightFilter compile(String filter, Function<String, Term> termCompiler)
+	{
+		// empty is a valid filter, it means display every fight - don't filter them
+		if (Strings.isNullOrEmpty(filter))
+		{
+			return MATCH_ALL;
+		}
+		String normalizedFilter = filter.trim().toLowerCase(Locale.ROOT);
+
+		List<Term> anyOf = new ArrayList<>();
+		for (String orPart : OR_SPLITTER.split(normalizedFilter))
+		{
+			List<Term> allOf = new ArrayList<>();
+			for (String term : AND_SPLITTER.split(orPart))
+			{
+				term = term.trim();
+				if (!term.isEmpty())
+				{
+					allOf.add(termCompiler.apply(term));
+				}
+			}
+
+			if (!allOf.isEmpty())
+			{
+				anyOf.add(allOf(allOf));
+			}
+		}
+
+		// no terms at all, e.g. only whitespace, or a lone '&' while typing
+		if (anyOf.isEmpty())
+		{
+			return MATCH_ALL;
+		}
+
+		return new CompiledFightFilter(normalizedFilter, anyOf(anyOf));
+	}
+
+	public boolean isMatchAll()
+	{
+		return root == null;
+	}
+
+	public boolean matches(FightFilterIndex.Entry entry)
+	{
+		if (root == null)
+		{
+			return true;
+		}
+
+		try
+		{
+			return root.matches(entry);
+		}
+		catch (Exception e)
+		{
+			log.debug("CompiledFightFilter.matches: error while matching fight with filter '" + filter + "': " + e.getMessage());
+			return false;
+		}
+	}
+
+	// the indexed fights which match this filter, in fight history order (oldest first).
+	public List<FightPerformance> select(FightFilterIndex index)
+	{
+		Collection<FightFilterIndex.Entry> candidates = root == null ? null : root.candidates(index);
+		boolean mayHaveDuplicates = candidates != null;
+		if (candidates == null)
+		{
+			candidates = index.getEntries();
+		}
+
+		List<FightFilterIndex.Entry> matching = new ArrayList<>();
+		Set<FightFilterIndex.Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (FightFilterIndex.Entry entry : candidates)
+		{
+			if ((!mayHaveDuplicates || seen.add(entry)) && matches(entry))
+			{
+				matching.add(entry);
+			}
+		}
+		matching.sort(Comparator.comparingInt(FightFilterIndex.Entry::getOrder));
+
+		List<FightPerformance> fights = new ArrayList<>(matching.size());
+		matching.forEach(e -> fights.add(e.getFight()));
+		return fights;
+	}
+
+	@Override
+	public String toString()
+	{
+		return filter;
+	}
+
+	// a term which can look up its candidate fights in the index
+	static Term indexed(Predicate<FightFilterIndex.Entry> matches, Function<FightFilterIndex, Collection<FightFilterIndex.Entry>> candidates)
+	{
+		return new Term()
+		{
+			@Override
+			public boolean matches(FightFilterIndex.Entry entry)
+			{
+				return matches.test(entry);
+			}
+
+			@Override
+			public Collection<FightFilterIndex.Entry> candidates(FightFilterIndex index)
+			{
+				return candidates.apply(index);
+			}
+		};
+	}
+
+	static Term anyOf(List<Term> terms)
+	{
+		if (terms.isEmpty())
+		{
+			return NONE;
+		}
+		if (terms.size() == 1)
+		{
+			return terms.get(0);
+		}
+
+		Term[] anyOf = terms.toArray(new Term[0]);
+		return new Term()
+		{
+			@Override
+			public boolean matches(FightFilterIndex.Entry entry)
+			{
+				for (Term term : anyOf)
+				{
+					if (term.matches(entry))
+					{
+						return true;
+					}
+				}
+				return false;
+			}
+
+			// every term's candidates, or null if any term isn't indexed
+			@Override
+			public Collection<FightFilterIndex.Entry> candidates(FightFilterIndex index)
+			{
+				List<FightFilterIndex.Entry> candidates = new ArrayList<>();
+				for (Term term : anyOf)
+				{
+					Collection<FightFilterIndex.Entry> termCandidates = term.candidates(index);
+					if (termCandidates == null)
+					{
+						return null;
+					}
+					candidates.addAll(termCandidates);
+				}
+				return candidates;
+			}
+		};
+	}
+
+	static Term allOf(List<Term> terms)
+	{
+		if (terms.size() == 1)
+		{
+			return terms.get(0);
+		}
+
+		Term[] allOf = terms.toArray(new Term[0]);
+		return new Term()
+		{
+			@Override
+			public boolean matches(FightFilterIndex.Entry entry)
+			{
+				for (Term term : allOf)
+				{
+					if (!term.matches(entry))
+					{
+						return false;
+					}
+				}
+				return true;
+			}
+
+			// the smallest of the terms' candidates: every other term is still checked by matches()
+			@Override
+			public Collection<FightFilterIndex.Entry> candidates(FightFilterIndex index)
+			{
+				Collection<FightFilterIndex.Entry> candidates = null;
+				for (Term term : allOf)
+				{
+					Collection<FightFilterIndex.Entry> termCandidates = term.candidates(index);
+					if (termCandidates != null && (candidates == null || termCandidates.size() < candidates.size()))
+					{
+						candidates = termCandidates;
+					}
+				}
+				return candidates;
+			}
+		};
+	}
+
+	@FunctionalInterface
+	public interface Term
+	{
+		boolean matches(FightFilterIndex.Entry entry);
+
+		// the only entries which could match this term, or null if it can't be looked up in the index.
+		// May contain duplicates.
+		default Collection<FightFilterIndex.Entry> candidates(FightFilterIndex index)
+		{
+			return null;
+		}
+	}
+}
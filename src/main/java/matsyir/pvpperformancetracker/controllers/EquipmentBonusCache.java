@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import lombok.Getter;
+import matsyir.pvpperformancetracker.models.RingData;
+import matsyir.pvpperformancetracker.utils.BoundedLruMap;
+
+/**
+ * Bounded LRU cache of total equipment bonuses, keyed by the equipment ids of a gear set plus the ring used.
+ * Players rarely swap more than a slot or two between attacks, so the same few gear sets get looked up over
+ * and over during a fight, for both the attacker & defender.
+ *
+ * Bonuses are calculated outside of the lock, so that lookups from other threads aren't blocked on the item stats
+ * lookups of a miss. Bonuses calculated while some item stats were unavailable are returned, but not cached.
+ * Synchronized, since the bonuses are also calculated outside the client thread (fight analysis, fight log).
+ */
+public class EquipmentBonusCache
+{
+	public static final int DEFAULT_MAX_SIZE = 256;
+
+	private final BiFunction<int[], RingData, EquipmentBonuses> bonusCalculator;
+	private final BoundedLruMap<GearKey, EquipmentBonuses> cache;
+	// re-used key for lookups so that cache hits don't allocate anything
+	private final GearKey lookupKey = new GearKey();
+
+	@Getter
+	private long hits;
+	@Getter
+	private long misses;
+
+	public EquipmentBonusCache(int maxSize, BiFunction<int[], RingData, EquipmentBonuses> bonusCalculator)
+	{
+		this.bonusCalculator = bonusCalculator;
+		this.cache = new BoundedLruMap<>(maxSize);
+	}
+
+	// returns the total bonuses for the given gear, calculating them on a miss.
+	public EquipmentBonuses get(int[] itemIds, RingData ringUsed)
+	{
+		synchronized (this)
+		{
+			lookupKey.set(itemIds, ringUsed);
+			EquipmentBonuses bonuses = cache.get(lookupKey);
+			if (bonuses != null)
+			{
+				hits++;
+				return bonuses;
+			}
+			misses++;
+		}
+
+		EquipmentBonuses bonuses = bonusCalculator.apply(itemIds, ringUsed);
+		if (!bonuses.isComplete())
+		{
+			return bonuses;
+		}
+
+		// another thread may have calculated the same gear in the meantime, keep whichever was cached first.
+		synchronized (this)
+		{
+			GearKey key = new GearKey();
+			key.set(itemIds.clone(), ringUsed);
+			EquipmentBonuses cached = cache.putIfAbsent(key, bonuses);
+			return cached != null ? cached : bonuses;
+		}
+	}
+
+	// store already known bonuses for a gear set, without calculating them.
+	public synchronized void put(int[] itemIds, RingData ringUsed, int[] bonuses)
+	{
+		GearKey key = new GearKey();
+		key.set(itemIds.clone(), ringUsed);
+		cache.put(key, new EquipmentBonuses(bonuses, true));
+	}
+
+	public synchronized int size()
+	{
+		return cache.size();
+	}
+
+	public synchronized double getHitRate()
+	{
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	public synchronized void clear()
+	{
+		cache.clear();
+		lookupKey.set(null, null);
+		hits = 0;
+		misses = 0;
+	}
+
+	// gear set key: the hash is computed once when the key is set, equals() still compares every id
+	// so that hash collisions between different gear sets can't return the wrong bonuses.
+	private static final class GearKey
+	{
+		private int[] itemIds;
+		private RingData ringUsed;
+		private int hash;
+
+		void set(int[] itemIds, RingData ringUsed)
+		{
+			this.itemIds = itemIds;
+			this.ringUsed = ringUsed;
+			this.hash = 31 * Arrays.hashCode(itemIds) + (ringUsed == null ? 0 : ringUsed.ordinal() + 1);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+			{
+				return true;
+			}
+			if (!(o instanceof GearKey))
+			{
+				return false;
+			}
+			GearKey other = (GearKey) o;
+			return hash == other.hash && ringUsed == other.ringUsed && Arrays.equals(itemIds, other.itemIds);
+		}
+	}
+}
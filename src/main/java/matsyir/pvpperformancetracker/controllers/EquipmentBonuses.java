@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * Immutable total equipment bonuses of a gear set, indexed like PvpDamageCalc's bonus constants
+ * (STAB_ATTACK, ..., MAGIC_DAMAGE). Cached instances are shared between every calculation using the same gear.
+ */
+public final class EquipmentBonuses
+{
+	private final int[] bonuses;
+	// false if the stats of the ring or an item couldn't be looked up, those bonuses are not cached.
+	@Getter
+	private final boolean complete;
+
+	public EquipmentBonuses(int[] bonuses, boolean complete)
+	{
+		this.bonuses = bonuses.clone();
+		this.complete = complete;
+	}
+
+	public int get(int index)
+	{
+		return bonuses[index];
+	}
+
+	// a modifiable copy of the bonuses
+	public int[] toArray()
+	{
+		return bonuses.clone();
+	}
+
+	@Override
+	public String toString()
+	{
+		return Arrays.toString(bonuses);
+	}
+}
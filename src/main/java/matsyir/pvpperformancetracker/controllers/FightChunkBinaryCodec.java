@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.GSON;
+
+/**
+ * Versioned binary encoding of fight history chunks, used instead of JSON for new chunks: it is several times
+ * smaller & faster to read, mostly because the same few gear sets are repeated in hundreds of fight log entries.
+ *
+ * Format (before gzip): MAGIC, VERSION, then
+ * - the gear set dictionary: every distinct attacker/defender gear array in the chunk's fight logs,
+ * - the enum name dictionary: the AnimationData/HeadIcon names used. Entries reference enums by their index in
+ *   this table rather than by ordinal, so adding enum values in later versions doesn't break older chunks,
+ * - the fights: each fight's JSON without its fight logs (few fields, which change more often), followed by
+ *   each fighter's fight logs. Ints are zigzag varints & ticks/times are deltas from the previous entry.
+ */
+public final class FightChunkBinaryCodec
+{
+	static final int MAGIC = 0x50565046; // "PVPF"
+	static final int VERSION = 1;
+
+	private static final int NO_ENTRIES = -1;
+	private static final int NONE = 0; // dictionary index of null gear/enums, others are index + 1
+
+	private FightChunkBinaryCodec() {}
+
+	// returns true if the stream starts with MAGIC. The stream has to support mark/reset, and is reset afterwards.
+	static boolean isBinaryChunk(InputStream in) throws IOException
+	{
+		in.mark(4);
+		try
+		{
+			int magic = 0;
+			for (int i = 0; i < 4; i++)
+			{
+				int b = in.read();
+				if (b == -1)
+				{
+					return false;
+				}
+				magic = (magic << 8) | b;
+			}
+			return magic == MAGIC;
+		}
+		finally
+		{
+			in.reset();
+		}
+	}
+
+	// write the fights to the given (uncompressed) stream, which is flushed but not closed.
+	static void write(Collection<FightPerformance> fights, OutputStream outputStream) throws IOException
+	{
+		// first pass: only build the dictionaries, which have to be written before the fights.
+		EntryWriter writer = new EntryWriter();
+		for (FightPerformance fight : fights)
+		{
+			writeFightLogs(fight, writer);
+		}
+
+		DataOutputStream out = new DataOutputStream(outputStream);
+		writer.out = out;
+		out.writeInt(MAGIC);
+		writer.writeInt(VERSION);
+		writer.writeDictionaries();
+
+		// the fight logs are written separately from the fight's JSON
+		Gson fightGson = GSON.newBuilder().registerTypeAdapterFactory(new FightDataTypeAdapterFactory(false)).create();
+		writer.writeInt(fights.size());
+		for (FightPerformance fight : fights)
+		{
+			byte[] fightJson = fightGson.toJson(fight).getBytes(StandardCharsets.UTF_8);
+			writer.writeInt(fightJson.length);
+			out.write(fightJson);
+			writeFightLogs(fight, writer);
+		}
+		out.flush();
+	}
+
+	// read the fights from the given (uncompressed) stream, which isn't closed.
+	static FightPerformance[] read(InputStream inputStream) throws IOException
+	{
+		DataInputStream in = new DataInputStream(inputStream);
+		if (in.readInt() != MAGIC)
+		{
+			throw new IOException("Not a binary fight history chunk");
+		}
+
+		EntryReader reader = new EntryReader(in);
+		int version = reader.readInt();
+		if (version != VERSION)
+		{
+			throw new IOException("Unsupported binary fight history chunk version: " + version);
+		}
+		reader.readDictionaries();
+
+		int fightCount = reader.readInt();
+		FightPerformance[] fights = new FightPerformance[fightCount];
+		for (int i = 0; i < fightCount; i++)
+		{
+			byte[] fightJson = new byte[reader.readInt()];
+			in.readFully(fightJson);
+			FightPerformance fight = GSON.fromJson(new String(fightJson, StandardCharsets.UTF_8), FightPerformance.class);
+			ArrayList<FightLogEntry> competitorEntries = readFightLogEntries(reader);
+			ArrayList<FightLogEntry> opponentEntries = readFightLogEntries(reader);
+			if (fight != null && fight.competitor != null && fight.opponent != null)
+			{
+				fight.competitor.restoreFightLogEntries(competitorEntries);
+				fight.opponent.restoreFightLogEntries(opponentEntries);
+			}
+			fights[i] = fight;
+		}
+		return fights;
+	}
+
+	private static void writeFightLogs(FightPerformance fight, EntryWriter writer) throws IOException
+	{
+		writeFightLogEntries(fight.competitor == null ? null : fight.competitor.getFightLogEntries(), writer);
+		writeFightLogEntries(fight.opponent == null ? null : fight.opponent.getFightLogEntries(), writer);
+	}
+
+	private static void writeFightLogEntries(List<FightLogEntry> entries, EntryWriter writer) throws IOException
+	{
+		if (entries == null)
+		{
+			writer.writeInt(NO_ENTRIES);
+			return;
+		}
+
+		writer.writeInt(entries.size());
+		writer.lastTick = 0;
+		writer.lastTime = 0;
+		for (FightLogEntry entry : entries)
+		{
+			entry.writeBinary(writer);
+		}
+	}
+
+	private static ArrayList<FightLogEntry> readFightLogEntries(EntryReader reader) throws IOException
+	{
+		int size = reader.readInt();
+		if (size == NO_ENTRIES)
+		{
+			return null;
+		}
+
+		ArrayList<FightLogEntry> entries = new ArrayList<>(size);
+		reader.lastTick = 0;
+		reader.lastTime = 0;
+		for (int i = 0; i < size; i++)
+		{
+			entries.add(FightLogEntry.readBinary(reader));
+		}
+		return entries;
+	}
+
+	// Used by FightLogEntry to write its fields. While the dictionaries are being built, nothing is written.
+	public static final class EntryWriter
+	{
+		private DataOutputStream out; // null while building the dictionaries
+		private final Map<GearSet, Integer> gearSetIds = new HashMap<>();
+		private final List<int[]> gearSets = new ArrayList<>();
+		private final Map<String, Integer> enumNameIds = new HashMap<>();
+		private final List<String> enumNames = new ArrayList<>();
+		private int lastTick;
+		private long lastTime;
+
+		private EntryWriter() {}
+
+		public void writeInt(int value) throws IOException
+		{
+			writeVarLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+		}
+
+		public void writeLong(long value) throws IOException
+		{
+			writeVarLong((value << 1) ^ (value >> 63));
+		}
+
+		public void writeDouble(double value) throws IOException
+		{
+			if (out != null)
+			{
+				out.writeDouble(value);
+			}
+		}
+
+		// null is written as 0, other values are shifted by 1
+		public void writeNullableInt(Integer value) throws IOException
+		{
+			writeVarLong(value == null ? 0 : (((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL) + 1);
+		}
+
+		public void writeNullableDouble(Double value) throws IOException
+		{
+			if (out != null)
+			{
+				out.writeBoolean(value != null);
+				if (value != null)
+				{
+					out.writeDouble(value);
+				}
+			}
+		}
+
+		public void writeTick(int tick) throws IOException
+		{
+			writeInt(tick - lastTick);
+			lastTick = tick;
+		}
+
+		public void writeTime(long time) throws IOException
+		{
+			writeLong(time - lastTime);
+			lastTime = time;
+		}
+
+		public void writeGear(int[] gear) throws IOException
+		{
+			if (gear == null)
+			{
+				writeInt(NONE);
+				return;
+			}
+
+			GearSet gearSet = new GearSet(gear);
+			Integer id = gearSetIds.get(gearSet);
+			if (id == null)
+			{
+				gearSets.add(gear);
+				id = gearSets.size();
+				gearSetIds.put(gearSet, id);
+			}
+			writeInt(id);
+		}
+
+		public void writeEnum(Enum<?> value) throws IOException
+		{
+			if (value == null)
+			{
+				writeInt(NONE);
+				return;
+			}
+
+			Integer id = enumNameIds.get(value.name());
+			if (id == null)
+			{
+				enumNames.add(value.name());
+				id = enumNames.size();
+				enumNameIds.put(value.name(), id);
+			}
+			writeInt(id);
+		}
+
+		private void writeDictionaries() throws IOException
+		{
+			writeInt(gearSets.size());
+			for (int[] gear : gearSets)
+			{
+				writeInt(gear.length);
+				for (int itemId : gear)
+				{
+					writeInt(itemId);
+				}
+			}
+
+			writeInt(enumNames.size());
+			for (String name : enumNames)
+			{
+				out.writeUTF(name);
+			}
+		}
+
+		private void writeVarLong(long value) throws IOException
+		{
+			if (out == null)
+			{
+				return;
+			}
+			while ((value & ~0x7FL) != 0)
+			{
+				out.writeByte((int) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			out.writeByte((int) value);
+		}
+	}
+
+	// Used by FightLogEntry to read its fields back, in the same order they were written.
+	public static final class EntryReader
+	{
+		private final DataInputStream in;
+		private int[][] gearSets;
+		private String[] enumNames;
+		private int lastTick;
+		private long lastTime;
+
+		private EntryReader(DataInputStream in)
+		{
+			this.in = in;
+		}
+
+		public int readInt() throws IOException
+		{
+			long zigzag = readVarLong();
+			return (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+		}
+
+		public long readLong() throws IOException
+		{
+			long zigzag = readVarLong();
+			return (zigzag >>> 1) ^ -(zigzag & 1);
+		}
+
+		public double readDouble() throws IOException
+		{
+			return in.readDouble();
+		}
+
+		public Integer readNullableInt() throws IOException
+		{
+			long value = readVarLong();
+			if (value == 0)
+			{
+				return null;
+			}
+			long zigzag = value - 1;
+			return (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+		}
+
+		public Double readNullableDouble() throws IOException
+		{
+			return in.readBoolean() ? in.readDouble() : null;
+		}
+
+		public int readTick() throws IOException
+		{
+			lastTick += readInt();
+			return lastTick;
+		}
+
+		public long readTime() throws IOException
+		{
+			lastTime += readLong();
+			return lastTime;
+		}
+
+		// entries with the same gear share the same array
+		public int[] readGear() throws IOException
+		{
+			int id = readInt();
+			if (id == NONE)
+			{
+				return null;
+			}
+			checkIndex(id, gearSets.length);
+			return gearSets[id - 1];
+		}
+
+		// unknown names, e.g. from enum values that were removed since, are read as null like Gson would.
+		public <E extends Enum<E>> E readEnum(Class<E> type) throws IOException
+		{
+			int id = readInt();
+			if (id == NONE)
+			{
+				return null;
+			}
+			checkIndex(id, enumNames.length);
+			try
+			{
+				return Enum.valueOf(type, enumNames[id - 1]);
+			}
+			catch (IllegalArgumentException e)
+			{
+				return null;
+			}
+		}
+
+		private void readDictionaries() throws IOException
+		{
+			gearSets = new int[readInt()][];
+			for (int i = 0; i < gearSets.length; i++)
+			{
+				int[] gear = new int[readInt()];
+				for (int j = 0; j < gear.length; j++)
+				{
+					gear[j] = readInt();
+				}
+				gearSets[i] = gear;
+			}
+
+			enumNames = new String[readInt()];
+			for (int i = 0; i < enumNames.length; i++)
+			{
+				enumNames[i] = in.readUTF();
+			}
+		}
+
+		private static void checkIndex(int id, int dictionarySize) throws IOException
+		{
+			if (id < 1 || id > dictionarySize)
+			{
+				throw new IOException("Invalid dictionary index " + id + " for a dictionary of size " + dictionarySize);
+			}
+		}
+
+		private long readVarLong() throws IOException
+		{
+			long value = 0;
+			int shift = 0;
+			int b;
+			do
+			{
+				if (shift > 63)
+				{
+					throw new IOException("Malformed varint");
+				}
+				b = in.read();
+				if (b == -1)
+				{
+					throw new EOFException();
+				}
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while ((b & 0x80) != 0);
+			return value;
+		}
+	}
+
+	// gear array key compared by content
+	private static final class GearSet
+	{
+		private final int[] gear;
+		private final int hash;
+
+		private GearSet(int[] gear)
+		{
+			this.gear = gear;
+			this.hash = Arrays.hashCode(gear);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			return o instanceof GearSet && Arrays.equals(gear, ((GearSet) o).gear);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+}
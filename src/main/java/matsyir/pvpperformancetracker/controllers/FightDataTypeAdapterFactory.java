@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import matsyir.pvpperformancetracker.models.CombatLevels;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+
+/**
+ * Streaming TypeAdapters for the fight data classes: FightPerformance, Fighter, FightLogEntry & CombatLevels.
+ * They read & write the exact same JSON as the reflective adapters would with the fight data Gson (only @Expose
+ * fields, in declaration order, null fields omitted, boxed Doubles rounded to 3 decimals), without reflection
+ * or intermediate trees.
+ *
+ * The adapters themselves are nested in each class, so they can use its private fields. Any new @Expose field
+ * has to be added to its class' adapter.
+ */
+public class FightDataTypeAdapterFactory implements TypeAdapterFactory
+{
+	private static final TypeAdapter<CombatLevels> COMBAT_LEVELS_ADAPTER = new TypeAdapter<CombatLevels>()
+	{
+		@Override
+		public void write(JsonWriter out, CombatLevels levels) throws IOException
+		{
+			out.beginObject();
+			out.name("a").value(levels.atk);
+			out.name("s").value(levels.str);
+			out.name("d").value(levels.def);
+			out.name("r").value(levels.range);
+			out.name("m").value(levels.mage);
+			out.name("h").value(levels.hp);
+			out.endObject();
+		}
+
+		@Override
+		public CombatLevels read(JsonReader in) throws IOException
+		{
+			CombatLevels levels = new CombatLevels(0, 0, 0, 0, 0, 0);
+			in.beginObject();
+			while (in.hasNext())
+			{
+				String name = in.nextName();
+				if (skipNull(in))
+				{
+					continue;
+				}
+				switch (name)
+				{
+					case "a": levels.atk = in.nextInt(); break;
+					case "s": levels.str = in.nextInt(); break;
+					case "d": levels.def = in.nextInt(); break;
+					case "r": levels.range = in.nextInt(); break;
+					case "m": levels.mage = in.nextInt(); break;
+					case "h": levels.hp = in.nextInt(); break;
+					default: in.skipValue(); break;
+				}
+			}
+			in.endObject();
+			return levels;
+		}
+	};
+
+	private final boolean writeFightLogs;
+
+	public FightDataTypeAdapterFactory()
+	{
+		this(true);
+	}
+
+	// writeFightLogs: false to leave the fighters' fight logs out of the written JSON, e.g. to store them separately.
+	public FightDataTypeAdapterFactory(boolean writeFightLogs)
+	{
+		this.writeFightLogs = writeFightLogs;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type)
+	{
+		Class<? super T> rawType = type.getRawType();
+		if (rawType == FightPerformance.class)
+		{
+			return (TypeAdapter<T>) new FightPerformance.GsonAdapter(gson).nullSafe();
+		}
+		else if (rawType == Fighter.class)
+		{
+			return (TypeAdapter<T>) new Fighter.GsonAdapter(gson, writeFightLogs).nullSafe();
+		}
+		else if (rawType == FightLogEntry.class)
+		{
+			return (TypeAdapter<T>) new FightLogEntry.GsonAdapter(gson).nullSafe();
+		}
+		else if (rawType == CombatLevels.class)
+		{
+			return (TypeAdapter<T>) COMBAT_LEVELS_ADAPTER.nullSafe();
+		}
+		return null;
+	}
+
+	// ================================= helpers shared by the nested adapters =================================
+
+	// returns true if the next value was null, which is consumed. Null values keep the field's default value.
+	public static boolean skipNull(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return true;
+		}
+		return false;
+	}
+
+	// the same rule as the Double serializer of the fight data Gson, see PvpPerformanceTrackerPlugin.createFightDataGson
+	public static void writeRoundedDouble(JsonWriter out, Double value) throws IOException
+	{
+		if (value == null)
+		{
+			out.nullValue();
+			return;
+		}
+		out.value(roundDouble(value));
+	}
+
+	public static Number roundDouble(double value)
+	{
+		// Convert NaN to zero, otherwise, return as BigDecimal with scale of 3.
+		return Double.isNaN(value) ? (Number) 0 : BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_UP);
+	}
+
+	// Gson also uses the Double serializer for primitive double fields, so they're rounded the same way
+	public static void writeDouble(JsonWriter out, double value) throws IOException
+	{
+		out.value(roundDouble(value));
+	}
+
+	public static void writeNullableInt(JsonWriter out, Integer value) throws IOException
+	{
+		if (value == null)
+		{
+			out.nullValue();
+			return;
+		}
+		out.value(value);
+	}
+
+	public static void writeIntArray(JsonWriter out, int[] values) throws IOException
+	{
+		if (values == null)
+		{
+			out.nullValue();
+			return;
+		}
+		out.beginArray();
+		for (int value : values)
+		{
+			out.value(value);
+		}
+		out.endArray();
+	}
+
+	public static int[] readIntArray(JsonReader in) throws IOException
+	{
+		int[] values = new int[16];
+		int size = 0;
+		in.beginArray();
+		while (in.hasNext())
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = in.nextInt();
+		}
+		in.endArray();
+		return size == values.length ? values : Arrays.copyOf(values, size);
+	}
+
+	public static boolean readBoolean(JsonReader in) throws IOException
+	{
+		return in.peek() == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+	}
+
+	public static String readString(JsonReader in) throws IOException
+	{
+		return in.peek() == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString();
+	}
+
+	static <E> void writeList(JsonWriter out, ArrayList<E> values, TypeAdapter<E> adapter) throws IOException
+	{
+		out.beginArray();
+		for (E value : values)
+		{
+			adapter.write(out, value);
+		}
+		out.endArray();
+	}
+
+	static <E> ArrayList<E> readList(JsonReader in, TypeAdapter<E> adapter) throws IOException
+	{
+		ArrayList<E> values = new ArrayList<>();
+		in.beginArray();
+		while (in.hasNext())
+		{
+			values.add(adapter.read(in));
+		}
+		in.endArray();
+		return values;
+	}
+}
@@ -0,0 +1,539 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.CombatLevels;
+import matsyir.pvpperformancetracker.models.LocalPlayerState;
+import net.runelite.api.ActorSpotAnim;
+import net.runelite.api.HeadIcon;
+import net.runelite.api.IterableHashTable;
+import net.runelite.api.Player;
+import net.runelite.api.PlayerComposition;
+
+/**
+ * Records the client events that drive fight tracking to a compact binary stream, so the fights can be replayed
+ * without a game session by the FightEventReplayer: as a benchmark of the tracking code, or to check that changes
+ * don't alter the tracked fights.
+ *
+ * Format: MAGIC, VERSION, then records made of a type followed by its fields. Ints are written as zigzag varints,
+ * names are only written the first time they're used & referenced by index after that, and the state of a player
+ * (gear, overhead, animation, health...) is only written when it changed since it was last recorded.
+ *
+ * Not thread-safe: only meant to be used from the client thread.
+ */
+@Slf4j
+public class FightEventRecorder implements Closeable
+{
+	public static final String RECORDINGS_FOLDER = "FightEventRecordings"; // subfolder of DATA_FOLDER
+
+	static final int MAGIC = 0x50565052; // "PVPR"
+	static final int VERSION = 3; // 2: several fights can be tracked at once, 3: local player's worn ring & ammo
+
+	// record types
+	static final int FIGHT_START = 1;
+	static final int PLAYER_STATE = 2;
+	static final int ANIMATION = 3;
+	static final int HITSPLAT = 4;
+	static final int HP_POLL = 5;
+	static final int COMPETITOR_LEVELS = 6;
+	static final int COMPETITOR_HP = 7;
+	static final int GAME_TICK = 8;
+	static final int FIGHT_END_CHECK = 9;
+	static final int FIGHT_END = 10;
+
+	static final int NO_NAME = -1;
+
+	private final DataOutputStream out;
+	private final Map<String, Integer> nameIds = new HashMap<>();
+	private final Map<String, PlayerState> recordedStates = new HashMap<>();
+	// hitsplat targets whose health will be read by the next HP poll
+	private final List<Player> pendingHpTargets = new ArrayList<>();
+	// the local player's client-side state as of the last recorded attack, for their worn ring & ammo
+	private LocalPlayerState localPlayerState;
+	private long lastTime;
+	private boolean failed;
+	@Getter
+	private int recordCount;
+
+	public FightEventRecorder(OutputStream out) throws IOException
+	{
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.out.writeInt(MAGIC);
+		writeInt(VERSION);
+	}
+
+	// start a new recording in the RECORDINGS_FOLDER
+	public static FightEventRecorder createRecordingFile() throws IOException
+	{
+		File recordingsDir = new File(PvpPerformanceTrackerPlugin.BASE_DATA_DIR, RECORDINGS_FOLDER);
+		recordingsDir.mkdirs();
+		File recordingFile = new File(recordingsDir, "FightEvents_" + Instant.now().toEpochMilli() + ".bin.gz");
+		log.info("Recording fight events to " + recordingFile.getAbsolutePath());
+		FileOutputStream fileOut = new FileOutputStream(recordingFile);
+		try
+		{
+			return new FightEventRecorder(new GZIPOutputStream(fileOut));
+		}
+		catch (IOException e)
+		{
+			fileOut.close();
+			throw e;
+		}
+	}
+
+	public void recordFightStart(int tick, FightPerformance fight, CombatLevels competitorBaseLevels, int competitorHp, int competitorMagicXp)
+	{
+		Player competitor = fight.getCompetitor().getPlayer();
+		Player opponent = fight.getOpponent().getPlayer();
+		try
+		{
+			writePlayerState(competitor);
+			writePlayerState(opponent);
+
+			lastTime = Instant.now().toEpochMilli();
+			startRecord(FIGHT_START);
+			writeInt(tick);
+			out.writeLong(lastTime);
+			writeName(competitor.getName());
+			writeName(opponent.getName());
+			writeInt(fight.getWorld());
+			writeInt(fight.fightType.ordinal());
+			writeLevels(competitorBaseLevels);
+			writeInt(competitorHp);
+			writeInt(competitorMagicXp);
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	public void recordAnimation(int tick, long time, Player eventSource, Player interacting, AnimationData animationData,
+		CombatLevels competitorLevels, LocalPlayerState localPlayerState, int competitorOffensivePray)
+	{
+		this.localPlayerState = localPlayerState;
+		try
+		{
+			writePlayerState(eventSource);
+			writePlayerState(interacting);
+
+			startRecord(ANIMATION);
+			writeInt(tick);
+			writeTime(time);
+			writeName(eventSource.getName());
+			writeName(interacting.getName());
+			writeName(animationData.name());
+			writeLevels(competitorLevels);
+			writeInt(localPlayerState.getPrayerLevel());
+			writeInt(competitorOffensivePray);
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	// opponentName: the opponent of the fight the hitsplat was routed to
+	public void recordHitsplat(int tick, Player target, String opponentName, int hitsplatType, int amount)
+	{
+		try
+		{
+			startRecord(HITSPLAT);
+			writeInt(tick);
+			writeName(target.getName());
+			writeName(opponentName);
+			writeInt(hitsplatType);
+			writeInt(amount);
+			if (!pendingHpTargets.contains(target))
+			{
+				pendingHpTargets.add(target);
+			}
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	// the health of the hitsplat targets is read when the matcher polls it, so record it at that point
+	public void recordHpPoll()
+	{
+		try
+		{
+			for (Player target : pendingHpTargets)
+			{
+				writePlayerState(target);
+			}
+			pendingHpTargets.clear();
+			startRecord(HP_POLL);
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	public void recordCompetitorLevels(int tick, CombatLevels levels)
+	{
+		try
+		{
+			startRecord(COMPETITOR_LEVELS);
+			writeInt(tick);
+			writeLevels(levels);
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	public void recordCompetitorHp(int hp)
+	{
+		try
+		{
+			startRecord(COMPETITOR_HP);
+			writeInt(hp);
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	public void recordGameTick(int tick, int maxHpToUse, List<FightRegistry.TrackedFight> fights)
+	{
+		try
+		{
+			for (int i = 0; i < fights.size(); i++)
+			{
+				writeFighterStates(fights.get(i).getFight());
+			}
+			startRecord(GAME_TICK);
+			writeInt(tick);
+			writeInt(maxHpToUse);
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	// fights are ended based on inactivity timers & despawns, so record where the checks happen rather than
+	// trying to replay the timers. The death animation checks only need the fighters' states.
+	public void recordFightEndCheck(int tick, FightPerformance fight)
+	{
+		try
+		{
+			writeFighterStates(fight);
+			startRecord(FIGHT_END_CHECK);
+			writeInt(tick);
+			writeName(fight.getOpponent().getName());
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	public void recordFightEnd(int tick, String opponentName)
+	{
+		try
+		{
+			startRecord(FIGHT_END);
+			writeInt(tick);
+			writeName(opponentName);
+		}
+		catch (IOException e)
+		{
+			onWriteError(e);
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		try
+		{
+			out.close();
+		}
+		catch (IOException e)
+		{
+			log.warn("Error while closing fight event recording", e);
+		}
+	}
+
+	private void writeFighterStates(FightPerformance fight) throws IOException
+	{
+		writePlayerState(fight.getCompetitor().getPlayer());
+		writePlayerState(fight.getOpponent().getPlayer());
+	}
+
+	private void writePlayerState(Player player) throws IOException
+	{
+		if (player == null || player.getName() == null)
+		{
+			return;
+		}
+
+		PlayerState state = PlayerState.of(player, localPlayerState);
+		if (state.equals(recordedStates.get(state.name)))
+		{
+			return;
+		}
+		recordedStates.put(state.name, state);
+
+		startRecord(PLAYER_STATE);
+		writeName(state.name);
+		writeInt(state.animation);
+		writeName(state.interactingName);
+		writeInt(state.overhead);
+		writeInt(state.graphic);
+		writeIntArray(state.spotAnims);
+		writeInt(state.healthRatio);
+		writeInt(state.healthScale);
+		writeIntArray(state.equipmentIds);
+		writeNullableInt(state.ringItemId);
+		writeNullableInt(state.ammoItemId);
+	}
+
+	private void startRecord(int type) throws IOException
+	{
+		if (failed)
+		{
+			throw new IOException("Recording was stopped after a previous write error");
+		}
+		out.writeByte(type);
+		recordCount++;
+	}
+
+	private void writeTime(long time) throws IOException
+	{
+		writeInt((int) (time - lastTime));
+		lastTime = time;
+	}
+
+	private void writeName(String name) throws IOException
+	{
+		if (name == null)
+		{
+			writeInt(NO_NAME);
+			return;
+		}
+
+		Integer id = nameIds.get(name);
+		if (id != null)
+		{
+			writeInt(id);
+			return;
+		}
+
+		// new names always get the next id, so the reader knows to read the name after it
+		id = nameIds.size();
+		nameIds.put(name, id);
+		writeInt(id);
+		out.writeUTF(name);
+	}
+
+	private void writeLevels(CombatLevels levels) throws IOException
+	{
+		if (levels == null)
+		{
+			out.writeBoolean(false);
+			return;
+		}
+
+		out.writeBoolean(true);
+		writeInt(levels.atk);
+		writeInt(levels.str);
+		writeInt(levels.def);
+		writeInt(levels.range);
+		writeInt(levels.mage);
+		writeInt(levels.hp);
+	}
+
+	// null arrays are written with a length of -1
+	private void writeIntArray(int[] values) throws IOException
+	{
+		if (values == null)
+		{
+			writeInt(-1);
+			return;
+		}
+
+		writeInt(values.length);
+		for (int value : values)
+		{
+			writeInt(value);
+		}
+	}
+
+	// null values are written as -1, so only for values that can't be negative (e.g item ids)
+	private void writeNullableInt(Integer value) throws IOException
+	{
+		writeInt(value == null ? -1 : value);
+	}
+
+	private void writeInt(int value) throws IOException
+	{
+		int zigzag = (value << 1) ^ (value >> 31);
+		while ((zigzag & ~0x7F) != 0)
+		{
+			out.writeByte((zigzag & 0x7F) | 0x80);
+			zigzag >>>= 7;
+		}
+		out.writeByte(zigzag);
+	}
+
+	private void onWriteError(IOException e)
+	{
+		if (!failed)
+		{
+			failed = true;
+			log.warn("Error while recording fight events, the recording will be incomplete", e);
+		}
+	}
+
+	// the parts of a Player read by the fight tracking code
+	static final class PlayerState
+	{
+		final String name;
+		final int animation;
+		final String interactingName;
+		final int overhead; // HeadIcon ordinal + 1, 0 if none
+		final int graphic;
+		final int[] spotAnims;
+		final int healthRatio;
+		final int healthScale;
+		final int[] equipmentIds;
+		// only known for the local player
+		final Integer ringItemId;
+		final Integer ammoItemId;
+
+		PlayerState(String name, int animation, String interactingName, int overhead, int graphic, int[] spotAnims,
+			int healthRatio, int healthScale, int[] equipmentIds, Integer ringItemId, Integer ammoItemId)
+		{
+			this.name = name;
+			this.animation = animation;
+			this.interactingName = interactingName;
+			this.overhead = overhead;
+			this.graphic = graphic;
+			this.spotAnims = spotAnims;
+			this.healthRatio = healthRatio;
+			this.healthScale = healthScale;
+			this.equipmentIds = equipmentIds;
+			this.ringItemId = ringItemId;
+			this.ammoItemId = ammoItemId;
+		}
+
+		// localPlayerState can be null if no attack was recorded yet
+		static PlayerState of(Player player, LocalPlayerState localPlayerState)
+		{
+			HeadIcon overhead = player.getOverheadIcon();
+			PlayerComposition composition = player.getPlayerComposition();
+
+			List<Integer> spotAnimIds = new ArrayList<>();
+			IterableHashTable<ActorSpotAnim> spotAnims = player.getSpotAnims();
+			if (spotAnims != null)
+			{
+				for (ActorSpotAnim spotAnim : spotAnims)
+				{
+					if (spotAnim != null)
+					{
+						spotAnimIds.add(spotAnim.getId());
+					}
+				}
+			}
+
+			return new PlayerState(
+				player.getName(),
+				player.getAnimation(),
+				player.getInteracting() == null ? null : player.getInteracting().getName(),
+				overhead == null ? 0 : overhead.ordinal() + 1,
+				player.getGraphic(),
+				spotAnimIds.stream().mapToInt(Integer::intValue).toArray(),
+				player.getHealthRatio(),
+				player.getHealthScale(),
+				composition == null ? null : composition.getEquipmentIds().clone(),
+				localPlayerState == null ? null : localPlayerState.getRingItemId(player),
+				localPlayerState == null ? null : localPlayerState.getAmmoItemId(player));
+		}
+
+		HeadIcon getOverheadIcon()
+		{
+			return overhead == 0 ? null : HeadIcon.values()[overhead - 1];
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+			{
+				return true;
+			}
+			if (!(o instanceof PlayerState))
+			{
+				return false;
+			}
+
+			PlayerState other = (PlayerState) o;
+			return animation == other.animation &&
+				overhead == other.overhead &&
+				graphic == other.graphic &&
+				healthRatio == other.healthRatio &&
+				healthScale == other.healthScale &&
+				name.equals(other.name) &&
+				Objects.equals(interactingName, other.interactingName) &&
+				Arrays.equals(spotAnims, other.spotAnims) &&
+				Arrays.equals(equipmentIds, other.equipmentIds) &&
+				Objects.equals(ringItemId, other.ringItemId) &&
+				Objects.equals(ammoItemId, other.ammoItemId);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return name.hashCode();
+		}
+	}
+}
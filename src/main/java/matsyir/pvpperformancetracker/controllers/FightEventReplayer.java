@@ -0,0 +1,485 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import matsyir.pvpperformancetracker.controllers.FightEventRecorder.PlayerState;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.CombatLevels;
+import matsyir.pvpperformancetracker.models.FightType;
+import matsyir.pvpperformancetracker.models.LocalPlayerState;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.ANIMATION;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.COMPETITOR_HP;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.COMPETITOR_LEVELS;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.FIGHT_END;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.FIGHT_END_CHECK;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.FIGHT_START;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.GAME_TICK;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.HITSPLAT;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.HP_POLL;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.MAGIC;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.NO_NAME;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.PLAYER_STATE;
+import static matsyir.pvpperformancetracker.controllers.FightEventRecorder.VERSION;
+import net.runelite.api.ActorSpotAnim;
+import net.runelite.api.Hitsplat;
+import net.runelite.api.HitsplatID;
+import net.runelite.api.IterableHashTable;
+import net.runelite.api.Player;
+import net.runelite.api.PlayerComposition;
+import net.runelite.api.events.HitsplatApplied;
+
+/**
+ * Replays recordings made by the FightEventRecorder through the same FightPerformance, Fighter & HitsplatMatcher
+ * code used for live fights, routing events to each tracked fight like the plugin does, using stand-in Players built from the recorded player states. Fights end where
+ * they ended while recording, and are returned in the Result along with how long the replay took, so it can be
+ * used as a benchmark of the tracking code, or to check that changes don't alter the tracked fights (e.g. by
+ * comparing their json to the fights from a previous replay).
+ *
+ * No game session is needed, but the plugin should still be started: the damage calcs read the plugin's
+ * config & gear stats from the ItemManager. Ghost barrages & inventory snapshots aren't recorded.
+ */
+@Slf4j
+public class FightEventReplayer
+{
+	@Getter
+	public static class Result
+	{
+		private final List<FightPerformance> fights = new ArrayList<>();
+		private int recordCount;
+		private long elapsedNanos;
+
+		public double getRecordsPerSecond()
+		{
+			return elapsedNanos <= 0 ? 0 : recordCount / (elapsedNanos / 1_000_000_000.0);
+		}
+	}
+
+	private final DataInputStream in;
+	private final List<String> names = new ArrayList<>();
+	private final Map<String, ReplayedPlayer> players = new HashMap<>();
+	private final FightRegistry fightRegistry = new FightRegistry();
+	private final Result result = new Result();
+	private Player localPlayer;
+	private long lastTime;
+
+	private FightEventReplayer(InputStream in)
+	{
+		this.in = new DataInputStream(new BufferedInputStream(in));
+	}
+
+	public static Result replay(File recordingFile) throws IOException
+	{
+		try (InputStream fileIn = new FileInputStream(recordingFile);
+			InputStream in = new GZIPInputStream(fileIn))
+		{
+			return replay(in);
+		}
+	}
+
+	// replays a whole (uncompressed) recording stream. Fights still ongoing at the end of the recording are dropped.
+	public static Result replay(InputStream in) throws IOException
+	{
+		return new FightEventReplayer(in).replayAll();
+	}
+
+	private Result replayAll() throws IOException
+	{
+		if (in.readInt() != MAGIC)
+		{
+			throw new IOException("Not a fight event recording");
+		}
+		int version = readInt();
+		if (version != VERSION)
+		{
+			throw new IOException("Unsupported fight event recording version: " + version);
+		}
+
+		long start = System.nanoTime();
+		int type;
+		while ((type = in.read()) != -1)
+		{
+			replayRecord(type);
+			result.recordCount++;
+		}
+		result.elapsedNanos = System.nanoTime() - start;
+
+		return result;
+	}
+
+	// mirrors what the plugin's event handlers do with the recorded values
+	private void replayRecord(int type) throws IOException
+	{
+		switch (type)
+		{
+			case PLAYER_STATE:
+				readPlayerState();
+				break;
+			case FIGHT_START:
+				int startTick = readInt();
+				lastTime = in.readLong();
+				Player competitor = getPlayer(readName());
+				Player opponent = getPlayer(readName());
+				int world = readInt();
+				FightType fightType = FightType.values()[readInt()];
+				CombatLevels baseLevels = readLevels();
+				int competitorHp = readInt();
+				int competitorMagicXp = readInt();
+
+				localPlayer = competitor;
+				fightRegistry.add(new FightPerformance(competitor, opponent, fightType, world, lastTime,
+					baseLevels, competitorHp, competitorMagicXp));
+				log.debug("Replaying fight starting on tick " + startTick + ": " + competitor.getName() + " vs " + opponent.getName());
+				break;
+			case ANIMATION:
+				int animationTick = readInt();
+				long animationTime = readTime();
+				Player eventSource = getPlayer(readName());
+				String interactingName = readName();
+				AnimationData animationData = AnimationData.valueOf(readName());
+				CombatLevels competitorLevels = readLevels();
+				int localPrayerLevel = readInt();
+				int competitorOffensivePray = readInt();
+				FightRegistry.TrackedFight attackFight = fightRegistry.get(
+					eventSource == localPlayer ? interactingName : eventSource.getName());
+				if (attackFight != null && attackFight.getFight().checkForAttackAnimations(eventSource, interactingName,
+					animationData, animationTick, animationTime, competitorLevels, getLocalPlayerState(localPrayerLevel), competitorOffensivePray))
+				{
+					fightRegistry.onAttack(attackFight);
+				}
+				break;
+			case HITSPLAT:
+				int hitsplatTick = readInt();
+				Player target = getPlayer(readName());
+				FightRegistry.TrackedFight hitsplatFight = fightRegistry.get(readName());
+				int hitsplatType = readInt();
+				int amount = readInt();
+				replayHitsplat(hitsplatFight, hitsplatTick, target, hitsplatType, amount);
+				break;
+			case HP_POLL:
+				for (FightRegistry.TrackedFight trackedFight : fightRegistry.getFights())
+				{
+					trackedFight.getHitsplatMatcher().pollPendingHp();
+				}
+				break;
+			case COMPETITOR_LEVELS:
+				int levelsTick = readInt();
+				CombatLevels levels = readLevels();
+				for (FightRegistry.TrackedFight trackedFight : fightRegistry.getFights())
+				{
+					trackedFight.getFight().refreshCompetitorLevelsForTick(levelsTick, levels);
+				}
+				break;
+			case COMPETITOR_HP:
+				int hp = readInt();
+				for (FightRegistry.TrackedFight trackedFight : fightRegistry.getFights())
+				{
+					trackedFight.getFight().updateCompetitorHp(hp);
+				}
+				break;
+			case GAME_TICK:
+				int tick = readInt();
+				int maxHpToUse = readInt();
+				for (FightRegistry.TrackedFight trackedFight : fightRegistry.getFights())
+				{
+					trackedFight.getHitsplatMatcher().processTick(trackedFight.getFight(), tick, localPlayer, maxHpToUse);
+				}
+				break;
+			case FIGHT_END_CHECK:
+				readInt(); // tick
+				FightRegistry.TrackedFight checkedFight = fightRegistry.get(readName());
+				if (checkedFight != null)
+				{
+					checkedFight.getFight().checkForDeathAnimations();
+				}
+				break;
+			case FIGHT_END:
+				readInt(); // tick
+				FightRegistry.TrackedFight endedFight = fightRegistry.get(readName());
+				if (endedFight == null)
+				{
+					break;
+				}
+				if (endedFight.getFight().fightStarted())
+				{
+					endedFight.getFight().makeLogTicksRelativeToFightStart();
+					result.fights.add(endedFight.getFight());
+				}
+				fightRegistry.remove(endedFight);
+				break;
+			default:
+				throw new IOException("Unknown record type " + type + " after " + result.recordCount + " records");
+		}
+	}
+
+	// the recorded hitsplats already passed the plugin's relevant hitsplat type checks
+	private void replayHitsplat(FightRegistry.TrackedFight trackedFight, int tick, Player target, int hitsplatType, int amount)
+	{
+		if (trackedFight == null)
+		{
+			return;
+		}
+
+		FightPerformance fight = trackedFight.getFight();
+		fight.addDamageDealt(target.getName(), amount);
+		if (hitsplatType == HitsplatID.HEAL ||
+			hitsplatType == HitsplatID.POISON ||
+			hitsplatType == HitsplatID.VENOM ||
+			hitsplatType == HitsplatID.BURN ||
+			hitsplatType == HitsplatID.DISEASE)
+		{
+			return;
+		}
+
+		HitsplatApplied event = new HitsplatApplied();
+		event.setActor(target);
+		event.setHitsplat(new Hitsplat(hitsplatType, amount, 0));
+		trackedFight.getHitsplatMatcher().bufferHitsplat(tick, event, localPlayer, fight.getOpponent().getPlayer());
+	}
+
+	private void readPlayerState() throws IOException
+	{
+		String name = readName();
+		int animation = readInt();
+		String interactingName = readName();
+		int overhead = readInt();
+		int graphic = readInt();
+		int[] spotAnims = readIntArray();
+		int healthRatio = readInt();
+		int healthScale = readInt();
+		int[] equipmentIds = readIntArray();
+		Integer ringItemId = readNullableInt();
+		Integer ammoItemId = readNullableInt();
+
+		getReplayedPlayer(name).state = new PlayerState(name, animation, interactingName, overhead, graphic, spotAnims,
+			healthRatio, healthScale, equipmentIds, ringItemId, ammoItemId);
+	}
+
+	// the local player's client-side state at the time of an attack, as it was recorded
+	private LocalPlayerState getLocalPlayerState(int localPrayerLevel)
+	{
+		if (localPlayer == null)
+		{
+			return new LocalPlayerState(null, localPrayerLevel, null, null);
+		}
+
+		PlayerState localState = getReplayedPlayer(localPlayer.getName()).state;
+		return new LocalPlayerState(localState.name, localPrayerLevel, localState.ringItemId, localState.ammoItemId);
+	}
+
+	private Player getPlayer(String name)
+	{
+		return getReplayedPlayer(name).player;
+	}
+
+	private ReplayedPlayer getReplayedPlayer(String name)
+	{
+		return players.computeIfAbsent(name, ReplayedPlayer::new);
+	}
+
+	private long readTime() throws IOException
+	{
+		lastTime += readInt();
+		return lastTime;
+	}
+
+	private String readName() throws IOException
+	{
+		int id = readInt();
+		if (id == NO_NAME)
+		{
+			return null;
+		}
+		if (id == names.size())
+		{
+			names.add(in.readUTF());
+		}
+		return names.get(id);
+	}
+
+	private CombatLevels readLevels() throws IOException
+	{
+		if (!in.readBoolean())
+		{
+			return null;
+		}
+		return new CombatLevels(readInt(), readInt(), readInt(), readInt(), readInt(), readInt());
+	}
+
+	private int[] readIntArray() throws IOException
+	{
+		int length = readInt();
+		if (length < 0)
+		{
+			return null;
+		}
+
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++)
+		{
+			values[i] = readInt();
+		}
+		return values;
+	}
+
+	private Integer readNullableInt() throws IOException
+	{
+		int value = readInt();
+		return value == -1 ? null : value;
+	}
+
+	private int readInt() throws IOException
+	{
+		int zigzag = 0;
+		int shift = 0;
+		int b;
+		do
+		{
+			if (shift > 28)
+			{
+				throw new IOException("Malformed varint");
+			}
+			b = in.read();
+			if (b == -1)
+			{
+				throw new EOFException();
+			}
+			zigzag |= (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while ((b & 0x80) != 0);
+
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+	// stand-in for a recorded player, answering the Player methods used by the fight tracking code from
+	// the last recorded state. Anything else returns null/0/false.
+	private final class ReplayedPlayer
+	{
+		private final Player player;
+		private PlayerState state;
+
+		ReplayedPlayer(String name)
+		{
+			state = new PlayerState(name, -1, null, 0, -1, new int[0], -1, -1, null, null, null);
+			player = proxy(Player.class, (methodName, args) ->
+			{
+				switch (methodName)
+				{
+					case "getName":
+					case "toString":
+						return state.name;
+					case "getAnimation":
+						return state.animation;
+					case "getInteracting":
+						return state.interactingName == null ? null : getPlayer(state.interactingName);
+					case "getOverheadIcon":
+						return state.getOverheadIcon();
+					case "getGraphic":
+						return state.graphic;
+					case "getSpotAnims":
+						return state.spotAnims == null ? null : spotAnims(state.spotAnims);
+					case "getHealthRatio":
+						return state.healthRatio;
+					case "getHealthScale":
+						return state.healthScale;
+					case "getPlayerComposition":
+						return state.equipmentIds == null ? null : composition(state.equipmentIds);
+					default:
+						return null;
+				}
+			});
+		}
+	}
+
+	private static PlayerComposition composition(int[] equipmentIds)
+	{
+		return proxy(PlayerComposition.class, (methodName, args) ->
+			methodName.equals("getEquipmentIds") ? equipmentIds : null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static IterableHashTable<ActorSpotAnim> spotAnims(int[] spotAnimIds)
+	{
+		List<ActorSpotAnim> spotAnims = new ArrayList<>(spotAnimIds.length);
+		for (int spotAnimId : spotAnimIds)
+		{
+			spotAnims.add(proxy(ActorSpotAnim.class, (methodName, args) ->
+				methodName.equals("getId") ? spotAnimId : null));
+		}
+		return proxy(IterableHashTable.class, (methodName, args) ->
+			methodName.equals("iterator") ? spotAnims.iterator() : null);
+	}
+
+	private interface ProxyHandler
+	{
+		Object invoke(String methodName, Object[] args);
+	}
+
+	// identity equals/hashCode, and default values for primitives the handler doesn't answer
+	private static <T> T proxy(Class<T> type, ProxyHandler handler)
+	{
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) ->
+		{
+			switch (method.getName())
+			{
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+			}
+
+			Object value = handler.invoke(method.getName(), args);
+			if (value == null && method.getReturnType().isPrimitive())
+			{
+				Class<?> returnType = method.getReturnType();
+				return returnType == boolean.class ? Boolean.FALSE :
+					returnType == void.class ? null :
+					returnType == long.class ? (Object) 0L :
+					returnType == double.class ? (Object) 0d :
+					returnType == float.class ? (Object) 0f :
+					returnType == char.class ? (Object) (char) 0 :
+					returnType == byte.class ? (Object) (byte) 0 :
+					returnType == short.class ? (Object) (short) 0 :
+					(Object) 0;
+			}
+			return value;
+		}));
+	}
+}
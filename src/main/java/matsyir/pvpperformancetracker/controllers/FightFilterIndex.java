@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import lombok.Getter;
+import matsyir.pvpperformancetracker.models.FightType;
+import matsyir.pvpperformancetracker.views.FightPerformancePanel;
+import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.PLUGIN;
+
+/**
+ * The filterable attributes of the fights in the fight history, computed once per fight rather than on every filter
+ * pass, along with secondary indexes (by name, world, FightType, date & border style) so CompiledFightFilters can
+ * find the fights they could match without evaluating every fight.
+ *
+ * Attributes which can change with the config, like the border style, are only kept until the index is cleared,
+ * which should be done whenever the fights themselves could have changed.
+ *
+ * Not thread-safe: only meant to be used from the client thread.
+ */
+public class FightFilterIndex
+{
+	private final Map<FightPerformance, Entry> entries = new IdentityHashMap<>();
+	// normalized competitor & opponent names, see normalizeName()
+	private final NavigableMap<String, List<Entry>> byName = new TreeMap<>();
+	private final NavigableMap<Integer, List<Entry>> byWorld = new TreeMap<>();
+	private final Map<FightType, List<Entry>> byFightType = new EnumMap<>(FightType.class);
+	// dates as yyyymmdd ints, in the local time zone
+	private final NavigableMap<Integer, List<Entry>> byDate = new TreeMap<>();
+	// needs every fight's bgStyle, so it's only built once a filter needs it
+	private Map<FightPerformancePanel.BackgroundStyle, List<Entry>> byBgStyle;
+	private int nextOrder;
+
+	// add the given fight as the newest fight, if it isn't indexed yet
+	public Entry add(FightPerformance fight)
+	{
+		Entry entry = entries.get(fight);
+		if (entry == null)
+		{
+			entry = new Entry(fight);
+			entries.put(fight, entry);
+			index(entry, 1);
+		}
+		entry.order = nextOrder++;
+		return entry;
+	}
+
+	public boolean remove(FightPerformance fight)
+	{
+		Entry entry = entries.remove(fight);
+		if (entry == null)
+		{
+			return false;
+		}
+
+		index(entry, -1);
+		return true;
+	}
+
+	// update the index to hold exactly the given fights, in the given order (oldest first).
+	// Fights which were already indexed keep their attributes.
+	public void sync(Collection<FightPerformance> fights)
+	{
+		if (countIndexed(fights) != entries.size())
+		{
+			Map<FightPerformance, Boolean> keep = new IdentityHashMap<>(fights.size());
+			fights.forEach(f -> keep.put(f, Boolean.TRUE));
+			entries.keySet().removeIf(f ->
+			{
+				if (keep.containsKey(f))
+				{
+					return false;
+				}
+				index(entries.get(f), -1);
+				return true;
+			});
+		}
+
+		nextOrder = 0;
+		fights.forEach(this::add);
+	}
+
+	public void clear()
+	{
+		entries.clear();
+		byName.clear();
+		byWorld.clear();
+		byFightType.clear();
+		byDate.clear();
+		byBgStyle = null;
+		nextOrder = 0;
+	}
+
+	public Entry get(FightPerformance fight)
+	{
+		return entries.get(fight);
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	Collection<Entry> getEntries()
+	{
+		return entries.values();
+	}
+
+	// entries whose competitor or opponent name is the given normalized name, or starts with it.
+	// Names are sorted, so prefix matches are a single range of the index.
+	Collection<Entry> findByName(String name, boolean exact)
+	{
+		if (exact)
+		{
+			return byName.getOrDefault(name, List.of());
+		}
+
+		return flatten(byName.subMap(name, true, name + Character.MAX_VALUE, false).values());
+	}
+
+	NavigableMap<Integer, List<Entry>> getByWorld()
+	{
+		return byWorld;
+	}
+
+	Collection<Entry> findByFightType(FightType fightType)
+	{
+		return byFightType.getOrDefault(fightType, List.of());
+	}
+
+	NavigableMap<Integer, List<Entry>> getByDate()
+	{
+		return byDate;
+	}
+
+	Collection<Entry> findByBgStyle(FightPerformancePanel.BackgroundStyle bgStyle)
+	{
+		if (byBgStyle == null)
+		{
+			byBgStyle = new EnumMap<>(FightPerformancePanel.BackgroundStyle.class);
+			entries.values().forEach(e -> addTo(byBgStyle, e.getBgStyle(), e));
+		}
+
+		return byBgStyle.getOrDefault(bgStyle, List.of());
+	}
+
+	static List<Entry> flatten(Collection<? extends Collection<Entry>> lists)
+	{
+		List<Entry> flattened = new ArrayList<>();
+		lists.forEach(flattened::addAll);
+		return flattened;
+	}
+
+	private int countIndexed(Collection<FightPerformance> fights)
+	{
+		int count = 0;
+		for (FightPerformance fight : fights)
+		{
+			if (entries.containsKey(fight))
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// add (sign = 1) or remove (sign = -1) the entry from every secondary index
+	private void index(Entry entry, int sign)
+	{
+		update(byName, entry.competitorName, entry, sign);
+		if (!entry.opponentName.equals(entry.competitorName))
+		{
+			update(byName, entry.opponentName, entry, sign);
+		}
+		update(byWorld, entry.world, entry, sign);
+		update(byFightType, entry.fightType, entry, sign);
+		update(byDate, entry.date, entry, sign);
+		if (byBgStyle != null)
+		{
+			update(byBgStyle, entry.getBgStyle(), entry, sign);
+		}
+	}
+
+	private static <K> void update(Map<K, List<Entry>> index, K key, Entry entry, int sign)
+	{
+		if (sign > 0)
+		{
+			addTo(index, key, entry);
+			return;
+		}
+
+		List<Entry> keyEntries = index.get(key);
+		if (keyEntries != null)
+		{
+			keyEntries.remove(entry);
+			if (keyEntries.isEmpty())
+			{
+				index.remove(key);
+			}
+		}
+	}
+
+	private static <K> void addTo(Map<K, List<Entry>> index, K key, Entry entry)
+	{
+		if (key != null)
+		{
+			index.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+		}
+	}
+
+	// yyyymmdd, so that dates can be compared as ints, e.g. 20260131
+	static int toDateInt(long epochMilli)
+	{
+		LocalDate date = Instant.ofEpochMilli(epochMilli).atZone(ZoneId.systemDefault()).toLocalDate();
+		return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+	}
+
+	// lower-case, with '_', '-' & non-breaking spaces as spaces, since they're interchangeable in RSNs
+	public static String normalizeName(String name)
+	{
+		if (name == null)
+		{
+			return "";
+		}
+
+		return lowerCase(name)
+			.replace('\u00A0', ' ')
+			.replace('_', ' ')
+			.replace('-', ' ')
+			.trim();
+	}
+
+	private static String lowerCase(String name)
+	{
+		return name == null ? "" : name.toLowerCase(Locale.ROOT);
+	}
+
+	// a fight's filterable attributes
+	public static final class Entry
+	{
+		@Getter
+		private final FightPerformance fight;
+		@Getter
+		private final String competitorName;
+		@Getter
+		private final String opponentName;
+		@Getter
+		private final int world;
+		@Getter
+		private final FightType fightType;
+		@Getter
+		private final int date;
+		// position in the fight history, oldest first
+		private int order;
+
+		private FightPerformancePanel.BackgroundStyle bgStyle;
+		private String bgStyleName;
+		private String[] weaponNames;
+
+		private Entry(FightPerformance fight)
+		{
+			this.fight = fight;
+			competitorName = normalizeName(fight.getCompetitor().getName());
+			opponentName = normalizeName(fight.getOpponent().getName());
+			world = fight.getWorld();
+			// fights saved before fight types existed don't have one
+			fightType = fight.getFightType() != null ? fight.getFightType() : FightType.NORMAL;
+			date = toDateInt(fight.getLastFightTime());
+		}
+
+		public FightPerformancePanel.BackgroundStyle getBgStyle()
+		{
+			if (bgStyle == null)
+			{
+				bgStyle = fight.getBgStyle();
+				bgStyleName = bgStyle == null ? "" : lowerCase(bgStyle.getName());
+			}
+			return bgStyle;
+		}
+
+		// lower-case border style name
+		public String getBgStyleName()
+		{
+			getBgStyle();
+			return bgStyleName;
+		}
+
+		// lower-case names of the weapons used in the fight, looked up once
+		public String[] getWeaponNames()
+		{
+			if (weaponNames == null)
+			{
+				int[] weaponIds = fight.getSummary().getWeaponIds();
+				weaponNames = new String[weaponIds == null ? 0 : weaponIds.length];
+				for (int i = 0; i < weaponNames.length; i++)
+				{
+					try
+					{
+						weaponNames[i] = lowerCase(PLUGIN.getItemManager().getItemComposition(weaponIds[i]).getName());
+					}
+					catch (Exception ignored)
+					{
+						weaponNames[i] = "";
+					}
+				}
+			}
+			return weaponNames;
+		}
+
+		int getOrder()
+		{
+			return order;
+		}
+	}
+}
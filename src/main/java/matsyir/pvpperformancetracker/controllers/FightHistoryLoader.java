@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the saved fight history chunks in parallel on a small bounded pool, so startup isn't blocked on reading
+ * every chunk one at a time. Session batch chunks are merged first, see FightPerformanceSerializer. Chunks are read newest first, and decoded chunks are handed out in that same order
+ * as soon as they're ready, so the newest fights can be displayed while older chunks are still loading.
+ * Only the chunks currently being decoded or waiting to be handed out are held in memory.
+ *
+ * Fights are handed out without their fight logs, see FightSummaryIndex.
+ */
+@Slf4j
+public class FightHistoryLoader
+{
+	private static final int MAX_DECODE_THREADS = 4;
+
+	public interface Listener
+	{
+		// called from a loader thread for each chunk, in newest-first order. fights are sorted oldest to newest.
+		void onChunkLoaded(FightHistoryLoader loader, List<FightPerformance> fights, int loadedChunks, int totalChunks);
+
+		// called from a loader thread once every chunk was handed out. Not called if the load was cancelled.
+		void onLoadFinished(FightHistoryLoader loader, int totalChunks);
+	}
+
+	// fights that were read from a chunk, or null while it's still decoding
+	private List<FightPerformance>[] decodedChunks;
+	private int nextChunkToPublish = 0;
+	// true while a thread is handing out decoded chunks to the listener
+	private boolean publishing = false;
+	private volatile boolean cancelled = false;
+	private ExecutorService decodeExecutor;
+	// fights removed from their chunk in the FightJournal, which haven't been compacted yet
+	private Map<String, Set<String>> removedFightKeys = Collections.emptyMap();
+
+	private final Consumer<FightPerformance> fightInitializer;
+	private final Listener listener;
+
+	// fightInitializer is called on a loader thread for each fight read, before its chunk is handed out
+	public FightHistoryLoader(Consumer<FightPerformance> fightInitializer, Listener listener)
+	{
+		this.fightInitializer = fightInitializer;
+		this.listener = listener;
+	}
+
+	// start loading in the background: the chunks are listed & decoded on the loader's threads.
+	public synchronized void start()
+	{
+		int threadCount = Math.max(1, Math.min(MAX_DECODE_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+		decodeExecutor = Executors.newFixedThreadPool(threadCount, new LoaderThreadFactory());
+		decodeExecutor.execute(this::decodeChunks);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void decodeChunks()
+	{
+		try
+		{
+			// batches saved by the previous sessions are merged before their fights are loaded & keep their chunk name
+			FightPerformanceSerializer.mergeSessionBatchChunks();
+		}
+		catch (Exception e)
+		{
+			log.warn("FightHistoryLoader.decodeChunks: Unexpected error while merging session batch chunks: {}", e.getMessage());
+		}
+
+		List<ChunkFile> chunkFiles = new ArrayList<>();
+		try
+		{
+			FightPerformanceSerializer.listStandardDataChunks().forEach(f -> chunkFiles.add(new ChunkFile(f, false)));
+			FightPerformanceSerializer.listFavoriteDataChunks().forEach(f -> chunkFiles.add(new ChunkFile(f, true)));
+		}
+		catch (Exception e)
+		{
+			log.warn("FightHistoryLoader.decodeChunks: Unexpected error while listing data files: {}", e.getMessage());
+		}
+
+		try
+		{
+			List<File> files = new ArrayList<>();
+			chunkFiles.forEach(c -> files.add(c.file));
+			FightSummaryIndex.removeStaleIndexes(files);
+		}
+		catch (Exception e)
+		{
+			log.warn("FightHistoryLoader.decodeChunks: Unexpected error while removing old summary indexes: {}", e.getMessage());
+		}
+
+		try
+		{
+			removedFightKeys = FightJournal.readRemovedFightKeys();
+		}
+		catch (Exception e)
+		{
+			log.warn("FightHistoryLoader.decodeChunks: Unexpected error while reading the fight journal: {}", e.getMessage());
+		}
+
+		if (chunkFiles.isEmpty())
+		{
+			log.info("FightHistoryLoader.decodeChunks: Skipping deserialization due to no files found.");
+			decodeExecutor.shutdown();
+			if (!cancelled)
+			{
+				listener.onLoadFinished(this, 0);
+			}
+			return;
+		}
+
+		// newest chunks first, so the most recent fights are available first
+		chunkFiles.sort(Comparator.comparingLong((ChunkFile c) -> c.lastModified).reversed());
+		synchronized (this)
+		{
+			if (cancelled)
+			{
+				return;
+			}
+
+			decodedChunks = new List[chunkFiles.size()];
+			for (int i = 0; i < chunkFiles.size(); i++)
+			{
+				final int chunkIndex = i;
+				final ChunkFile chunkFile = chunkFiles.get(i);
+				decodeExecutor.execute(() -> onChunkDecoded(chunkIndex, tryDecodeChunk(chunkFile)));
+			}
+			decodeExecutor.shutdown();
+		}
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	// stop loading: chunks that weren't handed out yet are dropped.
+	public synchronized void cancel()
+	{
+		cancelled = true;
+		decodedChunks = null;
+		if (decodeExecutor != null)
+		{
+			decodeExecutor.shutdownNow();
+		}
+	}
+
+	// a chunk that can't be decoded is skipped, so that the chunks after it are still handed out & the load finishes.
+	private List<FightPerformance> tryDecodeChunk(ChunkFile chunkFile)
+	{
+		try
+		{
+			return decodeChunk(chunkFile);
+		}
+		catch (Exception e)
+		{
+			log.warn("FightHistoryLoader: Skipping chunk that failed to load (path={}): {}", chunkFile.file.getName(), e.getMessage());
+			return new ArrayList<>();
+		}
+	}
+
+	// fights are loaded without their fight logs: from the chunk's summary index if it's up to date, otherwise
+	// the chunk is read in full, and the fight logs are released once the fights are initialized & summarized.
+	private List<FightPerformance> decodeChunk(ChunkFile chunkFile)
+	{
+		List<FightPerformance> fights = new ArrayList<>();
+		if (cancelled)
+		{
+			return fights;
+		}
+
+		long chunkLastModified = chunkFile.file.lastModified();
+		long chunkLength = chunkFile.file.length();
+		List<FightPerformance> summarizedFights = FightSummaryIndex.read(chunkFile.file, chunkLastModified, chunkLength);
+		if (summarizedFights != null)
+		{
+			summarizedFights.forEach(fight -> initializeFight(chunkFile, fight, fights));
+		}
+		else
+		{
+			FightPerformanceSerializer.deserializeFightArray(chunkFile.file, (fight) -> initializeFight(chunkFile, fight, fights));
+			for (FightPerformance fight : fights)
+			{
+				try
+				{
+					fight.releaseFightLogs();
+				}
+				catch (Exception e)
+				{
+					// keep the fight logs loaded, the index just won't be written for this chunk.
+					log.warn("FightHistoryLoader: Failed to summarize fight (path={}): {}", chunkFile.file.getName(), e.getMessage());
+				}
+			}
+
+			if (!fights.isEmpty())
+			{
+				FightSummaryIndex.write(chunkFile.file, chunkLastModified, chunkLength, fights);
+			}
+		}
+
+		Set<String> removedFromChunk = removedFightKeys.get(chunkFile.file.getName());
+		if (removedFromChunk != null)
+		{
+			fights.removeIf(f -> removedFromChunk.contains(FightPerformanceSerializer.getFightKey(f)));
+		}
+
+		fights.sort(FightPerformance::compareTo);
+		return fights;
+	}
+
+	private void initializeFight(ChunkFile chunkFile, FightPerformance fight, List<FightPerformance> fights)
+	{
+		if (chunkFile.favorite)
+		{
+			fight.setFavorite(true);
+		}
+
+		try
+		{
+			fightInitializer.accept(fight);
+			fights.add(fight);
+		}
+		catch (Exception e)
+		{
+			log.warn("FightHistoryLoader: Skipping fight that failed to initialize (path={}): {}", chunkFile.file.getName(), e.getMessage());
+		}
+	}
+
+	// publish decoded chunks in order: a chunk is only handed out once every newer chunk was. The listener is called
+	// outside of the lock, by one thread at a time: a chunk decoded while another thread is publishing is picked up
+	// by that thread, so the other decoder threads & cancel() don't wait on the listener.
+	private void onChunkDecoded(int chunkIndex, List<FightPerformance> fights)
+	{
+		synchronized (this)
+		{
+			if (cancelled)
+			{
+				return;
+			}
+
+			decodedChunks[chunkIndex] = fights;
+			if (publishing)
+			{
+				return;
+			}
+			publishing = true;
+		}
+
+		List<List<FightPerformance>> readyChunks = new ArrayList<>();
+		while (true)
+		{
+			int firstLoadedChunks;
+			int totalChunks;
+			synchronized (this)
+			{
+				if (cancelled)
+				{
+					publishing = false;
+					return;
+				}
+
+				firstLoadedChunks = nextChunkToPublish;
+				totalChunks = decodedChunks.length;
+				while (nextChunkToPublish < totalChunks && decodedChunks[nextChunkToPublish] != null)
+				{
+					readyChunks.add(decodedChunks[nextChunkToPublish]);
+					decodedChunks[nextChunkToPublish] = null;
+					nextChunkToPublish++;
+				}
+
+				if (readyChunks.isEmpty())
+				{
+					publishing = false;
+					return;
+				}
+			}
+
+			for (int i = 0; i < readyChunks.size() && !cancelled; i++)
+			{
+				listener.onChunkLoaded(this, readyChunks.get(i), firstLoadedChunks + i + 1, totalChunks);
+			}
+
+			if (firstLoadedChunks + readyChunks.size() == totalChunks && !cancelled)
+			{
+				listener.onLoadFinished(this, totalChunks);
+			}
+			readyChunks.clear();
+		}
+	}
+
+	private static class ChunkFile
+	{
+		final File file;
+		final boolean favorite;
+		final long lastModified;
+
+		ChunkFile(File file, boolean favorite)
+		{
+			this.file = file;
+			this.favorite = favorite;
+			this.lastModified = file.lastModified();
+		}
+	}
+
+	private static class LoaderThreadFactory implements ThreadFactory
+	{
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r)
+		{
+			Thread thread = new Thread(r, "pvp-performance-tracker-loader-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,565 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+
+/**
+ * Re-runs the expected damage & KO chance calculations of every attack in the fight history, in parallel on a
+ * fork-join pool, after a config change affecting them (ring, ammo, levels...). Fights that have their fight logs
+ * loaded are recalculated individually. Fights that released their fight logs are recalculated from their data
+ * chunk, which is only read, so each chunk is read once & nothing is written while recalculating.
+ *
+ * Loaded fights aren't modified while recalculating: results are only handed out once every fight is done, to be
+ * applied together. Starting a new recalculation cancels the previous one, whose results are dropped.
+ *
+ * The results are saved to the data chunks in the background once the settings stopped changing for
+ * PERSIST_DELAY_SECONDS, so that quickly toggling a setting doesn't re-write the fight history. Chunks whose saved
+ * results didn't change aren't re-written. Until then, fight logs read back from a chunk are recalculated when
+ * they're loaded, see FightPerformance.loadFightLogs.
+ */
+@Slf4j
+public class FightHistoryRecalculator
+{
+	public interface Listener
+	{
+		// called from a pool thread once every fight was recalculated. Not called if it was cancelled.
+		// results should only be applied if isLatest(generation) is still true when applying them.
+		void onRecalculated(int generation, List<Result> results);
+	}
+
+	static final int PERSIST_DELAY_SECONDS = 15;
+
+	private final ForkJoinPool pool;
+	private final Listener listener;
+	private final ScheduledExecutorService persistScheduler;
+	private Job currentJob;
+	private int generation = 0;
+	private PersistJob pendingPersistJob;
+	private ScheduledFuture<?> pendingPersist;
+
+	public FightHistoryRecalculator(Listener listener, ScheduledExecutorService persistScheduler)
+	{
+		this.listener = listener;
+		this.persistScheduler = persistScheduler;
+		this.pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+			FightHistoryRecalculator::newWorkerThread, null, false);
+	}
+
+	// recalculate the given fights, cancelling any recalculation still running or waiting to be saved.
+	// the list is copied, but the fights shouldn't have their fight logs modified while this runs.
+	public synchronized void start(List<FightPerformance> fights)
+	{
+		cancel();
+		cancelPersist();
+		currentJob = new Job(++generation, new ArrayList<>(fights));
+		pool.execute(currentJob);
+	}
+
+	public synchronized void cancel()
+	{
+		if (currentJob != null)
+		{
+			currentJob.cancelled = true;
+			currentJob = null;
+		}
+	}
+
+	// true if no recalculation was started or cancelled since the one with this generation.
+	public synchronized boolean isLatest(int generation)
+	{
+		return currentJob != null && currentJob.generation == generation;
+	}
+
+	// stop recalculating. Results that are still waiting to be saved are saved right away on the persist scheduler.
+	public synchronized void shutdown()
+	{
+		cancel();
+		if (pendingPersist != null && pendingPersist.cancel(false))
+		{
+			persistScheduler.execute(pendingPersistJob);
+		}
+		pendingPersist = null;
+		pendingPersistJob = null;
+		pool.shutdownNow();
+	}
+
+	private synchronized void schedulePersist(int generation, Set<String> chunkNames)
+	{
+		if (!isLatest(generation) || chunkNames.isEmpty())
+		{
+			return;
+		}
+
+		cancelPersist();
+		PersistJob persistJob = new PersistJob(chunkNames);
+		pendingPersistJob = persistJob;
+		pendingPersist = persistScheduler.schedule(() -> pool.execute(persistJob), PERSIST_DELAY_SECONDS, TimeUnit.SECONDS);
+	}
+
+	private void cancelPersist()
+	{
+		if (pendingPersist != null)
+		{
+			pendingPersist.cancel(false);
+			pendingPersist = null;
+		}
+		if (pendingPersistJob != null)
+		{
+			pendingPersistJob.cancelled = true;
+			pendingPersistJob = null;
+		}
+	}
+
+	// re-calculate the fight's attacks from its own fight logs (which may be a saved copy of the fight)
+	static Result recalculate(FightPerformance fight, FightPerformance logSource)
+	{
+		// the saved copy's competitor could be the other fighter, if the fight was swapped since it was saved.
+		boolean sameOrder = Objects.equals(logSource.getCompetitor().getName(), fight.getCompetitor().getName());
+		Fighter competitorLogs = sameOrder ? logSource.getCompetitor() : logSource.getOpponent();
+		Fighter opponentLogs = sameOrder ? logSource.getOpponent() : logSource.getCompetitor();
+
+		PvpDamageCalc pvpDamageCalc = new PvpDamageCalc(fight);
+		Result result = new Result(fight, logSource, sameOrder);
+		result.competitor = recalculateAttacks(pvpDamageCalc, competitorLogs, opponentLogs, result);
+		result.opponent = recalculateAttacks(pvpDamageCalc, opponentLogs, competitorLogs, result);
+		return result;
+	}
+
+	private static FighterTotals recalculateAttacks(PvpDamageCalc pvpDamageCalc, Fighter attacker, Fighter defender, Result result)
+	{
+		// the defender's defensive logs (only recorded for the competitor) hold their levels & prayer at each attack
+		Map<Integer, FightLogEntry> defensiveLogs = new HashMap<>();
+		for (FightLogEntry entry : defender.getFightLogEntries())
+		{
+			if (!entry.isFullEntry())
+			{
+				defensiveLogs.putIfAbsent(entry.getTick(), entry);
+			}
+		}
+
+		FighterTotals totals = new FighterTotals();
+		int firstEntryIdx = result.entries.size();
+		// gmaul specs by attack tick, with the number of hits they matched: see HitsplatMatcher.matchAttacks
+		Map<Integer, List<Integer>> gmaulEntriesByTick = new HashMap<>();
+		Map<Integer, Integer> gmaulHitsByTick = new HashMap<>();
+		for (FightLogEntry entry : attacker.getFightLogEntries())
+		{
+			if (!entry.isFullEntry() || entry.getAnimationData() == null)
+			{
+				continue;
+			}
+
+			pvpDamageCalc.updateDamageStats(entry, defensiveLogs.get(entry.getTick()));
+			// like when the attack is first logged, the fighter's totals don't include the gmaul hit scaling
+			totals.expectedDamage += pvpDamageCalc.getAverageHit();
+			if (entry.getAnimationData().attackStyle == AnimationData.AttackStyle.MAGIC)
+			{
+				totals.magicHitCountExpected += pvpDamageCalc.getAccuracy();
+			}
+
+			if (entry.isGmaulSpecial())
+			{
+				gmaulEntriesByTick.computeIfAbsent(entry.getTick(), k -> new ArrayList<>()).add(result.entries.size());
+				gmaulHitsByTick.merge(entry.getTick(), entry.getMatchedHitsCount(), Integer::sum);
+			}
+			result.entries.add(entry);
+			result.entryStats.add(new EntryStats(pvpDamageCalc));
+		}
+
+		// gmaul specs that hit more than once in a tick had their damage scaled by the number of hits.
+		gmaulEntriesByTick.forEach((tick, entryIdxs) ->
+		{
+			int gmaulHits = gmaulHitsByTick.get(tick);
+			if (gmaulHits >= 2)
+			{
+				entryIdxs.forEach(i -> result.entryStats.get(i).scaleGmaulHits(gmaulHits));
+			}
+		});
+
+		for (int i = firstEntryIdx; i < result.entries.size(); i++)
+		{
+			EntryStats stats = result.entryStats.get(i);
+			stats.calculateKoChance(result.entries.get(i));
+			if (stats.koChance != null)
+			{
+				totals.koChanceCount++;
+				totals.koSurvivalProb *= (1.0 - stats.koChance);
+			}
+		}
+		return totals;
+	}
+
+	private static ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool)
+	{
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("pvp-performance-tracker-recalculator-" + thread.getPoolIndex());
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	}
+
+	/**
+	 * The recalculated stats of a fight: applying them updates the fighters' totals, and the fight log entries
+	 * if they were recalculated from the fight's own (loaded) fight logs, otherwise the KO chances of its saved
+	 * summary. Must be applied on the client thread.
+	 */
+	public static class Result
+	{
+		private final FightPerformance fight;
+		// the fight the fight logs were read from: the fight itself, or its saved copy
+		private final FightPerformance logSource;
+		private final boolean sameOrder;
+		private final List<FightLogEntry> entries = new ArrayList<>();
+		private final List<EntryStats> entryStats = new ArrayList<>();
+		private FighterTotals competitor;
+		private FighterTotals opponent;
+
+		private Result(FightPerformance fight, FightPerformance logSource, boolean sameOrder)
+		{
+			this.fight = fight;
+			this.logSource = logSource;
+			this.sameOrder = sameOrder;
+		}
+
+		public FightPerformance getFight()
+		{
+			return fight;
+		}
+
+		public void apply()
+		{
+			// the results may not be saved to the fight's chunk yet
+			if (fight.isSavedToFile())
+			{
+				fight.setFightLogsOutdated(true);
+			}
+
+			if (logSource == fight)
+			{
+				applyToLogSource();
+				return;
+			}
+
+			fight.getCompetitor().setExpectedDamageStats(competitor.expectedDamage, competitor.magicHitCountExpected);
+			fight.getOpponent().setExpectedDamageStats(opponent.expectedDamage, opponent.magicHitCountExpected);
+			FightSummary savedSummary = fight.getSavedSummary();
+			if (savedSummary != null)
+			{
+				savedSummary.setKoChances(competitor.koChanceCount, competitor.koSurvivalProb, opponent.koChanceCount, opponent.koSurvivalProb);
+			}
+		}
+
+		// true if applying the results would change the saved values of the fight log entries.
+		boolean changesLogSource()
+		{
+			for (int i = 0; i < entries.size(); i++)
+			{
+				if (entryStats.get(i).differsFrom(entries.get(i)))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		// update the fight the logs were read from, i.e its totals & fight log entries.
+		void applyToLogSource()
+		{
+			FighterTotals logCompetitor = sameOrder ? competitor : opponent;
+			FighterTotals logOpponent = sameOrder ? opponent : competitor;
+			logSource.getCompetitor().setExpectedDamageStats(logCompetitor.expectedDamage, logCompetitor.magicHitCountExpected);
+			logSource.getOpponent().setExpectedDamageStats(logOpponent.expectedDamage, logOpponent.magicHitCountExpected);
+			for (int i = 0; i < entries.size(); i++)
+			{
+				entryStats.get(i).applyTo(entries.get(i));
+			}
+		}
+	}
+
+	private static class FighterTotals
+	{
+		double expectedDamage;
+		double magicHitCountExpected;
+		int koChanceCount;
+		double koSurvivalProb = 1.0;
+	}
+
+	private static class EntryStats
+	{
+		double expectedDamage;
+		final double accuracy;
+		int minHit;
+		int maxHit;
+		final PvpDamageCalc.DamageRollDistribution damageRollDistribution;
+		final int damageRollHitCount;
+		Double koChance;
+
+		EntryStats(PvpDamageCalc pvpDamageCalc)
+		{
+			expectedDamage = pvpDamageCalc.getAverageHit();
+			accuracy = pvpDamageCalc.getAccuracy();
+			minHit = pvpDamageCalc.getMinHit();
+			maxHit = pvpDamageCalc.getMaxHit();
+			damageRollDistribution = pvpDamageCalc.getDamageRollDistribution();
+			damageRollHitCount = pvpDamageCalc.getDamageRollHitCount();
+		}
+
+		void scaleGmaulHits(int gmaulHits)
+		{
+			expectedDamage *= gmaulHits;
+			minHit *= gmaulHits;
+			maxHit *= gmaulHits;
+		}
+
+		// KO chance against the hp the defender had before the attack, as shown in the fight log.
+		void calculateKoChance(FightLogEntry entry)
+		{
+			Integer hpBefore = entry.getDisplayHpBefore();
+			koChance = hpBefore == null ? null :
+				HitsplatMatcher.calculateKoChance(entry, hpBefore, accuracy, minHit, maxHit, damageRollDistribution, damageRollHitCount);
+			if (koChance != null && koChance <= 0.0)
+			{
+				koChance = null;
+			}
+		}
+
+		boolean differsFrom(FightLogEntry entry)
+		{
+			return expectedDamage != entry.getExpectedDamage() || accuracy != entry.getAccuracy()
+				|| minHit != entry.getMinHit() || maxHit != entry.getMaxHit()
+				|| !Objects.equals(koChance, entry.getKoChance()) || !Objects.equals(koChance, entry.getDisplayKoChance());
+		}
+
+		void applyTo(FightLogEntry entry)
+		{
+			entry.setDamageStats(expectedDamage, accuracy, minHit, maxHit, damageRollDistribution, damageRollHitCount);
+			entry.setKoChance(koChance);
+			entry.setDisplayKoChance(koChance);
+		}
+	}
+
+	// root task: forks one task per fight with loaded fight logs, and one per data chunk for the others.
+	private class Job extends RecursiveTask<List<Result>>
+	{
+		private final int generation;
+		private final List<FightPerformance> fights;
+		private volatile boolean cancelled = false;
+
+		Job(int generation, List<FightPerformance> fights)
+		{
+			this.generation = generation;
+			this.fights = fights;
+		}
+
+		@Override
+		protected List<Result> compute()
+		{
+			List<ForkJoinTask<List<Result>>> tasks = new ArrayList<>();
+			Map<String, List<FightPerformance>> releasedFightsByChunk = new LinkedHashMap<>();
+			Set<String> savedChunkNames = new LinkedHashSet<>();
+			for (FightPerformance fight : fights)
+			{
+				if (fight.hasFightLogs())
+				{
+					tasks.add(ForkJoinTask.adapt(() -> recalculateLoadedFight(fight)));
+				}
+				else if (fight.isSavedToFile())
+				{
+					releasedFightsByChunk.computeIfAbsent(fight.getLoadedFromFname(), k -> new ArrayList<>()).add(fight);
+				}
+				if (fight.isSavedToFile())
+				{
+					savedChunkNames.add(fight.getLoadedFromFname());
+				}
+			}
+			releasedFightsByChunk.forEach((chunkName, chunkFights) ->
+				tasks.add(ForkJoinTask.adapt(() -> recalculateReleasedFights(chunkName, chunkFights))));
+
+			List<Result> results = new ArrayList<>();
+			for (ForkJoinTask<List<Result>> task : ForkJoinTask.invokeAll(tasks))
+			{
+				results.addAll(task.join());
+			}
+
+			if (!cancelled)
+			{
+				listener.onRecalculated(generation, results);
+				schedulePersist(generation, savedChunkNames);
+			}
+			return results;
+		}
+
+		private List<Result> recalculateLoadedFight(FightPerformance fight)
+		{
+			List<Result> results = new ArrayList<>(1);
+			if (cancelled)
+			{
+				return results;
+			}
+
+			try
+			{
+				results.add(recalculate(fight, fight));
+			}
+			catch (Exception e)
+			{
+				log.warn("FightHistoryRecalculator: Failed to recalculate fight: {}", e.getMessage());
+			}
+			return results;
+		}
+
+		// re-calculate the given fights, which released their fight logs, from their saved copies in the data chunk.
+		private List<Result> recalculateReleasedFights(String chunkName, List<FightPerformance> chunkFights)
+		{
+			List<Result> results = new ArrayList<>(chunkFights.size());
+			if (cancelled)
+			{
+				return results;
+			}
+
+			Map<String, FightPerformance> releasedFightsByKey = new HashMap<>();
+			for (FightPerformance fight : chunkFights)
+			{
+				releasedFightsByKey.putIfAbsent(FightPerformanceSerializer.getFightKey(fight), fight);
+			}
+
+			FightPerformance[] savedFights = FightPerformanceSerializer.readSavedChunk(chunkName);
+			if (savedFights == null)
+			{
+				return results;
+			}
+
+			for (FightPerformance savedFight : savedFights)
+			{
+				if (cancelled)
+				{
+					break;
+				}
+				if (savedFight == null || savedFight.competitor == null || savedFight.opponent == null || !savedFight.hasFightLogs())
+				{
+					continue;
+				}
+
+				FightPerformance fight = releasedFightsByKey.get(FightPerformanceSerializer.getFightKey(savedFight));
+				if (fight == null)
+				{
+					continue;
+				}
+
+				try
+				{
+					results.add(recalculate(fight, savedFight));
+				}
+				catch (Exception e)
+				{
+					log.warn("FightHistoryRecalculator: Failed to recalculate fight (path={}): {}", chunkName, e.getMessage());
+				}
+			}
+			return results;
+		}
+	}
+
+	// saves the recalculated results to the data chunks, one chunk at a time. Chunks are recalculated again from
+	// their saved copy, since the loaded fights may have been modified or released in the meantime.
+	private static class PersistJob implements Runnable
+	{
+		private final Set<String> chunkNames;
+		private volatile boolean cancelled = false;
+
+		PersistJob(Set<String> chunkNames)
+		{
+			this.chunkNames = chunkNames;
+		}
+
+		@Override
+		public void run()
+		{
+			int rewrittenChunks = 0;
+			for (String chunkName : chunkNames)
+			{
+				if (cancelled)
+				{
+					return;
+				}
+
+				try
+				{
+					if (FightPerformanceSerializer.updateSavedChunk(chunkName, this::recalculateChunk))
+					{
+						rewrittenChunks++;
+					}
+				}
+				catch (Exception e)
+				{
+					log.warn("FightHistoryRecalculator: Failed to save recalculated chunk (path={}): {}", chunkName, e.getMessage());
+				}
+			}
+			log.debug("FightHistoryRecalculator: Saved recalculated fights to {} of {} chunks", rewrittenChunks, chunkNames.size());
+		}
+
+		// returns true if the chunk should be re-written: a saved result changed & the save wasn't cancelled.
+		private boolean recalculateChunk(FightPerformance[] savedFights)
+		{
+			boolean changed = false;
+			for (FightPerformance savedFight : savedFights)
+			{
+				if (cancelled)
+				{
+					return false;
+				}
+				if (savedFight == null || savedFight.competitor == null || savedFight.opponent == null || !savedFight.hasFightLogs())
+				{
+					continue;
+				}
+
+				Result result = recalculate(savedFight, savedFight);
+				if (result.changesLogSource())
+				{
+					result.applyToLogSource();
+					changed = true;
+				}
+			}
+			return changed && !cancelled;
+		}
+	}
+}
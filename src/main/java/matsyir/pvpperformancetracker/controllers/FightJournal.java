@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import joptsimple.internal.Strings;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.GSON;
+import static matsyir.pvpperformancetracker.controllers.FightPerformanceSerializer.FIGHT_HISTORY_DATA_DIR;
+
+/**
+ * Append-only journal of fights removed from multi-fight data chunks, so deleting or favoriting a fight doesn't
+ * have to re-write its whole chunk. Each record is one JSON line, appended and synced to disk right away. Fights
+ * with a record are skipped when their chunk is loaded, and chunks are only re-written without them when the
+ * journal is compacted in the background. Compaction can safely be interrupted at any point: applying a record
+ * to a chunk that no longer has the fight does nothing, and records are only dropped once their chunk was updated.
+ * A record whose write was cut off by a crash is dropped before the next record is appended.
+ *
+ * New fights aren't journaled, they're saved by the session autosave (see serializeSessionFightHistory), so the
+ * journal only holds the removals from already saved chunks.
+ */
+@Slf4j
+class FightJournal
+{
+	static final String JOURNAL_FILE_NAME = "FightJournal.jsonl";
+
+	enum RecordType
+	{
+		@SerializedName("d")
+		DELETED,
+		@SerializedName("f")
+		FAVORITED // moved to its own favorite fight file
+	}
+
+	@Getter
+	static class Record
+	{
+		@Expose
+		@SerializedName("t")
+		private final RecordType type;
+		@Expose
+		@SerializedName("c")
+		private final String chunkName;
+		@Expose
+		@SerializedName("k")
+		private final String fightKey;
+
+		Record(RecordType type, String chunkName, String fightKey)
+		{
+			this.type = type;
+			this.chunkName = chunkName;
+			this.fightKey = fightKey;
+		}
+
+		String toJson()
+		{
+			return GSON.toJson(this);
+		}
+	}
+
+	private static final Object LOCK = new Object();
+
+	// returns true once the record is written & synced to disk.
+	static boolean append(Record record)
+	{
+		synchronized (LOCK)
+		{
+			return appendTo(getJournalFile(), record);
+		}
+	}
+
+	static boolean appendTo(File journalFile, Record record)
+	{
+		try (RandomAccessFile out = new RandomAccessFile(journalFile, "rw"))
+		{
+			// if the client crashed while writing the last record, drop what was written of it: otherwise the
+			// new record would be appended to that partial line, and both would be skipped as unreadable.
+			out.setLength(getCompleteRecordsLength(out));
+			out.seek(out.length());
+			out.write((record.toJson() + '\n').getBytes(StandardCharsets.UTF_8));
+			out.getFD().sync();
+			return true;
+		}
+		catch (IOException e)
+		{
+			log.warn("FightJournal.append: Error while writing journal record: {}", e.getMessage());
+		}
+		return false;
+	}
+
+	// length of the journal up to & including its last line break, i.e without a partially written last record.
+	private static long getCompleteRecordsLength(RandomAccessFile journal) throws IOException
+	{
+		byte[] buffer = new byte[256];
+		long end = journal.length();
+		while (end > 0)
+		{
+			int readLength = (int) Math.min(buffer.length, end);
+			long start = end - readLength;
+			journal.seek(start);
+			journal.readFully(buffer, 0, readLength);
+			for (int i = readLength - 1; i >= 0; i--)
+			{
+				if (buffer[i] == '\n')
+				{
+					return start + i + 1;
+				}
+			}
+			end = start;
+		}
+		return 0;
+	}
+
+	static List<Record> readRecords()
+	{
+		synchronized (LOCK)
+		{
+			return readRecordsFrom(getJournalFile());
+		}
+	}
+
+	// keys of the fights removed from each chunk, by chunk file name
+	static Map<String, Set<String>> readRemovedFightKeys()
+	{
+		Map<String, Set<String>> removedFightKeys = new HashMap<>();
+		for (Record record : readRecords())
+		{
+			removedFightKeys.computeIfAbsent(record.chunkName, k -> new HashSet<>()).add(record.fightKey);
+		}
+		return removedFightKeys;
+	}
+
+	// drop records that were applied to their chunk. Records appended since they were read are kept.
+	static void removeRecords(Collection<Record> appliedRecords)
+	{
+		if (appliedRecords.isEmpty())
+		{
+			return;
+		}
+
+		synchronized (LOCK)
+		{
+			File journalFile = getJournalFile();
+			List<Record> remainingRecords = readRecordsFrom(journalFile);
+			for (Record applied : appliedRecords)
+			{
+				remainingRecords.removeIf(r -> r.type == applied.type
+					&& Objects.equals(r.chunkName, applied.chunkName)
+					&& Objects.equals(r.fightKey, applied.fightKey));
+			}
+
+			try
+			{
+				if (remainingRecords.isEmpty())
+				{
+					Files.deleteIfExists(journalFile.toPath());
+					return;
+				}
+
+				File tmpJournalFile = new File(journalFile.getParentFile(), JOURNAL_FILE_NAME + ".tmp");
+				try (FileOutputStream out = new FileOutputStream(tmpJournalFile))
+				{
+					Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+					for (Record record : remainingRecords)
+					{
+						writer.write(record.toJson());
+						writer.write('\n');
+					}
+					writer.flush();
+					out.getFD().sync();
+				}
+				try
+				{
+					Files.move(tmpJournalFile.toPath(), journalFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (AtomicMoveNotSupportedException e)
+				{
+					Files.move(tmpJournalFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			catch (Exception e)
+			{
+				log.warn("FightJournal.removeRecords: Error while re-writing journal: {}", e.getMessage());
+			}
+		}
+	}
+
+	static List<Record> readRecordsFrom(File journalFile)
+	{
+		List<Record> records = new ArrayList<>();
+		if (!journalFile.exists())
+		{
+			return records;
+		}
+
+		try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (Strings.isNullOrEmpty(line.trim()))
+				{
+					continue;
+				}
+
+				// skip lines that can't be read, i.e the last line if the client crashed while writing it.
+				try
+				{
+					Record record = GSON.fromJson(line, Record.class);
+					if (record != null && record.type != null && record.chunkName != null && record.fightKey != null)
+					{
+						records.add(record);
+					}
+				}
+				catch (Exception e)
+				{
+					log.debug("FightJournal: Skipping unreadable journal record: {}", e.getMessage());
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("FightJournal: Error while reading journal: {}", e.getMessage());
+		}
+		return records;
+	}
+
+	private static File getJournalFile()
+	{
+		FIGHT_HISTORY_DATA_DIR.mkdirs();
+		return new File(FIGHT_HISTORY_DATA_DIR, JOURNAL_FILE_NAME);
+	}
+}
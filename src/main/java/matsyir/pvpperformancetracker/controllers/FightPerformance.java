@@ -24,8 +24,13 @@
  */
 package matsyir.pvpperformancetracker.controllers;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -44,6 +49,7 @@ import matsyir.pvpperformancetracker.models.AnimationData.AttackStyle;
 import matsyir.pvpperformancetracker.models.AssumedPrayers;
 import matsyir.pvpperformancetracker.models.CombatLevels;
 import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.LocalPlayerState;
 import matsyir.pvpperformancetracker.models.FightType;
 import matsyir.pvpperformancetracker.utils.FightIdGenerator;
 import matsyir.pvpperformancetracker.views.FightPerformancePanel;
@@ -72,6 +78,9 @@ public class FightPerformance implements Comparable<FightPerformance>
 	// Delay to assume a fight is over. May seem long, but sometimes people barrage &
 	// stand under for a while to eat. Fights will automatically end when either competitor dies.
 	private static final Duration NEW_FIGHT_DELAY = Duration.ofSeconds(21);
+	private static final Item[] NO_ITEMS = new Item[0];
+	static final int ROBE_BOTTOM = 1;
+	static final int ROBE_TOP = 2;
 
 	public static final List<String> PRESET_FILTER_KEYWORDS = List.of(
 		"favorite", "sync", "kill", "death", "double", "doubledeath", FightPerformancePanel.BackgroundStyle.PRESET_FILTER_STYLE_KEYWORD);
@@ -117,7 +126,7 @@ public class FightPerformance implements Comparable<FightPerformance>
 	private transient long initialTime = 0;
 	private transient int initialFightTick = -1;
 	private transient boolean logTicksRelative = false;
-	private transient int[] lastNonEmptyInventorySnapshot;
+	private transient InventoryTracker inventoryTracker;
 
 	private int competitorPrevHp; // intentionally don't serialize this, temp variable used to calculate hp healed.
 
@@ -136,14 +145,24 @@ public class FightPerformance implements Comparable<FightPerformance>
 	private transient int opponentKoChanceCount = 0;
 	private transient double competitorSurvivalProb = 1.0;
 	private transient double opponentSurvivalProb = 1.0;
+	// set by the session autosave on the executor, while the client thread may be reading it
 	@Getter
 	@Setter
-	private transient String loadedFromFname;
+	private transient volatile String loadedFromFname;
 	@Getter
 	@Setter
 	private transient boolean isFavorite;
 
 	private transient FightPerformancePanel.BackgroundStyle bgStyle = null;
+	// values normally derived from the fight logs, kept for saved fights whose fight logs were released from memory.
+	private transient FightSummary savedSummary;
+	// views/exports currently using the fight logs, see acquireFightLogs.
+	private transient int fightLogUsers = 0;
+	// true if the fight logs were read back from the data file for acquireFightLogs, rather than kept in memory.
+	private transient boolean fightLogsLoadedOnDemand = false;
+	// true if the fight was recalculated since it was saved: fight logs read back from its chunk are recalculated.
+	@Setter
+	private transient volatile boolean fightLogsOutdated = false;
 
 	// shouldn't be used, just here so we can make a subclass, weird java thing
 	public FightPerformance()
@@ -174,9 +193,9 @@ public class FightPerformance implements Comparable<FightPerformance>
 		// determine the opponent from is not fully reliable.
 		lastFightTime = Instant.now().minusSeconds(NEW_FIGHT_DELAY.getSeconds() - 5).toEpochMilli();
 		initialTime = Instant.now().toEpochMilli();
-		int[] startInventory = captureInventoryItemIds();
-		this.inventorySnapshots = new InventorySnapshots(startInventory, null);
-		recordNonEmptyInventorySnapshot(startInventory);
+		this.inventoryTracker = new InventoryTracker();
+		inventoryTracker.reset(getInventoryItems(PLUGIN.getClient().getItemContainer(InventoryID.INVENTORY)));
+		this.inventorySnapshots = new InventorySnapshots(inventoryTracker.getCurrentItemIds(), null);
 
 		this.competitor = new Fighter(this, competitor);
 		this.opponent = new Fighter(this, opponent);
@@ -187,20 +206,67 @@ public class FightPerformance implements Comparable<FightPerformance>
 		this.pluginVersion = PLUGIN.PLUGIN_VERSION;
 	}
 
+	// constructor used to replay recorded fights (see FightEventReplayer): everything that's normally read from the
+	// client when a fight starts comes from the recording instead. Inventory snapshots aren't recorded.
+	FightPerformance(Player competitor, Player opponent, FightType fightType, int world, long startTime,
+		CombatLevels competitorBaseLevels, int competitorHp, int competitorMagicXp)
+	{
+		this.fightType = fightType;
+		this.world = world;
+
+		lastFightTime = startTime - NEW_FIGHT_DELAY.minusSeconds(5).toMillis();
+		initialTime = startTime;
+		this.inventoryTracker = new InventoryTracker();
+		this.inventorySnapshots = new InventorySnapshots(new int[0], null);
+
+		this.competitor = new Fighter(this, competitor, competitorBaseLevels);
+		this.opponent = new Fighter(this, opponent, null);
+		this.competitor.setReplayed(true);
+		this.opponent.setReplayed(true);
+
+		this.competitorPrevHp = competitorHp;
+		this.competitor.setLastGhostBarrageCheckedMageXp(competitorMagicXp);
+
+		this.pluginVersion = PLUGIN.PLUGIN_VERSION;
+	}
+
+	// the matcher used to match this fight's hitsplats to its attacks, set once the fight is tracked by a FightRegistry
+	void setHitsplatMatcher(HitsplatMatcher hitsplatMatcher)
+	{
+		competitor.setHitsplatMatcher(hitsplatMatcher);
+		opponent.setHitsplatMatcher(hitsplatMatcher);
+	}
+
 	// If the given playerName is in this fight, check the Fighter's current animation,
 	// add an attack if attacking, and compare attack style used with the opponent's overhead
-	// to determine if successful.
-	public void checkForAttackAnimations(
+	// to determine if successful. Returns true if an attack was added.
+	public boolean checkForAttackAnimations(
 		Player eventSource,
 		String interactingName,
 		AnimationData animationData,
 		int animationTick,
 		long animationTime,
 		CombatLevels competitorLevels)
+	{
+		return checkForAttackAnimations(eventSource, interactingName, animationData, animationTick, animationTime, competitorLevels,
+			new LocalPlayerState(PLUGIN.getClient()), PLUGIN.currentlyUsedOffensivePray());
+	}
+
+	// localPlayerState & competitorOffensivePray are normally read from the client, but are passed in
+	// so recorded fights can be replayed.
+	boolean checkForAttackAnimations(
+		Player eventSource,
+		String interactingName,
+		AnimationData animationData,
+		int animationTick,
+		long animationTime,
+		CombatLevels competitorLevels,
+		LocalPlayerState localPlayerState,
+		int competitorOffensivePray)
 	{
 		if (eventSource == null || eventSource.getName() == null || interactingName == null || animationData == null)
 		{
-			return;
+			return false;
 		}
 
 		String eName = eventSource.getName(); // event source name
@@ -211,7 +277,7 @@ public class FightPerformance implements Comparable<FightPerformance>
 		int assumedOffensivePray = AssumedPrayers.assumedOffensivePray(
 			animationData.attackStyle,
 			fightType,
-			AssumedPrayers.localPrayerLevel(PLUGIN.getClient()),
+			localPlayerState.getPrayerLevel(),
 			competitorLevels.def);
 
 		// verify that the player is interacting with their tracked opponent before adding attacks
@@ -219,15 +285,15 @@ public class FightPerformance implements Comparable<FightPerformance>
 		{
 			recordInitialFightTick(animationTick);
 			competitor.setPlayer(eventSource);
-			int offensivePray = PLUGIN.currentlyUsedOffensivePray();
 			competitor.addAttack(
 				opponent.getPlayer(),
 				animationData,
-				offensivePray,
+				competitorOffensivePray,
 				assumedOffensivePray,
 				competitorLevels,
 				animationTick,
-				animationTime);
+				animationTime,
+				localPlayerState);
 			lastFightTime = animationTime;
 			addedAttack = true;
 			ensureFightIdGenerated();
@@ -246,10 +312,11 @@ public class FightPerformance implements Comparable<FightPerformance>
 				null,
 				competitorLevels,
 				animationTick,
-				animationTime);
+				animationTime,
+				localPlayerState);
 			addedAttack = true;
 			// add a defensive log for the competitor while the opponent is attacking, to be used with the fight analysis/merge
-			competitor.addDefensiveLogs(competitorLevels, PLUGIN.currentlyUsedOffensivePray(), animationTick, animationTime);
+			competitor.addDefensiveLogs(competitorLevels, competitorOffensivePray, animationTick, animationTime, localPlayerState);
 			lastFightTime = animationTime;
 			ensureFightIdGenerated();
 		}
@@ -262,6 +329,7 @@ public class FightPerformance implements Comparable<FightPerformance>
 		{
 			calculateRobeHits(CONFIG.robeHitFilter());
 		}
+		return addedAttack;
 	}
 
 	private void recordInitialFightTick(int animationTick)
@@ -290,6 +358,14 @@ public class FightPerformance implements Comparable<FightPerformance>
 		}
 
 		makeLogTicksRelativeToStart(entries, startTick);
+		if (inventorySnapshots != null && inventorySnapshots.changes != null)
+		{
+			int[] changes = inventorySnapshots.changes;
+			for (int i = 0; i < changes.length; i += 2)
+			{
+				changes[i] = Math.max(0, changes[i] - startTick);
+			}
+		}
 		logTicksRelative = true;
 	}
 
@@ -408,6 +484,108 @@ public class FightPerformance implements Comparable<FightPerformance>
 		return combinedList;
 	}
 
+	public boolean hasFightLogs()
+	{
+		return competitor != null && opponent != null
+			&& competitor.getFightLogEntries() != null && opponent.getFightLogEntries() != null;
+	}
+
+	// returns the values derived from the fight logs. These are calculated from the fight logs if they're loaded,
+	// otherwise they come from the summary saved when the fight logs were released.
+	public FightSummary getSummary()
+	{
+		if (!hasFightLogs() && savedSummary != null)
+		{
+			return savedSummary;
+		}
+
+		return FightSummary.of(this);
+	}
+
+	// drop the fight logs of a saved fight to save memory, keeping a summary of the values derived from them.
+	// they can be read back from the fight's data file using loadFightLogs.
+	public synchronized void releaseFightLogs()
+	{
+		if (!hasFightLogs() || !isSavedToFile() || fightLogUsers > 0)
+		{
+			return;
+		}
+
+		savedSummary = FightSummary.of(this);
+		bgStyle = savedSummary.getBgStyle();
+		competitor.releaseFightLogEntries();
+		opponent.releaseFightLogEntries();
+	}
+
+	// read the fight logs back from the fight's data file if they were released.
+	// returns true if the fight logs are available.
+	public synchronized boolean loadFightLogs()
+	{
+		if (hasFightLogs())
+		{
+			return true;
+		}
+
+		FightPerformance savedFight = FightPerformanceSerializer.readSavedFight(this);
+		if (savedFight == null || !savedFight.hasFightLogs())
+		{
+			return false;
+		}
+
+		boolean sameOrder = Objects.equals(savedFight.competitor.getName(), competitor.getName());
+		competitor.restoreFightLogEntries((sameOrder ? savedFight.competitor : savedFight.opponent).getFightLogEntries());
+		opponent.restoreFightLogEntries((sameOrder ? savedFight.opponent : savedFight.competitor).getFightLogEntries());
+		initializeFightLogNames();
+
+		// the fight was recalculated since it was saved, the results may not be in its chunk yet
+		if (fightLogsOutdated)
+		{
+			FightHistoryRecalculator.recalculate(this, this).applyToLogSource();
+		}
+		return true;
+	}
+
+	// load the fight logs for something that only needs them for a while, like a fight log frame or an export.
+	// returns true if the fight logs are available, in which case releaseAcquiredFightLogs must be called once
+	// they aren't needed anymore.
+	public synchronized boolean acquireFightLogs()
+	{
+		boolean hadFightLogs = hasFightLogs();
+		if (!loadFightLogs())
+		{
+			return false;
+		}
+
+		if (!hadFightLogs)
+		{
+			fightLogsLoadedOnDemand = true;
+		}
+		fightLogUsers++;
+		return true;
+	}
+
+	// release the fight logs once nothing uses them anymore, if they were only read back for acquireFightLogs.
+	// fight logs that were already in memory (e.g a live fight, or one from this session) are kept.
+	public synchronized void releaseAcquiredFightLogs()
+	{
+		if (fightLogUsers == 0)
+		{
+			return;
+		}
+
+		fightLogUsers--;
+		if (fightLogUsers == 0 && fightLogsLoadedOnDemand)
+		{
+			fightLogsLoadedOnDemand = false;
+			releaseFightLogs();
+		}
+	}
+
+	void setSavedSummary(FightSummary summary)
+	{
+		savedSummary = summary;
+	}
+
 	public void initializeFightLogNames()
 	{
 		if (competitor != null && competitor.getFightLogEntries() != null)
@@ -453,62 +631,30 @@ public class FightPerformance implements Comparable<FightPerformance>
 		{
 			inventorySnapshots = new InventorySnapshots(null, null);
 		}
-		int[] endingInventory = captureInventoryItemIds();
-		if (hasAnyItem(endingInventory))
+		if (inventoryTracker == null)
 		{
-			inventorySnapshots.end = endingInventory;
-			recordNonEmptyInventorySnapshot(endingInventory);
 			return;
 		}
 
-		inventorySnapshots.end = lastNonEmptyInventorySnapshot != null ? lastNonEmptyInventorySnapshot : endingInventory;
+		updateInventory(PLUGIN.getClient().getTickCount(), PLUGIN.getClient().getItemContainer(InventoryID.INVENTORY));
+		int[] lastNonEmptyInventory = inventoryTracker.getLastNonEmptyItemIds();
+		inventorySnapshots.end = !inventoryTracker.isEmpty() || lastNonEmptyInventory == null ?
+			inventoryTracker.getCurrentItemIds() : lastNonEmptyInventory;
+		inventorySnapshots.changes = inventoryTracker.getChanges();
 	}
 
-	public void recordCurrentInventorySnapshot()
+	// called when the inventory changed: only the changed slots are logged, in the inventory snapshots' changes.
+	public void updateInventory(int tick, ItemContainer inventory)
 	{
-		recordNonEmptyInventorySnapshot(captureInventoryItemIds());
-	}
-
-	private void recordNonEmptyInventorySnapshot(int[] inventory)
-	{
-		if (hasAnyItem(inventory))
+		if (inventoryTracker != null)
 		{
-			lastNonEmptyInventorySnapshot = inventory;
+			inventoryTracker.update(tick, getInventoryItems(inventory));
 		}
 	}
 
-	private boolean hasAnyItem(int[] inventory)
+	private static Item[] getInventoryItems(ItemContainer inventory)
 	{
-		if (inventory == null)
-		{
-			return false;
-		}
-		for (int itemId : inventory)
-		{
-			if (itemId > 0)
-			{
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private int[] captureInventoryItemIds()
-	{
-		ItemContainer inventory = PLUGIN.getClient().getItemContainer(InventoryID.INVENTORY);
-		if (inventory == null)
-		{
-			return new int[0];
-		}
-
-		Item[] items = inventory.getItems();
-		int[] itemIds = new int[items.length];
-		for (int i = 0; i < items.length; i++)
-		{
-			Item item = items[i];
-			itemIds[i] = item == null ? -1 : item.getId();
-		}
-		return itemIds;
+		return inventory == null ? NO_ITEMS : inventory.getItems();
 	}
 
 	public FightPerformance getPvpHubDisplayFight()
@@ -614,14 +760,14 @@ public class FightPerformance implements Comparable<FightPerformance>
 
 	private boolean shouldSwapByFingerprint(FightPerformance localFight)
 	{
-		int currentScore = fighterFingerprintDistance(competitor, localFight.competitor) +
-			fighterFingerprintDistance(opponent, localFight.opponent);
-		int swappedScore = fighterFingerprintDistance(competitor, localFight.opponent) +
-			fighterFingerprintDistance(opponent, localFight.competitor);
+		int currentScore = fighterFingerprintDistance(competitor, localFight.competitor, localFight) +
+			fighterFingerprintDistance(opponent, localFight.opponent, localFight);
+		int swappedScore = fighterFingerprintDistance(competitor, localFight.opponent, localFight) +
+			fighterFingerprintDistance(opponent, localFight.competitor, localFight);
 		return swappedScore + 5 < currentScore;
 	}
 
-	private int fighterFingerprintDistance(Fighter syncedFighter, Fighter localFighter)
+	private int fighterFingerprintDistance(Fighter syncedFighter, Fighter localFighter, FightPerformance localFight)
 	{
 		if (syncedFighter == null || localFighter == null)
 		{
@@ -637,7 +783,7 @@ public class FightPerformance implements Comparable<FightPerformance>
 		score += Math.abs(syncedFighter.getMagicHitCount() - localFighter.getMagicHitCount()) * 2;
 		score += Math.abs(syncedFighter.getHpHealed() - localFighter.getHpHealed());
 		score += Math.abs(syncedFighter.getGhostBarrageCount() - localFighter.getGhostBarrageCount()) * 2;
-		score += Math.abs(fightLogCount(syncedFighter) - fightLogCount(localFighter)) * 3;
+		score += Math.abs(fightLogCount(this, syncedFighter) - fightLogCount(localFight, localFighter)) * 3;
 		if (syncedFighter.isDead() != localFighter.isDead())
 		{
 			score += 25;
@@ -645,9 +791,13 @@ public class FightPerformance implements Comparable<FightPerformance>
 		return score;
 	}
 
-	private int fightLogCount(Fighter fighter)
+	private static int fightLogCount(FightPerformance fight, Fighter fighter)
 	{
-		return fighter.getFightLogEntries() == null ? 0 : fighter.getFightLogEntries().size();
+		if (fighter.getFightLogEntries() == null)
+		{
+			return fight.savedSummary == null ? 0 : fight.savedSummary.getFightLogCount(fighter == fight.competitor);
+		}
+		return fighter.getFightLogEntries().size();
 	}
 
 	private void swapFighters()
@@ -666,6 +816,10 @@ public class FightPerformance implements Comparable<FightPerformance>
 		@Expose
 		@SerializedName("e")
 		private int[] end;
+		// inventory changes through the fight, as (tick, change) pairs: see InventoryTracker
+		@Expose
+		@SerializedName("c")
+		private int[] changes;
 
 		private InventorySnapshots(int[] start, int[] end)
 		{
@@ -674,6 +828,113 @@ public class FightPerformance implements Comparable<FightPerformance>
 		}
 	}
 
+	// Streaming adapter writing the same JSON as the reflective one: see FightDataTypeAdapterFactory.
+	static final class GsonAdapter extends TypeAdapter<FightPerformance>
+	{
+		private final TypeAdapter<Fighter> fighterAdapter;
+		private final TypeAdapter<FightType> fightTypeAdapter;
+
+		GsonAdapter(Gson gson)
+		{
+			fighterAdapter = gson.getAdapter(Fighter.class);
+			fightTypeAdapter = gson.getAdapter(FightType.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, FightPerformance fight) throws IOException
+		{
+			out.beginObject();
+			out.name("c");
+			fighterAdapter.write(out, fight.competitor);
+			out.name("o");
+			fighterAdapter.write(out, fight.opponent);
+			out.name("t").value(fight.lastFightTime);
+			out.name("l");
+			fightTypeAdapter.write(out, fight.fightType);
+			out.name("w").value(fight.world);
+			out.name("fightID").value(fight.fightId);
+			out.name("v").value(fight.pluginVersion);
+			out.name("pn").value(fight.pvpHubUploadName);
+			out.name("i");
+			writeInventorySnapshots(out, fight.inventorySnapshots, true);
+			out.endObject();
+		}
+
+		// the inventory changes are only kept locally, uploads leave them out.
+		static void writeInventorySnapshots(JsonWriter out, InventorySnapshots inventory, boolean includeChanges) throws IOException
+		{
+			if (inventory == null)
+			{
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("s");
+			FightDataTypeAdapterFactory.writeIntArray(out, inventory.start);
+			out.name("e");
+			FightDataTypeAdapterFactory.writeIntArray(out, inventory.end);
+			if (includeChanges)
+			{
+				out.name("c");
+				FightDataTypeAdapterFactory.writeIntArray(out, inventory.changes);
+			}
+			out.endObject();
+		}
+
+		@Override
+		public FightPerformance read(JsonReader in) throws IOException
+		{
+			FightPerformance fight = new FightPerformance();
+			in.beginObject();
+			while (in.hasNext())
+			{
+				String name = in.nextName();
+				if (FightDataTypeAdapterFactory.skipNull(in))
+				{
+					continue;
+				}
+				switch (name)
+				{
+					case "c": fight.competitor = fighterAdapter.read(in); break;
+					case "o": fight.opponent = fighterAdapter.read(in); break;
+					case "t": fight.lastFightTime = in.nextLong(); break;
+					case "l": fight.fightType = fightTypeAdapter.read(in); break;
+					case "w": fight.world = in.nextInt(); break;
+					case "fightID": fight.fightId = FightDataTypeAdapterFactory.readString(in); break;
+					case "v": fight.pluginVersion = FightDataTypeAdapterFactory.readString(in); break;
+					case "pn": fight.pvpHubUploadName = FightDataTypeAdapterFactory.readString(in); break;
+					case "i": fight.inventorySnapshots = readInventorySnapshots(in); break;
+					default: in.skipValue(); break;
+				}
+			}
+			in.endObject();
+			return fight;
+		}
+
+		private static InventorySnapshots readInventorySnapshots(JsonReader in) throws IOException
+		{
+			InventorySnapshots inventory = new InventorySnapshots(null, null);
+			in.beginObject();
+			while (in.hasNext())
+			{
+				String name = in.nextName();
+				if (FightDataTypeAdapterFactory.skipNull(in))
+				{
+					continue;
+				}
+				switch (name)
+				{
+					case "s": inventory.start = FightDataTypeAdapterFactory.readIntArray(in); break;
+					case "e": inventory.end = FightDataTypeAdapterFactory.readIntArray(in); break;
+					case "c": inventory.changes = FightDataTypeAdapterFactory.readIntArray(in); break;
+					default: in.skipValue(); break;
+				}
+			}
+			in.endObject();
+			return inventory;
+		}
+	}
+
 	private static String normalizeName(String name)
 	{
 		if (name == null)
@@ -776,6 +1037,18 @@ public class FightPerformance implements Comparable<FightPerformance>
 	{
 		competitor.resetRobeHits();
 		opponent.resetRobeHits();
+
+		// saved fights without their fight logs loaded use the robe hits counted for each filter when they were released
+		if (!hasFightLogs() && savedSummary != null)
+		{
+			if (filter != null)
+			{
+				competitor.setRobeHits(savedSummary.getCompetitorRobeHits(filter));
+				opponent.setRobeHits(savedSummary.getOpponentRobeHits(filter));
+			}
+			return;
+		}
+
 		ArrayList<FightLogEntry> allFightLogEntries	= getAllFightLogEntries();
 		if (filter == null || allFightLogEntries == null || allFightLogEntries.isEmpty())
 		{
@@ -784,89 +1057,96 @@ public class FightPerformance implements Comparable<FightPerformance>
 
 		for (FightLogEntry entry : allFightLogEntries)
 		{
-			if (entry == null)
+			if (entry == null || entry.getAttackerName() == null)
 			{
 				continue;
 			}
 
-			// Only consider melee and ranged attacks for robe hits
-			AnimationData ad = entry.getAnimationData();
-			if (ad == null)
-			{
-				continue;
-			}
-			AttackStyle style = ad.attackStyle;
-			if (style == AttackStyle.MAGIC)
+			if (isHitOnRobes(entry, filter))
 			{
-				continue;
+				// Determine who the defender is for this specific entry
+				if (entry.getAttackerName().equals(competitor.getName()))
+				{
+					opponent.addRobeHit();
+				}
+				else
+				{
+					competitor.addRobeHit();
+				}
 			}
+		}
+	}
 
-			// Determine who the defender is for this specific entry
-			Fighter defender = entry.getAttackerName().equals(competitor.getName()) ? opponent : competitor;
-			if (defender == null)
-			{
-				continue;
-			}
+	// returns true if the entry is a melee or ranged attack on a defender wearing robes, according to the filter
+	static boolean isHitOnRobes(FightLogEntry entry, PvpPerformanceTrackerConfig.RobeHitFilter filter)
+	{
+		return matchesRobeHitFilter(getDefenderRobes(entry), filter);
+	}
 
-			int[] gear = entry.getDefenderGear();
-			if (gear == null || gear.length <= Math.max(KitType.LEGS.getIndex(), KitType.TORSO.getIndex()))
-			{
-				continue;
-			}
+	static boolean matchesRobeHitFilter(int defenderRobes, PvpPerformanceTrackerConfig.RobeHitFilter filter)
+	{
+		boolean wearingRobeBottom = (defenderRobes & ROBE_BOTTOM) != 0;
+		boolean wearingRobeTop = (defenderRobes & ROBE_TOP) != 0;
+		switch (filter)
+		{
+			case BOTTOM:
+				return wearingRobeBottom;
+			case TOP:
+				return wearingRobeTop;
+			case BOTH:
+				return wearingRobeBottom && wearingRobeTop;
+			case EITHER:
+				return wearingRobeBottom || wearingRobeTop;
+			default:
+				return false;
+		}
+	}
 
-			int defenderLegsItemId = fixItemId(gear[KitType.LEGS.getIndex()]);
-			int defenderBodyItemId = fixItemId(gear[KitType.TORSO.getIndex()]);
+	// returns which robes (ROBE_BOTTOM/ROBE_TOP flags) the defender wore, if the entry is a melee or ranged attack.
+	static int getDefenderRobes(FightLogEntry entry)
+	{
+		// Only consider melee and ranged attacks for robe hits
+		AnimationData ad = entry.getAnimationData();
+		if (ad == null)
+		{
+			return 0;
+		}
+		AttackStyle style = ad.attackStyle;
+		if (style == AttackStyle.MAGIC)
+		{
+			return 0;
+		}
 
-			// Compute stats for robe bottom/top
-			boolean wearingRobeBottom = false;
-			if (defenderLegsItemId != 0)
-			{
-				int[] legStats = PvpDamageCalc.getItemStats(defenderLegsItemId);
-				if (legStats != null && legStats.length > RANGE_DEF)
-				{
-					wearingRobeBottom = legStats[RANGE_DEF] <= 0; // ==0 seems reliable but <=0 doesn't hurt
-				}
-			}
+		int[] gear = entry.getDefenderGear();
+		if (gear == null || gear.length <= Math.max(KitType.LEGS.getIndex(), KitType.TORSO.getIndex()))
+		{
+			return 0;
+		}
 
-			boolean wearingRobeTop = false;
-			if (defenderBodyItemId != 0)
-			{
-				int[] bodyStats = PvpDamageCalc.getItemStats(defenderBodyItemId);
-				if (bodyStats != null && bodyStats.length > RANGE_DEF)
-				{
-					wearingRobeTop = bodyStats[RANGE_DEF] <= 0; // ==0 seems reliable but <=0 doesn't hurt
-				}
-			}
+		int defenderLegsItemId = fixItemId(gear[KitType.LEGS.getIndex()]);
+		int defenderBodyItemId = fixItemId(gear[KitType.TORSO.getIndex()]);
 
-			boolean isHitOnRobes = false;
-			switch (filter)
+		// Compute stats for robe bottom/top
+		int defenderRobes = 0;
+		if (defenderLegsItemId != 0)
+		{
+			int[] legStats = PvpDamageCalc.getItemStats(defenderLegsItemId);
+			if (legStats != null && legStats.length > RANGE_DEF && legStats[RANGE_DEF] <= 0) // ==0 seems reliable but <=0 doesn't hurt
 			{
-				case BOTTOM:
-					isHitOnRobes = wearingRobeBottom;
-					break;
-				case TOP:
-					isHitOnRobes = wearingRobeTop;
-					break;
-				case BOTH:
-					isHitOnRobes = wearingRobeBottom && wearingRobeTop;
-					break;
-				case EITHER:
-					isHitOnRobes = wearingRobeBottom || wearingRobeTop;
-					break;
+				defenderRobes |= ROBE_BOTTOM;
 			}
+		}
 
-			if (isHitOnRobes)
+		if (defenderBodyItemId != 0)
+		{
+			int[] bodyStats = PvpDamageCalc.getItemStats(defenderBodyItemId);
+			if (bodyStats != null && bodyStats.length > RANGE_DEF && bodyStats[RANGE_DEF] <= 0) // ==0 seems reliable but <=0 doesn't hurt
 			{
-				if (defender == competitor)
-				{
-					competitor.addRobeHit();
-				}
-				else if (defender == opponent)
-				{
-					opponent.addRobeHit();
-				}
+				defenderRobes |= ROBE_TOP;
 			}
 		}
+
+		return defenderRobes;
 	}
 
 	/**
@@ -894,6 +1174,10 @@ public class FightPerformance implements Comparable<FightPerformance>
 
 	long getFightIdAnchorTime()
 	{
+		if (!hasFightLogs() && savedSummary != null)
+		{
+			return savedSummary.getFightIdAnchorTime();
+		}
 		return getFightIdAnchorTime(getAllFightLogEntries(), lastFightTime);
 	}
 
@@ -929,11 +1213,17 @@ public class FightPerformance implements Comparable<FightPerformance>
 
 	public FightPerformancePanel.BackgroundStyle getBgStyle()
 	{
-		if (bgStyle != null)
+		if (bgStyle == null)
 		{
-			return bgStyle;
+			bgStyle = !hasFightLogs() && savedSummary != null ? savedSummary.getBgStyle() : calculateBgStyle();
 		}
 
+		return bgStyle;
+	}
+
+	// determine the background style based on how the fight ended, using the last fight log of each fighter.
+	FightPerformancePanel.BackgroundStyle calculateBgStyle()
+	{
 		boolean cmpDied = competitor.isDead();
 		boolean oppDied = opponent.isDead();
 		FightLogEntry lastCmpLog = null;
@@ -955,8 +1245,7 @@ public class FightPerformance implements Comparable<FightPerformance>
 		boolean validOppLog = (lastOppLog != null && lastOppLog.getAnimationData() != null);
 		if (!validCmpLog && !validOppLog)
 		{
-			bgStyle = FightPerformancePanel.BackgroundStyle.DEFAULT;
-			return bgStyle;
+			return FightPerformancePanel.BackgroundStyle.DEFAULT;
 		}
 
 		boolean isCmpMaxHitKo = validCmpLog && oppDied && lastCmpLog.getMaxHit() == lastCmpLog.getActualDamageSum();;
@@ -977,34 +1266,32 @@ public class FightPerformance implements Comparable<FightPerformance>
 
 		if (isCmpSpecMaxHitKo || isOppSpecMaxHitKo)
 		{
-			bgStyle = FightPerformancePanel.BackgroundStyle.MAX_SPEC_KO;
+			return FightPerformancePanel.BackgroundStyle.MAX_SPEC_KO;
 		}
 		else if (isCmpSpecKo || isOppSpecKo)
 		{
-			bgStyle = FightPerformancePanel.BackgroundStyle.SPEC_KO;
+			return FightPerformancePanel.BackgroundStyle.SPEC_KO;
 		}
 		else if (isCmpPunchKo || isOppPunchKo)
 		{
-			bgStyle = FightPerformancePanel.BackgroundStyle.PUNCH_KO;
+			return FightPerformancePanel.BackgroundStyle.PUNCH_KO;
 		}
 		else if (isCmpKickKo || isOppKickKo)
 		{
-			bgStyle = FightPerformancePanel.BackgroundStyle.KICK_KO;
+			return FightPerformancePanel.BackgroundStyle.KICK_KO;
 		}
 		else if (isCmpStaffKo || isOppStaffKo)
 		{
-			bgStyle = FightPerformancePanel.BackgroundStyle.STAFF_KO;
+			return FightPerformancePanel.BackgroundStyle.STAFF_KO;
 		}
 		else if (isCmpMaxHitKo || isOppMaxHitKo)
 		{
-			bgStyle = FightPerformancePanel.BackgroundStyle.MAX_HIT_KO;
+			return FightPerformancePanel.BackgroundStyle.MAX_HIT_KO;
 		}
 		else
 		{
-			bgStyle = FightPerformancePanel.BackgroundStyle.DEFAULT;
+			return FightPerformancePanel.BackgroundStyle.DEFAULT;
 		}
-
-		return bgStyle;
 	}
 
 	public boolean isSavedToFile()
@@ -2,19 +2,25 @@ package matsyir.pvpperformancetracker.controllers;
 
 import java.awt.Color;
 import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
-import java.util.function.BiPredicate;
+import java.util.NavigableMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 import joptsimple.internal.Strings;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.CONFIG;
-import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.PLUGIN;
+import matsyir.pvpperformancetracker.models.FightType;
 import matsyir.pvpperformancetracker.utils.PvpColorScheme;
 import matsyir.pvpperformancetracker.utils.PvpUtils;
 import matsyir.pvpperformancetracker.views.FightPerformancePanel;
-import net.runelite.api.PlayerComposition;
-import net.runelite.api.kit.KitType;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.util.ColorUtil;
 
@@ -23,117 +29,127 @@ import net.runelite.client.util.ColorUtil;
 public enum FightPerformanceFilter
 {
 	// ordered by how they should be shown in the filter dropdown, just relevancy really.
-	// Ideally, all the filter keywords & matchProviders should short-circuit fairly quickly, so that not much processing
-	// is wasted on them. Either way though, creating & re-loading/painting the actual UI/Panels is the intensive part
-	// of filtering, not really the actual filtering, for the most part.
+	// Each filter compiles a filter term into a CompiledFightFilter.Term once per filter change, which is then
+	// matched against the fights' pre-computed attributes (see FightFilterIndex), so anything that can be parsed or
+	// looked up up-front should be done in the termCompiler rather than in the returned Term.
 
 	// dev filters for testing:
 	// long RSNs: to test UI with the longest names
-	//_DEV_LONG_RSN("DEV: Long RSNs", true, "::long", (_f, f) -> f.getCompetitor().getName().length() >= 12 || f.getOpponent().getName().length() >= 12),
+	//_DEV_LONG_RSN("DEV: Long RSNs", true, "::long", _f -> e -> e.getCompetitorName().length() >= 12 || e.getOpponentName().length() >= 12),
 
 	FAVORITE("<html><font color='" + ColorUtil.colorToHexCode(PvpColorScheme.FAVORITE_GOLD) + "'>&#9733;&nbsp;Favorite Fights",
-		true, "::fav", (_f, f) -> f.isFavorite()),
+		true, "::fav", _f -> e -> e.getFight().isFavorite()),
 
 	SYNCED_FROM_PVP_HUB("<html><font color='" + ColorUtil.colorToHexCode(PvpColorScheme.GREEN_TEXT_ACTION) +
 		"'>&#8645;&nbsp;Synced Fights</font> (via <font color='" + ColorUtil.colorToHexCode(PvpColorScheme.BLUE_TEXT_URL) +
-		"'><u>PvP-Hub</u></font>)", true, "::sync", (_f, f) -> f.hasPvpHubSyncedFight()),
+		"'><u>PvP-Hub</u></font>)", true, "::sync", _f -> e -> e.getFight().hasPvpHubSyncedFight()),
 
 	KILLS("<html><font color='" + ColorUtil.colorToHexCode(PvpColorScheme.BRAND_ORANGE) + "'>&#9818;&nbsp;Kills",
-		true, "::kill", (_f, f) -> f.getOpponent().isDead()),
+		true, "::kill", _f -> e -> e.getFight().getOpponent().isDead()),
 
 	DEATHS("<html><font color='" + ColorUtil.colorToHexCode(PvpColorScheme.BLOOD_RED_ORANGE) + "'>&#9760;&nbsp;Deaths",
-		true, "::death", (_f, f) -> f.getCompetitor().isDead()),
+		true, "::death", _f -> e -> e.getFight().getCompetitor().isDead()),
 
 	DOUBLE_DEATHS("<html><font color='" + ColorUtil.colorToHexCode(PvpColorScheme.BLOOD_RED_ORANGE_REDDER) +
-		"'>&#9760;&#9760;&nbsp;Double-Deaths", true, "::double", (_f, f) -> f.getCompetitor().isDead() && f.getOpponent().isDead()),
+		"'>&#9760;&#9760;&nbsp;Double-Deaths", true, "::double", _f -> e -> e.getFight().getCompetitor().isDead() && e.getFight().getOpponent().isDead()),
 
 	COMPETITOR_ATTACK_COUNT("<html><font color='" + ColorUtil.colorToHexCode(ColorUtil.colorLerp(PvpColorScheme.BLUE_TEXT_URL, Color.BLUE, 0.25f)) +
-		"'>&#8807;&sup1;&nbsp;Competitor Attack Count >", true, "::atk", "::atk>20", (filter, f) ->
-		ComparisonType.parseAndCompareInt(f.getCompetitor().getAttackCount(), "::atk", filter)),
+		"'>&#8807;&sup1;&nbsp;Competitor Attack Count >", true, "::atk", "::atk>20", filter ->
+		ComparisonType.compileIntTerm("::atk", filter, e -> e.getFight().getCompetitor().getAttackCount())),
 
 	COMPETITOR_EXPECTED_DMG("<html><font color='" + ColorUtil.colorToHexCode(ColorUtil.colorLerp(PvpColorScheme.BLUE_TEXT_URL, Color.BLUE, 0.4f)) +
 		"'>&#8807;&sup2;&nbsp;Competitor Expected Damage >",
-		true, "::ed", "::ed>50", (filter, f) ->
-		ComparisonType.parseAndCompareInt((int)f.getCompetitor().getExpectedDamage(), "::ed", filter)),
+		true, "::ed", "::ed>50", filter ->
+		ComparisonType.compileIntTerm("::ed", filter, e -> (int)e.getFight().getCompetitor().getExpectedDamage())),
 
 	COMPETITOR_DMG_DEALT("<html><font color='" + ColorUtil.colorToHexCode(ColorUtil.colorLerp(PvpColorScheme.BLUE_TEXT_URL, Color.BLUE, 0.55f)) +
 		"'>&#8807;&sup3;&nbsp;Competitor Damage Dealt >",
-		true, "::d", "::d>50", (filter, f) ->
-		ComparisonType.parseAndCompareInt(f.getCompetitor().getDamageDealt(), "::d", filter)),
+		true, "::d", "::d>50", filter ->
+		ComparisonType.compileIntTerm("::d", filter, e -> e.getFight().getCompetitor().getDamageDealt())),
+
+	WORLD("<html><font color='" + ColorUtil.colorToHexCode(ColorUtil.colorLerp(PvpColorScheme.BLUE_TEXT_URL, Color.GREEN, 0.35f)) +
+		"'>&#9673;&nbsp;World", true, "::world", "::world=330", filter ->
+		ComparisonType.compileIntTerm("::world", filter, FightFilterIndex.Entry::getWorld, FightFilterIndex::getByWorld)),
+
+	// dates are compared as yyyymmdd numbers, so any separator can be used, e.g. '::date>=2026-01-31'
+	DATE("<html><font color='" + ColorUtil.colorToHexCode(ColorUtil.colorLerp(PvpColorScheme.BLUE_TEXT_URL, Color.GREEN, 0.6f)) +
+		"'>&#9719;&nbsp;Fight Date (yyyy-mm-dd)", true, "::date", "::date>=2026-01-01", filter ->
+		ComparisonType.compileIntTerm("::date", filter, FightFilterIndex.Entry::getDate, FightFilterIndex::getByDate)),
+
+	// fight type name match, e.g. '::type=lms' for every LMS fight, or '::type=normal' for every other fight.
+	FIGHT_TYPE("<html><font color='" + ColorUtil.colorToHexCode(PvpColorScheme.BRAND_ORANGE) +
+		"'>&#9878;&nbsp;Fight Type", true, "::type=", "::type=lms", filter ->
+	{
+		String typeName = filter.substring("::type=".length()).replace(" ", "_");
+		List<FightType> fightTypes = Arrays.stream(FightType.values())
+			.filter(t -> t.name().toLowerCase(Locale.ROOT).startsWith(typeName))
+			.collect(Collectors.toList());
+		return CompiledFightFilter.indexed(e -> fightTypes.contains(e.getFightType()),
+			index -> FightFilterIndex.flatten(fightTypes.stream().map(index::findByFightType).collect(Collectors.toList())));
+	}),
 
 	// non-preset filters: directly compares the filter value with certain fields in the fight, rather than looking
 	// for any hardcoded keywords or prefixes at all.
-	USERNAME_MATCH("Username Match", (filter, f) -> CONFIG.exactNameFilter()
-		? (f.getCompetitor().getName().toLowerCase().equals(filter) || f.getOpponent().getName().toLowerCase().equals(filter))
-		: (f.getCompetitor().getName().toLowerCase().startsWith(filter) || f.getOpponent().getName().toLowerCase().startsWith(filter))),
+	USERNAME_MATCH("Username Match", filter ->
+	{
+		boolean exactNameFilter = CONFIG.exactNameFilter();
+		String name = FightFilterIndex.normalizeName(filter);
+		return CompiledFightFilter.indexed(e -> exactNameFilter
+			? (e.getCompetitorName().equals(name) || e.getOpponentName().equals(name))
+			: (e.getCompetitorName().startsWith(name) || e.getOpponentName().startsWith(name)),
+			index -> index.findByName(name, exactNameFilter));
+	}),
 
 	// bgStyle.name match. e.g, you can search 'max' or 'max hit' to see fights that ended in a max hit ko.
-	BG_STYLE_SPECIFIC("Bg Style", (filter, f) -> (
-		(f.getBgStyle() != FightPerformancePanel.BackgroundStyle.DEFAULT
-			&& f.getBgStyle().isEnabled()
-			&& (f.getBgStyle().getName().toLowerCase().startsWith(filter)
-			|| f.getBgStyle().getName().replace(" ", "").toLowerCase().startsWith(filter.replace(" ", "")))))),
+	BG_STYLE_SPECIFIC("Bg Style", filter -> bgStyleTerm(bgStyle ->
+		bgStyle.getName().toLowerCase().startsWith(filter)
+		|| bgStyle.getName().replace(" ", "").toLowerCase().startsWith(filter.replace(" ", "")))),
 
 	HAS_WEAPON("<html><font color='" + ColorUtil.colorToHexCode(ColorUtil.colorLerp(PvpColorScheme.BLUE_TEXT_URL, Color.MAGENTA, 0.5f)) +
-		"'>&#9876;&nbsp;Fight Includes Weapon", true, "::wep=", "::wep=voidwaker", (filter, f) ->
-		f.getAllFightLogEntries().stream().anyMatch((log) ->
-		{
-			try
-			{
-				int fixedItemId = log.getAttackerGear()[KitType.WEAPON.getIndex()] - PlayerComposition.ITEM_OFFSET;
-				boolean attackerHasWep = fixedItemId > 0 && PLUGIN.getItemManager().getItemComposition(fixedItemId).getName().toLowerCase().startsWith(filter.substring("::wep=".length()));
-				if (attackerHasWep)
-				{
-					return true;
-				}
-
-				fixedItemId = log.getDefenderGear()[KitType.WEAPON.getIndex()] - PlayerComposition.ITEM_OFFSET;
-				return fixedItemId > 0 && PLUGIN.getItemManager().getItemComposition(fixedItemId).getName().toLowerCase().startsWith(filter.substring("::wep=".length()));
-			}
-			catch (Exception ignored)
-			{
-				return false;
-			}
-		})),
+		"'>&#9876;&nbsp;Fight Includes Weapon", true, "::wep=", "::wep=voidwaker", filter ->
+	{
+		String weaponName = filter.substring("::wep=".length());
+		return e -> Arrays.stream(e.getWeaponNames()).anyMatch(name -> name.startsWith(weaponName));
+	}),
 	BG_STYLE_MINUS_SPEC("<html><font color='" + ColorUtil.colorToHexCode(FightPerformancePanel.BackgroundStyle.MAX_HIT_KO.getHighlightColor()) +
 		"'>&#9744;</font>&nbsp;Border Styles (excluding <font color='" + ColorUtil.colorToHexCode(FightPerformancePanel.BackgroundStyle.SPEC_KO.getHighlightColor()) + "'><u>Spec KO</u></font>s)",
-		true, FightPerformancePanel.BackgroundStyle.PRESET_FILTER_STYLE_KEYWORD_NO_SPEC, (_f, f) ->
-		f.getBgStyle() != null && f.getBgStyle().isEnabled() && f.getBgStyle() != FightPerformancePanel.BackgroundStyle.DEFAULT && f.getBgStyle() != FightPerformancePanel.BackgroundStyle.SPEC_KO),
+		true, FightPerformancePanel.BackgroundStyle.PRESET_FILTER_STYLE_KEYWORD_NO_SPEC, _f ->
+		bgStyleTerm(bgStyle -> bgStyle != FightPerformancePanel.BackgroundStyle.SPEC_KO)),
 	BG_STYLE_ALL("<html><font color='" + ColorUtil.colorToHexCode(FightPerformancePanel.BackgroundStyle.SPEC_KO.getHighlightColor()) +
-		"'>&#9744;</font>&nbsp;All Border Styles", true, FightPerformancePanel.BackgroundStyle.PRESET_FILTER_STYLE_KEYWORD, (_f, f) ->
-		f.getBgStyle() != null && f.getBgStyle().isEnabled() && f.getBgStyle() != FightPerformancePanel.BackgroundStyle.DEFAULT);
+		"'>&#9744;</font>&nbsp;All Border Styles", true, FightPerformancePanel.BackgroundStyle.PRESET_FILTER_STYLE_KEYWORD, _f ->
+		bgStyleTerm(bgStyle -> true));
 
 	final String name;
 	final boolean isPresetFilter; // determines if the filter should be shown on the preset filters dropdown.
 	final String filterPrefix; // keyword needed for hardcoded preset filters, or prefix keyword used for dynamic preset filters
 	final String defaultFilterVal; // for dynamic filters, actual default filter used instead of prefix
 	final boolean requiresExactKeywordMatch;
-	final BiPredicate<String, FightPerformance> matchProvider;
+	final Function<String, CompiledFightFilter.Term> termCompiler;
 
 	@Inject
 	private static ItemManager itemManager;
 
-	FightPerformanceFilter(String name, BiPredicate<String, FightPerformance> matchProvider)
+	FightPerformanceFilter(String name, Function<String, CompiledFightFilter.Term> termCompiler)
 	{
-		this(name, false, Strings.EMPTY, matchProvider);
+		this(name, false, Strings.EMPTY, termCompiler);
 	}
 
-	FightPerformanceFilter(String name, boolean isPresetFilter, String filterPrefix, BiPredicate<String, FightPerformance> matchProvider)
+	FightPerformanceFilter(String name, boolean isPresetFilter, String filterPrefix, Function<String, CompiledFightFilter.Term> termCompiler)
 	{
-		this(name, isPresetFilter, filterPrefix, filterPrefix, matchProvider);
+		this(name, isPresetFilter, filterPrefix, filterPrefix, termCompiler);
 	}
 
-	FightPerformanceFilter(String name, boolean isPresetFilter, String filterPrefix, String defaultFilterVal, BiPredicate<String, FightPerformance> matchProvider)
+	FightPerformanceFilter(String name, boolean isPresetFilter, String filterPrefix, String defaultFilterVal, Function<String, CompiledFightFilter.Term> termCompiler)
 	{
 		this.name = name;
 		this.isPresetFilter = isPresetFilter;
 		this.filterPrefix = filterPrefix;
 		this.defaultFilterVal = defaultFilterVal;
 		this.requiresExactKeywordMatch = isPresetFilter && filterPrefix.equals(defaultFilterVal);
-		this.matchProvider = matchProvider;
+		this.termCompiler = termCompiler;
 
 		if ((isPresetFilter && PvpUtils.anyStringNullOrEmpty(this.name, this.filterPrefix, this.defaultFilterVal))
-			|| this.matchProvider == null)
+			|| this.termCompiler == null)
 		{
 			throw new InvalidParameterException("Attempted to initialize FightPerformanceFilter with missing fields.");
 		}
@@ -145,41 +161,47 @@ public enum FightPerformanceFilter
 		return name;
 	}
 
-	public static boolean matches(FightPerformance fight)
+	// compile a single filter term (see CompiledFightFilter) into a Term matching any of the filters which apply to it.
+	static CompiledFightFilter.Term compileTerm(String term)
 	{
-		String requestedFilter = CONFIG.fightFilter();
-		// empty is a valid filter, it means display every fight - don't filter them
-		if (Strings.isNullOrEmpty(requestedFilter))
-		{
-			return true;
-		}
-		requestedFilter = requestedFilter.trim().toLowerCase(Locale.ROOT);
-		if (requestedFilter.isEmpty())
+		// RSNs & border style names can't contain ':', so only keyword filters can match '::' terms.
+		boolean isKeywordTerm = term.startsWith("::");
+		List<CompiledFightFilter.Term> terms = new ArrayList<>();
+		for (FightPerformanceFilter fStyle : FightPerformanceFilter.values())
 		{
-			return true;
-		}
+			if ((isKeywordTerm && fStyle.filterPrefix.isEmpty())
+				|| !(fStyle.requiresExactKeywordMatch ? term.equals(fStyle.filterPrefix) : term.startsWith(fStyle.filterPrefix)))
+			{
+				continue;
+			}
 
-		try
-		{
-			for (FightPerformanceFilter fStyle : FightPerformanceFilter.values())
+			try
 			{
-				try
+				CompiledFightFilter.Term compiledTerm = fStyle.termCompiler.apply(term);
+				if (compiledTerm != null)
 				{
-					if ((fStyle.requiresExactKeywordMatch ? requestedFilter.equals(fStyle.filterPrefix) : requestedFilter.startsWith(fStyle.filterPrefix))
-						&& fStyle.matchProvider.test(requestedFilter, fight))
-					{
-						return true;
-					}
+					terms.add(compiledTerm);
 				}
-				catch (Exception ignored) {}
 			}
-			return false;
-		}
-		catch (Exception e)
-		{
-			log.warn("FightPerformanceFilter.matches: Unexpected error while trying to process filter: " + e.getMessage());
-			return false;
+			catch (Exception e)
+			{
+				log.warn("FightPerformanceFilter.compileTerm: Unexpected error while trying to process filter: " + e.getMessage());
+			}
 		}
+
+		return CompiledFightFilter.anyOf(terms);
+	}
+
+	// matches fights with an enabled, non-default border style accepted by the given predicate.
+	// The styles are known up-front, so only their fights need to be checked.
+	private static CompiledFightFilter.Term bgStyleTerm(Predicate<FightPerformancePanel.BackgroundStyle> bgStyleFilter)
+	{
+		List<FightPerformancePanel.BackgroundStyle> bgStyles = Arrays.stream(FightPerformancePanel.BackgroundStyle.values())
+			.filter(bgStyle -> bgStyle != FightPerformancePanel.BackgroundStyle.DEFAULT && bgStyle.isEnabled() && bgStyleFilter.test(bgStyle))
+			.collect(Collectors.toList());
+
+		return CompiledFightFilter.indexed(e -> bgStyles.contains(e.getBgStyle()),
+			index -> FightFilterIndex.flatten(bgStyles.stream().map(index::findByBgStyle).collect(Collectors.toList())));
 	}
 
 
@@ -240,39 +262,80 @@ public enum FightPerformanceFilter
 				: INVALID;
 		}
 
-		public static boolean parseAndCompareInt(int intToCompare, String requiredPrefix, String filter)
+		// returns null if the filter isn't a valid comparison for the given prefix
+		private static CompiledFightFilter.Term compileIntTerm(String requiredPrefix, String filter, ToIntFunction<FightFilterIndex.Entry> attribute)
 		{
-			try
+			return compileIntTerm(requiredPrefix, filter, attribute, null);
+		}
+
+		// index: optionally, the fights by attribute value, so that only fights within the compared range are checked
+		private static CompiledFightFilter.Term compileIntTerm(String requiredPrefix, String filter, ToIntFunction<FightFilterIndex.Entry> attribute,
+			Function<FightFilterIndex, NavigableMap<Integer, List<FightFilterIndex.Entry>>> index)
+		{
+			ComparisonType type = ComparisonType.from(requiredPrefix, filter);
+			if (type == ComparisonType.INVALID)
 			{
-				ComparisonType type = ComparisonType.from(requiredPrefix, filter);
-				if (type == ComparisonType.INVALID)
-				{
-					throw new Exception("Invalid Comparison");
-				}
+				return null;
+			}
 
-				StringBuilder sb = new StringBuilder();
+			StringBuilder sb = new StringBuilder();
 
-				// remove prefix + gt/gte symbol, remove all chars that aren't digits, append to string
-				filter.substring(requiredPrefix.length() + type.keyword.length())
-					.chars()
-					.mapToObj(c -> (char) c)
-					.filter(Character::isDigit)
-					.forEach(sb::append);
+			// remove prefix + gt/gte symbol, remove all chars that aren't digits, append to string
+			filter.substring(requiredPrefix.length() + type.keyword.length())
+				.chars()
+				.mapToObj(c -> (char) c)
+				.filter(Character::isDigit)
+				.forEach(sb::append);
 
-				// finally, parse int from remaining string
-				int parsedFilterInt = Integer.parseInt(sb.toString());
+			// finally, parse int from remaining string
+			int parsedFilterInt;
+			try
+			{
+				parsedFilterInt = Integer.parseInt(sb.toString());
+			}
+			catch (NumberFormatException e)
+			{
+				return null;
+			}
 
-				return (type == ComparisonType.EQUALS && intToCompare == parsedFilterInt) ||
-					(type == ComparisonType.GT && intToCompare > parsedFilterInt) ||
-					(type == ComparisonType.GTE && intToCompare >= parsedFilterInt) ||
-					(type == ComparisonType.LT && intToCompare < parsedFilterInt) ||
-					(type == ComparisonType.LTE && intToCompare <= parsedFilterInt);
+			if (index == null)
+			{
+				return e -> type.compare(attribute.applyAsInt(e), parsedFilterInt);
 			}
-			catch (Exception e)
+
+			return CompiledFightFilter.indexed(e -> type.compare(attribute.applyAsInt(e), parsedFilterInt),
+				fightFilterIndex -> FightFilterIndex.flatten(type.range(index.apply(fightFilterIndex), parsedFilterInt).values()));
+		}
+
+		private boolean compare(int intToCompare, int filterInt)
+		{
+			return (this == ComparisonType.EQUALS && intToCompare == filterInt) ||
+				(this == ComparisonType.GT && intToCompare > filterInt) ||
+				(this == ComparisonType.GTE && intToCompare >= filterInt) ||
+				(this == ComparisonType.LT && intToCompare < filterInt) ||
+				(this == ComparisonType.LTE && intToCompare <= filterInt);
+		}
+
+		// the part of the map whose keys pass this comparison
+		private <V> NavigableMap<Integer, V> range(NavigableMap<Integer, V> map, int filterInt)
+		{
+			switch (this)
 			{
-				return false;
+				case EQUALS:
+					return map.subMap(filterInt, true, filterInt, true);
+				case GT:
+					return map.tailMap(filterInt, false);
+				case GTE:
+					return map.tailMap(filterInt, true);
+				case LT:
+					return map.headMap(filterInt, false);
+				case LTE:
+					return map.headMap(filterInt, true);
+				default:
+					return Collections.emptyNavigableMap();
 			}
 		}
+
 		public static boolean parseAndCompareString(String strToCompare, String requiredPrefix, String filter)
 		{
 			try
@@ -24,9 +24,14 @@
  */
 package matsyir.pvpperformancetracker.controllers;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AtomicMoveNotSupportedException;
@@ -36,10 +41,16 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -57,18 +68,29 @@ public class FightPerformanceSerializer
 	public static final String DATA_FOLDER = PvpPerformanceTrackerPlugin.DATA_FOLDER;
 	public static final String FIGHT_HISTORY_DATA_FOLDER = "FightHistoryData"; // subfolder of DATA_FOLDER
 	public static final String FAV_FIGHTS_FOLDER = "FavFights"; // subfolder of DATA_FOLDER
+	public static final String FIGHT_SUMMARY_FOLDER = "FightSummaries"; // subfolder of DATA_FOLDER
 
 	public static final File BASE_DATA_DIR;
 	public static final File FIGHT_HISTORY_DATA_DIR;
 	public static final File FAV_FIGHTS_DIR;
-
-	private static long sessionStartTime = Instant.now().toEpochMilli();
+	public static final File FIGHT_SUMMARY_DIR;
+
+	// fights that ended this session but aren't written to a session chunk yet, oldest first.
+	// guarded by SESSION_SAVE_LOCK, which is only held to read or update the queue, never while writing a chunk.
+	private static final List<FightPerformance> unsavedSessionFights = new ArrayList<>();
+	private static final Object SESSION_SAVE_LOCK = new Object();
+	// held while chunks are written in the background, so that session batches, batch merges & journal compaction
+	// never write the same chunk at once. Can be held when taking SESSION_SAVE_LOCK, not the other way around.
+	private static final Object CHUNK_WRITE_LOCK = new Object();
+	// session batch chunks are merged into session chunks of at most this many fights.
+	static final int MAX_FIGHTS_PER_SESSION_CHUNK = 100;
 
 	static
 	{
 		BASE_DATA_DIR = PvpPerformanceTrackerPlugin.BASE_DATA_DIR;
 		FIGHT_HISTORY_DATA_DIR = new File(RuneLite.RUNELITE_DIR, DATA_FOLDER + "/" + FIGHT_HISTORY_DATA_FOLDER);
 		FAV_FIGHTS_DIR = new File(RuneLite.RUNELITE_DIR, DATA_FOLDER + "/" + FAV_FIGHTS_FOLDER);
+		FIGHT_SUMMARY_DIR = new File(RuneLite.RUNELITE_DIR, DATA_FOLDER + "/" + FIGHT_SUMMARY_FOLDER);
 
 		JsonGzChunkType.makeAllDirs();
 	}
@@ -78,12 +100,17 @@ public class FightPerformanceSerializer
 		// "standard" chunk types, all live in FIGHT_HISTORY_DATA_DIR
 		IMPORTED_FROM_JSON_CHUNK("FightHistoryData-c", FIGHT_HISTORY_DATA_DIR),
 		SESSION_CHUNK("Fights_", FIGHT_HISTORY_DATA_DIR),
+		// fights saved by one session autosave batch, merged into session chunks on the next load.
+		SESSION_BATCH_CHUNK("FightsBatch_", FIGHT_HISTORY_DATA_DIR),
 		DE_FAVORITED_FIGHT("Fight_", FIGHT_HISTORY_DATA_DIR, true),
 
 		// other chunk types: just favorite fights for now, has its own folder
 		FAVORITE_FIGHT("Fav_", FAV_FIGHTS_DIR, true);
 
+		// chunks used to be gzipped JSON, new chunks are written in the binary format: see FightChunkBinaryCodec.
+		// JSON chunks are still read, and kept as JSON if they're re-written.
 		static final String DATA_CHUNK_FILE_EXT = ".json.gz";
+		static final String BINARY_DATA_CHUNK_FILE_EXT = ".bin.gz";
 
 		public static boolean makeAllDirs()
 		{
@@ -99,7 +126,7 @@ public class FightPerformanceSerializer
 		private static boolean isFileValidChunk(File file)
 		{
 			// ignore any chunks greater than 10mb, they really shouldn't be going > 1-2MB with normal use.
-			// also ignore any that don't end with .json.gz
+			// also ignore any that don't end with .json.gz or .bin.gz
 			if (file.length() > (10 * 1024 * 1024))
 			{
 				return false;
@@ -109,7 +136,7 @@ public class FightPerformanceSerializer
 		}
 		private static JsonGzChunkType getChunkType(String fname)
 		{
-			if (Strings.isNullOrEmpty(fname) || !fname.endsWith(DATA_CHUNK_FILE_EXT))
+			if (Strings.isNullOrEmpty(fname) || !(fname.endsWith(DATA_CHUNK_FILE_EXT) || fname.endsWith(BINARY_DATA_CHUNK_FILE_EXT)))
 			{
 				return null;
 			}
@@ -141,9 +168,18 @@ public class FightPerformanceSerializer
 
 		public File generateNewChunkFile(String appendedToPrefix)
 		{
-			return new File(this.directory, this.fnamePrefix + appendedToPrefix + DATA_CHUNK_FILE_EXT);
+			return generateNewChunkFile(appendedToPrefix, true);
+		}
+		public File generateNewChunkFile(String appendedToPrefix, boolean binary)
+		{
+			return new File(this.directory, this.fnamePrefix + appendedToPrefix +
+				(binary ? BINARY_DATA_CHUNK_FILE_EXT : DATA_CHUNK_FILE_EXT));
 		}
 		public File generateNewFightFileWithUsernames(FightPerformance fight)
+		{
+			return generateNewFightFileWithUsernames(fight, true);
+		}
+		public File generateNewFightFileWithUsernames(FightPerformance fight, boolean binary)
 		{
 			this.directory.mkdirs();
 			String fileName = String.valueOf(fight.lastFightTime / 1000);
@@ -155,22 +191,172 @@ public class FightPerformanceSerializer
 			// just use the initial default fname using the fight timestamp
 			catch (Exception ignored) {}
 
-			return generateNewChunkFile(fileName);
+			return generateNewChunkFile(fileName, binary);
 		}
 	}
 
 	// ============================================== SERIALIZATION ================================================
 
-	// Save the currently loaded sessionFightHistory to local gzipped JSON.
+	// Queue a fight that just ended to be written by the next serializeSessionFightHistory call.
+	public static void queueSessionFight(FightPerformance fight)
+	{
+		synchronized (SESSION_SAVE_LOCK)
+		{
+			unsavedSessionFights.add(fight);
+		}
+	}
+
+	// Remove a fight from the queue of fights to save. Returns true if the fight was queued, i.e it wasn't
+	// written to any file yet. If it returns false while the fight has no file, it was never queued.
+	public static boolean unqueueSessionFight(FightPerformance fight)
+	{
+		synchronized (SESSION_SAVE_LOCK)
+		{
+			return unsavedSessionFights.remove(fight);
+		}
+	}
+
+	public static void clearSessionFightQueue()
+	{
+		synchronized (SESSION_SAVE_LOCK)
+		{
+			unsavedSessionFights.clear();
+		}
+	}
+
+	// Save the session fights that aren't saved yet to a new batch chunk of their own, so saving a batch never has
+	// to read or re-write the fights that are already saved. Batch chunks are merged by mergeSessionBatchChunks.
+	// This is called in batches while playing, so at shutdown only the latest few fights are left to write.
+	// The queue is only locked to copy it & to commit the written chunk, so fights can still be unqueued
+	// (deleted/favorited) while a batch is being written: the batch is then written again without them.
 	public static void serializeSessionFightHistory()
 	{
-		boolean written = serializeFightArray(PLUGIN.sessionFightHistory,
-			JsonGzChunkType.SESSION_CHUNK.generateNewChunkFile(String.valueOf(sessionStartTime)));
+		synchronized (CHUNK_WRITE_LOCK)
+		{
+			while (true)
+			{
+				List<FightPerformance> batch;
+				synchronized (SESSION_SAVE_LOCK)
+				{
+					if (unsavedSessionFights.isEmpty())
+					{
+						return;
+					}
+					batch = new ArrayList<>(unsavedSessionFights);
+				}
+
+				File chunk = generateNewChunkFile(JsonGzChunkType.SESSION_BATCH_CHUNK);
+				File tmpChunk = new File(chunk.getParentFile(), chunk.getName() + ".tmp");
+				try
+				{
+					writeFightArray(batch, Files.newOutputStream(tmpChunk.toPath()), true);
+				}
+				catch (Exception e)
+				{
+					log.warn("FightPerformanceSerializer.serializeSessionFightHistory: Error ignored while writing fight data: {}", e.getMessage());
+					tmpChunk.delete();
+					return;
+				}
+
+				synchronized (SESSION_SAVE_LOCK)
+				{
+					if (!unsavedSessionFights.containsAll(batch))
+					{
+						tmpChunk.delete();
+						continue;
+					}
+					if (!tryMoveAtomicOrStandard(tmpChunk, chunk))
+					{
+						tmpChunk.delete();
+						return;
+					}
+
+					// the fights are now saved: deleting/favoriting them has to go through their chunk from now on.
+					for (FightPerformance fight : batch)
+					{
+						fight.setLoadedFromFname(chunk.getName());
+					}
+					unsavedSessionFights.removeAll(batch);
+				}
+				return;
+			}
+		}
+	}
+
+	// Merge the batch chunks written by previous sessions into session chunks, applying their journal records.
+	// Must be called before the fight history is loaded, since loaded fights keep the name of their chunk.
+	// If the client closes after a merged chunk was written but before the batches are deleted, the batches'
+	// fights are loaded twice: the same as when a favorite fight's removal from its chunk fails.
+	public static void mergeSessionBatchChunks()
+	{
+		synchronized (CHUNK_WRITE_LOCK)
+		{
+			List<File> batchChunks = new ArrayList<>(listDataChunks(JsonGzChunkType.SESSION_BATCH_CHUNK));
+			if (batchChunks.size() < 2)
+			{
+				return;
+			}
+			batchChunks.sort(Comparator.comparing(File::getName));
+
+			Map<String, Set<String>> removedFightKeys = FightJournal.readRemovedFightKeys();
+			List<FightPerformance> fights = new ArrayList<>();
+			List<File> mergedBatchChunks = new ArrayList<>();
+			for (File batchChunk : batchChunks)
+			{
+				try
+				{
+					List<FightPerformance> batchFights = new ArrayList<>(Arrays.asList(readFightArray(Files.newInputStream(batchChunk.toPath()))));
+					Set<String> removedFromChunk = removedFightKeys.getOrDefault(batchChunk.getName(), Collections.emptySet());
+					batchFights.removeIf(f -> f == null || f.competitor == null || f.opponent == null || removedFromChunk.contains(getFightKey(f)));
+					fights.addAll(batchFights);
+					mergedBatchChunks.add(batchChunk);
+				}
+				catch (Exception e)
+				{
+					// leave the batch as it is, it'll be skipped when loading like any other chunk that can't be read.
+					log.warn("FightPerformanceSerializer.mergeSessionBatchChunks: Skipping batch chunk that can't be read (path={}): {}", batchChunk.getName(), e.getMessage());
+				}
+			}
+
+			List<File> sessionChunks = new ArrayList<>();
+			for (int i = 0; i < fights.size(); i += MAX_FIGHTS_PER_SESSION_CHUNK)
+			{
+				File sessionChunk = generateNewChunkFile(JsonGzChunkType.SESSION_CHUNK);
+				List<FightPerformance> chunkFights = fights.subList(i, Math.min(fights.size(), i + MAX_FIGHTS_PER_SESSION_CHUNK));
+				if (!rewriteChunkWithFights(sessionChunk, new ArrayList<>(chunkFights)))
+				{
+					// keep the batches rather than lose or duplicate their fights
+					sessionChunks.forEach(File::delete);
+					return;
+				}
+				sessionChunks.add(sessionChunk);
+			}
+
+			Set<String> mergedChunkNames = new HashSet<>();
+			for (File batchChunk : mergedBatchChunks)
+			{
+				batchChunk.delete();
+				mergedChunkNames.add(batchChunk.getName());
+			}
+
+			List<FightJournal.Record> appliedRecords = new ArrayList<>(FightJournal.readRecords());
+			appliedRecords.removeIf(r -> !mergedChunkNames.contains(r.getChunkName()));
+			FightJournal.removeRecords(appliedRecords);
+			log.debug("FightPerformanceSerializer.mergeSessionBatchChunks: Merged {} batch chunks into {} session chunks",
+				mergedBatchChunks.size(), sessionChunks.size());
+		}
+	}
 
-		if (written)
+	private static File generateNewChunkFile(JsonGzChunkType chunkType)
+	{
+		long chunkTime = Instant.now().toEpochMilli();
+		File newChunk = chunkType.generateNewChunkFile(String.valueOf(chunkTime));
+		// chunks can be written within the same millisecond of each other, don't overwrite the previous one.
+		while (newChunk.exists())
 		{
-			sessionStartTime = Instant.now().toEpochMilli();
+			newChunk = chunkType.generateNewChunkFile(String.valueOf(++chunkTime));
 		}
+		return newChunk;
 	}
 
 	// returns true if we wrote to the file.
@@ -179,38 +365,55 @@ public class FightPerformanceSerializer
 	{
 		try
 		{
-			// 1: copy fight to its own unique file
-			File newFavFightFile = JsonGzChunkType.FAVORITE_FIGHT.generateNewFightFileWithUsernames(favFight);
-
-			// just create an array/list of 1 fight instead of dealing with checking for array vs. single fight file
-			boolean successfullyWroteFavFight = serializeFightArray(List.of(favFight), newFavFightFile);
-
-			if (!successfullyWroteFavFight)
+			// saved fights may have had their fight logs released, make sure we write the full fight.
+			// they're released again once written, unless they're also used elsewhere.
+			if (!favFight.acquireFightLogs())
 			{
-				log.warn("FightPerformanceSerializer.serializeFavoriteFight: Failed to write new favorite fight file, " +
-					"skipping removal of fight from original chunk.");
+				log.warn("FightPerformanceSerializer.serializeFavoriteFight: Failed to load the fight logs of the fight, skipping.");
 				return false;
 			}
 
-			// save the original filename to remove the fight from, since we're about to overwrite it.
-			String originalFileName = favFight.getLoadedFromFname();
+			try
+			{
+				// 1: copy fight to its own unique file
+				File newFavFightFile = JsonGzChunkType.FAVORITE_FIGHT.generateNewFightFileWithUsernames(favFight);
 
-			// ensure we keep loadedFromFname set for any written files for later use
-			// have to do this after removeFight, since removeFight needs to use the original loadedFromFname
-			favFight.setLoadedFromFname(newFavFightFile.getName());
-			favFight.setFavorite(true);
+				// just create an array/list of 1 fight instead of dealing with checking for array vs. single fight file
+				boolean successfullyWroteFavFight = serializeFightArray(List.of(favFight), newFavFightFile);
 
-			// 2: remove fight from the chunk it was loaded from. will simply skip this if it's not saved yet.
-			// if the fight was loaded from a bulk-chunk (not representing a single fight), then remove it by
-			// updating the chunk with standard removeFight behavior. removeFight handles file deletion if it ends up empty.
-			boolean successfullyRemovedFight = removeFight(favFight, originalFileName);
-			if (!successfullyRemovedFight && !Strings.isNullOrEmpty(originalFileName))
+				if (!successfullyWroteFavFight)
+				{
+					log.warn("FightPerformanceSerializer.serializeFavoriteFight: Failed to write new favorite fight file, " +
+						"skipping removal of fight from original chunk.");
+					return false;
+				}
+
+				// if the fight wasn't saved yet, it's now saved as a favorite and shouldn't also go in a session chunk.
+				// otherwise, save the original filename to remove the fight from, since we're about to overwrite it.
+				unqueueSessionFight(favFight);
+				String originalFileName = favFight.getLoadedFromFname();
+
+				// ensure we keep loadedFromFname set for any written files for later use
+				// have to do this after removeFight, since removeFight needs to use the original loadedFromFname
+				favFight.setLoadedFromFname(newFavFightFile.getName());
+				favFight.setFavorite(true);
+
+				// 2: remove fight from the chunk it was loaded from. will simply skip this if it's not saved yet.
+				// if the fight was loaded from a bulk-chunk (not representing a single fight), then its removal is
+				// recorded in the FightJournal, otherwise its file is deleted.
+				boolean successfullyRemovedFight = removeFight(favFight, originalFileName, FightJournal.RecordType.FAVORITED);
+				if (!successfullyRemovedFight && !Strings.isNullOrEmpty(originalFileName))
+				{
+					log.info("FightPerformanceSerializer.serializeFavoriteFight: Failed to remove fight from original data file, " +
+						"after writing new fav fight file. This error will be ignored and will likely cause a duplicate fight");
+				}
+
+				return true;
+			}
+			finally
 			{
-				log.info("FightPerformanceSerializer.serializeFavoriteFight: Failed to remove fight from original data file, " +
-					"after writing new fav fight file. This error will be ignored and will likely cause a duplicate fight");
+				favFight.releaseAcquiredFightLogs();
 			}
-
-			return true;
 		}
 		catch (Exception e)
 		{
@@ -237,7 +440,8 @@ public class FightPerformanceSerializer
 			}
 
 			File loadedFromFile = new File(chunkType.directory, fight.getLoadedFromFname());
-			File newDeFavoritedFile = JsonGzChunkType.DE_FAVORITED_FIGHT.generateNewFightFileWithUsernames(fight);
+			// the file is moved as-is, so keep its format
+			File newDeFavoritedFile = JsonGzChunkType.DE_FAVORITED_FIGHT.generateNewFightFileWithUsernames(fight, isBinaryChunkFile(loadedFromFile));
 
 			boolean successfullyDeFavorited = tryMoveAtomicOrStandard(loadedFromFile, newDeFavoritedFile);
 			if (successfullyDeFavorited)
@@ -267,15 +471,8 @@ public class FightPerformanceSerializer
 
 		try
 		{
-			try (GZIPOutputStream gzip = new GZIPOutputStream(Files.newOutputStream(newDataChunk.toPath())))
-			{
-				try (OutputStreamWriter writer = new OutputStreamWriter(gzip, StandardCharsets.UTF_8))
-				{
-					GSON.toJson(fights, writer);
-
-					return true;
-				}
-			}
+			writeFightArray(fights, Files.newOutputStream(newDataChunk.toPath()), isBinaryChunkFile(newDataChunk));
+			return true;
 		}
 		catch (Exception e)
 		{
@@ -287,62 +484,13 @@ public class FightPerformanceSerializer
 
 	// ============================================== DESERIALIZATION ===============================================
 
-	// import complete fight history data from the saved .json.gz data files
-	// this function only handles the direct file processing and .json.gz deserialization.
-	// more specific FightPerformance processing, and the addition to the plugin's fightHistory is done in plugin.importFights()
-	public static void deserializeFightHistory(Consumer<ArrayList<FightPerformance>> onReadCallback)
-	{
-		// catch and ignore any errors we may have forgotten to handle - the import will fail but at least the plugin
-		// will continue to function. This should only happen if their fight history data is corrupted/outdated.
-		try
-		{
-			HashSet<File> stdFightChunkFiles = listStandardDataChunks();
-			HashSet<File> favFightChunkFiles = listFavoriteDataChunks();
-			// if there's no data files, then skip reading/importing data.
-			if (stdFightChunkFiles.isEmpty() && favFightChunkFiles.isEmpty())
-			{
-				log.info("FightPerformanceSerializer.deserializeFightHistory: Skipping deserialization due to no files found.");
-				return;
-			}
-
-			ArrayList<FightPerformance> savedFights = new ArrayList<>();
-
-			// use callbacks instead of the return, so it's O(1) instead of O(2), as we'd have to loop again
-			// if we used savedFights.addAll(newArray)
-			for (File fightDataChunk : stdFightChunkFiles)
-			{
-				deserializeFightArray(fightDataChunk, savedFights::add);
-			}
-			for (File favFightDataChunk : favFightChunkFiles)
-			{
-				deserializeFightArray(favFightDataChunk, (favFight) ->
-				{
-					favFight.setFavorite(true);
-					savedFights.add(favFight);
-				});
-			}
-
-			if (!savedFights.isEmpty() && onReadCallback != null)
-			{
-				onReadCallback.accept(savedFights);
-			}
-		}
-		catch (Exception e)
-		{
-			// Display no popup for this error since it could happen on client load and that has odd behavior.
-			log.warn("FightPerformanceSerializer.deserializeFightHistory: Unexpected error while listing data files or deserializing fight history data: {}", e.getMessage());
-		}
-	}
-
+	// Fight history is loaded on startup by the FightHistoryLoader, which reads each chunk using deserializeFightArray.
 	public static FightPerformance[] deserializeFightArray(File fightDataFile, Consumer<FightPerformance> perFightReadCallback)
 	{
 		FightPerformance[] fightsFromChunk = null;
-		try (
-			GZIPInputStream gzip = new GZIPInputStream(Files.newInputStream(fightDataFile.toPath()));
-			InputStreamReader reader = new InputStreamReader(gzip, StandardCharsets.UTF_8)
-		)
+		try
 		{
-			fightsFromChunk = GSON.fromJson(reader, FightPerformance[].class);
+			fightsFromChunk = readFightArray(Files.newInputStream(fightDataFile.toPath()));
 			for (FightPerformance f : fightsFromChunk)
 			{
 				if (f == null || f.competitor == null || f.opponent == null)
@@ -366,12 +514,108 @@ public class FightPerformanceSerializer
 		return fightsFromChunk;
 	}
 
+	// read the full version of a saved fight back from the chunk it was loaded from, including its fight logs.
+	// returns null if the fight isn't saved or can't be found.
+	public static FightPerformance readSavedFight(FightPerformance fight)
+	{
+		if (fight == null || !fight.isSavedToFile())
+		{
+			return null;
+		}
+
+		FightPerformance[] fightsFromChunk = readSavedChunk(fight.getLoadedFromFname());
+		if (fightsFromChunk == null)
+		{
+			return null;
+		}
+
+		for (FightPerformance f : fightsFromChunk)
+		{
+			if (f != null && f.competitor != null && f.opponent != null && isSameFight(f, fight))
+			{
+				return f;
+			}
+		}
+
+		log.debug("FightPerformanceSerializer.readSavedFight: Could not find fight in its data chunk (path={})", fight.getLoadedFromFname());
+		return null;
+	}
+
+	// read every fight of a data chunk, with their fight logs. returns null if the chunk couldn't be read.
+	static FightPerformance[] readSavedChunk(String chunkName)
+	{
+		JsonGzChunkType chunkType = JsonGzChunkType.getChunkType(chunkName);
+		if (chunkType == null)
+		{
+			return null;
+		}
+
+		return deserializeFightArray(new File(chunkType.directory, chunkName), null);
+	}
+
+	// ============================================== STREAM HELPERS ================================================
+
+	// write fights as a gzipped JSON array to the given stream, which is closed afterwards.
+	static void writeFightArray(Collection<FightPerformance> fights, OutputStream out) throws IOException
+	{
+		writeFightArray(fights, out, false);
+	}
+
+	// write fights as a gzipped binary chunk, or JSON array, to the given stream, which is closed afterwards.
+	static void writeFightArray(Collection<FightPerformance> fights, OutputStream out, boolean binary) throws IOException
+	{
+		if (binary)
+		{
+			// the given stream is its own resource, so it's still closed if the gzip header can't be written
+			try (OutputStream rawOut = out;
+				OutputStream gzip = new BufferedOutputStream(new GZIPOutputStream(rawOut)))
+			{
+				FightChunkBinaryCodec.write(fights, gzip);
+			}
+			return;
+		}
+
+		try (OutputStream rawOut = out;
+			OutputStreamWriter writer = new OutputStreamWriter(new GZIPOutputStream(rawOut), StandardCharsets.UTF_8))
+		{
+			GSON.toJson(fights, writer);
+		}
+	}
+
+	// read a gzipped fight array from the given stream, which is closed afterwards.
+	// the format is detected from the content, so chunks are read whether they're binary or JSON.
+	static FightPerformance[] readFightArray(InputStream in) throws IOException
+	{
+		// the given stream is its own resource, so it's still closed if the gzip header can't be read
+		try (InputStream rawIn = in;
+			BufferedInputStream unzipped = new BufferedInputStream(new GZIPInputStream(rawIn)))
+		{
+			if (FightChunkBinaryCodec.isBinaryChunk(unzipped))
+			{
+				return FightChunkBinaryCodec.read(unzipped);
+			}
+
+			return GSON.fromJson(new InputStreamReader(unzipped, StandardCharsets.UTF_8), FightPerformance[].class);
+		}
+	}
+
+	static boolean isBinaryChunkFile(File chunkFile)
+	{
+		return chunkFile.getName().endsWith(JsonGzChunkType.BINARY_DATA_CHUNK_FILE_EXT);
+	}
+
 	// ============================================ UPDATING + DELETION ============================================
 
 	// in deserializeFightArray, we set the loadedFromFname field to save which chunk the fight was loaded from.
-	// Then find it by comparing a few key fields, and re-write the chunk without it.
-	// returns true if the fight was deleted and the related chunk was re-written or deleted
+	// Fights saved in their own file are simply deleted. For chunks with many fights, the removal is appended to
+	// the FightJournal so we don't have to re-write the whole chunk, it's only re-written when the journal is compacted.
+	// returns true if the fight was deleted or its removal was recorded
 	public static boolean removeFight(FightPerformance fight, String fromFileName)
+	{
+		return removeFight(fight, fromFileName, FightJournal.RecordType.DELETED);
+	}
+
+	private static boolean removeFight(FightPerformance fight, String fromFileName, FightJournal.RecordType recordType)
 	{
 		if (Strings.isNullOrEmpty(fromFileName))
 		{
@@ -395,50 +639,167 @@ public class FightPerformanceSerializer
 				return false;
 			}
 
-			ArrayList<FightPerformance> fightsFromChunk = null;
-			try (
-				GZIPInputStream gzip = new GZIPInputStream(Files.newInputStream(loadedFromChunk.toPath()));
-				InputStreamReader reader = new InputStreamReader(gzip, StandardCharsets.UTF_8)
-			)
+			if (chunkType.representsSingleFight)
 			{
-				fightsFromChunk = new ArrayList<>(Arrays.asList(GSON.fromJson(reader, FightPerformance[].class)));
+				return loadedFromChunk.delete();
 			}
-			catch (Exception e)
+
+			return FightJournal.append(new FightJournal.Record(recordType, fromFileName, getFightKey(fight)));
+		}
+		catch (Exception e)
+		{
+			log.warn("FightPerformanceSerializer.removeFight: Unexpected error while removing fight: {}", e.getMessage());
+		}
+		return false;
+	}
+
+	// key used to find a fight within its chunk: its fight ID, or a few key fields if it doesn't have one.
+	static String getFightKey(FightPerformance fight)
+	{
+		if (!Strings.isNullOrEmpty(fight.getFightId()))
+		{
+			return fight.getFightId();
+		}
+
+		return fight.lastFightTime + "_" + fight.getFightIdAnchorTime() + "_" + fight.opponent.getName();
+	}
+
+	// re-write the chunks that have fights removed in the FightJournal without them, then drop the applied records.
+	// Meant to be run in the background: fights in the journal are already skipped when loading their chunk.
+	public static void compactFightJournal()
+	{
+		synchronized (CHUNK_WRITE_LOCK)
+		{
+			compactFightJournalChunks();
+		}
+	}
+
+	private static void compactFightJournalChunks()
+	{
+		List<FightJournal.Record> records = FightJournal.readRecords();
+		if (records.isEmpty())
+		{
+			return;
+		}
+
+		Map<String, List<FightJournal.Record>> recordsByChunk = new HashMap<>();
+		records.forEach(r -> recordsByChunk.computeIfAbsent(r.getChunkName(), k -> new ArrayList<>()).add(r));
+
+		List<FightJournal.Record> appliedRecords = new ArrayList<>();
+		recordsByChunk.forEach((chunkName, chunkRecords) ->
+		{
+			if (applyJournalRecords(chunkName, chunkRecords))
 			{
-				log.warn("FightPerformanceSerializer.removeFight: Error while deserializing fight history data chunk (path={}), errorMsg={}", loadedFromChunk.getAbsolutePath(), e.getMessage());
+				appliedRecords.addAll(chunkRecords);
 			}
-			if (fightsFromChunk == null || fightsFromChunk.isEmpty())
+		});
+
+		FightJournal.removeRecords(appliedRecords);
+		log.debug("FightPerformanceSerializer.compactFightJournal: Applied {} of {} journal records", appliedRecords.size(), records.size());
+	}
+
+	// read a saved chunk's fights & let the updater modify them, then re-write the chunk with them if it returns true.
+	// The chunk is read, updated & written to a tmp file without holding the chunk write lock, which is only held
+	// to replace the chunk, if it wasn't re-written by anything else in the meantime. Its summary index is then
+	// re-written as well, so the chunk doesn't have to be read in full on the next load.
+	// returns true if the chunk was re-written.
+	static boolean updateSavedChunk(String chunkName, Predicate<FightPerformance[]> updater)
+	{
+		JsonGzChunkType chunkType = JsonGzChunkType.getChunkType(chunkName);
+		if (chunkType == null)
+		{
+			return false;
+		}
+
+		File chunkFile = new File(chunkType.directory, chunkName);
+		long chunkLastModified = chunkFile.lastModified();
+		long chunkLength = chunkFile.length();
+		if (!chunkFile.exists())
+		{
+			return false;
+		}
+
+		FightPerformance[] fightsFromChunk = deserializeFightArray(chunkFile, null);
+		if (fightsFromChunk == null || !updater.test(fightsFromChunk))
+		{
+			return false;
+		}
+
+		ArrayList<FightPerformance> fightsToWrite = new ArrayList<>(Arrays.asList(fightsFromChunk));
+		fightsToWrite.removeIf(f -> f == null || f.competitor == null || f.opponent == null);
+		if (fightsToWrite.isEmpty())
+		{
+			return false;
+		}
+
+		File tmpChunk = new File(chunkType.directory, chunkName + ".update.tmp");
+		try
+		{
+			// keep the chunk's format, since its name is used to find it
+			writeFightArray(fightsToWrite, Files.newOutputStream(tmpChunk.toPath()), isBinaryChunkFile(chunkFile));
+		}
+		catch (Exception e)
+		{
+			log.warn("FightPerformanceSerializer.updateSavedChunk: Error while writing updated chunk (path={}): {}", chunkName, e.getMessage());
+			tmpChunk.delete();
+			return false;
+		}
+
+		synchronized (CHUNK_WRITE_LOCK)
+		{
+			if (chunkFile.lastModified() != chunkLastModified || chunkFile.length() != chunkLength
+				|| !tryMoveAtomicOrStandard(tmpChunk, chunkFile))
 			{
+				tmpChunk.delete();
 				return false;
 			}
+			chunkLastModified = chunkFile.lastModified();
+			chunkLength = chunkFile.length();
+		}
 
-			int initialFightCount = fightsFromChunk.size();;
-
-			fightsFromChunk.removeIf((f) -> f.lastFightTime == fight.lastFightTime
-				&& f.getFightIdAnchorTime() == fight.getFightIdAnchorTime()
-				&& f.getInitialTime() == fight.getInitialTime()
-				&& f.getInitialFightTick() == fight.getInitialFightTick()
-				&& f.opponent.getName().equals(fight.opponent.getName()));
+		for (FightPerformance fight : fightsToWrite)
+		{
+			fight.initializeFightLogNames();
+			fight.releaseFightLogs();
+		}
+		FightSummaryIndex.write(chunkFile, chunkLastModified, chunkLength, fightsToWrite);
+		return true;
+	}
 
-			if (fightsFromChunk.size() != (initialFightCount - 1))
+	// returns true if the chunk no longer has any of the records' fights
+	private static boolean applyJournalRecords(String chunkName, List<FightJournal.Record> chunkRecords)
+	{
+		try
+		{
+			JsonGzChunkType chunkType = JsonGzChunkType.getChunkType(chunkName);
+			File chunkFile = chunkType == null ? null : new File(chunkType.directory, chunkName);
+			if (chunkFile == null || !chunkFile.exists())
 			{
-				log.debug("FightPerformanceSerializer.removeFight: Was going to delete more than 1 fight when attempting to only remove 1? Skipping removal - shouldn't happen - possible duplicate fight(s)?");
-				return false;
+				return true;
 			}
 
-			if (!fightsFromChunk.isEmpty())
+			Set<String> removedFightKeys = new HashSet<>();
+			chunkRecords.forEach(r -> removedFightKeys.add(r.getFightKey()));
+
+			ArrayList<FightPerformance> fightsFromChunk = new ArrayList<>(Arrays.asList(readFightArray(Files.newInputStream(chunkFile.toPath()))));
+			fightsFromChunk.removeIf(Objects::isNull);
+			int initialFightCount = fightsFromChunk.size();
+			fightsFromChunk.removeIf(f -> f.competitor != null && f.opponent != null && removedFightKeys.contains(getFightKey(f)));
+
+			if (fightsFromChunk.size() == initialFightCount)
 			{
-				// returns true on success
-				return rewriteChunkWithFights(loadedFromChunk, fightsFromChunk);
+				return true;
 			}
-			else // if the updated fight chunk is empty, just delete the file instead of updating the chunk to an empty array.
+			else if (fightsFromChunk.isEmpty())
 			{
-				return loadedFromChunk.delete();
+				return chunkFile.delete();
 			}
+
+			return rewriteChunkWithFights(chunkFile, fightsFromChunk);
 		}
 		catch (Exception e)
 		{
-			log.warn("FightPerformanceSerializer.removeFight: Unexpected error while listing data files or deserializing fight history data: {}", e.getMessage());
+			log.warn("FightPerformanceSerializer.applyJournalRecords: Error while compacting chunk (path={}): {}", chunkName, e.getMessage());
 		}
 		return false;
 	}
@@ -467,12 +828,23 @@ public class FightPerformanceSerializer
 	}
 
 	// ================================= private helper functions =================================
-	private static HashSet<File> listStandardDataChunks()
+	// compare a few key fields to find a loaded fight within the fights read from its chunk.
+	private static boolean isSameFight(FightPerformance fromChunk, FightPerformance fight)
 	{
-		return listDataChunks(JsonGzChunkType.SESSION_CHUNK, JsonGzChunkType.IMPORTED_FROM_JSON_CHUNK, JsonGzChunkType.DE_FAVORITED_FIGHT);
+		return fromChunk.lastFightTime == fight.lastFightTime
+			&& fromChunk.getFightIdAnchorTime() == fight.getFightIdAnchorTime()
+			&& fromChunk.getInitialTime() == fight.getInitialTime()
+			&& fromChunk.getInitialFightTick() == fight.getInitialFightTick()
+			&& fromChunk.opponent.getName().equals(fight.opponent.getName());
 	}
 
-	private static HashSet<File> listFavoriteDataChunks()
+	static HashSet<File> listStandardDataChunks()
+	{
+		return listDataChunks(JsonGzChunkType.SESSION_CHUNK, JsonGzChunkType.SESSION_BATCH_CHUNK,
+			JsonGzChunkType.IMPORTED_FROM_JSON_CHUNK, JsonGzChunkType.DE_FAVORITED_FIGHT);
+	}
+
+	static HashSet<File> listFavoriteDataChunks()
 	{
 		return listDataChunks(JsonGzChunkType.FAVORITE_FIGHT);
 	}
@@ -509,18 +881,11 @@ public class FightPerformanceSerializer
 			String newChunkName = original.getName() + ".tmp";
 			File updatedChunkFile = new File(chunkType.directory, newChunkName);
 
-			try (GZIPOutputStream gzip = new GZIPOutputStream(Files.newOutputStream(updatedChunkFile.toPath())))
-			{
-				try (OutputStreamWriter writer = new OutputStreamWriter(gzip, StandardCharsets.UTF_8))
-				{
-					GSON.toJson(newFightsToWrite, writer);
-					writer.close();
-					gzip.close();
+			// keep the chunk's format, since its name is used to find it
+			writeFightArray(newFightsToWrite, Files.newOutputStream(updatedChunkFile.toPath()), isBinaryChunkFile(original));
 
-					// returns true on successful move.
-					return tryMoveAtomicOrStandard(updatedChunkFile, original);
-				}
-			}
+			// returns true on successful move.
+			return tryMoveAtomicOrStandard(updatedChunkFile, original);
 
 		}
 		catch (Exception e)
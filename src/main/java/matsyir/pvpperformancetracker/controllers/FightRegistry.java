@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import net.runelite.api.Actor;
+import net.runelite.api.Player;
+
+/**
+ * The fights currently tracked for the local player, keyed by opponent name so that events can be routed to their
+ * fight in O(1). Several fights can be tracked at once (multi-combat, LMS final circles), each with its own
+ * HitsplatMatcher. Fights are removed once they end, which is still decided per fight by FightPerformance's
+ * NEW_FIGHT_DELAY inactivity rule, or by deaths.
+ *
+ * The primary fight is the one displayed by the overlay: the last fight with an attack, or the newest fight
+ * while none have started.
+ *
+ * Most interactions with other players never lead to a fight, so potential opponents are only remembered as
+ * pending opponents until an attack or hitsplat needs their fight, which is only created at that point.
+ *
+ * Not thread-safe: only meant to be used from the client thread.
+ */
+public class FightRegistry
+{
+	// more fights than this can't realistically be ongoing at once. Once reached, new potential opponents only
+	// replace fights that haven't started.
+	public static final int MAX_TRACKED_FIGHTS = 16;
+
+	@Getter
+	public static final class TrackedFight
+	{
+		private final FightPerformance fight;
+		private final HitsplatMatcher hitsplatMatcher;
+
+		private TrackedFight(FightPerformance fight, HitsplatMatcher hitsplatMatcher)
+		{
+			this.fight = fight;
+			this.hitsplatMatcher = hitsplatMatcher;
+		}
+
+		public String getOpponentName()
+		{
+			return fight.getOpponent().getName();
+		}
+	}
+
+	private final Map<String, TrackedFight> fightsByOpponent = new HashMap<>();
+	// same fights as fightsByOpponent, oldest first, to iterate over them without allocating
+	private final List<TrackedFight> fights = new ArrayList<>();
+	private final List<TrackedFight> unmodifiableFights = Collections.unmodifiableList(fights);
+	@Getter
+	private TrackedFight primary;
+	// potential opponents without a tracked fight yet, oldest first. See addPendingOpponent.
+	private final Map<String, Player> pendingOpponents = new LinkedHashMap<>();
+
+	// start tracking a new fight, returns null if it couldn't be tracked because all slots have ongoing fights.
+	// replaces the fight against the same opponent, if any.
+	public TrackedFight add(FightPerformance fight)
+	{
+		TrackedFight existing = fightsByOpponent.get(fight.getOpponent().getName());
+		if (existing != null)
+		{
+			remove(existing);
+		}
+		else if (fights.size() >= MAX_TRACKED_FIGHTS && !removeOldestUnstartedFight())
+		{
+			return null;
+		}
+
+		pendingOpponents.remove(fight.getOpponent().getName());
+		HitsplatMatcher hitsplatMatcher = new HitsplatMatcher();
+		fight.setHitsplatMatcher(hitsplatMatcher);
+		TrackedFight trackedFight = new TrackedFight(fight, hitsplatMatcher);
+		fightsByOpponent.put(trackedFight.getOpponentName(), trackedFight);
+		fights.add(trackedFight);
+
+		if (primary == null || !primary.fight.fightStarted())
+		{
+			primary = trackedFight;
+		}
+		return trackedFight;
+	}
+
+	public void remove(TrackedFight trackedFight)
+	{
+		if (fightsByOpponent.remove(trackedFight.getOpponentName()) == null)
+		{
+			return;
+		}
+		fights.remove(trackedFight);
+		trackedFight.hitsplatMatcher.clear();
+
+		if (primary == trackedFight)
+		{
+			primary = findNewPrimary();
+		}
+	}
+
+	public TrackedFight get(String opponentName)
+	{
+		return opponentName == null ? null : fightsByOpponent.get(opponentName);
+	}
+
+	// all tracked fights, oldest first. Don't add or remove fights while iterating over it.
+	public List<TrackedFight> getFights()
+	{
+		return unmodifiableFights;
+	}
+
+	public boolean isEmpty()
+	{
+		return fights.isEmpty();
+	}
+
+	// remember a player who interacted with the local player, until their fight is needed. Only the latest
+	// MAX_TRACKED_FIGHTS pending opponents are kept.
+	public void addPendingOpponent(Player opponent)
+	{
+		String opponentName = opponent.getName();
+		if (opponentName == null || fightsByOpponent.containsKey(opponentName))
+		{
+			return;
+		}
+
+		// re-insert to keep the latest interactions last
+		pendingOpponents.remove(opponentName);
+		pendingOpponents.put(opponentName, opponent);
+		if (pendingOpponents.size() > MAX_TRACKED_FIGHTS)
+		{
+			Iterator<String> oldest = pendingOpponents.keySet().iterator();
+			oldest.next();
+			oldest.remove();
+		}
+	}
+
+	// stop remembering a pending opponent, e.g to start their fight. Returns null if they weren't pending.
+	public Player removePendingOpponent(String opponentName)
+	{
+		return opponentName == null ? null : pendingOpponents.remove(opponentName);
+	}
+
+	public boolean hasPendingOpponents()
+	{
+		return !pendingOpponents.isEmpty();
+	}
+
+	// the pending opponent targeting the local player, if none of the tracked opponents are, like
+	// getFightForHitsplat would prefer for hits on the local player. Otherwise null.
+	public Player getPendingOpponentTargeting(Player localPlayer)
+	{
+		for (int i = 0; i < fights.size(); i++)
+		{
+			if (isTargeting(fights.get(i), localPlayer))
+			{
+				return null;
+			}
+		}
+		for (Player opponent : pendingOpponents.values())
+		{
+			if (opponent.getInteracting() == localPlayer)
+			{
+				return opponent;
+			}
+		}
+		return null;
+	}
+
+	// called when an attack was added to the given fight
+	public void onAttack(TrackedFight trackedFight)
+	{
+		primary = trackedFight;
+	}
+
+	// The fight a hitsplat on the given target belongs to, or null. Hitsplats don't tell who caused them, so hits
+	// on the local player go to the primary fight if that opponent is targeting them, then to any other opponent
+	// targeting them, then to the primary fight.
+	public TrackedFight getFightForHitsplat(Actor target, Player localPlayer)
+	{
+		if (target == null)
+		{
+			return null;
+		}
+		if (target != localPlayer)
+		{
+			return get(target.getName());
+		}
+
+		if (primary == null || isTargeting(primary, localPlayer))
+		{
+			return primary;
+		}
+		for (int i = 0; i < fights.size(); i++)
+		{
+			TrackedFight trackedFight = fights.get(i);
+			if (isTargeting(trackedFight, localPlayer))
+			{
+				return trackedFight;
+			}
+		}
+		return primary;
+	}
+
+	public void clear()
+	{
+		for (TrackedFight trackedFight : fights)
+		{
+			trackedFight.hitsplatMatcher.clear();
+		}
+		fightsByOpponent.clear();
+		fights.clear();
+		pendingOpponents.clear();
+		primary = null;
+	}
+
+	private static boolean isTargeting(TrackedFight trackedFight, Player localPlayer)
+	{
+		Player opponent = trackedFight.fight.getOpponent().getPlayer();
+		return opponent != null && opponent.getInteracting() == localPlayer;
+	}
+
+	private boolean removeOldestUnstartedFight()
+	{
+		for (TrackedFight trackedFight : fights)
+		{
+			if (!trackedFight.fight.fightStarted())
+			{
+				remove(trackedFight);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// the fight with the latest attack, or the newest fight if none have started
+	private TrackedFight findNewPrimary()
+	{
+		TrackedFight newPrimary = null;
+		for (TrackedFight trackedFight : fights)
+		{
+			boolean started = trackedFight.fight.fightStarted();
+			boolean primaryStarted = newPrimary != null && newPrimary.fight.fightStarted();
+			if (newPrimary == null || (started && (!primaryStarted || trackedFight.fight.lastFightTime >= newPrimary.fight.lastFightTime))
+				|| (!started && !primaryStarted))
+			{
+				newPrimary = trackedFight;
+			}
+		}
+		return newPrimary;
+	}
+}
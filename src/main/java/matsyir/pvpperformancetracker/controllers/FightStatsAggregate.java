@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * Totals of the fights shown in the TotalStatsPanel, kept up to date as fights are added & removed rather than
+ * re-calculated from every fight, so adding, removing or filtering out a fight costs the same no matter how many
+ * fights there are. Averages are derived from the totals when requested.
+ *
+ * The values each fight added are kept, so it can be removed exactly as it was added, even if the fight changed
+ * since (e.g. re-calculated with a new config). Fights are tracked by identity, and adding the same fight twice
+ * does nothing.
+ *
+ * Not thread-safe.
+ */
+public class FightStatsAggregate
+{
+	private final Map<FightPerformance, Contribution> contributions = new IdentityHashMap<>();
+
+	@Getter
+	private int fightCount;
+	@Getter
+	private int killCount;
+	@Getter
+	private int deathCount;
+
+	// competitor totals, like a Fighter's counters
+	private int offPraySuccessCount;
+	private int attackCount;
+	private double expectedDamage;
+	private int damageDealt;
+	private int magicAttackCount;
+	private int magicHitCount;
+	private double magicHitCountExpected;
+	private int offensivePraySuccessCount;
+	private int hpHealed;
+	private int ghostBarrageCount;
+	private double ghostBarrageExpectedDamage;
+
+	private double expectedDamageDiff;
+	private int damageDealtDiff;
+	private double killExpectedDamage;
+	private double killExpectedDamageDiff;
+	private int killDamageDealt;
+	private int killDamageDealtDiff;
+	private double deathExpectedDamage;
+	private double deathExpectedDamageDiff;
+	private int deathDamageDealt;
+	private int deathDamageDealtDiff;
+
+	@Getter
+	private int competitorRobeHits;
+	private int competitorRobeHitsAttempted;
+	@Getter
+	private int opponentRobeHits;
+	private int opponentRobeHitsAttempted;
+
+	@Getter
+	private int fightsWithKoChanceCount;
+	@Getter
+	private int competitorKoChances;
+	@Getter
+	private int opponentKoChances;
+	private double competitorKoProbabilitySum;
+	private double opponentKoProbabilitySum;
+
+	// returns false if the fight was already added.
+	// statsFight is the version of the fight to take stats from, e.g. its PvP-Hub synced version.
+	public boolean add(FightPerformance fight, FightPerformance statsFight)
+	{
+		if (contributions.containsKey(fight))
+		{
+			return false;
+		}
+
+		return add(fight, statsFight, statsFight.getSummary());
+	}
+
+	// same as above, with the summary of statsFight already known
+	boolean add(FightPerformance fight, FightPerformance statsFight, FightSummary statsSummary)
+	{
+		if (contributions.containsKey(fight))
+		{
+			return false;
+		}
+
+		Contribution contribution = new Contribution(statsFight, statsSummary);
+		contributions.put(fight, contribution);
+		apply(contribution, 1);
+		return true;
+	}
+
+	// returns false if the fight wasn't added.
+	public boolean remove(FightPerformance fight)
+	{
+		Contribution contribution = contributions.remove(fight);
+		if (contribution == null)
+		{
+			return false;
+		}
+
+		apply(contribution, -1);
+		if (fightCount == 0)
+		{
+			// drop any floating point error left from removing fights
+			reset();
+		}
+		return true;
+	}
+
+	// remove every fight that isn't in the given set, returning how many were removed.
+	public int retainAll(Set<FightPerformance> fights)
+	{
+		int removedCount = 0;
+		Iterator<Map.Entry<FightPerformance, Contribution>> iterator = contributions.entrySet().iterator();
+		while (iterator.hasNext())
+		{
+			Map.Entry<FightPerformance, Contribution> entry = iterator.next();
+			if (!fights.contains(entry.getKey()))
+			{
+				// IdentityHashMap entries can't be read anymore once they're removed
+				apply(entry.getValue(), -1);
+				iterator.remove();
+				removedCount++;
+			}
+		}
+
+		if (fightCount == 0)
+		{
+			reset();
+		}
+		return removedCount;
+	}
+
+	public boolean contains(FightPerformance fight)
+	{
+		return contributions.containsKey(fight);
+	}
+
+	public void reset()
+	{
+		contributions.clear();
+		fightCount = killCount = deathCount = 0;
+		offPraySuccessCount = attackCount = damageDealt = magicAttackCount = magicHitCount = 0;
+		offensivePraySuccessCount = hpHealed = ghostBarrageCount = 0;
+		expectedDamage = magicHitCountExpected = ghostBarrageExpectedDamage = 0;
+		expectedDamageDiff = killExpectedDamage = killExpectedDamageDiff = deathExpectedDamage = deathExpectedDamageDiff = 0;
+		damageDealtDiff = killDamageDealt = killDamageDealtDiff = deathDamageDealt = deathDamageDealtDiff = 0;
+		competitorRobeHits = competitorRobeHitsAttempted = opponentRobeHits = opponentRobeHitsAttempted = 0;
+		fightsWithKoChanceCount = competitorKoChances = opponentKoChances = 0;
+		competitorKoProbabilitySum = opponentKoProbabilitySum = 0;
+	}
+
+	// the competitor's totals over all fights, as a Fighter which only holds stats
+	public Fighter createTotalStatsFighter(String name)
+	{
+		Fighter totalStats = new Fighter(name);
+		totalStats.addAttacks(offPraySuccessCount, attackCount, expectedDamage, damageDealt, magicAttackCount,
+			magicHitCount, magicHitCountExpected, offensivePraySuccessCount, hpHealed, ghostBarrageCount,
+			ghostBarrageExpectedDamage);
+		return totalStats;
+	}
+
+	public double getAvgExpectedDamage()
+	{
+		return average(expectedDamage, fightCount);
+	}
+
+	public double getAvgExpectedDamageDiff()
+	{
+		return average(expectedDamageDiff, fightCount);
+	}
+
+	public double getKillAvgExpectedDamage()
+	{
+		return average(killExpectedDamage, killCount);
+	}
+
+	public double getKillAvgExpectedDamageDiff()
+	{
+		return average(killExpectedDamageDiff, killCount);
+	}
+
+	public double getDeathAvgExpectedDamage()
+	{
+		return average(deathExpectedDamage, deathCount);
+	}
+
+	public double getDeathAvgExpectedDamageDiff()
+	{
+		return average(deathExpectedDamageDiff, deathCount);
+	}
+
+	public double getAvgDamageDealt()
+	{
+		return average(damageDealt, fightCount);
+	}
+
+	public double getAvgDamageDealtDiff()
+	{
+		return average(damageDealtDiff, fightCount);
+	}
+
+	public double getKillAvgDamageDealt()
+	{
+		return average(killDamageDealt, killCount);
+	}
+
+	public double getKillAvgDamageDealtDiff()
+	{
+		return average(killDamageDealtDiff, killCount);
+	}
+
+	public double getDeathAvgDamageDealt()
+	{
+		return average(deathDamageDealt, deathCount);
+	}
+
+	public double getDeathAvgDamageDealtDiff()
+	{
+		return average(deathDamageDealtDiff, deathCount);
+	}
+
+	public double getAvgHpHealed()
+	{
+		return average(hpHealed, fightCount);
+	}
+
+	public double getAvgCompetitorRobeHits()
+	{
+		return average(competitorRobeHits, fightCount);
+	}
+
+	// percentage of the melee/range hits taken by the competitor that were on robes
+	public double getCompetitorRobeHitsPercentage()
+	{
+		return average(competitorRobeHits, competitorRobeHitsAttempted) * 100.0;
+	}
+
+	public double getAvgOpponentRobeHits()
+	{
+		return average(opponentRobeHits, fightCount);
+	}
+
+	public double getOpponentRobeHitsPercentage()
+	{
+		return average(opponentRobeHits, opponentRobeHitsAttempted) * 100.0;
+	}
+
+	// KO averages only count the fights which had KO chance data
+	public double getAvgCompetitorKoChances()
+	{
+		return average(competitorKoChances, fightsWithKoChanceCount);
+	}
+
+	public double getAvgOpponentKoChances()
+	{
+		return average(opponentKoChances, fightsWithKoChanceCount);
+	}
+
+	public double getAvgCompetitorKoProbability()
+	{
+		return average(competitorKoProbabilitySum, fightsWithKoChanceCount);
+	}
+
+	public double getAvgOpponentKoProbability()
+	{
+		return average(opponentKoProbabilitySum, fightsWithKoChanceCount);
+	}
+
+	public double getAvgGhostBarrageCount()
+	{
+		return average(ghostBarrageCount, fightCount);
+	}
+
+	// extra expected damage per ghost barrage
+	public double getAvgGhostBarrageExpectedDamage()
+	{
+		return average(ghostBarrageExpectedDamage, ghostBarrageCount);
+	}
+
+	private void apply(Contribution c, int sign)
+	{
+		fightCount += sign;
+
+		offPraySuccessCount += sign * c.offPraySuccessCount;
+		attackCount += sign * c.attackCount;
+		expectedDamage += sign * c.expectedDamage;
+		damageDealt += sign * c.damageDealt;
+		magicAttackCount += sign * c.magicAttackCount;
+		magicHitCount += sign * c.magicHitCount;
+		magicHitCountExpected += sign * c.magicHitCountExpected;
+		offensivePraySuccessCount += sign * c.offensivePraySuccessCount;
+		hpHealed += sign * c.hpHealed;
+		ghostBarrageCount += sign * c.ghostBarrageCount;
+		ghostBarrageExpectedDamage += sign * c.ghostBarrageExpectedDamage;
+
+		expectedDamageDiff += sign * c.expectedDamageDiff;
+		damageDealtDiff += sign * c.damageDealtDiff;
+		if (c.competitorDead)
+		{
+			deathCount += sign;
+			deathExpectedDamage += sign * c.expectedDamage;
+			deathExpectedDamageDiff += sign * c.expectedDamageDiff;
+			deathDamageDealt += sign * c.damageDealt;
+			deathDamageDealtDiff += sign * c.damageDealtDiff;
+		}
+		if (c.opponentDead)
+		{
+			killCount += sign;
+			killExpectedDamage += sign * c.expectedDamage;
+			killExpectedDamageDiff += sign * c.expectedDamageDiff;
+			killDamageDealt += sign * c.damageDealt;
+			killDamageDealtDiff += sign * c.damageDealtDiff;
+		}
+
+		competitorRobeHits += sign * c.competitorRobeHits;
+		competitorRobeHitsAttempted += sign * c.competitorRobeHitsAttempted;
+		opponentRobeHits += sign * c.opponentRobeHits;
+		opponentRobeHitsAttempted += sign * c.opponentRobeHitsAttempted;
+
+		if (c.hasKoChances)
+		{
+			fightsWithKoChanceCount += sign;
+			competitorKoChances += sign * c.competitorKoChances;
+			opponentKoChances += sign * c.opponentKoChances;
+			competitorKoProbabilitySum += sign * c.competitorKoProbability;
+			opponentKoProbabilitySum += sign * c.opponentKoProbability;
+		}
+	}
+
+	private static double average(double total, int count)
+	{
+		return count != 0 ? total / count : 0;
+	}
+
+	// the values a single fight adds to the totals
+	private static final class Contribution
+	{
+		private final int offPraySuccessCount;
+		private final int attackCount;
+		private final double expectedDamage;
+		private final int damageDealt;
+		private final int magicAttackCount;
+		private final int magicHitCount;
+		private final double magicHitCountExpected;
+		private final int offensivePraySuccessCount;
+		private final int hpHealed;
+		private final int ghostBarrageCount;
+		private final double ghostBarrageExpectedDamage;
+		private final double expectedDamageDiff;
+		private final int damageDealtDiff;
+		private final boolean competitorDead;
+		private final boolean opponentDead;
+		private final int competitorRobeHits;
+		private final int competitorRobeHitsAttempted;
+		private final int opponentRobeHits;
+		private final int opponentRobeHitsAttempted;
+		private final boolean hasKoChances;
+		private final int competitorKoChances;
+		private final int opponentKoChances;
+		private final double competitorKoProbability;
+		private final double opponentKoProbability;
+
+		private Contribution(FightPerformance fight, FightSummary summary)
+		{
+			Fighter competitor = fight.getCompetitor();
+			Fighter opponent = fight.getOpponent();
+
+			offPraySuccessCount = competitor.getOffPraySuccessCount();
+			attackCount = competitor.getAttackCount();
+			expectedDamage = competitor.getExpectedDamage();
+			damageDealt = competitor.getDamageDealt();
+			magicAttackCount = competitor.getMagicAttackCount();
+			magicHitCount = competitor.getMagicHitCount();
+			magicHitCountExpected = competitor.getMagicHitCountExpected();
+			offensivePraySuccessCount = competitor.getOffensivePraySuccessCount();
+			hpHealed = competitor.getHpHealed();
+			ghostBarrageCount = competitor.getGhostBarrageCount();
+			ghostBarrageExpectedDamage = competitor.getGhostBarrageExpectedDamage();
+			expectedDamageDiff = fight.getCompetitorExpectedDmgDiff();
+			damageDealtDiff = (int) fight.getCompetitorDmgDealtDiff();
+			competitorDead = competitor.isDead();
+			opponentDead = opponent.isDead();
+
+			// robe hits are out of the melee/range attacks taken
+			competitorRobeHits = competitor.getRobeHits();
+			competitorRobeHitsAttempted = opponent.getAttackCount() - opponent.getTotalMagicAttackCount();
+			opponentRobeHits = opponent.getRobeHits();
+			opponentRobeHitsAttempted = competitor.getAttackCount() - competitor.getTotalMagicAttackCount();
+
+			hasKoChances = summary.hasKoChances();
+			competitorKoChances = hasKoChances ? summary.getKoChanceCount(true) : 0;
+			opponentKoChances = hasKoChances ? summary.getKoChanceCount(false) : 0;
+			competitorKoProbability = hasKoChances ? summary.getKoProbability(true) : 0;
+			opponentKoProbability = hasKoChances ? summary.getKoProbability(false) : 0;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.Getter;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerConfig.RobeHitFilter;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.views.FightPerformancePanel;
+import net.runelite.api.PlayerComposition;
+import net.runelite.api.kit.KitType;
+
+/**
+ * The values of a fight that are derived from its fight logs, rather than from the Fighters' counters: what the
+ * fight history panel, total stats and filters need from the logs. Saved fights keep one of these once their fight
+ * logs are released from memory, and they're saved in the fight summary index next to the data chunks so that
+ * fights can be loaded without their fight logs at all.
+ */
+@Getter
+public class FightSummary
+{
+	@Expose
+	@SerializedName("a")
+	private long fightIdAnchorTime;
+	@Expose
+	@SerializedName("bg")
+	private FightPerformancePanel.BackgroundStyle bgStyle;
+
+	@Expose
+	@SerializedName("cl")
+	private int competitorFightLogCount;
+	@Expose
+	@SerializedName("ol")
+	private int opponentFightLogCount;
+
+	// robe hits received by each fighter, indexed by RobeHitFilter ordinal
+	@Expose
+	@SerializedName("cr")
+	private int[] competitorRobeHits;
+	@Expose
+	@SerializedName("or")
+	private int[] opponentRobeHits;
+
+	// KO chances & survival probability over each fighter's attacks, from the fight logs' KO chance
+	@Expose
+	@SerializedName("ck")
+	private int competitorKoChanceCount;
+	@Expose
+	@SerializedName("cs")
+	private double competitorKoSurvivalProb = 1.0;
+	@Expose
+	@SerializedName("ok")
+	private int opponentKoChanceCount;
+	@Expose
+	@SerializedName("os")
+	private double opponentKoSurvivalProb = 1.0;
+
+	// weapons used by either fighter during the fight, as item ids.
+	@Expose
+	@SerializedName("w")
+	private int[] weaponIds;
+
+	private FightSummary()
+	{
+	}
+
+	// summarize a fight from its fight logs, which must be loaded.
+	public static FightSummary of(FightPerformance fight)
+	{
+		FightSummary summary = new FightSummary();
+		ArrayList<FightLogEntry> competitorLogs = fight.competitor.getFightLogEntries();
+		ArrayList<FightLogEntry> opponentLogs = fight.opponent.getFightLogEntries();
+		if (competitorLogs == null || opponentLogs == null)
+		{
+			competitorLogs = new ArrayList<>();
+			opponentLogs = new ArrayList<>();
+		}
+
+		summary.fightIdAnchorTime = FightPerformance.getFightIdAnchorTime(fight.getAllFightLogEntries(), fight.lastFightTime);
+		summary.bgStyle = fight.calculateBgStyle();
+		summary.competitorFightLogCount = competitorLogs.size();
+		summary.opponentFightLogCount = opponentLogs.size();
+
+		// the competitor's attacks are robe hits received by the opponent, and vice versa
+		summary.opponentRobeHits = countRobeHits(competitorLogs);
+		summary.competitorRobeHits = countRobeHits(opponentLogs);
+
+		for (FightLogEntry entry : competitorLogs)
+		{
+			if (entry.getKoChance() != null)
+			{
+				summary.competitorKoChanceCount++;
+				summary.competitorKoSurvivalProb *= (1.0 - entry.getKoChance());
+			}
+		}
+		for (FightLogEntry entry : opponentLogs)
+		{
+			if (entry.getKoChance() != null)
+			{
+				summary.opponentKoChanceCount++;
+				summary.opponentKoSurvivalProb *= (1.0 - entry.getKoChance());
+			}
+		}
+
+		Set<Integer> weapons = new LinkedHashSet<>();
+		addWeaponIds(competitorLogs, weapons);
+		addWeaponIds(opponentLogs, weapons);
+		summary.weaponIds = weapons.stream().mapToInt(Integer::intValue).toArray();
+
+		return summary;
+	}
+
+	// replace the KO chance values, after the fight's attacks were re-calculated with the current config.
+	void setKoChances(int competitorKoChanceCount, double competitorKoSurvivalProb, int opponentKoChanceCount, double opponentKoSurvivalProb)
+	{
+		this.competitorKoChanceCount = competitorKoChanceCount;
+		this.competitorKoSurvivalProb = competitorKoSurvivalProb;
+		this.opponentKoChanceCount = opponentKoChanceCount;
+		this.opponentKoSurvivalProb = opponentKoSurvivalProb;
+	}
+
+	public int getCompetitorRobeHits(RobeHitFilter filter)
+	{
+		return competitorRobeHits == null ? 0 : competitorRobeHits[filter.ordinal()];
+	}
+
+	public int getOpponentRobeHits(RobeHitFilter filter)
+	{
+		return opponentRobeHits == null ? 0 : opponentRobeHits[filter.ordinal()];
+	}
+
+	public int getFightLogCount(boolean forCompetitor)
+	{
+		return forCompetitor ? competitorFightLogCount : opponentFightLogCount;
+	}
+
+	public int getKoChanceCount(boolean forCompetitor)
+	{
+		return forCompetitor ? competitorKoChanceCount : opponentKoChanceCount;
+	}
+
+	// overall probability that at least one of the fighter's KO chances was a KO
+	public double getKoProbability(boolean forCompetitor)
+	{
+		if (getKoChanceCount(forCompetitor) <= 0)
+		{
+			return 0;
+		}
+
+		return 1.0 - (forCompetitor ? competitorKoSurvivalProb : opponentKoSurvivalProb);
+	}
+
+	public boolean hasKoChances()
+	{
+		return competitorKoChanceCount > 0 || opponentKoChanceCount > 0;
+	}
+
+	private static int[] countRobeHits(ArrayList<FightLogEntry> attackerLogs)
+	{
+		RobeHitFilter[] filters = RobeHitFilter.values();
+		int[] robeHits = new int[filters.length];
+		for (FightLogEntry entry : attackerLogs)
+		{
+			int defenderRobes = FightPerformance.getDefenderRobes(entry);
+			for (RobeHitFilter filter : filters)
+			{
+				if (FightPerformance.matchesRobeHitFilter(defenderRobes, filter))
+				{
+					robeHits[filter.ordinal()]++;
+				}
+			}
+		}
+		return robeHits;
+	}
+
+	private static void addWeaponIds(ArrayList<FightLogEntry> logs, Set<Integer> weapons)
+	{
+		for (FightLogEntry entry : logs)
+		{
+			addWeaponId(entry.getAttackerGear(), weapons);
+			addWeaponId(entry.getDefenderGear(), weapons);
+		}
+	}
+
+	private static void addWeaponId(int[] gear, Set<Integer> weapons)
+	{
+		if (gear == null || gear.length <= KitType.WEAPON.getIndex())
+		{
+			return;
+		}
+
+		int itemId = gear[KitType.WEAPON.getIndex()] - PlayerComposition.ITEM_OFFSET;
+		if (itemId > 0)
+		{
+			weapons.add(itemId);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.GSON;
+import static matsyir.pvpperformancetracker.controllers.FightPerformanceSerializer.FIGHT_SUMMARY_DIR;
+
+/**
+ * Summary index files, saved next to the fight history data chunks: one per chunk, holding its fights without
+ * their fight logs along with their FightSummary. These let the fight history be loaded without reading every
+ * fight log, which are only read from the chunk when they're needed (see FightPerformance.loadFightLogs).
+ *
+ * An index is only used if it was written for the current version of its chunk, otherwise the chunk is read
+ * in full and the index is re-written.
+ */
+@Slf4j
+class FightSummaryIndex
+{
+	private static final int INDEX_VERSION = 1;
+	private static final String INDEX_FILE_EXT = ".summary";
+
+	@Expose
+	@SerializedName("v")
+	private int version;
+	@Expose
+	@SerializedName("m")
+	private long chunkLastModified;
+	@Expose
+	@SerializedName("s")
+	private long chunkLength;
+	@Expose
+	@SerializedName("f")
+	private FightPerformance[] fights;
+	@Expose
+	@SerializedName("x")
+	private FightSummary[] summaries;
+
+	private FightSummaryIndex()
+	{
+	}
+
+	// returns the summarized fights of the chunk, or null if there's no up to date index for it.
+	static List<FightPerformance> read(File chunkFile, long chunkLastModified, long chunkLength)
+	{
+		File indexFile = getIndexFile(chunkFile);
+		if (!indexFile.exists())
+		{
+			return null;
+		}
+
+		FightSummaryIndex index;
+		try (InputStream in = Files.newInputStream(indexFile.toPath());
+			InputStreamReader reader = new InputStreamReader(new GZIPInputStream(in), StandardCharsets.UTF_8))
+		{
+			index = GSON.fromJson(reader, FightSummaryIndex.class);
+		}
+		catch (Exception e)
+		{
+			log.debug("FightSummaryIndex.read: Ignoring unreadable summary index (path={}): {}", indexFile.getName(), e.getMessage());
+			return null;
+		}
+
+		if (index == null || index.version != INDEX_VERSION
+			|| index.chunkLastModified != chunkLastModified || index.chunkLength != chunkLength
+			|| index.fights == null || index.summaries == null || index.fights.length != index.summaries.length)
+		{
+			return null;
+		}
+
+		List<FightPerformance> fights = new ArrayList<>(index.fights.length);
+		for (int i = 0; i < index.fights.length; i++)
+		{
+			FightPerformance fight = index.fights[i];
+			if (fight == null || fight.competitor == null || fight.opponent == null || index.summaries[i] == null)
+			{
+				continue;
+			}
+
+			fight.setLoadedFromFname(chunkFile.getName());
+			fight.setSavedSummary(index.summaries[i]);
+			fights.add(fight);
+		}
+		return fights;
+	}
+
+	// write the index for a chunk. The fights should already have their fight logs released.
+	static void write(File chunkFile, long chunkLastModified, long chunkLength, List<FightPerformance> fights)
+	{
+		FightSummaryIndex index = new FightSummaryIndex();
+		index.version = INDEX_VERSION;
+		index.chunkLastModified = chunkLastModified;
+		index.chunkLength = chunkLength;
+		index.fights = new FightPerformance[fights.size()];
+		index.summaries = new FightSummary[fights.size()];
+		for (int i = 0; i < fights.size(); i++)
+		{
+			FightPerformance fight = fights.get(i);
+			if (fight.hasFightLogs() || fight.getSavedSummary() == null)
+			{
+				log.debug("FightSummaryIndex.write: Skipping index for chunk with unreleased fight logs (path={})", chunkFile.getName());
+				return;
+			}
+			index.fights[i] = fight;
+			index.summaries[i] = fight.getSavedSummary();
+		}
+
+		File indexFile = getIndexFile(chunkFile);
+		File tmpIndexFile = new File(FIGHT_SUMMARY_DIR, indexFile.getName() + ".tmp");
+		try
+		{
+			FIGHT_SUMMARY_DIR.mkdirs();
+			try (OutputStream out = Files.newOutputStream(tmpIndexFile.toPath());
+				OutputStreamWriter writer = new OutputStreamWriter(new GZIPOutputStream(out), StandardCharsets.UTF_8))
+			{
+				GSON.toJson(index, writer);
+			}
+			Files.move(tmpIndexFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (Exception e)
+		{
+			log.warn("FightSummaryIndex.write: Error ignored while writing summary index (path={}): {}", indexFile.getName(), e.getMessage());
+			tmpIndexFile.delete();
+		}
+	}
+
+	// delete the indexes of chunks that no longer exist
+	static void removeStaleIndexes(Collection<File> chunkFiles)
+	{
+		File[] indexFiles = FIGHT_SUMMARY_DIR.listFiles();
+		if (indexFiles == null)
+		{
+			return;
+		}
+
+		Set<String> indexNames = new HashSet<>();
+		for (File chunkFile : chunkFiles)
+		{
+			indexNames.add(getIndexFile(chunkFile).getName());
+		}
+
+		for (File indexFile : indexFiles)
+		{
+			if (!indexNames.contains(indexFile.getName()))
+			{
+				indexFile.delete();
+			}
+		}
+	}
+
+	private static File getIndexFile(File chunkFile)
+	{
+		return new File(FIGHT_SUMMARY_DIR, chunkFile.getName() + INDEX_FILE_EXT);
+	}
+}
@@ -24,13 +24,17 @@
  */
 package matsyir.pvpperformancetracker.controllers;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.math.RoundingMode;
 import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Queue;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -46,6 +50,7 @@ import matsyir.pvpperformancetracker.models.AnimationData;
 import matsyir.pvpperformancetracker.models.CombatLevels;
 import matsyir.pvpperformancetracker.models.EquipmentData;
 import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.LocalPlayerState;
 import net.runelite.api.ActorSpotAnim;
 import net.runelite.api.GraphicID;
 import net.runelite.api.IterableHashTable;
@@ -129,10 +134,22 @@ class Fighter
 	private int lastGhostBarrageCheckedMageXp = -1;
 
 	@Getter
-	private transient Queue<FightLogEntry> pendingAttacks;
+	private transient PendingAttackQueue pendingAttacks;
+	// matcher of the fight this fighter is tracked in, see FightRegistry
+	@Setter(AccessLevel.PACKAGE)
+	private transient HitsplatMatcher hitsplatMatcher;
+	// set for fights replayed by the FightEventReplayer
+	@Setter(AccessLevel.PACKAGE)
+	private transient boolean replayed;
 
 	// fighter that is bound to a player and gets updated during a fight
 	Fighter(FightPerformance fight, Player player)
+	{
+		this(fight, player, player == PLUGIN.getClient().getLocalPlayer() ? CombatLevels.getRealLevels(PLUGIN.getClient()) : null);
+	}
+
+	// baseLevels should only be provided for the local player
+	Fighter(FightPerformance fight, Player player, CombatLevels baseLevels)
 	{
 		this.player = player;
 		name = player.getName();
@@ -147,8 +164,8 @@ class Fighter
 		dead = false;
 		pvpDamageCalc = new PvpDamageCalc(fight);
 		fightLogEntries = new ArrayList<>();
-		pendingAttacks = new LinkedList<>();
-		baseLevels = player == PLUGIN.getClient().getLocalPlayer() ? CombatLevels.getRealLevels(PLUGIN.getClient()) : null;
+		pendingAttacks = new PendingAttackQueue();
+		this.baseLevels = baseLevels;
 	}
 
 	// create a basic Fighter to only hold stats, for the TotalStatsPanel,
@@ -167,10 +184,15 @@ class Fighter
 		dead = false;
 		pvpDamageCalc = null;
 		fightLogEntries = new ArrayList<>();
-		pendingAttacks = new LinkedList<>();
+		pendingAttacks = new PendingAttackQueue();
 		baseLevels = null;
 	}
 
+	// used by the GsonAdapter, which sets the fields afterwards
+	private Fighter()
+	{
+	}
+
 	public BrewState getBrewState(FightLogEntry fightLogEntry)
 	{
 		return BrewState.from(
@@ -180,13 +202,15 @@ class Fighter
 	}
 
 	// Levels can be null
-	void addAttack(Player opponent, AnimationData animationData, int realOffensivePray, int assumedOffensivePray, CombatLevels levels, int attackTick, long attackTime)
+	void addAttack(Player opponent, AnimationData animationData, int realOffensivePray, int assumedOffensivePray, CombatLevels levels, int attackTick, long attackTime,
+		LocalPlayerState localPlayerState)
 	{
-		addAttack(opponent, animationData, realOffensivePray, assumedOffensivePray, levels, null, attackTick, attackTime);
+		addAttack(opponent, animationData, realOffensivePray, assumedOffensivePray, levels, null, attackTick, attackTime, localPlayerState);
 	}
 
 	// Levels can be null when that player's current boosted/drained stats are not visible locally.
-	void addAttack(Player opponent, AnimationData animationData, int realOffensivePray, int assumedOffensivePray, CombatLevels attackerLevels, CombatLevels defenderLevels, int attackTick, long attackTime)
+	void addAttack(Player opponent, AnimationData animationData, int realOffensivePray, int assumedOffensivePray, CombatLevels attackerLevels, CombatLevels defenderLevels, int attackTick, long attackTime,
+		LocalPlayerState localPlayerState)
 	{
 		int[] attackerItems = player.getPlayerComposition().getEquipmentIds();
 
@@ -249,7 +273,7 @@ class Fighter
 		// always overwrite offensive pray with the assumed pray for dps calcs, same as is used for opponent.
 		// we still want to save the real pray in the fight log, though. Same with levels.
 		// Calc doesn't even need levels since it just uses defaults.
-		pvpDamageCalc.updateDamageStats(player, opponent, successful, animationData, assumedOffensivePray);
+		pvpDamageCalc.updateDamageStats(player, opponent, successful, animationData, assumedOffensivePray, localPlayerState);
 		if (elyProc)
 		{
 			pvpDamageCalc.applyElysianReduction();
@@ -271,15 +295,19 @@ class Fighter
 			}
 		}
 
-		FightLogEntry fightLogEntry = new FightLogEntry(player, opponent, pvpDamageCalc, realOffensivePray, attackerLevels, animationData, attackTick, attackTime);
+		FightLogEntry fightLogEntry = new FightLogEntry(player, opponent, pvpDamageCalc, realOffensivePray, attackerLevels, animationData, attackTick, attackTime,
+			localPlayerState);
 		fightLogEntry.setDefenderElyProc(elyProc);
 		fightLogEntry.setDefenderSotdMeleeReductionProc(staffMeleeReduction);
 		fightLogEntry.setGmaulSpecial(isGmaulSpec);
 		if (animationData.isSpecial && animationData != AnimationData.MELEE_GRANITE_MAUL_SPEC)
 		{
-			PvpPerformanceTrackerPlugin.PLUGIN.recordNonGmaulSpecial(player.getName(), fightLogEntry.getHitsplatMatchTick());
+			if (hitsplatMatcher != null)
+			{
+				hitsplatMatcher.recordNonGmaulSpecial(player.getName(), fightLogEntry.getHitsplatMatchTick());
+			}
 		}
-		if (PvpPerformanceTrackerPlugin.CONFIG.fightLogInChat())
+		if (!replayed && PvpPerformanceTrackerPlugin.CONFIG.fightLogInChat())
 		{
 			PvpPerformanceTrackerPlugin.PLUGIN.sendTradeChatMessage(fightLogEntry.toChatMessage());
 		}
@@ -322,6 +350,13 @@ class Fighter
 		this.ghostBarrageExpectedDamage += ghostBarrageExpectedDamage;
 	}
 
+	// replace the expected damage totals, after the fight's attacks were re-calculated with the current config.
+	void setExpectedDamageStats(double expectedDamage, double magicHitCountExpected)
+	{
+		this.expectedDamage = expectedDamage;
+		this.magicHitCountExpected = magicHitCountExpected;
+	}
+
 	void addDamageDealt(int damage)
 	{
 		this.damageDealt += damage;
@@ -377,9 +412,9 @@ class Fighter
 	}
 
 	// the "addAttack" for a defensive log that creates an "incomplete" fight log entry.
-	void addDefensiveLogs(CombatLevels levels, int offensivePray, int attackTick, long attackTime)
+	void addDefensiveLogs(CombatLevels levels, int offensivePray, int attackTick, long attackTime, LocalPlayerState localPlayerState)
 	{
-		fightLogEntries.add(new FightLogEntry(name, levels, offensivePray, attackTick, attackTime));
+		fightLogEntries.add(new FightLogEntry(name, levels, offensivePray, attackTick, attackTime, localPlayerState));
 	}
 
 	void refreshCombatLevelsForTick(int tick, CombatLevels levels)
@@ -525,4 +560,107 @@ class Fighter
 	{
 		this.robeHits++;
 	}
+	void setRobeHits(int robeHits)
+	{
+		this.robeHits = robeHits;
+	}
+
+	// used by FightPerformance to drop/restore the fight logs of saved fights, see releaseFightLogs/loadFightLogs.
+	void releaseFightLogEntries()
+	{
+		fightLogEntries = null;
+	}
+	void restoreFightLogEntries(ArrayList<FightLogEntry> entries)
+	{
+		fightLogEntries = entries;
+	}
+
+	// Streaming adapter writing the same JSON as the reflective one: see FightDataTypeAdapterFactory.
+	static final class GsonAdapter extends TypeAdapter<Fighter>
+	{
+		private final TypeAdapter<FightLogEntry> fightLogEntryAdapter;
+		private final TypeAdapter<CombatLevels> combatLevelsAdapter;
+		private final boolean writeFightLogs;
+
+		GsonAdapter(Gson gson, boolean writeFightLogs)
+		{
+			fightLogEntryAdapter = gson.getAdapter(FightLogEntry.class);
+			combatLevelsAdapter = gson.getAdapter(CombatLevels.class);
+			this.writeFightLogs = writeFightLogs;
+		}
+
+		@Override
+		public void write(JsonWriter out, Fighter f) throws IOException
+		{
+			write(out, f, f.name);
+		}
+
+		// write the fighter with the given name instead of its own, e.g. to hide it in uploads
+		void write(JsonWriter out, Fighter f, String name) throws IOException
+		{
+			out.beginObject();
+			out.name("n").value(name);
+			out.name("a").value(f.attackCount);
+			out.name("s").value(f.offPraySuccessCount);
+			out.name("d");
+			FightDataTypeAdapterFactory.writeDouble(out, f.expectedDamage);
+			out.name("h").value(f.damageDealt);
+			out.name("z").value(f.totalMagicAttackCount);
+			out.name("m").value(f.magicHitCount);
+			out.name("M");
+			FightDataTypeAdapterFactory.writeDouble(out, f.magicHitCountExpected);
+			out.name("p").value(f.offensivePraySuccessCount);
+			out.name("g").value(f.ghostBarrageCount);
+			out.name("y");
+			FightDataTypeAdapterFactory.writeDouble(out, f.ghostBarrageExpectedDamage);
+			out.name("H").value(f.hpHealed);
+			out.name("rh").value(f.robeHits);
+			out.name("x").value(f.dead);
+			if (writeFightLogs && f.fightLogEntries != null)
+			{
+				out.name("l");
+				FightDataTypeAdapterFactory.writeList(out, f.fightLogEntries, fightLogEntryAdapter);
+			}
+			out.name("b");
+			combatLevelsAdapter.write(out, f.baseLevels);
+			out.endObject();
+		}
+
+		@Override
+		public Fighter read(JsonReader in) throws IOException
+		{
+			Fighter f = new Fighter();
+			in.beginObject();
+			while (in.hasNext())
+			{
+				String name = in.nextName();
+				if (FightDataTypeAdapterFactory.skipNull(in))
+				{
+					continue;
+				}
+				switch (name)
+				{
+					case "n": f.name = FightDataTypeAdapterFactory.readString(in); break;
+					case "a": f.attackCount = in.nextInt(); break;
+					case "s": f.offPraySuccessCount = in.nextInt(); break;
+					case "d": f.expectedDamage = in.nextDouble(); break;
+					case "h": f.damageDealt = in.nextInt(); break;
+					case "z": f.totalMagicAttackCount = in.nextInt(); break;
+					case "m": f.magicHitCount = in.nextInt(); break;
+					case "M": f.magicHitCountExpected = in.nextDouble(); break;
+					case "p": f.offensivePraySuccessCount = in.nextInt(); break;
+					case "g": f.ghostBarrageCount = in.nextInt(); break;
+					case "y": f.ghostBarrageExpectedDamage = in.nextDouble(); break;
+					case "H": f.hpHealed = in.nextInt(); break;
+					case "rh": f.robeHits = in.nextInt(); break;
+					case "x": f.dead = FightDataTypeAdapterFactory.readBoolean(in); break;
+					case "l": f.fightLogEntries = FightDataTypeAdapterFactory.readList(in, fightLogEntryAdapter); break;
+					case "b": f.baseLevels = combatLevelsAdapter.read(in); break;
+					default: in.skipValue(); break;
+				}
+			}
+			in.endObject();
+			return f;
+		}
+	}
 }
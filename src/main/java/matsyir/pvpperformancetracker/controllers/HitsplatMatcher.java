@@ -0,0 +1,727 @@
+/*
+ * Copyright (c) 2025, Sacca <https://github.com/Sacca-1>
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.HitsplatInfo;
+import matsyir.pvpperformancetracker.utils.PvpUtils;
+import net.runelite.api.Actor;
+import net.runelite.api.Player;
+import net.runelite.api.events.HitsplatApplied;
+
+/**
+ * Buffers hitsplats as they are applied, and matches them to the Fighters' pending attacks one tick later,
+ * in order to know the actual damage, HP before the hit and KO chance of each attack.
+ *
+ * Pending attacks are kept ordered per attacker (see PendingAttackQueue), and the hitsplats of a tick are kept in
+ * the order they were applied, so matching is a single merge-style walk over both. All working lists are re-used
+ * between ticks, so a tick doesn't allocate anything once they have grown to size.
+ *
+ * Not thread-safe: only meant to be used from the client thread.
+ */
+@Slf4j
+public class HitsplatMatcher
+{
+	// how many ticks of hitsplats are kept around to be matched to attacks
+	public static final int HITSPLAT_BUFFER_WINDOW = 5;
+
+	// group processed entries by the tick they landed and their attacker, then keep animation order within a group.
+	private static final Comparator<FightLogEntry> PROCESSED_ENTRY_ORDER = Comparator
+		.comparingInt(FightLogEntry::getHitsplatTick)
+		.thenComparing(FightLogEntry::getAttackerName, Comparator.nullsFirst(Comparator.naturalOrder()))
+		.thenComparingInt(FightLogEntry::getTick);
+
+	private final HitsplatTickBuffer hitsplatBuffer = new HitsplatTickBuffer(HITSPLAT_BUFFER_WINDOW);
+	private final HitsplatTickBuffer incomingHitsplatsBuffer = new HitsplatTickBuffer(HITSPLAT_BUFFER_WINDOW); // Stores hitsplats *received* by the fighters per tick.
+	private final VengeanceRecoilIndex vengeanceRecoilIndex = new VengeanceRecoilIndex(HITSPLAT_BUFFER_WINDOW);
+	private final Map<String, Integer> lastNonGmaulSpecTickByAttacker = new ConcurrentHashMap<>();
+
+	// working lists, re-used every tick
+	private final List<HitsplatInfo> hitsplatsToProcess = new ArrayList<>();
+	private final List<HitsplatInfo> hitsOnCompetitor = new ArrayList<>();
+	private final List<HitsplatInfo> hitsOnOpponent = new ArrayList<>();
+	private final List<FightLogEntry> gmaulsMatchedThisTick = new ArrayList<>();
+	private final List<FightLogEntry> processedEntriesThisTick = new ArrayList<>();
+	// amount of hitsplats consumed by the last matchAttack call, to avoid allocating a result object per attack.
+	private int lastMatchedHitCount;
+
+	// Buffer a hitsplat to be matched on the next tick. Hitsplats received by either fighter of the current fight
+	// are also indexed by the vengeance/recoil damage they could cause.
+	public void bufferHitsplat(int tick, HitsplatApplied event, Player localPlayer, Player opponentPlayer)
+	{
+		Actor target = event.getActor();
+		boolean receivedByLocalPlayer = target != null && target == localPlayer;
+		if (receivedByLocalPlayer || (target != null && target == opponentPlayer))
+		{
+			HitsplatInfo incomingHit = incomingHitsplatsBuffer.add(tick, event);
+			vengeanceRecoilIndex.add(tick, receivedByLocalPlayer, incomingHit.getAmount(), incomingHitsplatsBuffer.size(tick) - 1);
+		}
+
+		// Vengeance damage hitsplats WILL be included here initially.
+		hitsplatBuffer.add(tick, event);
+	}
+
+	// Get the HP of the hit actors for all newly buffered hitsplats. Should be called on the client thread,
+	// after the hitsplats have been applied.
+	public void pollPendingHp()
+	{
+		hitsplatBuffer.pollPendingHp();
+	}
+
+	public void recordNonGmaulSpecial(String attackerName, int tick)
+	{
+		if (attackerName == null)
+		{
+			return;
+		}
+		lastNonGmaulSpecTickByAttacker.put(attackerName, tick);
+	}
+
+	public void clear()
+	{
+		hitsplatBuffer.clear();
+		incomingHitsplatsBuffer.clear();
+		vengeanceRecoilIndex.clear();
+		hitsplatsToProcess.clear();
+		hitsOnCompetitor.clear();
+		hitsOnOpponent.clear();
+		gmaulsMatchedThisTick.clear();
+		processedEntriesThisTick.clear();
+	}
+
+	// Process hitsplats from the previous tick
+	public void processTick(FightPerformance fight, int currentTick, Player localPlayer, int maxHpToUse)
+	{
+		prunePendingAttacks(fight, currentTick);
+
+		int tickToProcess = currentTick - 1;
+		hitsplatsToProcess.clear();
+		if (hitsplatBuffer.drainTo(tickToProcess, hitsplatsToProcess) == 0)
+		{
+			return;
+		}
+
+		Fighter competitor = fight.getCompetitor();
+		Fighter opponent = fight.getOpponent();
+
+		// 1. Calculate total expected hits from pending attacks for this tick
+		int totalExpectedAttackHits = countExpectedHits(opponent, tickToProcess) + countExpectedHits(competitor, tickToProcess);
+
+		// 2. Compare observed vs expected: any extra hitsplats may be vengeance/recoil hits, which should be skipped.
+		Player opponentPlayer = opponent.getPlayer();
+		if (hitsplatsToProcess.size() > totalExpectedAttackHits)
+		{
+			log.debug("Tick {}: Observed hits ({}) > Expected attack hits ({}). Checking for special hits...",
+				tickToProcess, hitsplatsToProcess.size(), totalExpectedAttackHits);
+			removeVengeanceAndRecoilHits(hitsplatsToProcess, hitsplatsToProcess.size() - totalExpectedAttackHits,
+				localPlayer, opponentPlayer, tickToProcess);
+		}
+
+		// 3. Split the remaining hitsplats by which fighter they landed on
+		hitsOnCompetitor.clear();
+		hitsOnOpponent.clear();
+		for (int i = 0; i < hitsplatsToProcess.size(); i++)
+		{
+			HitsplatInfo hit = hitsplatsToProcess.get(i);
+			Actor target = hit.getEvent().getActor();
+
+			// Only process hits on players
+			if (!(target instanceof Player))
+			{
+				continue;
+			}
+
+			// Determine attacker safely (handle null names and prefer identity when possible)
+			String targetName = target.getName();
+			if (target == opponentPlayer || Objects.equals(targetName, opponent.getName()))
+			{
+				hitsOnOpponent.add(hit);
+			}
+			else if (target == competitor.getPlayer() || Objects.equals(targetName, competitor.getName()))
+			{
+				hitsOnCompetitor.add(hit);
+			}
+		}
+
+		processedEntriesThisTick.clear();
+		matchAttacks(competitor, hitsOnOpponent, currentTick, tickToProcess, maxHpToUse);
+		matchAttacks(opponent, hitsOnCompetitor, currentTick, tickToProcess, maxHpToUse);
+
+		// Post-processing for Display HP/KO Chance
+		if (!processedEntriesThisTick.isEmpty())
+		{
+			updateDisplayHpAndKoChance(fight);
+		}
+
+		hitsplatsToProcess.clear();
+		hitsOnCompetitor.clear();
+		hitsOnOpponent.clear();
+		processedEntriesThisTick.clear();
+	}
+
+	// Drop the pending attacks that can't be matched anymore, so the pending queues don't keep growing:
+	// attacks that are done matching, that aren't full entries or splashed, or that are too old to still land.
+	void prunePendingAttacks(FightPerformance fight, int currentTick)
+	{
+		int tickToProcess = currentTick - 1;
+		prunePendingAttacks(fight.getCompetitor(), tickToProcess);
+		prunePendingAttacks(fight.getOpponent(), tickToProcess);
+	}
+
+	private void prunePendingAttacks(Fighter attacker, int tickToProcess)
+	{
+		if (attacker == null)
+		{
+			return;
+		}
+
+		PendingAttackQueue pending = attacker.getPendingAttacks();
+		int keptCount = 0;
+		for (int i = 0; i < pending.size(); i++)
+		{
+			FightLogEntry entry = pending.get(i);
+			if (couldStillMatch(entry, tickToProcess))
+			{
+				pending.set(keptCount++, entry);
+			}
+		}
+		pending.truncate(keptCount);
+	}
+
+	private static boolean couldStillMatch(FightLogEntry entry, int tickToProcess)
+	{
+		boolean couldStillLand = tickToProcess - PendingAttackQueue.getHitsplatMatchTick(entry) <= Math.max(5, getAttackLookback(entry));
+		return !entry.isKoChanceCalculated() && entry.isFullEntry() && !entry.isSplash() && couldStillLand;
+	}
+
+	// Sum expected hits from the fighter's pending attacks that could land on the given tick.
+	private int countExpectedHits(Fighter attacker, int tickToProcess)
+	{
+		if (attacker == null)
+		{
+			return 0;
+		}
+
+		PendingAttackQueue pending = attacker.getPendingAttacks();
+		int expectedHits = 0;
+		for (int i = 0; i < pending.size(); i++)
+		{
+			FightLogEntry entry = pending.get(i);
+			if (couldStillMatch(entry, tickToProcess))
+			{
+				expectedHits += entry.getExpectedHits();
+			}
+		}
+
+		return expectedHits;
+	}
+
+	// Remove up to maxRemovals hitsplats that could be vengeance/recoil hits, in the order they were applied,
+	// keeping the remaining hitsplats in order. Whether a hitsplat is a candidate doesn't depend on other
+	// removals, so this is a single in-place pass. Returns the amount of hitsplats removed.
+	int removeVengeanceAndRecoilHits(List<HitsplatInfo> hits, int maxRemovals, Player localPlayer, Player opponentPlayer, int tickToProcess)
+	{
+		int removed = 0;
+		int keptCount = 0;
+		for (int i = 0; i < hits.size(); i++)
+		{
+			HitsplatInfo hit = hits.get(i);
+			if (removed < maxRemovals && isVengeanceOrRecoilHit(hit, localPlayer, opponentPlayer, tickToProcess))
+			{
+				removed++;
+				continue;
+			}
+			hits.set(keptCount++, hit);
+		}
+
+		// trim from the end so ArrayList doesn't need to shift anything
+		for (int i = hits.size() - 1; i >= keptCount; i--)
+		{
+			hits.remove(i);
+		}
+		return removed;
+	}
+
+	private boolean isVengeanceOrRecoilHit(HitsplatInfo potentialSpecialHit, Player localPlayer, Player opponentPlayer, int tickToProcess)
+	{
+		// Determine who the 'other' player is (the one who might have *caused* veng/recoil)
+		Actor target = potentialSpecialHit.getEvent().getActor();
+		Actor otherPlayer;
+		if (target == localPlayer)
+		{
+			otherPlayer = opponentPlayer;
+		}
+		else if (target == opponentPlayer)
+		{
+			otherPlayer = localPlayer;
+		}
+		else
+		{
+			return false;
+		}
+		if (otherPlayer == null)
+		{
+			return false;
+		}
+
+		int hitAmount = potentialSpecialHit.getAmount();
+		boolean otherIsLocalPlayer = otherPlayer == localPlayer;
+		if (hitAmount > VengeanceRecoilIndex.MAX_INDEXED_DAMAGE)
+		{
+			return scanForVengeanceOrRecoilSource(hitAmount, otherPlayer, tickToProcess);
+		}
+
+		int source = vengeanceRecoilIndex.findVengeanceSource(tickToProcess, otherIsLocalPlayer, hitAmount);
+		if (source != VengeanceRecoilIndex.NO_SOURCE)
+		{
+			log.debug("Tick {}: Found potential Vengeance hit ({} damage) on {} based on {} incoming damage on {}",
+				tickToProcess, hitAmount, target.getName(), incomingHitsplatsBuffer.get(tickToProcess, source).getAmount(), otherPlayer.getName());
+			return true;
+		}
+
+		source = vengeanceRecoilIndex.findRecoilSource(tickToProcess, otherIsLocalPlayer, hitAmount);
+		if (source != VengeanceRecoilIndex.NO_SOURCE)
+		{
+			log.debug("Tick {}: Found potential Recoil hit ({} damage) on {} based on {} incoming damage on {}",
+				tickToProcess, hitAmount, target.getName(), incomingHitsplatsBuffer.get(tickToProcess, source).getAmount(), otherPlayer.getName());
+			return true;
+		}
+
+		// burn hitsplats are excluded earlier in onHitsplatApplied
+		return false;
+	}
+
+	// Fallback for hit amounts too large to be indexed: scan the hits the other player received this tick.
+	private boolean scanForVengeanceOrRecoilSource(int hitAmount, Actor otherPlayer, int tickToProcess)
+	{
+		int incomingHitCount = incomingHitsplatsBuffer.size(tickToProcess);
+		for (int i = 0; i < incomingHitCount; i++)
+		{
+			HitsplatInfo incomingHit = incomingHitsplatsBuffer.get(tickToProcess, i);
+			if (incomingHit.getEvent().getActor() == otherPlayer &&
+				(hitAmount == VengeanceRecoilIndex.expectedVengeance(incomingHit.getAmount()) ||
+					hitAmount == VengeanceRecoilIndex.expectedRecoil(incomingHit.getAmount())))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Walk the attacker's pending attacks in order, handing out the hitsplats on their target in the order they landed.
+	// Fully processed attacks are dropped from the pending queue during the same walk.
+	private void matchAttacks(Fighter attacker, List<HitsplatInfo> hits, int currentTick, int tickToProcess, int maxHpToUse)
+	{
+		if (hits.isEmpty())
+		{
+			return;
+		}
+
+		PendingAttackQueue pending = attacker.getPendingAttacks();
+		int hitCursor = 0;
+		int totalGmaulHitsMatchedThisTick = 0;
+		gmaulsMatchedThisTick.clear();
+
+		int keptCount = 0;
+		for (int i = 0; i < pending.size(); i++)
+		{
+			FightLogEntry entry = pending.get(i);
+			if (!matchAttack(attacker, entry, hits, hitCursor, currentTick, tickToProcess, maxHpToUse))
+			{
+				pending.set(keptCount++, entry);
+			}
+			hitCursor += lastMatchedHitCount;
+			if (entry.isGmaulSpecial())
+			{
+				totalGmaulHitsMatchedThisTick += lastMatchedHitCount;
+			}
+		}
+		pending.truncate(keptCount);
+
+		// Gmaul Damage Scaling (Applied after all matching for the tick)
+		boolean isMultiHitGmaul = totalGmaulHitsMatchedThisTick >= 2;
+		if (isMultiHitGmaul)
+		{
+			for (FightLogEntry gmaulEntry : gmaulsMatchedThisTick)
+			{
+				int originalMin = gmaulEntry.getMinHit();
+				int originalMax = gmaulEntry.getMaxHit();
+				double originalExpected = gmaulEntry.getExpectedDamage();
+				gmaulEntry.setMaxHit(originalMax * totalGmaulHitsMatchedThisTick);
+				gmaulEntry.setMinHit(originalMin * totalGmaulHitsMatchedThisTick);
+				gmaulEntry.setExpectedDamage(originalExpected * totalGmaulHitsMatchedThisTick);
+			}
+		}
+		gmaulsMatchedThisTick.clear();
+	}
+
+	// Match the next available hitsplats to a single pending attack. Returns true if the attack is done
+	// matching and should be removed from the pending attacks.
+	private boolean matchAttack(Fighter attacker, FightLogEntry entry, List<HitsplatInfo> hits, int hitCursor,
+		int currentTick, int tickToProcess, int maxHpToUse)
+	{
+		lastMatchedHitCount = 0;
+
+		// Only consider potentially relevant, unprocessed entries
+		int hitsplatMatchTick = PendingAttackQueue.getHitsplatMatchTick(entry);
+		if (entry.isKoChanceCalculated() || !entry.isFullEntry() || entry.isSplash() ||
+			currentTick - hitsplatMatchTick > Math.max(5, getAttackLookback(entry)))
+		{
+			return false;
+		}
+
+		// Apply specific lookback for the entry's style
+		int lookback = getAttackLookback(entry);
+		if (currentTick - hitsplatMatchTick > lookback)
+		{
+			entry.setKoChanceCalculated(true);
+			return true;
+		}
+
+		int toMatch = entry.getExpectedHits() - entry.getMatchedHitsCount();
+		if (toMatch <= 0)
+		{
+			entry.setKoChanceCalculated(true);
+			return true;
+		}
+
+		boolean isInstantGmaulCheck = entry.isGmaulSpecial() && hitsplatMatchTick == tickToProcess;
+
+		// Gmaul can hit twice, others match expected hits
+		int hitsToFind = entry.isGmaulSpecial() ? 2 : toMatch;
+
+		// Enforce Dragon Claws 2+2 sequencing: limit phase one to two hits
+		if (entry.getAnimationData() == AnimationData.MELEE_DRAGON_CLAWS_SPEC && entry.getMatchedHitsCount() < 2)
+		{
+			int remainingPhase1 = Math.max(0, 2 - entry.getMatchedHitsCount());
+			hitsToFind = Math.min(hitsToFind, remainingPhase1);
+		}
+
+		// Simple double-GMaul gate: if a different special fired on the previous tick, cap to a single hit
+		if (entry.isGmaulSpecial())
+		{
+			String attackerName = attacker.getName();
+			if (attackerName != null)
+			{
+				Integer lastSpec = lastNonGmaulSpecTickByAttacker.get(attackerName);
+				if (lastSpec != null && lastSpec == hitsplatMatchTick - 1)
+				{
+					hitsToFind = Math.min(hitsToFind, 1);
+				}
+			}
+		}
+
+		int matchedThisCycle = Math.max(0, Math.min(hitsToFind, hits.size() - hitCursor));
+		if (matchedThisCycle > 0)
+		{
+			int damageThisCycle = 0;
+			for (int i = hitCursor; i < hitCursor + matchedThisCycle; i++)
+			{
+				damageThisCycle += hits.get(i).getAmount();
+			}
+			HitsplatInfo lastMatchedInfo = hits.get(hitCursor + matchedThisCycle - 1);
+			lastMatchedHitCount = matchedThisCycle;
+
+			entry.setActualDamageSum(entry.getActualDamageSum() + damageThisCycle);
+			entry.setMatchedHitsCount(entry.getMatchedHitsCount() + matchedThisCycle);
+			processedEntriesThisTick.add(entry);
+
+			if (entry.isGmaulSpecial())
+			{
+				gmaulsMatchedThisTick.add(entry);
+			}
+
+			if (entry.getHitsplatTick() < 0)
+			{
+				entry.setHitsplatTick(tickToProcess);
+			}
+
+			updateHpBeforeHit(entry, lastMatchedInfo, matchedThisCycle, damageThisCycle, maxHpToUse);
+		}
+
+		// Mark entry as fully processed if all expected hits are matched OR if it's an instant Gmaul (even if only 1 hit matched)
+		if (entry.getMatchedHitsCount() >= entry.getExpectedHits() || isInstantGmaulCheck)
+		{
+			entry.setKoChanceCalculated(true);
+			return true;
+		}
+		return false;
+	}
+
+	// Calculate and set estimated HP Before using polled HP
+	private void updateHpBeforeHit(FightLogEntry entry, HitsplatInfo lastMatchedInfo, int matchedThisCycle, int damageThisCycle, int maxHpToUse)
+	{
+		int ratio = lastMatchedInfo.getHealthRatio();
+		int scale = lastMatchedInfo.getHealthScale();
+		// Fallback to current ratio/scale if polled is unavailable
+		if (ratio < 0 || scale <= 0)
+		{
+			Actor hitActor = lastMatchedInfo.getEvent().getActor();
+			if (hitActor != null)
+			{
+				ratio = hitActor.getHealthRatio();
+				scale = hitActor.getHealthScale();
+			}
+		}
+		int hpBefore = -1;
+		int hpBeforeThisCycle = -1;
+		if (ratio >= 0 && scale > 0 && maxHpToUse > 0)
+		{
+			hpBefore = PvpUtils.calculateHpBeforeHit(ratio, scale, maxHpToUse, entry.getActualDamageSum());
+			hpBeforeThisCycle = PvpUtils.calculateHpBeforeHit(ratio, scale, maxHpToUse, damageThisCycle);
+		}
+		if (hpBefore > 0)
+		{
+			entry.setEstimatedHpBeforeHit(hpBefore);
+			entry.setOpponentMaxHp(maxHpToUse);
+		}
+
+		if (entry.getAnimationData() == AnimationData.MELEE_DRAGON_CLAWS_SPEC)
+		{
+			int matched = entry.getMatchedHitsCount();
+			if (matched == 2 && entry.getClawsHpBeforePhase1() == null && hpBeforeThisCycle > 0)
+			{
+				entry.setClawsHpBeforePhase1(hpBeforeThisCycle);
+				entry.setClawsPhase1Damage(damageThisCycle);
+				entry.setClawsHpAfterPhase1(hpBeforeThisCycle - damageThisCycle);
+			}
+			if (matched >= entry.getExpectedHits() && entry.getClawsHpBeforePhase2() == null && hpBeforeThisCycle > 0)
+			{
+				entry.setClawsHpBeforePhase2(hpBeforeThisCycle);
+			}
+		}
+		else if (entry.getAnimationData() == AnimationData.RANGED_DARK_BOW ||
+			entry.getAnimationData() == AnimationData.RANGED_DARK_BOW_SPEC)
+		{
+			int matchedAfter = entry.getMatchedHitsCount();
+			int matchedBefore = matchedAfter - matchedThisCycle;
+
+			if (matchedBefore == 0 && matchedThisCycle >= 2)
+			{
+				entry.setDarkBowHitsStacked(true);
+				if (entry.getDarkBowHpBeforeHit1() == null && hpBeforeThisCycle > 0)
+				{
+					entry.setDarkBowHpBeforeHit1(hpBeforeThisCycle);
+				}
+			}
+			else
+			{
+				if (matchedAfter >= 1 && entry.getDarkBowHpBeforeHit1() == null && hpBeforeThisCycle > 0)
+				{
+					entry.setDarkBowHpBeforeHit1(hpBeforeThisCycle);
+					entry.setDarkBowHpAfterHit1(hpBeforeThisCycle - damageThisCycle);
+				}
+				if (matchedAfter >= entry.getExpectedHits() && entry.getDarkBowHpBeforeHit2() == null && hpBeforeThisCycle > 0)
+				{
+					entry.setDarkBowHpBeforeHit2(hpBeforeThisCycle);
+				}
+			}
+		}
+	}
+
+	// Walk the processed entries grouped by the tick they landed and the attacker, cascading the HP forward
+	// through each group in animation order, and calculating the KO chance of each entry.
+	private void updateDisplayHpAndKoChance(FightPerformance fight)
+	{
+		// small lists are sorted in-place (binary insertion sort), so this doesn't allocate for usual tick sizes.
+		processedEntriesThisTick.sort(PROCESSED_ENTRY_ORDER);
+
+		int groupStart = 0;
+		while (groupStart < processedEntriesThisTick.size())
+		{
+			FightLogEntry first = processedEntriesThisTick.get(groupStart);
+			int groupEnd = groupStart + 1;
+			while (groupEnd < processedEntriesThisTick.size() &&
+				isSameTickGroup(first, processedEntriesThisTick.get(groupEnd)))
+			{
+				groupEnd++;
+			}
+
+			if (first.getHitsplatTick() >= 0)
+			{
+				updateTickGroup(fight, groupStart, groupEnd);
+			}
+			groupStart = groupEnd;
+		}
+	}
+
+	private static boolean isSameTickGroup(FightLogEntry a, FightLogEntry b)
+	{
+		return a.getHitsplatTick() == b.getHitsplatTick() && Objects.equals(a.getAttackerName(), b.getAttackerName());
+	}
+
+	private void updateTickGroup(FightPerformance fight, int groupStart, int groupEnd)
+	{
+		boolean isGroup = groupEnd - groupStart > 1;
+
+		// Calculate Correct Starting HP for Forward Cascade
+		Integer hpBeforeSequence = null;
+		FightLogEntry lastEntry = processedEntriesThisTick.get(groupEnd - 1);
+		Integer hpBeforeLastHit = lastEntry.getEstimatedHpBeforeHit();
+		Integer lastHitDamage = lastEntry.getActualDamageSum();
+
+		// Ensure we have the necessary values from the last hit to calculate final HP
+		if (hpBeforeLastHit != null && lastHitDamage != null)
+		{
+			int hpAfterSequence = hpBeforeLastHit - lastHitDamage;
+
+			// Calculate total damage for the sequence
+			int totalDamageInSequence = 0;
+			for (int i = groupStart; i < groupEnd; i++)
+			{
+				Integer damage = processedEntriesThisTick.get(i).getActualDamageSum();
+				totalDamageInSequence += damage != null ? damage : 0;
+			}
+
+			// Calculate HP Before the entire sequence
+			hpBeforeSequence = hpAfterSequence + totalDamageInSequence;
+		}
+
+		// If hpBeforeSequence is still null (calculation failed), try fallback using first entry's estimate
+		if (hpBeforeSequence == null)
+		{
+			hpBeforeSequence = processedEntriesThisTick.get(groupStart).getEstimatedHpBeforeHit();
+		}
+
+		// Forward Cascade for Display
+		Integer currentHp = hpBeforeSequence;
+		for (int i = groupStart; i < groupEnd; i++)
+		{
+			FightLogEntry entry = processedEntriesThisTick.get(i);
+			Integer hpBeforeCurrent = currentHp;
+			int damageCurrent = entry.getActualDamageSum() != null ? entry.getActualDamageSum() : 0;
+			Integer hpAfterCurrent = (hpBeforeCurrent != null) ? hpBeforeCurrent - damageCurrent : null;
+
+			entry.setDisplayHpBefore(hpBeforeCurrent);
+			entry.setDisplayHpAfter(hpAfterCurrent);
+
+			Double koChanceCurrent = hpBeforeCurrent != null ? calculateKoChance(entry, hpBeforeCurrent) : null;
+			if (koChanceCurrent != null && koChanceCurrent <= 0.0)
+			{
+				koChanceCurrent = null;
+			}
+
+			entry.setDisplayKoChance(koChanceCurrent);
+			entry.setKoChance(koChanceCurrent);
+
+			fight.updateKoChanceStats(entry);
+
+			entry.setPartOfTickGroup(isGroup);
+
+			// Update HP for the next iteration
+			currentHp = hpAfterCurrent;
+		}
+	}
+
+	private static Double calculateKoChance(FightLogEntry entry, int hpBefore)
+	{
+		return calculateKoChance(entry, hpBefore, entry.getAccuracy(), entry.getMinHit(), entry.getMaxHit(),
+			entry.getDamageRollDistribution(), entry.getDamageRollHitCount());
+	}
+
+	// KO chance of the entry's attack with the given damage stats, which don't have to be applied to the entry yet
+	// (e.g re-calculated ones). Also used by the FightHistoryRecalculator.
+	static Double calculateKoChance(FightLogEntry entry, int hpBefore, double accuracy, int minHit, int maxHit,
+		PvpDamageCalc.DamageRollDistribution damageRollDistribution, int damageRollHitCount)
+	{
+		boolean isClawsSpec = entry.getAnimationData() == AnimationData.MELEE_DRAGON_CLAWS_SPEC && entry.getExpectedHits() >= 4;
+		boolean isDarkBow = entry.getAnimationData() == AnimationData.RANGED_DARK_BOW ||
+			entry.getAnimationData() == AnimationData.RANGED_DARK_BOW_SPEC;
+		if (isClawsSpec)
+		{
+			if (entry.getMatchedHitsCount() < entry.getExpectedHits())
+			{
+				return null;
+			}
+
+			int healBetween = 0;
+			Integer hpAfterP1 = entry.getClawsHpAfterPhase1();
+			Integer hpBeforeP2 = entry.getClawsHpBeforePhase2();
+			if (hpAfterP1 != null && hpBeforeP2 != null)
+			{
+				healBetween = Math.max(0, hpBeforeP2 - hpAfterP1);
+			}
+			return PvpUtils.calculateClawsTwoPhaseKo(accuracy, maxHit, hpBefore, healBetween);
+		}
+		else if (isDarkBow)
+		{
+			if (entry.getMatchedHitsCount() < entry.getExpectedHits())
+			{
+				return null;
+			}
+
+			int healBetween = 0;
+			if (!entry.isDarkBowHitsStacked())
+			{
+				Integer hpAfterHit1 = entry.getDarkBowHpAfterHit1();
+				Integer hpBeforeHit2 = entry.getDarkBowHpBeforeHit2();
+				if (hpAfterHit1 != null && hpBeforeHit2 != null)
+				{
+					healBetween = Math.max(0, hpBeforeHit2 - hpAfterHit1);
+				}
+			}
+			return PvpUtils.calculateDarkBowTwoPhaseKo(
+				accuracy,
+				minHit,
+				maxHit,
+				hpBefore,
+				healBetween
+			);
+		}
+
+		return damageRollDistribution.getKoChance(
+			accuracy,
+			minHit,
+			maxHit,
+			damageRollHitCount,
+			hpBefore
+		);
+	}
+
+	static int getAttackLookback(FightLogEntry entry)
+	{
+		switch (entry.getAnimationData().attackStyle)
+		{
+			case STAB:
+			case SLASH:
+			case CRUSH:
+				return 3;
+			case MAGIC:
+				return 6;
+			case RANGED:
+			default:
+				return 4;
+		}
+	}
+}
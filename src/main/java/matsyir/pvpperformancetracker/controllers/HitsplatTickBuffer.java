@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.Arrays;
+import java.util.List;
+import matsyir.pvpperformancetracker.models.HitsplatInfo;
+import net.runelite.api.Actor;
+import net.runelite.api.events.HitsplatApplied;
+
+/**
+ * Fixed-size, tick-indexed ring of hitsplat slots. Each slot holds the hitsplats of a single game tick,
+ * and a slot is re-used (and implicitly expired) once the ring wraps around to it again, so there is no
+ * cleanup pass needed for old ticks. HitsplatInfo instances are pooled per slot, so once the slots have grown
+ * to fit the usual amount of hitsplats per tick, buffering hitsplats no longer allocates anything.
+ *
+ * Not thread-safe: only meant to be used from the client thread.
+ */
+public class HitsplatTickBuffer
+{
+	private static final int INITIAL_SLOT_CAPACITY = 8;
+	private static final int EMPTY_TICK = Integer.MIN_VALUE;
+
+	private final int capacity;
+	private final int[] slotTicks;
+	private final int[] slotSizes;
+	private final int[] slotPolledCounts; // how many of the slot's hitsplats had their HP polled so far
+	private final HitsplatInfo[][] slotHits;
+
+	// maxWindow: how many ticks before the current tick should still be available
+	public HitsplatTickBuffer(int maxWindow)
+	{
+		capacity = Math.max(1, maxWindow + 1);
+		slotTicks = new int[capacity];
+		slotSizes = new int[capacity];
+		slotPolledCounts = new int[capacity];
+		slotHits = new HitsplatInfo[capacity][INITIAL_SLOT_CAPACITY];
+		Arrays.fill(slotTicks, EMPTY_TICK);
+	}
+
+	// buffer a hitsplat for the given tick, returning the (pooled) HitsplatInfo now holding it.
+	public HitsplatInfo add(int tick, HitsplatApplied event)
+	{
+		int slot = slotFor(tick);
+		if (slotTicks[slot] != tick)
+		{
+			// the slot still holds an expired tick, re-use it for this one.
+			slotTicks[slot] = tick;
+			slotSizes[slot] = 0;
+			slotPolledCounts[slot] = 0;
+		}
+
+		int size = slotSizes[slot];
+		HitsplatInfo[] hits = slotHits[slot];
+		if (size == hits.length)
+		{
+			hits = Arrays.copyOf(hits, hits.length * 2);
+			slotHits[slot] = hits;
+		}
+
+		HitsplatInfo info = hits[size];
+		if (info == null)
+		{
+			info = new HitsplatInfo(event);
+			hits[size] = info;
+		}
+		else
+		{
+			info.reset(event);
+		}
+
+		slotSizes[slot] = size + 1;
+		return info;
+	}
+
+	public int size(int tick)
+	{
+		int slot = slotFor(tick);
+		return slotTicks[slot] == tick ? slotSizes[slot] : 0;
+	}
+
+	public HitsplatInfo get(int tick, int index)
+	{
+		int slot = slotFor(tick);
+		if (slotTicks[slot] != tick || index < 0 || index >= slotSizes[slot])
+		{
+			throw new IndexOutOfBoundsException("No hitsplat " + index + " buffered for tick " + tick);
+		}
+
+		return slotHits[slot][index];
+	}
+
+	// remove a hitsplat while keeping the remaining hitsplats in their original order.
+	// The removed instance is moved past the end of the slot so it can be pooled again.
+	public void remove(int tick, int index)
+	{
+		int slot = slotFor(tick);
+		int size = slotTicks[slot] == tick ? slotSizes[slot] : 0;
+		if (index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("No hitsplat " + index + " buffered for tick " + tick);
+		}
+
+		HitsplatInfo[] hits = slotHits[slot];
+		HitsplatInfo removed = hits[index];
+		System.arraycopy(hits, index + 1, hits, index, size - index - 1);
+		hits[size - 1] = removed;
+		slotSizes[slot] = size - 1;
+		if (index < slotPolledCounts[slot])
+		{
+			slotPolledCounts[slot]--;
+		}
+	}
+
+	// add every hitsplat of the given tick to the output list, then empty the slot.
+	// The HitsplatInfo instances stay valid until the ring wraps back around to this slot.
+	public int drainTo(int tick, List<HitsplatInfo> out)
+	{
+		int slot = slotFor(tick);
+		if (slotTicks[slot] != tick)
+		{
+			return 0;
+		}
+
+		int size = slotSizes[slot];
+		HitsplatInfo[] hits = slotHits[slot];
+		for (int i = 0; i < size; i++)
+		{
+			out.add(hits[i]);
+		}
+		slotSizes[slot] = 0;
+		slotPolledCounts[slot] = 0;
+		return size;
+	}
+
+	// Set the HP ratio/scale of every buffered hitsplat that wasn't polled yet, using the hit actor's current HP.
+	// Should be called on the client thread after the hitsplats have been applied.
+	public void pollPendingHp()
+	{
+		for (int slot = 0; slot < capacity; slot++)
+		{
+			if (slotTicks[slot] == EMPTY_TICK)
+			{
+				continue;
+			}
+
+			HitsplatInfo[] hits = slotHits[slot];
+			for (int i = slotPolledCounts[slot]; i < slotSizes[slot]; i++)
+			{
+				Actor hitActor = hits[i].getEvent().getActor();
+				if (hitActor != null)
+				{
+					hits[i].setHp(hitActor.getHealthRatio(), hitActor.getHealthScale());
+				}
+			}
+			slotPolledCounts[slot] = slotSizes[slot];
+		}
+	}
+
+	public void clear()
+	{
+		Arrays.fill(slotTicks, EMPTY_TICK);
+		Arrays.fill(slotSizes, 0);
+		Arrays.fill(slotPolledCounts, 0);
+	}
+
+	private int slotFor(int tick)
+	{
+		return Math.floorMod(tick, capacity);
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.Arrays;
+import net.runelite.api.Item;
+
+/**
+ * Tracks a fighter's inventory item ids through a fight without copying the inventory every tick: the ids are read
+ * into a reused buffer and compared to the previous ones, which are only replaced when something changed.
+ *
+ * Every slot change is added to a compact delta log of (tick, packed slot & item id) int pairs, so the brews, food
+ * & switches used through the fight can be rebuilt from the starting snapshot. Empty slots have an item id of -1.
+ *
+ * Not thread-safe: only meant to be used from the client thread.
+ */
+public final class InventoryTracker
+{
+	public static final int EMPTY_SLOT = -1;
+	private static final int SLOT_BITS = 6;
+	private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+	private static final int INITIAL_LOG_CAPACITY = 32;
+
+	private int[] current = new int[0];
+	private int[] scratch = new int[0];
+	private int[] lastNonEmpty;
+	private int[] changes = new int[INITIAL_LOG_CAPACITY];
+	private int changesSize;
+
+	// set the inventory the fight started with, without logging it as changes
+	public void reset(Item[] items)
+	{
+		current = readItemIds(items, new int[items.length]);
+		scratch = new int[items.length];
+		lastNonEmpty = hasAnyItem(current) ? current.clone() : null;
+		changesSize = 0;
+	}
+
+	// returns true if the inventory changed since the last update, in which case the changed slots are logged.
+	public boolean update(int tick, Item[] items)
+	{
+		if (scratch.length != items.length)
+		{
+			scratch = new int[items.length];
+		}
+		readItemIds(items, scratch);
+		if (Arrays.equals(scratch, current))
+		{
+			return false;
+		}
+
+		// only log slot changes if the inventory size didn't change (e.g. it wasn't loaded yet)
+		if (scratch.length == current.length)
+		{
+			for (int slot = 0; slot < scratch.length; slot++)
+			{
+				if (scratch[slot] != current[slot])
+				{
+					logChange(tick, slot, scratch[slot]);
+				}
+			}
+		}
+
+		int[] previous = current;
+		current = scratch;
+		scratch = previous;
+
+		if (hasAnyItem(current))
+		{
+			if (lastNonEmpty == null || lastNonEmpty.length != current.length)
+			{
+				lastNonEmpty = new int[current.length];
+			}
+			System.arraycopy(current, 0, lastNonEmpty, 0, current.length);
+		}
+		return true;
+	}
+
+	public int[] getCurrentItemIds()
+	{
+		return current.clone();
+	}
+
+	// the latest inventory that wasn't empty, e.g. from before the items were dropped on death. null if none.
+	public int[] getLastNonEmptyItemIds()
+	{
+		return lastNonEmpty == null ? null : lastNonEmpty.clone();
+	}
+
+	public boolean isEmpty()
+	{
+		return !hasAnyItem(current);
+	}
+
+	// the delta log: tick, packed change, tick, packed change... see getSlot() & getItemId() to unpack the changes.
+	public int[] getChanges()
+	{
+		return Arrays.copyOf(changes, changesSize);
+	}
+
+	public int getChangeCount()
+	{
+		return changesSize / 2;
+	}
+
+	public static int getSlot(int packedChange)
+	{
+		return packedChange & SLOT_MASK;
+	}
+
+	public static int getItemId(int packedChange)
+	{
+		return (packedChange >> SLOT_BITS) - 1;
+	}
+
+	static int packChange(int slot, int itemId)
+	{
+		return ((itemId + 1) << SLOT_BITS) | (slot & SLOT_MASK);
+	}
+
+	private void logChange(int tick, int slot, int itemId)
+	{
+		if (changesSize + 2 > changes.length)
+		{
+			changes = Arrays.copyOf(changes, changes.length * 2);
+		}
+		changes[changesSize++] = tick;
+		changes[changesSize++] = packChange(slot, itemId);
+	}
+
+	private static int[] readItemIds(Item[] items, int[] itemIds)
+	{
+		for (int i = 0; i < items.length; i++)
+		{
+			Item item = items[i];
+			itemIds[i] = item == null ? EMPTY_SLOT : item.getId();
+		}
+		return itemIds;
+	}
+
+	private static boolean hasAnyItem(int[] itemIds)
+	{
+		for (int itemId : itemIds)
+		{
+			if (itemId > 0)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+}
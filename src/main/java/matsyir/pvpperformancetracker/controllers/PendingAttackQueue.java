@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.Arrays;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+
+/**
+ * A Fighter's attacks that are still waiting for their hitsplats, always kept ordered by the tick they can
+ * start matching hitsplats (then by animation tick), so the HitsplatMatcher can walk it front to back without
+ * sorting. Attacks are nearly always added in order, so insertion is effectively O(1).
+ *
+ * Not thread-safe: only meant to be used from the client thread.
+ */
+public final class PendingAttackQueue
+{
+	private static final int INITIAL_CAPACITY = 16;
+
+	private FightLogEntry[] entries = new FightLogEntry[INITIAL_CAPACITY];
+	private int size;
+
+	public void add(FightLogEntry entry)
+	{
+		if (size == entries.length)
+		{
+			entries = Arrays.copyOf(entries, entries.length * 2);
+		}
+
+		// walk back from the end to find the insert position, keeping insertion order for equal keys
+		int insertAt = size;
+		while (insertAt > 0 && compare(entries[insertAt - 1], entry) > 0)
+		{
+			insertAt--;
+		}
+		System.arraycopy(entries, insertAt, entries, insertAt + 1, size - insertAt);
+		entries[insertAt] = entry;
+		size++;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public FightLogEntry get(int index)
+	{
+		if (index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+		return entries[index];
+	}
+
+	public void clear()
+	{
+		Arrays.fill(entries, 0, size, null);
+		size = 0;
+	}
+
+	// used along with truncate() to drop entries in-place while walking the queue:
+	// entries to keep are written back to the front, in order, then the rest is cut off.
+	void set(int index, FightLogEntry entry)
+	{
+		entries[index] = entry;
+	}
+
+	void truncate(int newSize)
+	{
+		Arrays.fill(entries, newSize, size, null);
+		size = newSize;
+	}
+
+	static int getHitsplatMatchTick(FightLogEntry entry)
+	{
+		return entry.getHitsplatMatchTick() >= 0 ? entry.getHitsplatMatchTick() : entry.getTick();
+	}
+
+	private static int compare(FightLogEntry a, FightLogEntry b)
+	{
+		int diff = Integer.compare(getHitsplatMatchTick(a), getHitsplatMatchTick(b));
+		return diff != 0 ? diff : Integer.compare(a.getTick(), b.getTick());
+	}
+}
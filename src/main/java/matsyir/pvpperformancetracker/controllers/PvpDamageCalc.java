@@ -26,9 +26,9 @@
 package matsyir.pvpperformancetracker.controllers;
 
 import lombok.Getter;
-import java.util.Arrays;
 import lombok.extern.slf4j.Slf4j;
 import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.FightType;
 import matsyir.pvpperformancetracker.models.AnimationData;
 import static matsyir.pvpperformancetracker.models.AnimationData.AttackStyle;
 import static matsyir.pvpperformancetracker.models.AnimationData.MAGIC_VOLATILE_NIGHTMARE_STAFF_SPEC;
@@ -41,13 +41,11 @@ import matsyir.pvpperformancetracker.models.EquipmentData;
 import matsyir.pvpperformancetracker.models.EquipmentData.VoidStyle;
 import matsyir.pvpperformancetracker.models.AssumedPrayers;
 import matsyir.pvpperformancetracker.models.CombatLevels;
-import net.runelite.api.Skill;
+import matsyir.pvpperformancetracker.models.LocalPlayerState;
 import matsyir.pvpperformancetracker.models.RangeAmmoData;
 import matsyir.pvpperformancetracker.models.RingData;
-import net.runelite.api.EquipmentInventorySlot;
-import net.runelite.api.InventoryID;
-import net.runelite.api.Item;
-import net.runelite.api.ItemContainer;
+import matsyir.pvpperformancetracker.utils.KoDamageTable;
+import matsyir.pvpperformancetracker.utils.PvpUtils;
 import net.runelite.api.PlayerComposition;
 import net.runelite.api.SpriteID;
 import net.runelite.api.kit.KitType;
@@ -69,7 +67,227 @@ public class PvpDamageCalc
 	{
 		STANDARD,
 		CLAMPED_TO_MINIMUM,
-		MULTI_HIT_CLAMPED_TO_MINIMUM
+		MULTI_HIT_CLAMPED_TO_MINIMUM;
+
+		// shared KO lookup table for an attack rolled with this distribution, see PvpUtils.getKoDamageTable
+		public KoDamageTable getKoDamageTable(double accuracy, int minHit, int maxHit, int hitCount)
+		{
+			switch (this)
+			{
+				case CLAMPED_TO_MINIMUM:
+					return PvpUtils.getKoDamageTable(true, accuracy, minHit, maxHit, 1);
+				case MULTI_HIT_CLAMPED_TO_MINIMUM:
+					return PvpUtils.getKoDamageTable(true, accuracy, minHit, maxHit, Math.max(1, hitCount));
+				case STANDARD:
+				default:
+					return PvpUtils.getKoDamageTable(false, accuracy, minHit, maxHit, 1);
+			}
+		}
+
+		// chance for an attack rolled with this distribution to KO an opponent with the given hp, or null if it can't.
+		public Double getKoChance(double accuracy, int minHit, int maxHit, int hitCount, int estimatedOpponentHp)
+		{
+			if (maxHit < estimatedOpponentHp || estimatedOpponentHp <= 0)
+			{
+				return null;
+			}
+
+			return PvpUtils.getKoChance(getKoDamageTable(accuracy, minHit, maxHit, hitCount), estimatedOpponentHp);
+		}
+	}
+
+	// Effective levels for one set of CombatLevels, for every offensive prayer tier & assumed defence prayer,
+	// so each attack only needs table lookups plus the gear/defender-dependent part of the rolls.
+	// Base max hits are also memoized per strength bonus, since players mostly stick to a handful of gear sets.
+	//
+	// Effective levels are computed up-front & never change. The max hit memos are filled lazily, but only ever
+	// store the single value computed for their index, so racing writers are harmless: tables can be shared by
+	// the client thread & the fight history recalculation threads.
+	static final class LevelTable
+	{
+		private static final int MAX_MEMOIZED_STRENGTH_BONUS = 255;
+		private static final int VOID_STYLE_COUNT = VoidStyle.values().length;
+		private static final double[] DEFENCE_PRAYER_MODIFIERS = {
+			1, AssumedPrayers.STEEL_SKIN_DEF_PRAYER_MODIFIER, PIETY_DEF_PRAYER_MODIFIER
+		};
+
+		private final int atk, str, def, range, mage;
+
+		private final int[] meleeStrengthLevels = new int[MELEE_STRENGTH_PRAYER_MODIFIERS.length];
+		private final double[] meleeAttackLevels = new double[MELEE_ATTACK_PRAYER_MODIFIERS.length];
+		private final double[] rangedStrengthLevels = new double[RANGED_DAMAGE_PRAYER_MODIFIERS.length];
+		private final double[] rangedAttackLevels = new double[RANGED_ATTACK_PRAYER_MODIFIERS.length];
+		private final double[] rangedAccurateAttackLevels = new double[RANGED_ATTACK_PRAYER_MODIFIERS.length];
+		private final double[] magicAttackLevels = new double[MAGIC_ATTACK_PRAYER_MODIFIERS.length];
+		private final double[] defenceLevels = new double[DEFENCE_PRAYER_MODIFIERS.length];
+		private final double magicDefenceLevel;
+		private final double auguryMagicDefenceLevel;
+
+		// [prayer tier * VoidStyle count + void style][strength bonus], values are stored + 1 so 0 means not computed yet
+		private final int[][] meleeBaseDamage = new int[MELEE_STRENGTH_PRAYER_MODIFIERS.length * VOID_STYLE_COUNT][];
+		private final int[][] rangedBaseDamage = new int[RANGED_DAMAGE_PRAYER_MODIFIERS.length * VOID_STYLE_COUNT][];
+
+		LevelTable(CombatLevels levels)
+		{
+			atk = levels.atk;
+			str = levels.str;
+			def = levels.def;
+			range = levels.range;
+			mage = levels.mage;
+
+			for (int i = 0; i < meleeStrengthLevels.length; i++)
+			{
+				meleeStrengthLevels[i] = (int) Math.floor((str * MELEE_STRENGTH_PRAYER_MODIFIERS[i]) + 8 + 3);
+			}
+			for (int i = 0; i < meleeAttackLevels.length; i++)
+			{
+				meleeAttackLevels[i] = Math.floor(((atk * MELEE_ATTACK_PRAYER_MODIFIERS[i]) + STANCE_BONUS) + 8);
+			}
+			for (int i = 0; i < rangedStrengthLevels.length; i++)
+			{
+				rangedStrengthLevels[i] = Math.floor((range * RANGED_DAMAGE_PRAYER_MODIFIERS[i]) + 8);
+			}
+			for (int i = 0; i < rangedAttackLevels.length; i++)
+			{
+				rangedAttackLevels[i] = Math.floor(((range * RANGED_ATTACK_PRAYER_MODIFIERS[i]) + STANCE_BONUS) + 8);
+				// accurate stance, only assumed for the dark bow spec
+				rangedAccurateAttackLevels[i] = Math.floor(((range * RANGED_ATTACK_PRAYER_MODIFIERS[i]) + STANCE_BONUS + 3) + 8);
+			}
+			for (int i = 0; i < magicAttackLevels.length; i++)
+			{
+				magicAttackLevels[i] = Math.floor((mage * MAGIC_ATTACK_PRAYER_MODIFIERS[i]) + 8);
+			}
+			for (int i = 0; i < defenceLevels.length; i++)
+			{
+				defenceLevels[i] = Math.floor(((def * DEFENCE_PRAYER_MODIFIERS[i]) + STANCE_BONUS) + 8);
+			}
+			magicDefenceLevel = Math.floor(mage * 0.70);
+			auguryMagicDefenceLevel = Math.floor((mage * AUGURY_MAGEDEF_PRAYER_MODIFIER) * 0.70);
+		}
+
+		boolean matches(CombatLevels levels)
+		{
+			return levels != null && levels.atk == atk && levels.str == str && levels.def == def &&
+				levels.range == range && levels.mage == mage;
+		}
+
+		// floor(0.5 + effective strength level * (strength bonus + 64) / 640), including prayer & void
+		int getMeleeBaseDamage(int offensivePray, VoidStyle voidStyle, int meleeStrength)
+		{
+			int tier = getMeleeStrengthPrayerTier(offensivePray);
+			int[] memo = getMemo(meleeBaseDamage, tier, voidStyle, meleeStrength);
+			if (memo == null)
+			{
+				return meleeBaseDamage(tier, voidStyle, meleeStrength);
+			}
+
+			int value = memo[meleeStrength];
+			if (value == 0)
+			{
+				value = meleeBaseDamage(tier, voidStyle, meleeStrength) + 1;
+				memo[meleeStrength] = value;
+			}
+			return value - 1;
+		}
+
+		int getRangedBaseDamage(int offensivePray, VoidStyle voidStyle, int rangeStrength)
+		{
+			int tier = getRangedPrayerTier(offensivePray);
+			int[] memo = getMemo(rangedBaseDamage, tier, voidStyle, rangeStrength);
+			if (memo == null)
+			{
+				return rangedBaseDamage(tier, voidStyle, rangeStrength);
+			}
+
+			int value = memo[rangeStrength];
+			if (value == 0)
+			{
+				value = rangedBaseDamage(tier, voidStyle, rangeStrength) + 1;
+				memo[rangeStrength] = value;
+			}
+			return value - 1;
+		}
+
+		// effective attack level including prayer & void, before the crystal armour bonus
+		double getMeleeAttackLevel(int offensivePray, VoidStyle voidStyle)
+		{
+			double effectiveLevel = meleeAttackLevels[getMeleeAttackPrayerTier(offensivePray)];
+			return voidStyle == VoidStyle.VOID_ELITE_MELEE || voidStyle == VoidStyle.VOID_MELEE ?
+				effectiveLevel * voidStyle.accuracyModifier : effectiveLevel;
+		}
+
+		double getRangedAttackLevel(int offensivePray, VoidStyle voidStyle, boolean accurateStance)
+		{
+			int tier = getRangedPrayerTier(offensivePray);
+			double effectiveLevel = accurateStance ? rangedAccurateAttackLevels[tier] : rangedAttackLevels[tier];
+			return voidStyle == VoidStyle.VOID_ELITE_RANGE || voidStyle == VoidStyle.VOID_RANGE ?
+				effectiveLevel * voidStyle.accuracyModifier : effectiveLevel;
+		}
+
+		double getMagicAttackLevel(int offensivePray, VoidStyle voidStyle)
+		{
+			double effectiveLevel = magicAttackLevels[getMagicPrayerTier(offensivePray)];
+			return voidStyle == VoidStyle.VOID_ELITE_MAGE || voidStyle == VoidStyle.VOID_MAGE ?
+				effectiveLevel * voidStyle.accuracyModifier : effectiveLevel;
+		}
+
+		double getDefenceLevel(double defencePrayerModifier)
+		{
+			for (int i = 0; i < DEFENCE_PRAYER_MODIFIERS.length; i++)
+			{
+				if (DEFENCE_PRAYER_MODIFIERS[i] == defencePrayerModifier)
+				{
+					return defenceLevels[i];
+				}
+			}
+			return Math.floor(((def * defencePrayerModifier) + STANCE_BONUS) + 8);
+		}
+
+		// magic level part of the effective magic defence (70%), the other 30% comes from getDefenceLevel
+		double getMagicDefenceLevel(boolean defensiveAugurySuccess)
+		{
+			return defensiveAugurySuccess ? auguryMagicDefenceLevel : magicDefenceLevel;
+		}
+
+		private int meleeBaseDamage(int tier, VoidStyle voidStyle, int meleeStrength)
+		{
+			int effectiveLevel = meleeStrengthLevels[tier];
+			// apply void bonus if applicable
+			if (voidStyle == VoidStyle.VOID_ELITE_MELEE || voidStyle == VoidStyle.VOID_MELEE)
+			{
+				effectiveLevel *= voidStyle.dmgModifier;
+			}
+			return (int) Math.floor(0.5 + effectiveLevel * (meleeStrength + 64) / 640.0);
+		}
+
+		private int rangedBaseDamage(int tier, VoidStyle voidStyle, int rangeStrength)
+		{
+			double effectiveLevel = rangedStrengthLevels[tier];
+			// apply void bonus if applicable
+			if (voidStyle == VoidStyle.VOID_ELITE_RANGE || voidStyle == VoidStyle.VOID_RANGE)
+			{
+				effectiveLevel *= voidStyle.dmgModifier;
+			}
+			return (int) Math.floor(0.5 + (effectiveLevel * (rangeStrength + 64) / 640.0));
+		}
+
+		// returns null if the strength bonus is out of the memoized range
+		private static int[] getMemo(int[][] memos, int tier, VoidStyle voidStyle, int strengthBonus)
+		{
+			if (strengthBonus < 0 || strengthBonus > MAX_MEMOIZED_STRENGTH_BONUS)
+			{
+				return null;
+			}
+
+			int row = tier * VOID_STYLE_COUNT + voidStyle.ordinal();
+			int[] memo = memos[row];
+			if (memo == null)
+			{
+				memo = new int[MAX_MEMOIZED_STRENGTH_BONUS + 1];
+				memos[row] = memo;
+			}
+			return memo;
+		}
 	}
 
 	private static final int STAB_ATTACK = 0, SLASH_ATTACK = 1, CRUSH_ATTACK = 2, MAGIC_ATTACK = 3,
@@ -151,6 +369,22 @@ public class PvpDamageCalc
 	public static final double VOLATILE_NIGHTMARE_STAFF_ACC_MODIFIER = 0.5;
 	private static final int VIRTUS_ANCIENT_MAGIC_DMG_BONUS = 3;
 
+	// offensive prayer modifiers, indexed by the prayer tiers from the get*PrayerTier methods
+	private static final double[] MELEE_STRENGTH_PRAYER_MODIFIERS = {1, ULTIMATE_STRENGTH_PRAYER_MODIFIER, PIETY_STR_PRAYER_MODIFIER};
+	private static final double[] MELEE_ATTACK_PRAYER_MODIFIERS = {1, PIETY_ATK_PRAYER_MODIFIER};
+	private static final double[] RANGED_DAMAGE_PRAYER_MODIFIERS = {1, EAGLE_EYE_PRAYER_MODIFIER, DEADEYE_PRAYER_MODIFIER, RIGOUR_OFFENSIVE_PRAYER_DMG_MODIFIER};
+	private static final double[] RANGED_ATTACK_PRAYER_MODIFIERS = {1, EAGLE_EYE_PRAYER_MODIFIER, DEADEYE_PRAYER_MODIFIER, RIGOUR_OFFENSIVE_PRAYER_ATTACK_MODIFIER};
+	private static final double[] MAGIC_DAMAGE_PRAYER_MODIFIERS = {1, MYSTIC_MIGHT_PRAYER_DMG_MODIFIER, MYSTIC_VIGOUR_OFFENSIVE_PRAYER_DMG_MODIFIER, AUGURY_OFFENSIVE_PRAYER_DMG_MODIFIER};
+	private static final double[] MAGIC_ATTACK_PRAYER_MODIFIERS = {1, MYSTIC_MIGHT_PRAYER_MODIFIER, MYSTIC_VIGOUR_PRAYER_MODIFIER, AUGURY_OFFENSIVE_PRAYER_MODIFIER};
+
+	// total gear bonuses are looked up for both fighters on every attack, but gear rarely changes between attacks.
+	// the cached bonuses are shared & immutable, use calculateBonuses() to get a modifiable copy.
+	private static final EquipmentBonusCache BONUS_CACHE =
+		new EquipmentBonusCache(EquipmentBonusCache.DEFAULT_MAX_SIZE, PvpDamageCalc::calculateUncachedBonuses);
+	// effective levels for the configured combat levels, which nearly every fight outside of LMS uses.
+	// rebuilt on first use after invalidateLevelTables(), which is called when the configured levels change.
+	private static volatile LevelTable configLevelTable;
+
 
 	@Getter
 	private double averageHit = 0;
@@ -170,14 +404,21 @@ public class PvpDamageCalc
 	private CombatLevels attackerLevels;
 	private CombatLevels defenderLevels;
 	private CombatLevels defaultCombatLevels;
+	private LevelTable attackerLevelTable;
+	private LevelTable defenderLevelTable;
 
 	private RingData ringUsed;
 	boolean isLmsFight;
 
 	public PvpDamageCalc(FightPerformance relatedFight)
 	{
-		isLmsFight = relatedFight.fightType.isLmsFight();
-		defaultCombatLevels = relatedFight.fightType.getCombatLevelsForType();
+		this(relatedFight.fightType);
+	}
+
+	PvpDamageCalc(FightType fightType)
+	{
+		isLmsFight = fightType.isLmsFight();
+		defaultCombatLevels = fightType.getCombatLevelsForType();
 		this.attackerLevels = defaultCombatLevels;
 		this.defenderLevels = defaultCombatLevels;
 
@@ -187,6 +428,13 @@ public class PvpDamageCalc
 	// main function used to update stats during an ongoing fight
 	// Levels can be null when the client cannot observe that side's boosted/drained stats.
 	public void updateDamageStats(Player attacker, Player defender, boolean success, AnimationData animationData, int offensivePray)
+	{
+		updateDamageStats(attacker, defender, success, animationData, offensivePray, new LocalPlayerState(PLUGIN.getClient()));
+	}
+
+	// localPlayerState is normally read from the client, but is passed in so recorded fights can be replayed.
+	void updateDamageStats(Player attacker, Player defender, boolean success, AnimationData animationData, int offensivePray,
+		LocalPlayerState localPlayerState)
 	{
 		// shouldn't be possible, but just in case
 		if (attacker == null || defender == null) { return; }
@@ -194,6 +442,7 @@ public class PvpDamageCalc
 		// always force default levels (either config levels, or LMS levels) for dps calcs, same as is assumed for opponent
 		this.attackerLevels = getDefaultCombatLevels();
 		this.defenderLevels = getDefaultCombatLevels();
+		updateLevelTables();
 		averageHit = 0;
 		accuracy = 0;
 		minHit = 0;
@@ -208,10 +457,10 @@ public class PvpDamageCalc
 
 		EquipmentData weapon = EquipmentData.fromId(fixItemId(attackerItems[KitType.WEAPON.getIndex()]));
 
-		int[] playerStats = calculateBonuses(attackerItems, getRingUsed(attacker));
-		int[] opponentStats = calculateBonuses(defenderItems, getRingUsed(defender));
+		EquipmentBonuses playerStats = BONUS_CACHE.get(attackerItems, getRingUsed(localPlayerState.getRingItemId(attacker)));
+		EquipmentBonuses opponentStats = BONUS_CACHE.get(defenderItems, getRingUsed(localPlayerState.getRingItemId(defender)));
 		AnimationData.AttackStyle attackStyle = animationData.attackStyle; // basic style: stab/slash/crush/ranged/magic
-		Integer attackerAmmoItemId = getLocalPlayerAmmoItemId(attacker);
+		Integer attackerAmmoItemId = localPlayerState.getAmmoItemId(attacker);
 
 		// Special attack used will be determined based on the currently used weapon, if its special attack has been implemented.
 		// the animation just serves to tell if they actually did a special attack animation, since some animations
@@ -220,20 +469,20 @@ public class PvpDamageCalc
 		VoidStyle voidStyle = VoidStyle.getVoidStyleFor(attacker.getPlayerComposition().getEquipmentIds());
 
 		// Assume defender prayers match local prayer unlocks (opponent prayers are not visible).
-		int localPrayerLevel = PLUGIN.getClient().getRealSkillLevel(Skill.PRAYER);
+		int localPrayerLevel = localPlayerState.getPrayerLevel();
 		int localDefenceLevel = this.attackerLevels.def;
 		double defencePrayerModifier = AssumedPrayers.assumedDefencePrayerModifier(attackStyle, localPrayerLevel, localDefenceLevel);
 		boolean defensiveAugurySuccess = AssumedPrayers.assumedDefensiveAugury(localPrayerLevel, localDefenceLevel);
 
 		if (attackStyle.isMelee() || animationData == AnimationData.MELEE_VOIDWAKER_SPEC)
 		{
-			getMeleeMaxHit(playerStats[STRENGTH_BONUS], isSpecial, weapon, voidStyle, offensivePray);
+			getMeleeMaxHit(playerStats.get(STRENGTH_BONUS), isSpecial, weapon, voidStyle, offensivePray);
 			getMeleeAccuracy(playerStats, opponentStats, attackStyle, isSpecial, weapon, voidStyle, offensivePray, defencePrayerModifier);
 		}
 		else if (attackStyle == AttackStyle.RANGED)
 		{
-			getRangedMaxHit(playerStats[RANGE_STRENGTH], isSpecial, weapon, voidStyle, offensivePray, attackerItems, animationData, attackerAmmoItemId);
-			getRangeAccuracy(playerStats[RANGE_ATTACK], opponentStats[RANGE_DEF], isSpecial, weapon, voidStyle, offensivePray, attackerItems, attackerAmmoItemId, defencePrayerModifier);
+			getRangedMaxHit(playerStats.get(RANGE_STRENGTH), isSpecial, weapon, voidStyle, offensivePray, attackerItems, animationData, attackerAmmoItemId);
+			getRangeAccuracy(playerStats.get(RANGE_ATTACK), opponentStats.get(RANGE_DEF), isSpecial, weapon, voidStyle, offensivePray, attackerItems, attackerAmmoItemId, defencePrayerModifier);
 		}
 		// this should always be true at this point, but just in case. unknown animation styles won't
 		// make it here, they should be stopped in FightPerformance::checkForAttackAnimations
@@ -243,8 +492,8 @@ public class PvpDamageCalc
 			EquipmentData hat = EquipmentData.fromId(fixItemId(attackerItems[KitType.HEAD.getIndex()]));
 			EquipmentData top = EquipmentData.fromId(fixItemId(attackerItems[KitType.TORSO.getIndex()]));
 			EquipmentData bottom = EquipmentData.fromId(fixItemId(attackerItems[KitType.LEGS.getIndex()]));
-			getMagicMaxHit(playerStats[MAGIC_DAMAGE], animationData, offensivePray, voidStyle, shield, weapon, hat, top, bottom);
-			getMagicAccuracy(playerStats[MAGIC_ATTACK], opponentStats[MAGIC_DEF], weapon, animationData, voidStyle, offensivePray, defensiveAugurySuccess, defencePrayerModifier);
+			getMagicMaxHit(playerStats.get(MAGIC_DAMAGE), animationData, offensivePray, voidStyle, shield, weapon, hat, top, bottom);
+			getMagicAccuracy(playerStats.get(MAGIC_ATTACK), opponentStats.get(MAGIC_DEF), weapon, animationData, voidStyle, offensivePray, defensiveAugurySuccess, defencePrayerModifier);
 		}
 
 		getAverageHit(success, weapon, isSpecial);
@@ -256,15 +505,17 @@ public class PvpDamageCalc
 		minHit = (int)(minHit * (success ? 1 : UNSUCCESSFUL_PRAY_DMG_MODIFIER));
 
 		log.debug("attackStyle: " + attackStyle.toString() + ", avgHit: " + nf1.format(averageHit) + ", acc: " + nf1.format(accuracy) +
-			"\nattacker(" + attacker.getName() + ")stats: " + Arrays.toString(playerStats) +
-			"\ndefender(" +  defender.getName() + ")stats: " + Arrays.toString(opponentStats));
+			"\nattacker(" + attacker.getName() + ")stats: " + playerStats +
+			"\ndefender(" +  defender.getName() + ")stats: " + opponentStats);
 	}
 
 	// secondary function used to analyze fights from the fight log (fight analysis/fight merge)
+	// defenderLog can be null if the defender has no defensive log for that attack (i.e the competitor attacking)
 	public void updateDamageStats(FightLogEntry atkLog, FightLogEntry defenderLog)
 	{
 		this.attackerLevels = atkLog.getAttackerLevels() != null ? atkLog.getAttackerLevels() : getDefaultCombatLevels();
-		this.defenderLevels = defenderLog.getAttackerLevels() != null ? defenderLog.getAttackerLevels() : getDefaultCombatLevels();
+		this.defenderLevels = defenderLog != null && defenderLog.getAttackerLevels() != null ? defenderLog.getAttackerLevels() : getDefaultCombatLevels();
+		updateLevelTables();
 		int[] attackerItems = atkLog.getAttackerGear();
 		int[] defenderItems = atkLog.getDefenderGear();
 		boolean success = atkLog.success();
@@ -282,8 +533,8 @@ public class PvpDamageCalc
 
 		EquipmentData weapon = EquipmentData.fromId(fixItemId(attackerItems[KitType.WEAPON.getIndex()]));
 
-		int[] playerStats = this.calculateBonuses(attackerItems);
-		int[] opponentStats = this.calculateBonuses(defenderItems);
+		EquipmentBonuses playerStats = BONUS_CACHE.get(attackerItems, CONFIG.ringChoice());
+		EquipmentBonuses opponentStats = BONUS_CACHE.get(defenderItems, CONFIG.ringChoice());
 		AnimationData.AttackStyle attackStyle = animationData.attackStyle; // basic style: stab/slash/crush/ranged/magic
 		Integer attackerAmmoItemId = atkLog.getAttackerAmmoItemId();
 
@@ -295,13 +546,13 @@ public class PvpDamageCalc
 
 		if (attackStyle.isMelee())
 		{
-			getMeleeMaxHit(playerStats[STRENGTH_BONUS], isSpecial, weapon, voidStyle, offensivePray);
+			getMeleeMaxHit(playerStats.get(STRENGTH_BONUS), isSpecial, weapon, voidStyle, offensivePray);
 			getMeleeAccuracy(playerStats, opponentStats, attackStyle, isSpecial, weapon, voidStyle, offensivePray, PIETY_DEF_PRAYER_MODIFIER);
 		}
 		else if (attackStyle == AttackStyle.RANGED)
 		{
-			getRangedMaxHit(playerStats[RANGE_STRENGTH], isSpecial, weapon, voidStyle, offensivePray, attackerItems, animationData, attackerAmmoItemId);
-			getRangeAccuracy(playerStats[RANGE_ATTACK], opponentStats[RANGE_DEF], isSpecial, weapon, voidStyle, offensivePray, attackerItems, attackerAmmoItemId, RIGOUR_DEF_PRAYER_MODIFIER);
+			getRangedMaxHit(playerStats.get(RANGE_STRENGTH), isSpecial, weapon, voidStyle, offensivePray, attackerItems, animationData, attackerAmmoItemId);
+			getRangeAccuracy(playerStats.get(RANGE_ATTACK), opponentStats.get(RANGE_DEF), isSpecial, weapon, voidStyle, offensivePray, attackerItems, attackerAmmoItemId, RIGOUR_DEF_PRAYER_MODIFIER);
 		}
 		// this should always be true at this point, but just in case. unknown animation styles won't
 		// make it here, they should be stopped in FightPerformance::checkForAttackAnimations
@@ -311,9 +562,9 @@ public class PvpDamageCalc
 			EquipmentData hat = EquipmentData.fromId(fixItemId(attackerItems[KitType.HEAD.getIndex()]));
 			EquipmentData top = EquipmentData.fromId(fixItemId(attackerItems[KitType.TORSO.getIndex()]));
 			EquipmentData bottom = EquipmentData.fromId(fixItemId(attackerItems[KitType.LEGS.getIndex()]));
-			getMagicMaxHit(playerStats[MAGIC_DAMAGE], animationData, offensivePray, voidStyle, shield, weapon, hat, top, bottom);
-			getMagicAccuracy(playerStats[MAGIC_ATTACK], opponentStats[MAGIC_DEF], weapon, animationData, voidStyle, offensivePray,
-				defenderLog.getAttackerOffensivePray() == SpriteID.PRAYER_AUGURY, AUGURY_DEF_PRAYER_MODIFIER);
+			getMagicMaxHit(playerStats.get(MAGIC_DAMAGE), animationData, offensivePray, voidStyle, shield, weapon, hat, top, bottom);
+			getMagicAccuracy(playerStats.get(MAGIC_ATTACK), opponentStats.get(MAGIC_DEF), weapon, animationData, voidStyle, offensivePray,
+				defenderLog != null && defenderLog.getAttackerOffensivePray() == SpriteID.PRAYER_AUGURY, AUGURY_DEF_PRAYER_MODIFIER);
 		}
 
 		getAverageHit(success, weapon, isSpecial);
@@ -339,6 +590,41 @@ public class PvpDamageCalc
 		return defaultCombatLevels != null ? defaultCombatLevels : CombatLevels.getConfigLevels();
 	}
 
+	// levels rarely change between attacks, so keep using the same tables until they do
+	private void updateLevelTables()
+	{
+		attackerLevelTable = getLevelTable(attackerLevels, attackerLevelTable);
+		defenderLevelTable = getLevelTable(defenderLevels, defenderLevelTable);
+	}
+
+	private static LevelTable getLevelTable(CombatLevels levels, LevelTable previous)
+	{
+		if (previous != null && previous.matches(levels))
+		{
+			return previous;
+		}
+
+		LevelTable configTable = configLevelTable;
+		if (configTable != null && configTable.matches(levels))
+		{
+			return configTable;
+		}
+
+		LevelTable table = new LevelTable(levels);
+		if (table.matches(CombatLevels.getConfigLevels()))
+		{
+			configLevelTable = table;
+		}
+		return table;
+	}
+
+	// drop the table built for the previously configured combat levels. tables are always matched against the
+	// levels they're used for, so a stale table can't give wrong results, it would only stop being re-used.
+	public static void invalidateLevelTables()
+	{
+		configLevelTable = null;
+	}
+
 	public void applyElysianReduction()
 	{
 		applyDamageMultiplier(ELYSIAN_DAMAGE_MULTIPLIER);
@@ -382,17 +668,12 @@ public class PvpDamageCalc
 			minHit = vls ? (int) (maxHit * VLS_SPEC_MIN_DMG_MODIFIER) : minHit;
 			minHit = swh ? (int) (maxHit * SWH_SPEC_MIN_DMG_MODIFIER) : minHit;
 
-			int total = 0;
-
 			// this odd logic is used to calculate avg hit because when there is a minimum hit,
 			// it does not simply change the potential hit range as you would expect:
 			// potential hit rolls (min=0 max=5): 0, 1, 2, 3, 4, 5
 			// potential hit rolls (min=3 max=5): 3, 3, 3, 3, 4, 5 (intuitively it would just be 3, 4, 5, but nope)
 			// so, it is more common to roll the minimum hit and that has to be accounted for in the average hit.
-			for (int i = 0; i <= maxHit; i++)
-			{
-				total += i < minHit ? minHit / accuracyAdjuster : i;
-			}
+			int total = sumRollsClampedToMinimum(minHit, maxHit, minHit / accuracyAdjuster);
 
 			averageSuccessfulHit = (double) total / maxHit;
 		}
@@ -539,76 +820,131 @@ public class PvpDamageCalc
 
 	private double getAverageSuccessfulHitWithMinimum(int minimumHit, int maximumHit)
 	{
-		int total = 0;
-		for (int i = 0; i <= maximumHit; i++)
+		return getAverageRollWithMinimum(minimumHit, maximumHit);
+	}
+
+	// Sum of every possible roll from 0 to maximumHit, where rolls below minimumHit deal clampedRollDamage instead.
+	// The total is an int that every roll gets added to in turn, so each partial sum is truncated as it would be when
+	// adding the rolls one at a time. The rolls used to be added as doubles (the clamped damage is a double), so the
+	// sum saturates at Integer.MAX_VALUE rather than wrapping around like getAverageRollWithMinimum's int sum.
+	static int sumRollsClampedToMinimum(int minimumHit, int maximumHit, double clampedRollDamage)
+	{
+		if (maximumHit < 0)
 		{
-			total += Math.max(i, minimumHit);
+			return 0;
+		}
+
+		int clampedRolls = Math.max(0, Math.min(minimumHit, maximumHit + 1));
+		int total;
+		if (clampedRollDamage >= 0 && clampedRollDamage <= Integer.MAX_VALUE && clampedRollDamage == Math.floor(clampedRollDamage))
+		{
+			total = (int) Math.min((long) clampedRolls * (long) clampedRollDamage, Integer.MAX_VALUE);
+		}
+		else
+		{
+			// fractional damage (dbow spec adjusted by accuracy) is truncated after each roll, so it can't be
+			// collapsed into a single multiplication. There are only ever a handful of rolls below the min hit.
+			total = 0;
+			for (int i = 0; i < clampedRolls; i++)
+			{
+				total = (int) (total + clampedRollDamage);
+			}
 		}
 
-		return (double) total / (maximumHit + 1);
+		// the remaining rolls, clampedRolls..maximumHit, are an arithmetic series.
+		long unclampedTotal = ((long) clampedRolls + maximumHit) * ((long) maximumHit - clampedRolls + 1) / 2;
+		return (int) Math.min(total + unclampedTotal, Integer.MAX_VALUE);
 	}
 
-	private int calculateBurningClawTotalDamage(int D)
+	// Average of every possible roll from 0 to maximumHit, where rolls below minimumHit count as minimumHit.
+	static double getAverageRollWithMinimum(int minimumHit, int maximumHit)
+	{
+		long total = 0;
+		if (maximumHit >= 0)
+		{
+			long clampedRolls = Math.max(0, Math.min(minimumHit, (long) maximumHit + 1));
+			total = clampedRolls * minimumHit + (clampedRolls + maximumHit) * (maximumHit - clampedRolls + 1) / 2;
+		}
+
+		// cast through int to keep the same overflow behaviour as summing into an int
+		return (double) (int) total / (maximumHit + 1);
+	}
+
+	private static int calculateBurningClawTotalDamage(int D)
 	{
 		return (int)Math.floor(0.25 * D) + (int)Math.floor(0.25 * D) + (int)Math.floor(0.5 * D);
 	}
 
-	private double getAverageBurningClawDamage(int minD, int maxD)
+	// Average burning claws spec total damage over every base damage roll from minD to maxD.
+	static double getAverageBurningClawDamage(int minD, int maxD)
 	{
 		if (minD > maxD)
 		{
 			return 0;
 		}
-		double totalDamageSum = 0;
-		for (int D = minD; D <= maxD; D++)
+		long totalDamageSum = sumBurningClawTotalDamage(maxD + 1) - sumBurningClawTotalDamage(minD);
+		return (double) totalDamageSum / (maxD - minD + 1);
+	}
+
+	// Sum of calculateBurningClawTotalDamage(D) for D in [0, n), or the negated sum over [n, 0) when n is negative.
+	private static long sumBurningClawTotalDamage(long n)
+	{
+		if (n < 0)
 		{
-			totalDamageSum += calculateBurningClawTotalDamage(D);
+			// total damage goes up by exactly 4 every 4 base damage, so shift the range up to positive values.
+			long shift = 4 * ((-n + 3) / 4);
+			return sumBurningClawTotalDamage(n + shift) - sumBurningClawTotalDamage(shift) - shift * n;
 		}
-		return totalDamageSum / (maxD - minD + 1);
+		return 2 * sumOfFloorDivisions(n, 4) + sumOfFloorDivisions(n, 2);
 	}
 
-	private double getMeleeStrengthPrayerModifier(int offensivePray)
+	// sum of floor(D / divisor) for D in [0, n), n >= 0
+	private static long sumOfFloorDivisions(long n, long divisor)
 	{
-		return offensivePray == SpriteID.PRAYER_PIETY ? PIETY_STR_PRAYER_MODIFIER :
-			offensivePray == SpriteID.PRAYER_ULTIMATE_STRENGTH ? ULTIMATE_STRENGTH_PRAYER_MODIFIER :
-			1;
+		long quotient = n / divisor;
+		long remainder = n % divisor;
+		return divisor * quotient * (quotient - 1) / 2 + remainder * quotient;
 	}
 
-	private double getMeleeAttackPrayerModifier(int offensivePray)
+	// offensive prayer tiers, used as indexes into the *_PRAYER_MODIFIERS arrays & the LevelTable arrays
+	private static int getMeleeStrengthPrayerTier(int offensivePray)
 	{
-		return offensivePray == SpriteID.PRAYER_PIETY ? PIETY_ATK_PRAYER_MODIFIER : 1;
+		return offensivePray == SpriteID.PRAYER_PIETY ? 2 :
+			offensivePray == SpriteID.PRAYER_ULTIMATE_STRENGTH ? 1 :
+			0;
 	}
 
-	private double getRangedDamagePrayerModifier(int offensivePray)
+	private static int getMeleeAttackPrayerTier(int offensivePray)
 	{
-		return offensivePray == SpriteID.PRAYER_RIGOUR ? RIGOUR_OFFENSIVE_PRAYER_DMG_MODIFIER :
-			offensivePray == SpriteID.PRAYER_DEADEYE ? DEADEYE_PRAYER_MODIFIER :
-			offensivePray == SpriteID.PRAYER_EAGLE_EYE ? EAGLE_EYE_PRAYER_MODIFIER :
-			1;
+		return offensivePray == SpriteID.PRAYER_PIETY ? 1 : 0;
 	}
 
-	private double getRangedAttackPrayerModifier(int offensivePray)
+	// ranged attack & damage prayers share the same tiers
+	private static int getRangedPrayerTier(int offensivePray)
 	{
-		return offensivePray == SpriteID.PRAYER_RIGOUR ? RIGOUR_OFFENSIVE_PRAYER_ATTACK_MODIFIER :
-			offensivePray == SpriteID.PRAYER_DEADEYE ? DEADEYE_PRAYER_MODIFIER :
-			offensivePray == SpriteID.PRAYER_EAGLE_EYE ? EAGLE_EYE_PRAYER_MODIFIER :
-			1;
+		return offensivePray == SpriteID.PRAYER_RIGOUR ? 3 :
+			offensivePray == SpriteID.PRAYER_DEADEYE ? 2 :
+			offensivePray == SpriteID.PRAYER_EAGLE_EYE ? 1 :
+			0;
 	}
 
-	private double getMagicDamagePrayerModifier(int offensivePray)
+	// magic attack & damage prayers share the same tiers
+	private static int getMagicPrayerTier(int offensivePray)
 	{
-		return offensivePray == SpriteID.PRAYER_AUGURY ? AUGURY_OFFENSIVE_PRAYER_DMG_MODIFIER :
-			offensivePray == SpriteID.PRAYER_MYSTIC_VIGOUR ? MYSTIC_VIGOUR_OFFENSIVE_PRAYER_DMG_MODIFIER :
-			offensivePray == SpriteID.PRAYER_MYSTIC_MIGHT ? MYSTIC_MIGHT_PRAYER_DMG_MODIFIER :
-			1;
+		return offensivePray == SpriteID.PRAYER_AUGURY ? 3 :
+			offensivePray == SpriteID.PRAYER_MYSTIC_VIGOUR ? 2 :
+			offensivePray == SpriteID.PRAYER_MYSTIC_MIGHT ? 1 :
+			0;
 	}
 
-	private double getMagicAttackPrayerModifier(int offensivePray)
+	private double getRangedDamagePrayerModifier(int offensivePray)
 	{
-		return offensivePray == SpriteID.PRAYER_AUGURY ? AUGURY_OFFENSIVE_PRAYER_MODIFIER :
-			offensivePray == SpriteID.PRAYER_MYSTIC_VIGOUR ? MYSTIC_VIGOUR_PRAYER_MODIFIER :
-			offensivePray == SpriteID.PRAYER_MYSTIC_MIGHT ? MYSTIC_MIGHT_PRAYER_MODIFIER :
-			1;
+		return RANGED_DAMAGE_PRAYER_MODIFIERS[getRangedPrayerTier(offensivePray)];
+	}
+
+	private double getMagicDamagePrayerModifier(int offensivePray)
+	{
+		return MAGIC_DAMAGE_PRAYER_MODIFIERS[getMagicPrayerTier(offensivePray)];
 	}
 
 	private void getMeleeMaxHit(int meleeStrength, boolean usingSpec, EquipmentData weapon, VoidStyle voidStyle, int offensivePray)
@@ -623,14 +959,7 @@ public class PvpDamageCalc
 		boolean abyssalDagger = weapon == EquipmentData.ABYSSAL_DAGGER;
 		boolean arkanBlade = weapon == EquipmentData.ARKAN_BLADE;
 
-		int effectiveLevel = (int) Math.floor((attackerLevels.str * getMeleeStrengthPrayerModifier(offensivePray)) + 8 + 3);
-		// apply void bonus if applicable
-		if (voidStyle == VoidStyle.VOID_ELITE_MELEE || voidStyle == VoidStyle.VOID_MELEE)
-		{
-			effectiveLevel *= voidStyle.dmgModifier;
-		}
-
-		int baseDamage = (int) Math.floor(0.5 + effectiveLevel * (meleeStrength + 64) / 640.0);
+		int baseDamage = attackerLevelTable.getMeleeBaseDamage(offensivePray, voidStyle, meleeStrength);
 		double damageModifier = (ags && usingSpec) ? ARMA_GS_SPEC_DMG_MODIFIER :
 			(ancientGs && usingSpec) ? ANCIENT_GS_SPEC_DMG_MODIFIER :
 			(swh && usingSpec) ? SWH_SPEC_DMG_MODIFIER :
@@ -697,59 +1026,13 @@ public class PvpDamageCalc
 		return false;
 	}
 
-	private RingData getRingUsed(Player player)
+	// the ring actually worn, if it's known (only for the local player), otherwise the ring assumed for the fight.
+	private RingData getRingUsed(Integer actualRingItemId)
 	{
-		Integer actualRingItemId = getLocalPlayerRingItemId(player);
 		RingData actualRing = actualRingItemId == null ? null : RingData.fromId(actualRingItemId);
 		return actualRing != null && actualRing != RingData.NONE ? actualRing : ringUsed;
 	}
 
-	private Integer getLocalPlayerRingItemId(Player player)
-	{
-		Player localPlayer = PLUGIN.getClient().getLocalPlayer();
-		if (player == null || localPlayer == null || player.getName() == null || !player.getName().equals(localPlayer.getName()))
-		{
-			return null;
-		}
-
-		ItemContainer worn = PLUGIN.getClient().getItemContainer(InventoryID.EQUIPMENT);
-		if (worn == null)
-		{
-			return null;
-		}
-
-		Item ring = worn.getItem(EquipmentInventorySlot.RING.getSlotIdx());
-		if (ring == null || ring.getId() <= 0)
-		{
-			return null;
-		}
-
-		return ring.getId();
-	}
-
-	private Integer getLocalPlayerAmmoItemId(Player attacker)
-	{
-		Player localPlayer = PLUGIN.getClient().getLocalPlayer();
-		if (attacker == null || localPlayer == null || attacker.getName() == null || !attacker.getName().equals(localPlayer.getName()))
-		{
-			return null;
-		}
-
-		ItemContainer worn = PLUGIN.getClient().getItemContainer(InventoryID.EQUIPMENT);
-		if (worn == null)
-		{
-			return null;
-		}
-
-		Item ammo = worn.getItem(EquipmentInventorySlot.AMMO.getSlotIdx());
-		if (ammo == null || ammo.getId() <= 0)
-		{
-			return null;
-		}
-
-		return ammo.getId();
-	}
-
 	private void getRangedMaxHit(int rangeStrength, boolean usingSpec, EquipmentData weapon, VoidStyle voidStyle, int offensivePray, int[] attackerComposition, AnimationData animationData, Integer attackerAmmoItemId)
 	{
 		RangeAmmoData weaponAmmo = getWeaponAmmo(weapon, attackerAmmoItemId);
@@ -780,14 +1063,7 @@ public class PvpDamageCalc
 
 		rangeStrength += ammoStrength;
 
-		double effectiveLevel = Math.floor((attackerLevels.range * getRangedDamagePrayerModifier(offensivePray)) + 8);
-		// apply void bonus if applicable
-		if (voidStyle == VoidStyle.VOID_ELITE_RANGE || voidStyle == VoidStyle.VOID_RANGE)
-		{
-			effectiveLevel *= voidStyle.dmgModifier;
-		}
-
-		int baseDamage = (int) Math.floor(0.5 + (effectiveLevel * (rangeStrength + 64) / 640.0));
+		int baseDamage = attackerLevelTable.getRangedBaseDamage(offensivePray, voidStyle, rangeStrength);
 
 		double ammoModifier = weaponAmmo == null ? 1 : weaponAmmo.getDmgModifier();
 		if (!skipBoltProcEffects && diamonds)
@@ -811,9 +1087,9 @@ public class PvpDamageCalc
 		// Eclipse Atlatl uses Melee Str for max hit but Ranged prayers/void
 		if (weapon == EquipmentData.ECLIPSE_ATLATL)
 		{
-			int[] playerStats = calculateBonusesWithRing(attackerComposition);
+			EquipmentBonuses playerStats = calculateBonusesWithRing(attackerComposition);
 			// Recalculate effective level using Strength level but Ranged prayer modifier
-			effectiveLevel = Math.floor(((attackerLevels.str * getRangedDamagePrayerModifier(offensivePray)) + STANCE_BONUS) + 8);
+			double effectiveLevel = Math.floor(((attackerLevels.str * getRangedDamagePrayerModifier(offensivePray)) + STANCE_BONUS) + 8);
 
 			// Apply Ranged void bonus if applicable
 			if (voidStyle == VoidStyle.VOID_ELITE_RANGE || voidStyle == VoidStyle.VOID_RANGE)
@@ -821,7 +1097,7 @@ public class PvpDamageCalc
 				effectiveLevel *= voidStyle.dmgModifier;
 			}
 
-			baseDamage = (int) Math.floor(0.5 + (effectiveLevel * (playerStats[STRENGTH_BONUS] + 64) / 640.0));
+			baseDamage = (int) Math.floor(0.5 + (effectiveLevel * (playerStats.get(STRENGTH_BONUS) + 64) / 640.0));
 			maxHit = baseDamage;
 		}
 		else // Standard Ranged Max Hit Calc
@@ -891,7 +1167,7 @@ public class PvpDamageCalc
 		maxHit = (int)(animationData.baseSpellDamage * magicBonus);
 	}
 
-	private void getMeleeAccuracy(int[] playerStats, int[] opponentStats, AttackStyle attackStyle, boolean usingSpec, EquipmentData weapon, VoidStyle voidStyle, int offensivePray, double defencePrayerModifier)
+	private void getMeleeAccuracy(EquipmentBonuses playerStats, EquipmentBonuses opponentStats, AttackStyle attackStyle, boolean usingSpec, EquipmentData weapon, VoidStyle voidStyle, int offensivePray, double defencePrayerModifier)
 	{
 		boolean vls = weapon == EquipmentData.VESTAS_LONGSWORD;
 		boolean ags = weapon == EquipmentData.ARMADYL_GODSWORD;
@@ -908,14 +1184,14 @@ public class PvpDamageCalc
 			return;
 		}
 
-		double stabBonusPlayer = playerStats[STAB_ATTACK];
-		double slashBonusPlayer = playerStats[SLASH_ATTACK];
-		double crushBonusPlayer = playerStats[CRUSH_ATTACK];
+		double stabBonusPlayer = playerStats.get(STAB_ATTACK);
+		double slashBonusPlayer = playerStats.get(SLASH_ATTACK);
+		double crushBonusPlayer = playerStats.get(CRUSH_ATTACK);
 
-		double stabBonusTarget = opponentStats[STAB_DEF];
-		double slashBonusTarget = opponentStats[SLASH_DEF];
-		double crushBonusTarget = opponentStats[CRUSH_DEF];
-		double magicBonusTarget = opponentStats[MAGIC_DEF];
+		double stabBonusTarget = opponentStats.get(STAB_DEF);
+		double slashBonusTarget = opponentStats.get(SLASH_DEF);
+		double crushBonusTarget = opponentStats.get(CRUSH_DEF);
+		double magicBonusTarget = opponentStats.get(MAGIC_DEF);
 
 		double effectiveLevelPlayer;
 		double effectiveLevelTarget;
@@ -934,12 +1210,7 @@ public class PvpDamageCalc
 		/**
 		 * Attacker Chance
 		 */
-		effectiveLevelPlayer = Math.floor(((attackerLevels.atk * getMeleeAttackPrayerModifier(offensivePray)) + STANCE_BONUS) + 8);
-		// apply void bonus if applicable
-		if (voidStyle == VoidStyle.VOID_ELITE_MELEE || voidStyle == VoidStyle.VOID_MELEE)
-		{
-			effectiveLevelPlayer *= voidStyle.accuracyModifier;
-		}
+		effectiveLevelPlayer = attackerLevelTable.getMeleeAttackLevel(offensivePray, voidStyle);
 
 		final double attackBonus = attackStyle == AttackStyle.STAB ? stabBonusPlayer
 			: attackStyle == AttackStyle.SLASH ? slashBonusPlayer : crushBonusPlayer;
@@ -967,7 +1238,7 @@ public class PvpDamageCalc
 		/**
 		 * Defender Chance
 		 */
-		effectiveLevelTarget = Math.floor(((defenderLevels.def * defencePrayerModifier) + STANCE_BONUS) + 8);
+		effectiveLevelTarget = defenderLevelTable.getDefenceLevel(defencePrayerModifier);
 
 		if (vls && usingSpec)
 		{
@@ -1007,17 +1278,9 @@ public class PvpDamageCalc
 		/**
 		 * Attacker Chance
 		 */
-		int stanceBonus = STANCE_BONUS;
-		if (weapon == EquipmentData.DARK_BOW && usingSpec)
-		{
-			stanceBonus += 3; // dark bow spec is assumed to be on accurate
-		}
-		effectiveLevelPlayer = Math.floor(((attackerLevels.range * getRangedAttackPrayerModifier(offensivePray)) + stanceBonus) + 8);
-		// apply void bonus if applicable
-		if (voidStyle == VoidStyle.VOID_ELITE_RANGE || voidStyle == VoidStyle.VOID_RANGE)
-		{
-			effectiveLevelPlayer *= voidStyle.accuracyModifier;
-		}
+		// dark bow spec is assumed to be on accurate
+		boolean accurateStance = weapon == EquipmentData.DARK_BOW && usingSpec;
+		effectiveLevelPlayer = attackerLevelTable.getRangedAttackLevel(offensivePray, voidStyle, accurateStance);
 
 		// apply crystal armor bonus if using bow
 		EquipmentData head = EquipmentData.fromId(fixItemId(attackerComposition[KitType.HEAD.getIndex()]));
@@ -1054,7 +1317,7 @@ public class PvpDamageCalc
 		/**
 		 * Defender Chance
 		 */
-		effectiveLevelTarget = Math.floor(((defenderLevels.def * defencePrayerModifier) + STANCE_BONUS) + 8);
+		effectiveLevelTarget = defenderLevelTable.getDefenceLevel(defencePrayerModifier);
 		defenderChance = Math.floor(effectiveLevelTarget * ((double) opponentRangeDef + 64));
 
 		/**
@@ -1097,12 +1360,7 @@ public class PvpDamageCalc
 		/**
 		 * Attacker Chance
 		 */
-		effectiveLevelPlayer = Math.floor((attackerLevels.mage * getMagicAttackPrayerModifier(offensivePray)) + 8);
-		// apply void bonus if applicable
-		if (voidStyle == VoidStyle.VOID_ELITE_MAGE || voidStyle == VoidStyle.VOID_MAGE)
-		{
-			effectiveLevelPlayer *= voidStyle.accuracyModifier;
-		}
+		effectiveLevelPlayer = attackerLevelTable.getMagicAttackLevel(offensivePray, voidStyle);
 
 		magicModifier = Math.floor(effectiveLevelPlayer * ((double) playerMageAtt + 64));
 		attackerChance = magicModifier;
@@ -1110,8 +1368,8 @@ public class PvpDamageCalc
 		/**
 		 * Defender Chance
 		 */
-		effectiveLevelTarget = Math.floor(((defenderLevels.def * defencePrayerModifier) + STANCE_BONUS) + 8);
-		effectiveMagicLevelTarget = Math.floor((defenderLevels.mage * (defensiveAugurySuccess ? AUGURY_MAGEDEF_PRAYER_MODIFIER : 1)) * 0.70);
+		effectiveLevelTarget = defenderLevelTable.getDefenceLevel(defencePrayerModifier);
+		effectiveMagicLevelTarget = defenderLevelTable.getMagicDefenceLevel(defensiveAugurySuccess);
 		reducedDefenceLevelTarget = Math.floor(effectiveLevelTarget * 0.30);
 		effectiveMagicDefenceTarget = effectiveMagicLevelTarget + reducedDefenceLevelTarget;
 
@@ -1190,18 +1448,33 @@ public class PvpDamageCalc
 
 	// this is used to calculate bonuses including the currently used ring, in case we're in LMS but the config ring
 	// is different.
-	private int[] calculateBonusesWithRing(int[] itemIds)
+	private EquipmentBonuses calculateBonusesWithRing(int[] itemIds)
 	{
-		return calculateBonuses(itemIds, this.ringUsed);
+		return BONUS_CACHE.get(itemIds, this.ringUsed);
+	}
+
+	public static EquipmentBonusCache getBonusCache()
+	{
+		return BONUS_CACHE;
 	}
 
 	public static int[] calculateBonuses(int[] itemIds)
 	{
 		return calculateBonuses(itemIds, CONFIG.ringChoice());
 	}
-	// Calculate total equipment bonuses for all given items
+
+	// Calculate total equipment bonuses for all given items. Returns a copy of the cached bonuses,
+	// so callers are free to modify it.
 	public static int[] calculateBonuses(int[] itemIds, RingData ringUsed)
 	{
+		return BONUS_CACHE.get(itemIds, ringUsed).toArray();
+	}
+
+	// Calculate total equipment bonuses for all given items, without going through the cache. The bonuses are
+	// incomplete if the stats of the ring or an item couldn't be looked up.
+	static EquipmentBonuses calculateUncachedBonuses(int[] itemIds, RingData ringUsed)
+	{
+		boolean complete = true;
 		int[] equipmentBonuses = ringUsed == null || ringUsed == RingData.NONE ?
 			new int[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 } :
 			getItemStats(ringUsed.getItemId());
@@ -1209,6 +1482,7 @@ public class PvpDamageCalc
 		if (equipmentBonuses == null) // shouldn't happen, but as a failsafe if the ring lookup fails
 		{
 			equipmentBonuses = new int[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+			complete = false;
 		}
 
 		for (int item : itemIds)
@@ -1219,6 +1493,7 @@ public class PvpDamageCalc
 
 				if (bonuses == null)
 				{
+					complete = false;
 					continue;
 				}
 
@@ -1229,7 +1504,7 @@ public class PvpDamageCalc
 			}
 		}
 
-		return equipmentBonuses;
+		return new EquipmentBonuses(equipmentBonuses, complete);
 	}
 
 	public static ItemEquipmentStats calculateBonusesToStats(int[] itemIds)
@@ -26,12 +26,12 @@
 package matsyir.pvpperformancetracker.controllers;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.annotations.Expose;
-import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonWriter;
+import java.io.StringWriter;
 import java.util.concurrent.ThreadLocalRandom;
 import lombok.extern.slf4j.Slf4j;
 import matsyir.pvpperformancetracker.PvpPerformanceTrackerConfig;
+import matsyir.pvpperformancetracker.models.FightType;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.MediaType;
@@ -159,58 +159,35 @@ public class PvpHubUploader
 		return safeDelayMode.getDelaySeconds();
 	}
 
-	static String serializeFightUpload(FightPerformance fight, Gson gson, int publicDelaySeconds)
+	static String serializeFightUpload(FightPerformance fight, Gson gson, int publicDelaySeconds) throws IOException
 	{
 		return serializeFightUpload(fight, gson, publicDelaySeconds, null);
 	}
 
-	static String serializeFightUpload(FightPerformance fight, Gson gson, int publicDelaySeconds, String hiddenName)
+	// streams the upload payload: the fight's data that PvP-Hub uses, along with the public delay
+	static String serializeFightUpload(FightPerformance fight, Gson gson, int publicDelaySeconds, String hiddenName) throws IOException
 	{
-		JsonObject payload = gson.toJsonTree(new FightUploadPayload(fight, publicDelaySeconds)).getAsJsonObject();
-		if (hiddenName != null && !hiddenName.trim().isEmpty())
-		{
-			payload.getAsJsonObject("c").addProperty("n", hiddenName);
-		}
-
-		return gson.toJson(payload);
-	}
-
-	static final class FightUploadPayload
-	{
-		@Expose
-		@SerializedName("c")
-		final Fighter c;
-		@Expose
-		@SerializedName("o")
-		final Fighter o;
-		@Expose
-		@SerializedName("t")
-		final long t;
-		@Expose
-		@SerializedName("fightID")
-		final String fightID;
-		@Expose
-		@SerializedName("l")
-		final matsyir.pvpperformancetracker.models.FightType l;
-		@Expose
-		@SerializedName("w")
-		final int w;
-		@Expose
-		@SerializedName("i")
-		final FightPerformance.InventorySnapshots i;
-		@Expose
-		final int publicDelaySeconds;
-
-		FightUploadPayload(FightPerformance fight, int publicDelaySeconds)
-		{
-			this.c = fight.competitor;
-			this.o = fight.opponent;
-			this.t = fight.lastFightTime;
-			this.fightID = fight.getFightId();
-			this.l = fight.getFightType();
-			this.w = fight.getWorld();
-			this.i = fight.getInventorySnapshots();
-			this.publicDelaySeconds = publicDelaySeconds;
-		}
+		Fighter.GsonAdapter fighterAdapter = new Fighter.GsonAdapter(gson, true);
+		String competitorName = hiddenName != null && !hiddenName.trim().isEmpty() ? hiddenName : fight.competitor.getName();
+
+		StringWriter json = new StringWriter();
+		JsonWriter out = gson.newJsonWriter(json);
+		out.beginObject();
+		out.name("c");
+		fighterAdapter.write(out, fight.competitor, competitorName);
+		out.name("o");
+		fighterAdapter.write(out, fight.opponent);
+		out.name("t").value(fight.lastFightTime);
+		out.name("fightID").value(fight.getFightId());
+		out.name("l");
+		gson.getAdapter(FightType.class).write(out, fight.getFightType());
+		out.name("w").value(fight.getWorld());
+		out.name("i");
+		FightPerformance.GsonAdapter.writeInventorySnapshots(out, fight.getInventorySnapshots(), false);
+		out.name("publicDelaySeconds").value(publicDelaySeconds);
+		out.endObject();
+		out.flush();
+
+		return json.toString();
 	}
 }
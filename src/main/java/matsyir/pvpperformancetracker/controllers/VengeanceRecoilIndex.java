@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2025, Sacca <https://github.com/Sacca-1>
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.Arrays;
+
+/**
+ * Per-tick lookup tables of the vengeance & recoil damage that the hits received by each fighter could cause,
+ * built as the hits are applied. Used to tell in O(1) if a hitsplat could be a vengeance/recoil hit rather than
+ * an attack, instead of re-scanning every hit received on that tick.
+ *
+ * Tables are indexed by damage value and hold the index of the source hit in the incoming hitsplat buffer.
+ * Entries are invalidated by bumping a generation counter rather than clearing the tables. Damage values above
+ * MAX_INDEXED_DAMAGE aren't indexed; lookups for those should fall back to scanning the source hits.
+ *
+ * Not thread-safe: only meant to be used from the client thread.
+ */
+public class VengeanceRecoilIndex
+{
+	public static final int MAX_INDEXED_DAMAGE = 255;
+	public static final int NO_SOURCE = -1;
+	private static final int EMPTY_TICK = Integer.MIN_VALUE;
+
+	private final int capacity;
+	// one table per tick slot & per fighter receiving the source hits, see tableFor()
+	private final int[] tableTicks;
+	private final int[] tableGenerations;
+	private final int[][] vengeanceGenerations;
+	private final int[][] vengeanceSources;
+	private final int[][] recoilGenerations;
+	private final int[][] recoilSources;
+	private int nextGeneration = 1;
+
+	// maxWindow: how many ticks before the current tick should still be available
+	public VengeanceRecoilIndex(int maxWindow)
+	{
+		capacity = Math.max(1, maxWindow + 1);
+		int tableCount = capacity * 2;
+		tableTicks = new int[tableCount];
+		tableGenerations = new int[tableCount];
+		vengeanceGenerations = new int[tableCount][MAX_INDEXED_DAMAGE + 1];
+		vengeanceSources = new int[tableCount][MAX_INDEXED_DAMAGE + 1];
+		recoilGenerations = new int[tableCount][MAX_INDEXED_DAMAGE + 1];
+		recoilSources = new int[tableCount][MAX_INDEXED_DAMAGE + 1];
+		Arrays.fill(tableTicks, EMPTY_TICK);
+	}
+
+	public static int expectedVengeance(int incomingDamage)
+	{
+		return Math.max(1, (int) Math.floor(incomingDamage * 0.75));
+	}
+
+	public static int expectedRecoil(int incomingDamage)
+	{
+		return Math.max(1, (int) Math.floor(incomingDamage * 0.10) + 1);
+	}
+
+	// index a hit received by a fighter: receivedByLocalPlayer tells which fighter received it.
+	// sourceIndex is the position of the hit within its tick of the incoming hitsplat buffer.
+	public void add(int tick, boolean receivedByLocalPlayer, int incomingDamage, int sourceIndex)
+	{
+		int table = tableFor(tick, receivedByLocalPlayer);
+		if (tableTicks[table] != tick)
+		{
+			// the table still holds an expired tick, re-use it for this one.
+			tableTicks[table] = tick;
+			tableGenerations[table] = nextGeneration++;
+		}
+		int generation = tableGenerations[table];
+
+		// keep the first source hit for each value, the same one a scan in hit order would find first
+		int vengeance = expectedVengeance(incomingDamage);
+		if (vengeance <= MAX_INDEXED_DAMAGE && vengeanceGenerations[table][vengeance] != generation)
+		{
+			vengeanceGenerations[table][vengeance] = generation;
+			vengeanceSources[table][vengeance] = sourceIndex;
+		}
+
+		int recoil = expectedRecoil(incomingDamage);
+		if (recoil <= MAX_INDEXED_DAMAGE && recoilGenerations[table][recoil] != generation)
+		{
+			recoilGenerations[table][recoil] = generation;
+			recoilSources[table][recoil] = sourceIndex;
+		}
+	}
+
+	// returns the incoming hit index that could have caused a vengeance hit of the given amount, or NO_SOURCE
+	public int findVengeanceSource(int tick, boolean sourceReceivedByLocalPlayer, int hitAmount)
+	{
+		return find(vengeanceGenerations, vengeanceSources, tick, sourceReceivedByLocalPlayer, hitAmount);
+	}
+
+	// returns the incoming hit index that could have caused a recoil hit of the given amount, or NO_SOURCE
+	public int findRecoilSource(int tick, boolean sourceReceivedByLocalPlayer, int hitAmount)
+	{
+		return find(recoilGenerations, recoilSources, tick, sourceReceivedByLocalPlayer, hitAmount);
+	}
+
+	public void clear()
+	{
+		Arrays.fill(tableTicks, EMPTY_TICK);
+	}
+
+	private int find(int[][] generations, int[][] sources, int tick, boolean sourceReceivedByLocalPlayer, int hitAmount)
+	{
+		if (hitAmount < 0 || hitAmount > MAX_INDEXED_DAMAGE)
+		{
+			return NO_SOURCE;
+		}
+
+		int table = tableFor(tick, sourceReceivedByLocalPlayer);
+		if (tableTicks[table] != tick || generations[table][hitAmount] != tableGenerations[table])
+		{
+			return NO_SOURCE;
+		}
+
+		return sources[table][hitAmount];
+	}
+
+	private int tableFor(int tick, boolean receivedByLocalPlayer)
+	{
+		return Math.floorMod(tick, capacity) * 2 + (receivedByLocalPlayer ? 0 : 1);
+	}
+}
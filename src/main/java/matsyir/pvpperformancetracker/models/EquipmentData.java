@@ -24,10 +24,9 @@
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 package matsyir.pvpperformancetracker.models;
-import java.util.HashMap;
-import java.util.Map;
 import lombok.Getter;
 import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.utils.IntEnumTable;
 import matsyir.pvpperformancetracker.utils.PvpUtils;
 import net.runelite.api.ItemID;
 import net.runelite.api.kit.KitType;
@@ -196,7 +195,8 @@ public enum EquipmentData
 	ABYSSAL_DAGGER(ItemID.ABYSSAL_DAGGER, ItemID.ABYSSAL_DAGGER_P, ItemID.ABYSSAL_DAGGER_P_13269, ItemID.ABYSSAL_DAGGER_P_13271, 27861, ItemID.ABYSSAL_DAGGER_BHP, ItemID.ABYSSAL_DAGGER_BHP_27865, ItemID.ABYSSAL_DAGGER_BHP_27867),
 	;
 
-	private static final Map<Integer, EquipmentData> itemData = new HashMap<>();
+	// every item id (main & additional ids) of every EquipmentData, see the static init below
+	private static final IntEnumTable<EquipmentData> itemData = new IntEnumTable<>(values().length * 2);
 
 	@Getter
 	private final int itemId; // main id to be used for stat lookups
@@ -25,22 +25,25 @@
  */
 package matsyir.pvpperformancetracker.models;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import java.awt.Color;
+import java.io.IOException;
 import java.time.Instant;
 import joptsimple.internal.Strings;
 import lombok.Getter;
 import lombok.Setter;
+import matsyir.pvpperformancetracker.controllers.FightChunkBinaryCodec;
+import matsyir.pvpperformancetracker.controllers.FightDataTypeAdapterFactory;
 import matsyir.pvpperformancetracker.controllers.PvpDamageCalc;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.PLUGIN;
 import static matsyir.pvpperformancetracker.utils.NumberFormatter.nf1;
-import net.runelite.api.EquipmentInventorySlot;
 import net.runelite.api.GraphicID;
 import net.runelite.api.HeadIcon;
-import net.runelite.api.InventoryID;
-import net.runelite.api.Item;
-import net.runelite.api.ItemContainer;
 import net.runelite.api.Player;
 import net.runelite.client.chat.ChatMessageBuilder;
 import org.apache.commons.text.WordUtils;
@@ -50,6 +53,15 @@ import matsyir.pvpperformancetracker.utils.PvpUtils;
 @Getter
 public class FightLogEntry implements Comparable<FightLogEntry>
 {
+	// boolean fields, packed in a single int in the binary fight history chunks
+	private static final int FULL_ENTRY_FLAG = 1;
+	private static final int SPLASH_FLAG = 1 << 1;
+	private static final int ELY_PROC_FLAG = 1 << 2;
+	private static final int SOTD_PROC_FLAG = 1 << 3;
+	private static final int GMAUL_SPECIAL_FLAG = 1 << 4;
+	private static final int TICK_GROUP_FLAG = 1 << 5;
+	private static final int LEVELS_FLAG = 1 << 6;
+
 	// general data
 	// don't expose attacker name since it is present in the parent class (Fighter), so it is
 	// redundant use of storage
@@ -240,10 +252,13 @@ public class FightLogEntry implements Comparable<FightLogEntry>
 
 	public FightLogEntry(Player attacker, Player defender, PvpDamageCalc pvpDamageCalc, int attackerOffensivePray, CombatLevels levels, AnimationData animationData)
 	{
-		this(attacker, defender, pvpDamageCalc, attackerOffensivePray, levels, animationData, PLUGIN.getClient().getTickCount(), Instant.now().toEpochMilli());
+		this(attacker, defender, pvpDamageCalc, attackerOffensivePray, levels, animationData, PLUGIN.getClient().getTickCount(), Instant.now().toEpochMilli(),
+			new LocalPlayerState(PLUGIN.getClient()));
 	}
 
-	public FightLogEntry(Player attacker, Player defender, PvpDamageCalc pvpDamageCalc, int attackerOffensivePray, CombatLevels levels, AnimationData animationData, int tick, long time)
+	// tick, time & localPlayerState are normally read from the client, but are passed in so recorded fights can be replayed.
+	public FightLogEntry(Player attacker, Player defender, PvpDamageCalc pvpDamageCalc, int attackerOffensivePray, CombatLevels levels, AnimationData animationData, int tick, long time,
+		LocalPlayerState localPlayerState)
 	{
 		this.isFullEntry = true;
 
@@ -251,7 +266,7 @@ public class FightLogEntry implements Comparable<FightLogEntry>
 		this.attackerName = attacker.getName();
 		this.time = time;
 		this.tick = tick;
-		this.hitsplatMatchTick = PLUGIN.getClient().getTickCount();
+		this.hitsplatMatchTick = tick;
 
 		this.animationData = animationData;
 
@@ -267,8 +282,8 @@ public class FightLogEntry implements Comparable<FightLogEntry>
 		this.damageRollHitCount = pvpDamageCalc.getDamageRollHitCount();
 		this.splash = animationData.attackStyle == AnimationData.AttackStyle.MAGIC && defender.getGraphic() == GraphicID.SPLASH;
 		this.attackerLevels = levels; // CAN BE NULL
-		this.attackerRingItemId = getLocalPlayerRingItemId(attacker);
-		this.attackerAmmoItemId = getLocalPlayerAmmoItemId(attacker);
+		this.attackerRingItemId = localPlayerState.getRingItemId(attacker);
+		this.attackerAmmoItemId = localPlayerState.getAmmoItemId(attacker);
 
 		// defender data
 		this.defenderGear = defender.getPlayerComposition().getEquipmentIds();
@@ -283,87 +298,27 @@ public class FightLogEntry implements Comparable<FightLogEntry>
 	// in this context, the "attacker" is not attacking, only defending.
 	public FightLogEntry(String attackerName, CombatLevels levels, int attackerOffensivePray)
 	{
-		this(attackerName, levels, attackerOffensivePray, PLUGIN.getClient().getTickCount(), Instant.now().toEpochMilli());
+		this(attackerName, levels, attackerOffensivePray, PLUGIN.getClient().getTickCount(), Instant.now().toEpochMilli(),
+			new LocalPlayerState(PLUGIN.getClient()));
 	}
 
-	public FightLogEntry(String attackerName, CombatLevels levels, int attackerOffensivePray, int tick, long time)
+	// the defender is always the local player, whose worn ring & ammo are taken from localPlayerState.
+	public FightLogEntry(String attackerName, CombatLevels levels, int attackerOffensivePray, int tick, long time, LocalPlayerState localPlayerState)
 	{
 		this.isFullEntry = false;
 
 		this.attackerName = attackerName;
 		this.time = time;
 		this.tick = tick;
-		this.hitsplatMatchTick = PLUGIN.getClient().getTickCount();
+		this.hitsplatMatchTick = tick;
 
 		this.attackerLevels = levels;
 		this.attackerOffensivePray = attackerOffensivePray;
-		this.attackerRingItemId = getLocalPlayerRingItemId(PLUGIN.getClient().getLocalPlayer());
-		this.attackerAmmoItemId = getLocalPlayerAmmoItemId(PLUGIN.getClient().getLocalPlayer());
+		this.attackerRingItemId = localPlayerState.getRingItemId();
+		this.attackerAmmoItemId = localPlayerState.getAmmoItemId();
 		this.actualDamageSum = 0;
 	}
 
-	private boolean isLocalPlayer(Player player)
-	{
-		if (player == null)
-		{
-			return false;
-		}
-		Player localPlayer = PLUGIN.getClient().getLocalPlayer();
-		if (localPlayer == null || localPlayer.getName() == null || player.getName() == null)
-		{
-			return false;
-		}
-
-		String localName = localPlayer.getName().replace("\u00a0", " ").replace("_", " ").trim().toUpperCase();
-		String playerName = player.getName().replace("\u00a0", " ").replace("_", " ").trim().toUpperCase();
-
-		return localName.equals(playerName);
-	}
-
-	private Integer getLocalPlayerRingItemId(Player attacker)
-	{
-		if (!isLocalPlayer(attacker))
-		{
-			return null;
-		}
-
-		ItemContainer worn = PLUGIN.getClient().getItemContainer(InventoryID.EQUIPMENT);
-		if (worn == null)
-		{
-			return null;
-		}
-
-		Item ring = worn.getItem(EquipmentInventorySlot.RING.getSlotIdx());
-		if (ring == null || ring.getId() <= 0)
-		{
-			return null;
-		}
-
-		return ring.getId();
-	}
-
-	private Integer getLocalPlayerAmmoItemId(Player attacker)
-	{
-		if (!isLocalPlayer(attacker))
-		{
-			return null;
-		}
-
-		ItemContainer worn = PLUGIN.getClient().getItemContainer(InventoryID.EQUIPMENT);
-		if (worn == null)
-		{
-			return null;
-		}
-
-		Item ammo = worn.getItem(EquipmentInventorySlot.AMMO.getSlotIdx());
-		if (ammo == null || ammo.getId() <= 0)
-		{
-			return null;
-		}
-
-		return ammo.getId();
-	}
-
 	// randomized entry used for testing
 	public FightLogEntry(int [] attackerGear, int expectedDamage, double accuracy, int minHit, int maxHit, int [] defenderGear, String attackerName)
 	{
@@ -390,6 +345,220 @@ public class FightLogEntry implements Comparable<FightLogEntry>
 	}
 
 
+	// used by the GsonAdapter, which sets the fields afterwards
+	private FightLogEntry()
+	{
+	}
+
+	private FightLogEntry(FightChunkBinaryCodec.EntryReader in) throws IOException
+	{
+		int flags = in.readInt();
+		this.isFullEntry = (flags & FULL_ENTRY_FLAG) != 0;
+		this.splash = (flags & SPLASH_FLAG) != 0;
+		this.defenderElyProc = (flags & ELY_PROC_FLAG) != 0;
+		this.defenderSotdMeleeReductionProc = (flags & SOTD_PROC_FLAG) != 0;
+		this.isGmaulSpecial = (flags & GMAUL_SPECIAL_FLAG) != 0;
+		this.isPartOfTickGroup = (flags & TICK_GROUP_FLAG) != 0;
+
+		this.time = in.readTime();
+		this.tick = in.readTick();
+		this.attackerGear = in.readGear();
+		this.attackerOverhead = in.readEnum(HeadIcon.class);
+		this.animationData = in.readEnum(AnimationData.class);
+		this.expectedDamage = in.readDouble();
+		this.accuracy = in.readDouble();
+		this.maxHit = in.readInt();
+		this.minHit = in.readInt();
+		if ((flags & LEVELS_FLAG) != 0)
+		{
+			this.attackerLevels = new CombatLevels(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt());
+		}
+		this.koChance = in.readNullableDouble();
+		this.estimatedHpBeforeHit = in.readNullableInt();
+		this.opponentMaxHp = in.readNullableInt();
+		this.matchedHitsCount = in.readInt();
+		this.actualDamageSum = in.readNullableInt();
+		this.defenderGear = in.readGear();
+		this.defenderOverhead = in.readEnum(HeadIcon.class);
+		this.attackerOffensivePray = in.readInt();
+		this.attackerRingItemId = in.readNullableInt();
+		this.attackerAmmoItemId = in.readNullableInt();
+		this.expectedHits = in.readInt();
+		this.displayHpBefore = in.readNullableInt();
+		this.displayHpAfter = in.readNullableInt();
+		this.displayKoChance = in.readNullableDouble();
+	}
+
+	public static FightLogEntry readBinary(FightChunkBinaryCodec.EntryReader in) throws IOException
+	{
+		return new FightLogEntry(in);
+	}
+
+	// write the exposed fields for the binary fight history chunks, in the order they're read in by readBinary
+	public void writeBinary(FightChunkBinaryCodec.EntryWriter out) throws IOException
+	{
+		out.writeInt((isFullEntry ? FULL_ENTRY_FLAG : 0)
+			| (splash ? SPLASH_FLAG : 0)
+			| (defenderElyProc ? ELY_PROC_FLAG : 0)
+			| (defenderSotdMeleeReductionProc ? SOTD_PROC_FLAG : 0)
+			| (isGmaulSpecial ? GMAUL_SPECIAL_FLAG : 0)
+			| (isPartOfTickGroup ? TICK_GROUP_FLAG : 0)
+			| (attackerLevels != null ? LEVELS_FLAG : 0));
+
+		out.writeTime(time);
+		out.writeTick(tick);
+		out.writeGear(attackerGear);
+		out.writeEnum(attackerOverhead);
+		out.writeEnum(animationData);
+		out.writeDouble(expectedDamage);
+		out.writeDouble(accuracy);
+		out.writeInt(maxHit);
+		out.writeInt(minHit);
+		if (attackerLevels != null)
+		{
+			out.writeInt(attackerLevels.atk);
+			out.writeInt(attackerLevels.str);
+			out.writeInt(attackerLevels.def);
+			out.writeInt(attackerLevels.range);
+			out.writeInt(attackerLevels.mage);
+			out.writeInt(attackerLevels.hp);
+		}
+		out.writeNullableDouble(koChance);
+		out.writeNullableInt(estimatedHpBeforeHit);
+		out.writeNullableInt(opponentMaxHp);
+		out.writeInt(matchedHitsCount);
+		out.writeNullableInt(actualDamageSum);
+		out.writeGear(defenderGear);
+		out.writeEnum(defenderOverhead);
+		out.writeInt(attackerOffensivePray);
+		out.writeNullableInt(attackerRingItemId);
+		out.writeNullableInt(attackerAmmoItemId);
+		out.writeInt(expectedHits);
+		out.writeNullableInt(displayHpBefore);
+		out.writeNullableInt(displayHpAfter);
+		out.writeNullableDouble(displayKoChance);
+	}
+
+	// Streaming adapter writing the same JSON as the reflective one: see FightDataTypeAdapterFactory.
+	public static final class GsonAdapter extends TypeAdapter<FightLogEntry>
+	{
+		private final TypeAdapter<HeadIcon> headIconAdapter;
+		private final TypeAdapter<AnimationData> animationDataAdapter;
+		private final TypeAdapter<CombatLevels> combatLevelsAdapter;
+
+		public GsonAdapter(Gson gson)
+		{
+			headIconAdapter = gson.getAdapter(HeadIcon.class);
+			animationDataAdapter = gson.getAdapter(AnimationData.class);
+			combatLevelsAdapter = gson.getAdapter(CombatLevels.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, FightLogEntry e) throws IOException
+		{
+			out.beginObject();
+			out.name("t").value(e.time);
+			out.name("T").value(e.tick);
+			out.name("f").value(e.isFullEntry);
+			out.name("G");
+			FightDataTypeAdapterFactory.writeIntArray(out, e.attackerGear);
+			out.name("O");
+			headIconAdapter.write(out, e.attackerOverhead);
+			out.name("m");
+			animationDataAdapter.write(out, e.animationData);
+			out.name("d");
+			FightDataTypeAdapterFactory.writeDouble(out, e.expectedDamage);
+			out.name("a");
+			FightDataTypeAdapterFactory.writeDouble(out, e.accuracy);
+			out.name("h").value(e.maxHit);
+			out.name("l").value(e.minHit);
+			out.name("s").value(e.splash);
+			out.name("C");
+			combatLevelsAdapter.write(out, e.attackerLevels);
+			out.name("k");
+			FightDataTypeAdapterFactory.writeRoundedDouble(out, e.koChance);
+			out.name("eH");
+			FightDataTypeAdapterFactory.writeNullableInt(out, e.estimatedHpBeforeHit);
+			out.name("oH");
+			FightDataTypeAdapterFactory.writeNullableInt(out, e.opponentMaxHp);
+			out.name("mC").value(e.matchedHitsCount);
+			out.name("aD");
+			FightDataTypeAdapterFactory.writeNullableInt(out, e.actualDamageSum);
+			out.name("g");
+			FightDataTypeAdapterFactory.writeIntArray(out, e.defenderGear);
+			out.name("o");
+			headIconAdapter.write(out, e.defenderOverhead);
+			out.name("E").value(e.defenderElyProc);
+			out.name("S").value(e.defenderSotdMeleeReductionProc);
+			out.name("p").value(e.attackerOffensivePray);
+			out.name("R");
+			FightDataTypeAdapterFactory.writeNullableInt(out, e.attackerRingItemId);
+			out.name("A");
+			FightDataTypeAdapterFactory.writeNullableInt(out, e.attackerAmmoItemId);
+			out.name("expectedHits").value(e.expectedHits);
+			out.name("GMS").value(e.isGmaulSpecial);
+			out.name("displayHpBefore");
+			FightDataTypeAdapterFactory.writeNullableInt(out, e.displayHpBefore);
+			out.name("displayHpAfter");
+			FightDataTypeAdapterFactory.writeNullableInt(out, e.displayHpAfter);
+			out.name("displayKoChance");
+			FightDataTypeAdapterFactory.writeRoundedDouble(out, e.displayKoChance);
+			out.name("isPartOfTickGroup").value(e.isPartOfTickGroup);
+			out.endObject();
+		}
+
+		@Override
+		public FightLogEntry read(JsonReader in) throws IOException
+		{
+			FightLogEntry e = new FightLogEntry();
+			in.beginObject();
+			while (in.hasNext())
+			{
+				String name = in.nextName();
+				if (FightDataTypeAdapterFactory.skipNull(in))
+				{
+					continue;
+				}
+				switch (name)
+				{
+					case "t": e.time = in.nextLong(); break;
+					case "T": e.tick = in.nextInt(); break;
+					case "f": e.isFullEntry = FightDataTypeAdapterFactory.readBoolean(in); break;
+					case "G": e.attackerGear = FightDataTypeAdapterFactory.readIntArray(in); break;
+					case "O": e.attackerOverhead = headIconAdapter.read(in); break;
+					case "m": e.animationData = animationDataAdapter.read(in); break;
+					case "d": e.expectedDamage = in.nextDouble(); break;
+					case "a": e.accuracy = in.nextDouble(); break;
+					case "h": e.maxHit = in.nextInt(); break;
+					case "l": e.minHit = in.nextInt(); break;
+					case "s": e.splash = FightDataTypeAdapterFactory.readBoolean(in); break;
+					case "C": e.attackerLevels = combatLevelsAdapter.read(in); break;
+					case "k": e.koChance = in.nextDouble(); break;
+					case "eH": e.estimatedHpBeforeHit = in.nextInt(); break;
+					case "oH": e.opponentMaxHp = in.nextInt(); break;
+					case "mC": e.matchedHitsCount = in.nextInt(); break;
+					case "aD": e.actualDamageSum = in.nextInt(); break;
+					case "g": e.defenderGear = FightDataTypeAdapterFactory.readIntArray(in); break;
+					case "o": e.defenderOverhead = headIconAdapter.read(in); break;
+					case "E": e.defenderElyProc = FightDataTypeAdapterFactory.readBoolean(in); break;
+					case "S": e.defenderSotdMeleeReductionProc = FightDataTypeAdapterFactory.readBoolean(in); break;
+					case "p": e.attackerOffensivePray = in.nextInt(); break;
+					case "R": e.attackerRingItemId = in.nextInt(); break;
+					case "A": e.attackerAmmoItemId = in.nextInt(); break;
+					case "expectedHits": e.expectedHits = in.nextInt(); break;
+					case "GMS": e.isGmaulSpecial = FightDataTypeAdapterFactory.readBoolean(in); break;
+					case "displayHpBefore": e.displayHpBefore = in.nextInt(); break;
+					case "displayHpAfter": e.displayHpAfter = in.nextInt(); break;
+					case "displayKoChance": e.displayKoChance = in.nextDouble(); break;
+					case "isPartOfTickGroup": e.isPartOfTickGroup = FightDataTypeAdapterFactory.readBoolean(in); break;
+					default: in.skipValue(); break;
+				}
+			}
+			in.endObject();
+			return e;
+		}
+	}
+
 	public boolean success()
 	{
 		return animationData.attackStyle.getProtection() != defenderOverhead;
@@ -405,6 +574,18 @@ public class FightLogEntry implements Comparable<FightLogEntry>
 		return Math.max(1, damageRollHitCount);
 	}
 
+	// replace the damage calc results, after re-calculating this attack with the current config.
+	public void setDamageStats(double expectedDamage, double accuracy, int minHit, int maxHit,
+		PvpDamageCalc.DamageRollDistribution damageRollDistribution, int damageRollHitCount)
+	{
+		this.expectedDamage = expectedDamage;
+		this.accuracy = accuracy;
+		this.minHit = minHit;
+		this.maxHit = maxHit;
+		this.damageRollDistribution = damageRollDistribution;
+		this.damageRollHitCount = damageRollHitCount;
+	}
+
 	public String toChatMessage()
 	{
 		Color darkRed = new Color(127, 0, 0); // same color as default clan chat color
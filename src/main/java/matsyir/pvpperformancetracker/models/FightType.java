@@ -32,7 +32,7 @@ public enum FightType
 	LMS_MAXMED(new CombatLevels(118, 118, 85, 112, 99, 99)),
 	LMS_ZERK(new CombatLevels(97, 118, 50, 112, 99, 99)),
 	LMS_1DEF(new CombatLevels(91, 118, 1, 112, 99, 99)),
-	NORMAL(CombatLevels.getConfigLevels());
+	NORMAL(null); // levels come from the config, read when needed since it isn't available yet on class load
 
 	private static final FightType[] LMS_TYPES = {LMS_MAXMED, LMS_ZERK, LMS_1DEF};
 
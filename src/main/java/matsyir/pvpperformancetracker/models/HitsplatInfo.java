@@ -31,11 +31,16 @@ import net.runelite.api.events.HitsplatApplied;
 /**
  * Helper class to store a HitsplatApplied event along with the
  * opponent's health ratio/scale polled shortly after the event occurred.
+ * Instances are pooled and re-used by the HitsplatTickBuffer, so they should not be held onto
+ * for longer than the buffer's tick window.
  */
 public class HitsplatInfo
 {
 	@Getter
-	private final HitsplatApplied event;
+	private HitsplatApplied event;
+	// cached hitsplat amount, so matching doesn't need to go through the event for every comparison.
+	@Getter
+	private int amount;
 
 	// health ratio/scale at the time of the hitsplat
 	@Getter
@@ -44,8 +49,17 @@ public class HitsplatInfo
 	private int healthScale = -1;
 
 	public HitsplatInfo(HitsplatApplied event)
+	{
+		reset(event);
+	}
+
+	// Re-use this instance for a new hitsplat event, clearing any previously polled HP state
+	public void reset(HitsplatApplied event)
 	{
 		this.event = event;
+		this.amount = event != null && event.getHitsplat() != null ? event.getHitsplat().getAmount() : 0;
+		this.healthRatio = -1;
+		this.healthScale = -1;
 	}
 
 	// Called to store the HP state
@@ -54,4 +68,4 @@ public class HitsplatInfo
 		this.healthRatio = ratio;
 		this.healthScale = scale;
 	}
-} 
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.models;
+
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.EquipmentInventorySlot;
+import net.runelite.api.InventoryID;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.Player;
+
+// The local player's state that is only visible client-side, used by the damage calcs: their prayer level, which
+// opponent prayers are assumed from, and their worn ring & ammo. Kept separate from the client so recorded fights
+// can be replayed with the values they were recorded with.
+@Getter
+public class LocalPlayerState
+{
+	private final String name;
+	private final int prayerLevel;
+	private final Integer ringItemId; // null if no ring is worn
+	private final Integer ammoItemId; // null if no ammo is worn
+
+	public LocalPlayerState(String name, int prayerLevel, Integer ringItemId, Integer ammoItemId)
+	{
+		this.name = name;
+		this.prayerLevel = prayerLevel;
+		this.ringItemId = ringItemId;
+		this.ammoItemId = ammoItemId;
+	}
+
+	public LocalPlayerState(Client client)
+	{
+		Player localPlayer = client.getLocalPlayer();
+		ItemContainer worn = client.getItemContainer(InventoryID.EQUIPMENT);
+		this.name = localPlayer == null ? null : localPlayer.getName();
+		this.prayerLevel = AssumedPrayers.localPrayerLevel(client);
+		this.ringItemId = getWornItemId(worn, EquipmentInventorySlot.RING);
+		this.ammoItemId = getWornItemId(worn, EquipmentInventorySlot.AMMO);
+	}
+
+	public boolean isLocalPlayer(Player player)
+	{
+		if (player == null || player.getName() == null || name == null)
+		{
+			return false;
+		}
+
+		return normalizeName(name).equals(normalizeName(player.getName()));
+	}
+
+	// the ring worn by the given player, if they are the local player. Other players' rings aren't visible.
+	public Integer getRingItemId(Player player)
+	{
+		return isLocalPlayer(player) ? ringItemId : null;
+	}
+
+	// the ammo worn by the given player, if they are the local player. Other players' ammo isn't visible.
+	public Integer getAmmoItemId(Player player)
+	{
+		return isLocalPlayer(player) ? ammoItemId : null;
+	}
+
+	private static String normalizeName(String name)
+	{
+		return name.replace(" ", " ").replace("_", " ").trim().toUpperCase();
+	}
+
+	private static Integer getWornItemId(ItemContainer worn, EquipmentInventorySlot slot)
+	{
+		if (worn == null)
+		{
+			return null;
+		}
+
+		Item item = worn.getItem(slot.getSlotIdx());
+		if (item == null || item.getId() <= 0)
+		{
+			return null;
+		}
+
+		return item.getId();
+	}
+}
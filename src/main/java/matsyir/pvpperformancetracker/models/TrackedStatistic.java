@@ -31,6 +31,7 @@ import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.CONFIG;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.PLUGIN;
 import matsyir.pvpperformancetracker.controllers.FightPerformance;
+import matsyir.pvpperformancetracker.controllers.FightSummary;
 import static matsyir.pvpperformancetracker.utils.NumberFormatter.*;
 import matsyir.pvpperformancetracker.utils.PvpColorScheme;
 import matsyir.pvpperformancetracker.utils.PvpUtils;
@@ -39,7 +40,6 @@ import matsyir.pvpperformancetracker.views.TableComponent;
 import javax.swing.JPanel;
 import java.awt.Color;
 import java.security.InvalidParameterException;
-import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import net.runelite.client.util.ColorUtil;
@@ -325,33 +325,14 @@ public enum TrackedStatistic
 		KO_CHANCES.init(
 			(fight) -> { // returns FightPerformancePanel component
 				// Total KO Chances
-				// Calculate total KO chances and overall probability // MODIFIED Calculation
-				int competitorKoChances = 0;
-				double competitorSurvivalProb = 1.0; // Start with 100% survival chance
-				int opponentKoChances = 0;
-				double opponentSurvivalProb = 1.0; // Start with 100% survival chance
-				List<FightLogEntry> logs = fight.getAllFightLogEntries();
-				for (FightLogEntry log : logs)
-				{
-					Double koChance = log.getKoChance();
-					if (koChance != null)
-					{
-						if (log.attackerName.equals(fight.competitor.getName()))
-						{
-							competitorKoChances++;
-							competitorSurvivalProb *= (1.0 - koChance); // Calculate survival prob
-						}
-						else
-						{
-							opponentKoChances++;
-							opponentSurvivalProb *= (1.0 - koChance); // Calculate survival prob
-						}
-					}
-				}
-
-				// Calculate overall KO probability
-				Double competitorOverallKoProb = (competitorKoChances > 0) ? (1.0 - competitorSurvivalProb) : 0;
-				Double opponentOverallKoProb = (opponentKoChances > 0) ? (1.0 - opponentSurvivalProb) : 0;
+				// Total KO chances and overall probability, from the fight logs or the saved fight summary
+				FightSummary summary = fight.getSummary();
+				int competitorKoChances = summary.getKoChanceCount(true);
+				int opponentKoChances = summary.getKoChanceCount(false);
+
+				// Overall KO probability
+				Double competitorOverallKoProb = summary.getKoProbability(true);
+				Double opponentOverallKoProb = summary.getKoProbability(false);
 
 				String compTotalKoChanceText = competitorKoChances + (competitorOverallKoProb > 0 ? " (" + nfP.format(competitorOverallKoProb) + ")" : ""); // Use overall prob
 				String oppTotalKoChanceText = opponentKoChances + (opponentOverallKoProb > 0 ? " (" + nfP.format(opponentOverallKoProb) + ")" : ""); // Use overall prob
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.utils;
+
+/**
+ * Read-mostly open-addressing table from int ids to enum constants (or any values), so that id lookups done
+ * on every animation/gear check don't box an Integer like a Map<Integer, E> would.
+ * Uses linear probing in a power-of-two table kept at most half full.
+ *
+ * Meant to be filled once during class init: not thread-safe while being filled.
+ */
+public final class IntEnumTable<E>
+{
+	private int[] keys;
+	private Object[] values;
+	private int size;
+
+	public IntEnumTable(int expectedSize)
+	{
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		keys = new int[capacity];
+		values = new Object[capacity];
+	}
+
+	// returns false without replacing anything if the id is already mapped, like Map.putIfAbsent
+	public boolean putIfAbsent(int id, E value)
+	{
+		if (value == null)
+		{
+			throw new IllegalArgumentException("IntEnumTable values can't be null");
+		}
+
+		if ((size + 1) * 2 > keys.length)
+		{
+			resize();
+		}
+
+		int mask = keys.length - 1;
+		int slot = mix(id) & mask;
+		while (values[slot] != null)
+		{
+			if (keys[slot] == id)
+			{
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = id;
+		values[slot] = value;
+		size++;
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E get(int id)
+	{
+		int mask = keys.length - 1;
+		int slot = mix(id) & mask;
+		Object value;
+		while ((value = values[slot]) != null)
+		{
+			if (keys[slot] == id)
+			{
+				return (E) value;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void resize()
+	{
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldValues[i] != null)
+			{
+				putIfAbsent(oldKeys[i], (E) oldValues[i]);
+			}
+		}
+	}
+
+	// item ids are mostly sequential, spread them out so they don't cluster in the table
+	private static int mix(int id)
+	{
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
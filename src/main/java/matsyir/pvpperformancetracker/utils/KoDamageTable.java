@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.utils;
+
+/**
+ * Complementary CDF of an attack's damage: the chance to deal at least each damage value, precomputed as suffix
+ * sums of the damage distribution so that any "P(damage >= hp)" query, i.e a KO chance, is a single read.
+ *
+ * Immutable, tables are shared through the KoDistributionCache.
+ */
+public final class KoDamageTable
+{
+	// atLeast[damage] = P(damage dealt >= damage), with a trailing 0 past the max damage.
+	private final double[] atLeast;
+
+	private KoDamageTable(double[] atLeast)
+	{
+		this.atLeast = atLeast;
+	}
+
+	// dist: probability of each damage value, from 0 to the max damage.
+	public static KoDamageTable fromDistribution(double[] dist)
+	{
+		double[] atLeast = new double[dist.length + 1];
+		for (int damage = dist.length - 1; damage >= 0; damage--)
+		{
+			atLeast[damage] = atLeast[damage + 1] + dist[damage];
+		}
+		return new KoDamageTable(atLeast);
+	}
+
+	public int getMaxDamage()
+	{
+		return atLeast.length - 2;
+	}
+
+	public double chanceAtLeast(int damage)
+	{
+		if (damage <= 0)
+		{
+			return atLeast[0];
+		}
+		return damage < atLeast.length ? atLeast[damage] : 0.0;
+	}
+
+	public double chanceOf(int damage)
+	{
+		if (damage < 0 || damage >= atLeast.length - 1)
+		{
+			return 0.0;
+		}
+		return atLeast[damage] - atLeast[damage + 1];
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.utils;
+
+import lombok.Getter;
+
+/**
+ * Bounded LRU cache of damage distributions used for KO chances, keyed by the roll type, accuracy, min/max hit,
+ * hit count and per-hit cap of an attack. The same few tuples come up over and over within a fight (and across the fight
+ * history), so they're only built and convolved once.
+ *
+ * Distributions are stored as KoDamageTables, so a KO chance is a single array read.
+ * Synchronized, since KO chances can also be calculated outside the client thread.
+ */
+public class KoDistributionCache
+{
+	public static final int DEFAULT_MAX_SIZE = 512;
+
+	public interface DistributionBuilder
+	{
+		// returns the probability of each total damage value, or null if there's no valid distribution.
+		double[] build(boolean clampedToMinimum, double accuracy, int minHit, int maxHit, int hitCount, int perHitCap);
+	}
+
+	private final DistributionBuilder distributionBuilder;
+	private final BoundedLruMap<DistributionKey, KoDamageTable> cache;
+	// re-used key for lookups so that cache hits don't allocate anything
+	private final DistributionKey lookupKey = new DistributionKey();
+
+	@Getter
+	private long hits;
+	@Getter
+	private long misses;
+
+	public KoDistributionCache(int maxSize, DistributionBuilder distributionBuilder)
+	{
+		this.distributionBuilder = distributionBuilder;
+		this.cache = new BoundedLruMap<>(maxSize);
+	}
+
+	// returns the shared KO table for the given attack, building it on a miss.
+	// returns null if the builder couldn't build a distribution, which isn't cached.
+	public synchronized KoDamageTable get(boolean clampedToMinimum, double accuracy, int minHit, int maxHit, int hitCount, int perHitCap)
+	{
+		lookupKey.set(clampedToMinimum, accuracy, minHit, maxHit, hitCount, perHitCap);
+		KoDamageTable table = cache.get(lookupKey);
+		if (table != null)
+		{
+			hits++;
+			return table;
+		}
+
+		misses++;
+		double[] dist = distributionBuilder.build(clampedToMinimum, accuracy, minHit, maxHit, hitCount, perHitCap);
+		if (dist == null || dist.length == 0)
+		{
+			return null;
+		}
+
+		table = KoDamageTable.fromDistribution(dist);
+		DistributionKey key = new DistributionKey();
+		key.set(clampedToMinimum, accuracy, minHit, maxHit, hitCount, perHitCap);
+		cache.put(key, table);
+		return table;
+	}
+
+	public synchronized int size()
+	{
+		return cache.size();
+	}
+
+	public synchronized double getHitRate()
+	{
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	public synchronized void clear()
+	{
+		cache.clear();
+		hits = 0;
+		misses = 0;
+	}
+
+	private static final class DistributionKey
+	{
+		private boolean clampedToMinimum;
+		private long accuracyBits;
+		private int minHit;
+		private int maxHit;
+		private int hitCount;
+		private int perHitCap;
+		private int hash;
+
+		void set(boolean clampedToMinimum, double accuracy, int minHit, int maxHit, int hitCount, int perHitCap)
+		{
+			this.clampedToMinimum = clampedToMinimum;
+			this.accuracyBits = Double.doubleToLongBits(accuracy);
+			this.minHit = minHit;
+			this.maxHit = maxHit;
+			this.hitCount = hitCount;
+			this.perHitCap = perHitCap;
+			int h = 31 * Long.hashCode(accuracyBits) + (clampedToMinimum ? 1 : 0);
+			h = 31 * h + minHit;
+			h = 31 * h + maxHit;
+			h = 31 * h + hitCount;
+			this.hash = 31 * h + perHitCap;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+			{
+				return true;
+			}
+			if (!(o instanceof DistributionKey))
+			{
+				return false;
+			}
+			DistributionKey other = (DistributionKey) o;
+			return clampedToMinimum == other.clampedToMinimum && accuracyBits == other.accuracyBits
+				&& minHit == other.minHit && maxHit == other.maxHit && hitCount == other.hitCount && perHitCap == other.perHitCap;
+		}
+	}
+}
@@ -40,6 +40,8 @@ import net.runelite.client.util.LinkBrowser;
 public class PvpUtils
 {
 	private static final int DBOW_MAX_HIT_CAP = 48; // per-arrow cap with dragon arrows in PvP
+	private static final KoDistributionCache KO_DISTRIBUTION_CACHE =
+		new KoDistributionCache(KoDistributionCache.DEFAULT_MAX_SIZE, PvpUtils::buildDamageDistribution);
 
 	/**
 	 * Calculates the chance of knocking out an opponent with a single hit.
@@ -62,28 +64,8 @@ public class PvpUtils
 		// and not negative.
 		minHit = Math.max(0, Math.min(minHit, maxHit));
 
-		int totalPossibleHits = maxHit - minHit + 1;
-		if (totalPossibleHits <= 0)
-		{
-			// Avoid division by zero if minHit somehow exceeds maxHit after clamping.
-			log.warn("Calculated totalPossibleHits <= 0 (min: {}, max: {})", minHit, maxHit);
-			return null;
-		}
-
-		// Number of hits that would result in a KO (damage >= opponent's HP).
-		// Clamp estimatedOpponentHp to be at least minHit for calculation,
-		// otherwise koHits could be larger than totalPossibleHits.
-		int effectiveHpForCalc = Math.max(minHit, estimatedOpponentHp);
-		int koHits = maxHit - effectiveHpForCalc + 1;
-
-		// Ensure koHits is not negative (if effectiveHpForCalc > maxHit somehow)
-		koHits = Math.max(0, koHits);
-
-		// KO chance = Accuracy * (Number of KO hits / Total possible hits)
-		double chance = accuracy * ((double) koHits / totalPossibleHits);
-
-		// Clamp chance between 0 and 1 (due to potential floating point inaccuracies)
-		return Math.max(0.0, Math.min(chance, 1.0));
+		// KO chance = Accuracy * (Number of KO hits / Total possible hits), read from the attack's KO table.
+		return getKoChance(getKoDamageTable(false, accuracy, minHit, maxHit, 1), estimatedOpponentHp);
 	}
 
 	public static Double calculateClampedKoChance(double accuracy, int minHit, int maxHit, int estimatedOpponentHp)
@@ -98,25 +80,28 @@ public class PvpUtils
 			return null;
 		}
 
-		double[] dist = buildMultiHitClampedDamageDistribution(accuracy, minHitTotal, maxHitTotal, hitCount);
-		if (dist == null || dist.length == 0)
-		{
-			return null;
-		}
+		return getKoChance(getKoDamageTable(true, accuracy, minHitTotal, maxHitTotal, Math.max(1, hitCount)), estimatedOpponentHp);
+	}
 
-		int hpNeeded = Math.max(0, estimatedOpponentHp);
-		if (hpNeeded >= dist.length)
-		{
-			return null;
-		}
+	/**
+	 * Returns the shared KO lookup table of an attack. STANDARD rolls are uniform between the min & max hit,
+	 * while rolls clamped to minimum are uniform from 0 to the max hit, with rolls under the min hit raised to it.
+	 * Multi-hit attacks split the min/max hit evenly between each hit.
+	 */
+	public static KoDamageTable getKoDamageTable(boolean clampedToMinimum, double accuracy, int minHitTotal, int maxHitTotal, int hitCount)
+	{
+		return KO_DISTRIBUTION_CACHE.get(clampedToMinimum, accuracy, minHitTotal, maxHitTotal, hitCount, 0);
+	}
 
-		double chance = 0.0;
-		for (int damage = hpNeeded; damage < dist.length; damage++)
+	// chance that the attack deals at least the opponent's hp, or null if it can't KO them.
+	public static Double getKoChance(KoDamageTable table, int estimatedOpponentHp)
+	{
+		if (table == null || estimatedOpponentHp <= 0 || estimatedOpponentHp > table.getMaxDamage())
 		{
-			chance += dist[damage];
+			return null;
 		}
 
-		return Math.max(0.0, Math.min(chance, 1.0));
+		return Math.max(0.0, Math.min(table.chanceAtLeast(estimatedOpponentHp), 1.0));
 	}
 
 	/**
@@ -303,23 +288,17 @@ public class PvpUtils
 		}
 
 		int perArrowMin = Math.max(0, minHitTotal / 2);
-		double[] dist = buildCappedDamageDistribution(acc, perArrowMin, perArrowMax, DBOW_MAX_HIT_CAP);
-		if (dist == null || dist.length == 0)
+		KoDamageTable perArrow = KO_DISTRIBUTION_CACHE.get(true, acc, perArrowMin, perArrowMax, 1, DBOW_MAX_HIT_CAP);
+		if (perArrow == null)
 		{
 			return null;
 		}
 
-		int maxDamage = dist.length - 1;
-		double[] tail = new double[maxDamage + 2];
-		for (int dmg = maxDamage; dmg >= 0; dmg--)
-		{
-			tail[dmg] = tail[dmg + 1] + dist[dmg];
-		}
-
+		int maxDamage = perArrow.getMaxDamage();
 		double ko = 0.0;
 		for (int d1 = 0; d1 <= maxDamage; d1++)
 		{
-			double p1 = dist[d1];
+			double p1 = perArrow.chanceOf(d1);
 			if (p1 <= 0.0)
 			{
 				continue;
@@ -340,7 +319,7 @@ public class PvpUtils
 
 			if (hpNeeded <= maxDamage)
 			{
-				ko += p1 * tail[hpNeeded];
+				ko += p1 * perArrow.chanceAtLeast(hpNeeded);
 			}
 		}
 
@@ -355,6 +334,25 @@ public class PvpUtils
 		return ko;
 	}
 
+	// uniform rolls between the min & max hit, a miss dealing 0.
+	private static double[] buildStandardDamageDistribution(double accuracy, int minHit, int maxHit)
+	{
+		if (maxHit < 0)
+		{
+			return null;
+		}
+
+		minHit = Math.max(0, Math.min(minHit, maxHit));
+		double[] dist = new double[maxHit + 1];
+		double hitProb = accuracy / (maxHit - minHit + 1);
+		for (int damage = minHit; damage <= maxHit; damage++)
+		{
+			dist[damage] = hitProb;
+		}
+		dist[0] += 1.0 - accuracy;
+		return dist;
+	}
+
 	private static double[] buildCappedDamageDistribution(double accuracy, int minHit, int maxHit, int maxHitCap)
 	{
 		if (maxHit < 0)
@@ -403,26 +401,38 @@ public class PvpUtils
 		return dist;
 	}
 
-	private static double[] buildMultiHitClampedDamageDistribution(double accuracy, int minHitTotal, int maxHitTotal, int hitCount)
+	// distribution of the total damage of hitCount hits, which each roll their share of the min/max hit,
+	// capped to perHitCap (or to their max hit if perHitCap <= 0). Built by KO_DISTRIBUTION_CACHE on a miss.
+	private static double[] buildDamageDistribution(boolean clampedToMinimum, double accuracy, int minHitTotal, int maxHitTotal, int hitCount, int perHitCap)
 	{
+		if (!clampedToMinimum)
+		{
+			return buildStandardDamageDistribution(accuracy, minHitTotal, maxHitTotal);
+		}
+
 		hitCount = Math.max(1, hitCount);
 		int perHitMin = Math.max(0, minHitTotal / hitCount);
 		int perHitMax = Math.max(perHitMin, maxHitTotal / hitCount);
 
-		double[] perHit = buildCappedDamageDistribution(accuracy, perHitMin, perHitMax, perHitMax);
+		double[] perHit = buildCappedDamageDistribution(accuracy, perHitMin, perHitMax, perHitCap > 0 ? perHitCap : perHitMax);
 		if (perHit == null || perHit.length == 0)
 		{
 			return null;
 		}
 
-		double[] total = new double[] {1.0};
-		for (int hit = 0; hit < hitCount; hit++)
+		double[] total = perHit;
+		for (int hit = 1; hit < hitCount; hit++)
 		{
 			total = convolve(total, perHit);
 		}
 		return total;
 	}
 
+	public static KoDistributionCache getKoDistributionCache()
+	{
+		return KO_DISTRIBUTION_CACHE;
+	}
+
 	private static double[] convolve(double[] left, double[] right)
 	{
 		double[] result = new double[left.length + right.length - 1];
@@ -106,7 +106,14 @@ public class AttackSummaryFrame extends JFrame
 			attackSummaryFrame.dispose();
 		}
 		// show error modal if the fight has no log entries to display.
+		// the fight logs are only needed to count the attacks, so they can be released right after.
+		if (!fight.acquireFightLogs())
+		{
+			PLUGIN.createConfirmationModal(false, "This fight has no attack summary to display, or the data is outdated.");
+			return;
+		}
 		ArrayList<FightLogEntry> fightLogEntries = new ArrayList<>(fight.getAllFightLogEntries());
+		fight.releaseAcquiredFightLogs();
 		fightLogEntries.removeIf(e -> !e.isFullEntry());
 		if (fightLogEntries.isEmpty())
 		{
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.views;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPanel;
+import matsyir.pvpperformancetracker.controllers.FightPerformance;
+
+// Virtualized fight history list: only the fights in or near the viewport have a FightPerformancePanel. Panels are
+// created as their fight scrolls into view and dropped once it scrolls out, so the cost of (re)building the list
+// doesn't depend on how many fights it holds. Rows that were never displayed are assumed to be as tall as the last
+// displayed one, so the total height (and the scrollbar) stays accurate without building every panel.
+// The list should be placed inside of a JScrollPane, with updateVisibleRows called when its viewport changes.
+// Only meant to be used from the UI thread.
+public class FightHistoryList extends JPanel
+{
+	// extra space above & below the viewport for which rows are kept ready, so scrolling doesn't reveal empty rows
+	private static final int OVERSCAN_PX = 300;
+	private static final int INITIAL_ROW_HEIGHT_ESTIMATE = 180;
+
+	private final Function<FightPerformance, FightPerformancePanel> panelFactory;
+
+	// all of these are indexed by row, newest fight first
+	private FightPerformance[] fights = new FightPerformance[0];
+	private FightPerformancePanel[] panels = new FightPerformancePanel[0];
+	private int[] measuredHeights = new int[0]; // 0 if the row was never displayed
+	private int[] rowOffsets = {0}; // y position of each row, followed by the total height
+	private boolean rowOffsetsOutdated = false;
+	private int estimatedRowHeight = INITIAL_ROW_HEIGHT_ESTIMATE;
+
+	// rows with a panel: [firstRow, endRow)
+	private int firstRow = 0;
+	private int endRow = 0;
+	private boolean updateQueued = false;
+
+	public FightHistoryList(Function<FightPerformance, FightPerformancePanel> panelFactory)
+	{
+		super(null);
+		this.panelFactory = panelFactory;
+
+		addComponentListener(new ComponentAdapter()
+		{
+			@Override
+			public void componentResized(ComponentEvent e)
+			{
+				queueVisibleRowsUpdate();
+			}
+
+			@Override
+			public void componentShown(ComponentEvent e)
+			{
+				queueVisibleRowsUpdate();
+			}
+		});
+	}
+
+	public int getFightCount()
+	{
+		return fights.length;
+	}
+
+	// replace all of the listed fights, given newest first. Existing panels are always rebuilt, since the
+	// list is mainly replaced when something that affects them changed (filter, config, etc.)
+	public void setFights(List<FightPerformance> newestFirst)
+	{
+		removeAllPanels();
+		fights = newestFirst.toArray(new FightPerformance[0]);
+		panels = new FightPerformancePanel[fights.length];
+		measuredHeights = new int[fights.length];
+		rowOffsetsOutdated = true;
+
+		updateVisibleRows();
+	}
+
+	// add a new fight at the top of the list, keeping the panels of the other fights.
+	public void addFirst(FightPerformance fight)
+	{
+		fights = prepend(fights, fight);
+		panels = prepend(panels, null);
+		int[] newMeasuredHeights = new int[measuredHeights.length + 1];
+		System.arraycopy(measuredHeights, 0, newMeasuredHeights, 1, measuredHeights.length);
+		measuredHeights = newMeasuredHeights;
+		if (endRow > firstRow)
+		{
+			firstRow++;
+			endRow++;
+		}
+		rowOffsetsOutdated = true;
+
+		updateVisibleRows();
+	}
+
+	public void remove(FightPerformance fight)
+	{
+		int row = -1;
+		for (int i = 0; i < fights.length; i++)
+		{
+			if (fights[i] == fight)
+			{
+				row = i;
+				break;
+			}
+		}
+		if (row < 0)
+		{
+			return;
+		}
+
+		if (panels[row] != null)
+		{
+			remove(panels[row]);
+		}
+		fights = removeAt(fights, row);
+		panels = removeAt(panels, row);
+		int[] newMeasuredHeights = new int[measuredHeights.length - 1];
+		System.arraycopy(measuredHeights, 0, newMeasuredHeights, 0, row);
+		System.arraycopy(measuredHeights, row + 1, newMeasuredHeights, row, measuredHeights.length - row - 1);
+		measuredHeights = newMeasuredHeights;
+		if (row < endRow)
+		{
+			endRow--;
+			if (row < firstRow)
+			{
+				firstRow--;
+			}
+		}
+		rowOffsetsOutdated = true;
+
+		updateVisibleRows();
+	}
+
+	public void clear()
+	{
+		setFights(List.of());
+	}
+
+	// create the panels of the rows that came into view, and drop those of the rows that left it.
+	public void updateVisibleRows()
+	{
+		updateQueued = false;
+		updateRowOffsets();
+
+		int newFirstRow = 0;
+		int newEndRow = 0;
+		Rectangle visibleRect = getVisibleRect();
+		if (fights.length > 0 && visibleRect.height > 0)
+		{
+			newFirstRow = rowAt(visibleRect.y - OVERSCAN_PX);
+			newEndRow = rowAt(visibleRect.y + visibleRect.height + OVERSCAN_PX) + 1;
+		}
+
+		for (int i = firstRow; i < endRow; i++)
+		{
+			if ((i < newFirstRow || i >= newEndRow) && panels[i] != null)
+			{
+				remove(panels[i]);
+				panels[i] = null;
+			}
+		}
+
+		boolean heightsChanged = false;
+		for (int i = newFirstRow; i < newEndRow; i++)
+		{
+			if (panels[i] != null)
+			{
+				continue;
+			}
+
+			panels[i] = panelFactory.apply(fights[i]);
+			add(panels[i]);
+			int height = panels[i].getPreferredSize().height;
+			if (height != measuredHeights[i])
+			{
+				measuredHeights[i] = height;
+				estimatedRowHeight = height;
+				heightsChanged = true;
+			}
+		}
+		firstRow = newFirstRow;
+		endRow = newEndRow;
+
+		if (heightsChanged)
+		{
+			// the rows moved, so the visible range might be different now.
+			rowOffsetsOutdated = true;
+			queueVisibleRowsUpdate();
+		}
+
+		revalidate();
+		repaint();
+	}
+
+	@Override
+	public Dimension getPreferredSize()
+	{
+		updateRowOffsets();
+		return new Dimension(PvpPerformanceTrackerPanel.FIGHT_PERFORMANCE_PANEL_WIDTH, rowOffsets[fights.length]);
+	}
+
+	@Override
+	public void doLayout()
+	{
+		updateRowOffsets();
+		int width = getWidth();
+		for (int i = firstRow; i < endRow; i++)
+		{
+			if (panels[i] != null)
+			{
+				panels[i].setBounds(0, rowOffsets[i], width, rowOffsets[i + 1] - rowOffsets[i]);
+			}
+		}
+	}
+
+	private void queueVisibleRowsUpdate()
+	{
+		if (!updateQueued)
+		{
+			updateQueued = true;
+			SwingUtilities.invokeLater(this::updateVisibleRows);
+		}
+	}
+
+	private void removeAllPanels()
+	{
+		removeAll();
+		Arrays.fill(panels, null);
+		firstRow = 0;
+		endRow = 0;
+	}
+
+	private void updateRowOffsets()
+	{
+		if (!rowOffsetsOutdated && rowOffsets.length == fights.length + 1)
+		{
+			return;
+		}
+
+		rowOffsets = new int[fights.length + 1];
+		for (int i = 0; i < fights.length; i++)
+		{
+			rowOffsets[i + 1] = rowOffsets[i] + (measuredHeights[i] > 0 ? measuredHeights[i] : estimatedRowHeight);
+		}
+		rowOffsetsOutdated = false;
+	}
+
+	// index of the row at the given y position, clamped to the existing rows. Requires at least one row.
+	private int rowAt(int y)
+	{
+		int index = Arrays.binarySearch(rowOffsets, 0, fights.length, y);
+		// binarySearch returns (-insertionPoint - 1) when y isn't a row's exact start, and we want the row before that.
+		int row = index >= 0 ? index : -index - 2;
+		return Math.max(0, Math.min(fights.length - 1, row));
+	}
+
+	private static <T> T[] removeAt(T[] array, int index)
+	{
+		T[] newArray = Arrays.copyOf(array, array.length - 1);
+		System.arraycopy(array, index + 1, newArray, index, array.length - index - 1);
+		return newArray;
+	}
+
+	private static <T> T[] prepend(T[] array, T first)
+	{
+		T[] newArray = Arrays.copyOf(array, array.length + 1);
+		System.arraycopy(array, 0, newArray, 1, array.length);
+		newArray[0] = first;
+		return newArray;
+	}
+}
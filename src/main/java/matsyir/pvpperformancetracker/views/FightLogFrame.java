@@ -29,13 +29,18 @@ import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
+import java.awt.Graphics;
 import java.awt.Point;
 import java.awt.event.ItemListener;
-import java.awt.image.BufferedImage;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.math.RoundingMode;
 import java.text.NumberFormat;
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JCheckBox;
 import javax.swing.JFrame;
@@ -49,9 +54,6 @@ import javax.swing.event.ListSelectionListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import lombok.extern.slf4j.Slf4j;
 import matsyir.pvpperformancetracker.PvpPerformanceTrackerPanel;
-import matsyir.pvpperformancetracker.controllers.Fighter;
-import matsyir.pvpperformancetracker.models.AnimationData;
-import matsyir.pvpperformancetracker.models.BrewState;
 import matsyir.pvpperformancetracker.models.FightLogEntry;
 import matsyir.pvpperformancetracker.controllers.FightPerformance;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.PLUGIN;
@@ -59,8 +61,7 @@ import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.PLUGIN_I
 
 import matsyir.pvpperformancetracker.utils.PvpColorScheme;
 import matsyir.pvpperformancetracker.utils.PvpUtils;
-import net.runelite.api.ItemID;
-import net.runelite.api.SpriteID;
+import net.runelite.client.util.AsyncBufferedImage;
 import net.runelite.client.util.ColorUtil;
 
 @Slf4j
@@ -107,8 +108,11 @@ public class FightLogFrame extends JFrame
 	// allow 2 frames to allow displaying original fight log side-by-side the synced log.
 	private static JFrame originalFightLogFrame; // save frame as static instance so there's only one at a time, to avoid window clutter.
 
-	private static final NumberFormat nf = NumberFormat.getInstance();
-	private static final NumberFormat nfPercent = NumberFormat.getPercentInstance(); // For KO Chance %
+	// also used by FightLogTableModel. Only used from the swing thread.
+	static final NumberFormat nf = NumberFormat.getInstance();
+	static final NumberFormat nfPercent = NumberFormat.getPercentInstance(); // For KO Chance %
+	// icons of the items shown in fight logs, see IconCellRenderer.getItemIcon
+	private static final Map<Integer, Icon> itemIcons = new HashMap<>();
 
 	static
 	{
@@ -138,6 +142,13 @@ public class FightLogFrame extends JFrame
 
 	public static void createFightLogFrame(FightPerformance rootFight, JRootPane rootPane, boolean showOriginal)
 	{
+		// saved fights are loaded without their fight logs, read them from the fight's data file when first needed.
+		// they're released again once the frame is closed, unless they're also used elsewhere.
+		if (!rootFight.acquireFightLogs())
+		{
+			PLUGIN.createConfirmationModal(false, "This fight has no attack logs to display, or the data is outdated.");
+			return;
+		}
 		ArrayList<FightLogEntry> fightLogEntries = new ArrayList<>(!showOriginal && rootFight.hasPvpHubSyncedFight()
 			? rootFight.getPvpHubDisplayFight().getAllFightLogEntries()
 			: rootFight.getAllFightLogEntries());
@@ -145,6 +156,7 @@ public class FightLogFrame extends JFrame
 		// show error modal if the fight has no log entries to display.
 		if (fightLogEntries.isEmpty())
 		{
+			rootFight.releaseAcquiredFightLogs();
 			PLUGIN.createConfirmationModal(false, "This fight has no attack logs to display, or the data is outdated.");
 			return;
 		}
@@ -152,6 +164,15 @@ public class FightLogFrame extends JFrame
 			fightLogEntries,
 			rootPane,
 			showOriginal);
+		newFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		newFrame.addWindowListener(new WindowAdapter()
+		{
+			@Override
+			public void windowClosed(WindowEvent e)
+			{
+				rootFight.releaseAcquiredFightLogs();
+			}
+		});
 
 		// ensure we destroy current frame if it exists so we only have one at a time (static field)
 		if (showOriginal)
@@ -184,7 +205,6 @@ public class FightLogFrame extends JFrame
 		FightPerformance fight = pvpHubSynced ? rootFight.getPvpHubDisplayFight() : rootFight;
 
 		fightLogEntries = logEntries;
-		fightLogEntries.removeIf(e -> !e.isFullEntry());
 
 		// if always on top is supported, and the core RL plugin has "always on top" set, make the frame always
 		// on top as well so it can be above the client.
@@ -272,185 +292,26 @@ public class FightLogFrame extends JFrame
 		onToggleDisplayPanels.itemStateChanged(null);
 		mainPanel.add(fightPerformancePanelDisplayArea, BorderLayout.NORTH);
 
-		// prepare table content
-		Object[][] stats = new Object[fightLogEntries.size()][COL_INDEXES.length];
-		int i = 0;
-		int initialTick = 0;
-
-		for (FightLogEntry fightEntry : fightLogEntries)
-		{
-			if (i == 0)
-			{
-				initialTick = fightEntry.getTick();
-			}
-
-			int styleIcon = fightEntry.getAnimationData().attackStyle.getStyleSpriteId();
-			JLabel styleIconLabel = new JLabel();
-			PLUGIN.addSpriteToLabelIfValid(styleIconLabel, styleIcon, this::repaint);
-			styleIconLabel.setToolTipText(fightEntry.getAnimationData().attackStyle.toString());
-
-			Fighter attacker = fightEntry.getAttackerName().equals(fight.getCompetitor().getName())
-				? fight.getCompetitor()
-				: fight.getOpponent();
-			BrewState brewState = attacker.getBrewState(fightEntry);
-			JLabel brewStateLabel = new JLabel();
-			brewStateLabel.setForeground(brewState.getCategory().getTextColor());
-			brewStateLabel.setToolTipText(String.format("<html>" +
-				"Amount of levels above or below your base Level of the skill (str, range, or mage)." +
-				"<br>For example, if ranging with 110 range, it will display <i>+11 (110/112)</i> since 112 is max potted (at level 99)." +
-				"<br>The row is highlighted green if you are %d levels below the max potted level or higher. Ideally, should always be green." +
-				"<br><br>This does look at your actual potted/brewed level" + (pvpHubSynced ? "." :
-				", although it isn't used for Expected Damage<br>calculations, unless the fight is merged/synced via PvP-Hub."),
-				Math.abs(BrewState.BREWED_LEVELS_NEUTRAL_THRESHOLD)));
-
-			brewStateLabel.setText(brewState.getFightLogText());
-
-			stats[i][COLIDX_ATTACKER_NAME] = fightEntry.getAttackerName();
-			stats[i][COLIDX_STYLE_ICON] = styleIconLabel;
-			stats[i][COLIDX_BREW_STATE] = brewStateLabel;
-			stats[i][COLIDX_HIT_RANGE] = fightEntry.getHitRange();
-			stats[i][COLIDX_ACCURACY] = nf.format(fightEntry.getAccuracy() * 100) + '%';
-			stats[i][COLIDX_AVG_HIT] = nf.format(fightEntry.getExpectedDamage());
-
-			// Actual Dmg column
-			JLabel dmgLabel = new JLabel();
-			if (fightEntry.getAnimationData().attackStyle == AnimationData.AttackStyle.MAGIC && fightEntry.isSplash())
-			{
-				int splashIcon = SpriteID.SPELL_ICE_BARRAGE_DISABLED;
-				PLUGIN.addSpriteToLabelIfValid(dmgLabel, splashIcon, this::repaint);
-			}
-			else if (fightEntry.getMatchedHitsCount() <= 0)
-			{
-				dmgLabel.setText("?");
-			}
-			else
-			{
-				dmgLabel.setText(nf.format(fightEntry.getActualDamageSum()));
-			}
-			stats[i][COLIDX_DMG_DEALT] = dmgLabel;
-			// HP column - Display as Current/Max
-			Integer hp = fightEntry.getDisplayHpBefore();
-			Integer maxHp = fightEntry.getOpponentMaxHp();
-			stats[i][COLIDX_DEF_HP] = (hp != null && maxHp != null) ? hp + "/" + maxHp : (hp != null ? String.valueOf(hp) : "-");
-			Double koChance = fightEntry.getKoChance();
-			stats[i][COLIDX_KO_CHANCE] = koChance != null ? nfPercent.format(koChance) : "-";
-			stats[i][COLIDX_SPEC] = fightEntry.getAnimationData().isSpecial ? "✔" : "";
-			stats[i][COLIDX_OFF_PRAY] = fightEntry.success() ? "✔" : "";
-
-			// Def Prayer + sotd/ely
-			int prayIcon = PvpUtils.getSpriteForHeadIcon(fightEntry.getDefenderOverhead());
-			boolean hasPray = prayIcon > 0;
-			boolean hasEly = fightEntry.isDefenderElyProc();
-			boolean hasStaffReduction = fightEntry.isDefenderSotdMeleeReductionProc();
-
-			if (!hasPray && !hasEly && !hasStaffReduction)
-			{
-				stats[i][COLIDX_DEF_PRAYER] = "";
-			}
-			else if ((hasPray ? 1 : 0) + (hasEly ? 1 : 0) + (hasStaffReduction ? 1 : 0) == 1)
-			{
-				JLabel label = new JLabel();
-				if (hasPray)
-				{
-					PLUGIN.addSpriteToLabelIfValid(label, prayIcon, this::repaint);
-					label.setToolTipText("Defensive Prayer");
-				}
-				else if (hasEly)
-				{
-					PLUGIN.addItemToLabelIfValid(label, ItemID.ELYSIAN_SPIRIT_SHIELD, false, this::repaint, "Elysian proc");
-				}
-				else
-				{
-					PLUGIN.addItemToLabelIfValid(label, ItemID.STAFF_OF_THE_DEAD, false, this::repaint, "Staff spec damage reduction");
-				}
-				stats[i][COLIDX_DEF_PRAYER] = label;
-			}
-			else
-			{
-				JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 2, 0));
-				panel.setOpaque(false);
-
-				if (hasPray)
-				{
-					JLabel defPrayLabel = new JLabel();
-					PLUGIN.addSpriteToLabelIfValid(defPrayLabel, prayIcon, this::repaint);
-					defPrayLabel.setToolTipText("Defensive Prayer");
-					panel.add(defPrayLabel);
-				}
-
-				if (hasEly)
-				{
-					JLabel elyLabel = new JLabel();
-					PLUGIN.addItemToLabelIfValid(elyLabel, ItemID.ELYSIAN_SPIRIT_SHIELD, false, this::repaint, "Elysian proc");
-					panel.add(elyLabel);
-				}
-
-				if (hasStaffReduction)
-				{
-					JLabel staffLabel = new JLabel();
-					PLUGIN.addItemToLabelIfValid(staffLabel, ItemID.STAFF_OF_THE_DEAD, false, this::repaint, "Staff spec damage reduction");
-					panel.add(staffLabel);
-				}
-
-				stats[i][COLIDX_DEF_PRAYER] = panel;
-			}
-			// Splash
-			if (fightEntry.getAnimationData().attackStyle == AnimationData.AttackStyle.MAGIC)
-			{
-				int splashIcon = fightEntry.isSplash() ? SpriteID.SPELL_ICE_BARRAGE_DISABLED : SpriteID.SPELL_ICE_BARRAGE;
-				JLabel splashLabel = new JLabel();
-				PLUGIN.addSpriteToLabelIfValid(splashLabel, splashIcon, this::repaint);
-				stats[i][COLIDX_SPLASH] = splashLabel;
-			}
-			else
-			{
-				stats[i][COLIDX_SPLASH] = "";
-			}
-			// Offensive Pray
-			JLabel attPrayLabel = new JLabel();
-			if (fightEntry.getAttackerOffensivePray() > 0)
-			{
-				PLUGIN.addSpriteToLabelIfValid(attPrayLabel, fightEntry.getAttackerOffensivePray(), this::repaint);
-				stats[i][COLIDX_OFFENSIVE_PRAY] = attPrayLabel;
-			}
-			else
-			{
-				stats[i][COLIDX_OFFENSIVE_PRAY] = "";
-			}
-			int tickDuration = fightEntry.getTick() - initialTick;
-			int durationMillis = (tickDuration * 600); // (* 0.6) to get duration in secs from ticks, so *600 for ms
-			Duration duration = Duration.ofMillis(durationMillis);
-			String time = String.format("%02d:%02d.%01d",
-				duration.toMinutes(),
-				duration.getSeconds() % 60,
-				durationMillis % 1000 / 100) + " (" + tickDuration + ")";
-			stats[i][COLIDX_TIME] = time;
-
-			i++;
-		}
-
-		String[] header = {"Attacker", "Style", "Level Change", "Hit Range", "Accuracy", "Avg Hit", "Actual Dmg", "HP", "KO Chance", "Special?",
-			"Off-Pray?", "Def Prayer", "Splash", "Offensive Pray", "Time, (Tick)"};
-		table = new JTable(stats, header);
+		// table rows & icons are only built/loaded once they're scrolled into view, see FightLogTableModel
+		table = new JTable(new FightLogTableModel(fight, fightLogEntries, pvpHubSynced));
 		table.setRowHeight(30);
-		table.setDefaultEditor(Object.class, null);
 
-		table.getColumnModel().getColumn(COLIDX_STYLE_ICON).setCellRenderer(new BufferedImageCellRenderer()); // Style
+		table.getColumnModel().getColumn(COLIDX_STYLE_ICON).setCellRenderer(new IconCellRenderer()); // Style
 		table.getColumnModel().getColumn(COLIDX_STYLE_ICON).setPreferredWidth(50);
-		table.getColumnModel().getColumn(COLIDX_DMG_DEALT).setCellRenderer(new BufferedImageCellRenderer()); // Actual Dmg
+		table.getColumnModel().getColumn(COLIDX_DMG_DEALT).setCellRenderer(new IconCellRenderer()); // Actual Dmg
 
-		table.getColumnModel().getColumn(COLIDX_DEF_PRAYER).setCellRenderer(new BufferedImageCellRenderer()); // Def Prayer
+		table.getColumnModel().getColumn(COLIDX_DEF_PRAYER).setCellRenderer(new IconCellRenderer()); // Def Prayer
 		table.getColumnModel().getColumn(COLIDX_DEF_PRAYER).setPreferredWidth(96); // room for def pray + proc icons
 
-		table.getColumnModel().getColumn(COLIDX_SPLASH).setCellRenderer(new BufferedImageCellRenderer()); // Splash
-		table.getColumnModel().getColumn(COLIDX_OFFENSIVE_PRAY).setCellRenderer(new BufferedImageCellRenderer()); // Offensive Pray
+		table.getColumnModel().getColumn(COLIDX_SPLASH).setCellRenderer(new IconCellRenderer()); // Splash
+		table.getColumnModel().getColumn(COLIDX_OFFENSIVE_PRAY).setCellRenderer(new IconCellRenderer()); // Offensive Pray
 		table.getColumnModel().getColumn(COLIDX_OFFENSIVE_PRAY).setPreferredWidth(50);
 
 		// keep it compact, these are just a checkmark, dont need much width
 		table.getColumnModel().getColumn(COLIDX_SPEC).setPreferredWidth(44);
 		table.getColumnModel().getColumn(COLIDX_OFF_PRAY).setPreferredWidth(50);
 
-		table.getColumnModel().getColumn(COLIDX_BREW_STATE).setCellRenderer(new BufferedImageCellRenderer());
+		table.getColumnModel().getColumn(COLIDX_BREW_STATE).setCellRenderer(new IconCellRenderer());
 		table.getColumnModel().getColumn(COLIDX_BREW_STATE).setPreferredWidth(92);
 
 		// if the fight has no baseLevels, then we have 0 stats for brew state anyways, so remove the column
@@ -491,39 +352,103 @@ public class FightLogFrame extends JFrame
 		setVisible(true);
 	}
 
-	private static class BufferedImageCellRenderer extends DefaultTableCellRenderer
+	// renders FightLogTableModel.IconCells, looking their icons up in the shared icon caches, so that only
+	// the visible rows' icons are loaded. The table is repainted once icons that weren't cached yet are loaded.
+	private static class IconCellRenderer extends DefaultTableCellRenderer
 	{
 		@Override
 		public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column)
 		{
 			super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-			if (value instanceof JPanel)
+			setIcon(null);
+			setToolTipText(null);
+			if (!(value instanceof FightLogTableModel.IconCell))
 			{
-				JPanel panel = (JPanel) value;
-				panel.setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
-				panel.setOpaque(true);
-				return panel;
+				return this;
 			}
-			else if (value instanceof BufferedImage)
+
+			FightLogTableModel.IconCell cell = (FightLogTableModel.IconCell) value;
+			List<Icon> icons = new ArrayList<>(cell.spriteIds.length + cell.itemIds.length);
+			for (int spriteId : cell.spriteIds)
 			{
-				setText("");
-				setIcon(new ImageIcon((BufferedImage) value));
+				Icon icon = PLUGIN.getCachedSpriteIcon(spriteId, table::repaint);
+				if (icon != null)
+				{
+					icons.add(icon);
+				}
 			}
-			else if (value instanceof JLabel)
+			for (int itemId : cell.itemIds)
 			{
-				JLabel val = (JLabel) value;
-				setIcon(val.getIcon());
-				setText(val.getText());
-				setToolTipText(val.getToolTipText());
-				setForeground(val.getForeground());
+				icons.add(getItemIcon(itemId, table));
 			}
-			else
+
+			setIcon(icons.isEmpty() ? null : icons.size() == 1 ? icons.get(0) : new IconRow(icons));
+			setText(cell.text != null ? cell.text : "");
+			setToolTipText(cell.tooltip);
+			if (cell.foreground != null)
 			{
-				setText("");
-				setIcon(null);
+				setForeground(cell.foreground);
 			}
 
 			return this;
 		}
+
+		// the fight log only displays a couple different items, so keep their icons around.
+		// ItemManager already caches the images, this just avoids re-wrapping them on every paint.
+		private static Icon getItemIcon(int itemId, JTable table)
+		{
+			return itemIcons.computeIfAbsent(itemId, id ->
+			{
+				AsyncBufferedImage image = PLUGIN.getItemManager().getImage(id);
+				image.onLoaded(table::repaint);
+				return new ImageIcon(image);
+			});
+		}
+	}
+
+	// multiple icons painted side by side
+	private static class IconRow implements Icon
+	{
+		private static final int GAP = 2;
+
+		private final List<Icon> icons;
+
+		private IconRow(List<Icon> icons)
+		{
+			this.icons = icons;
+		}
+
+		@Override
+		public void paintIcon(Component c, Graphics g, int x, int y)
+		{
+			int height = getIconHeight();
+			for (Icon icon : icons)
+			{
+				icon.paintIcon(c, g, x, y + (height - icon.getIconHeight()) / 2);
+				x += icon.getIconWidth() + GAP;
+			}
+		}
+
+		@Override
+		public int getIconWidth()
+		{
+			int width = 0;
+			for (Icon icon : icons)
+			{
+				width += icon.getIconWidth();
+			}
+			return width + GAP * (icons.size() - 1);
+		}
+
+		@Override
+		public int getIconHeight()
+		{
+			int height = 0;
+			for (Icon icon : icons)
+			{
+				height = Math.max(height, icon.getIconHeight());
+			}
+			return height;
+		}
 	}
 }
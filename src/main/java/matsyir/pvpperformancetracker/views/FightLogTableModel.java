@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2026, Matsyir <https://github.com/Matsyir>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package matsyir.pvpperformancetracker.views;
+
+import java.awt.Color;
+import java.time.Duration;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+import matsyir.pvpperformancetracker.controllers.FightPerformance;
+import matsyir.pvpperformancetracker.controllers.Fighter;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.BrewState;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.utils.PvpUtils;
+import net.runelite.api.ItemID;
+import net.runelite.api.SpriteID;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_ACCURACY;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_ATTACKER_NAME;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_AVG_HIT;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_BREW_STATE;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_DEF_HP;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_DEF_PRAYER;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_DMG_DEALT;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_HIT_RANGE;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_KO_CHANCE;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_OFFENSIVE_PRAY;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_OFF_PRAY;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_SPEC;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_SPLASH;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_STYLE_ICON;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COLIDX_TIME;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.COL_INDEXES;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.nf;
+import static matsyir.pvpperformancetracker.views.FightLogFrame.nfPercent;
+
+/**
+ * The FightLogFrame's table contents. Rows are only built once the table first asks for them, i.e. once they're
+ * scrolled into view, so opening a long fight log doesn't build every row up-front. Icons aren't loaded here:
+ * icon cells only hold sprite & item ids, which FightLogFrame's renderer looks up in the plugin's shared icon caches.
+ */
+class FightLogTableModel extends AbstractTableModel
+{
+	private static final String[] COLUMN_NAMES = {"Attacker", "Style", "Level Change", "Hit Range", "Accuracy", "Avg Hit", "Actual Dmg", "HP",
+		"KO Chance", "Special?", "Off-Pray?", "Def Prayer", "Splash", "Offensive Pray", "Time, (Tick)"};
+	private static final int[] NO_IDS = new int[0];
+
+	private final FightPerformance fight;
+	private final List<FightLogEntry> fightLogEntries;
+	private final int initialTick;
+	private final String brewStateTooltip;
+	// rows built so far, by row index
+	private final Object[][] rows;
+
+	// expects logEntries composing of only "full" log entries, that contain full attack data, not defender entries.
+	FightLogTableModel(FightPerformance fight, List<FightLogEntry> fightLogEntries, boolean pvpHubSynced)
+	{
+		this.fight = fight;
+		this.fightLogEntries = fightLogEntries;
+		this.initialTick = fightLogEntries.isEmpty() ? 0 : fightLogEntries.get(0).getTick();
+		this.rows = new Object[fightLogEntries.size()][];
+		this.brewStateTooltip = String.format("<html>" +
+			"Amount of levels above or below your base Level of the skill (str, range, or mage)." +
+			"<br>For example, if ranging with 110 range, it will display <i>+11 (110/112)</i> since 112 is max potted (at level 99)." +
+			"<br>The row is highlighted green if you are %d levels below the max potted level or higher. Ideally, should always be green." +
+			"<br><br>This does look at your actual potted/brewed level" + (pvpHubSynced ? "." :
+			", although it isn't used for Expected Damage<br>calculations, unless the fight is merged/synced via PvP-Hub."),
+			Math.abs(BrewState.BREWED_LEVELS_NEUTRAL_THRESHOLD));
+	}
+
+	@Override
+	public int getRowCount()
+	{
+		return fightLogEntries.size();
+	}
+
+	@Override
+	public int getColumnCount()
+	{
+		return COL_INDEXES.length;
+	}
+
+	@Override
+	public String getColumnName(int column)
+	{
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Object getValueAt(int rowIndex, int columnIndex)
+	{
+		Object[] row = rows[rowIndex];
+		if (row == null)
+		{
+			row = buildRow(fightLogEntries.get(rowIndex));
+			rows[rowIndex] = row;
+		}
+
+		return row[columnIndex];
+	}
+
+	private Object[] buildRow(FightLogEntry fightEntry)
+	{
+		Object[] row = new Object[COL_INDEXES.length];
+		AnimationData.AttackStyle attackStyle = fightEntry.getAnimationData().attackStyle;
+
+		row[COLIDX_ATTACKER_NAME] = fightEntry.getAttackerName();
+		row[COLIDX_STYLE_ICON] = IconCell.sprite(attackStyle.getStyleSpriteId(), attackStyle.toString());
+
+		Fighter attacker = fightEntry.getAttackerName().equals(fight.getCompetitor().getName())
+			? fight.getCompetitor()
+			: fight.getOpponent();
+		BrewState brewState = attacker.getBrewState(fightEntry);
+		row[COLIDX_BREW_STATE] = new IconCell(brewState.getFightLogText(), brewStateTooltip, brewState.getCategory().getTextColor(), NO_IDS, NO_IDS);
+
+		row[COLIDX_HIT_RANGE] = fightEntry.getHitRange();
+		row[COLIDX_ACCURACY] = nf.format(fightEntry.getAccuracy() * 100) + '%';
+		row[COLIDX_AVG_HIT] = nf.format(fightEntry.getExpectedDamage());
+
+		// Actual Dmg column
+		if (attackStyle == AnimationData.AttackStyle.MAGIC && fightEntry.isSplash())
+		{
+			row[COLIDX_DMG_DEALT] = IconCell.sprite(SpriteID.SPELL_ICE_BARRAGE_DISABLED, null);
+		}
+		else if (fightEntry.getMatchedHitsCount() <= 0)
+		{
+			row[COLIDX_DMG_DEALT] = "?";
+		}
+		else
+		{
+			row[COLIDX_DMG_DEALT] = nf.format(fightEntry.getActualDamageSum());
+		}
+
+		// HP column - Display as Current/Max
+		Integer hp = fightEntry.getDisplayHpBefore();
+		Integer maxHp = fightEntry.getOpponentMaxHp();
+		row[COLIDX_DEF_HP] = (hp != null && maxHp != null) ? hp + "/" + maxHp : (hp != null ? String.valueOf(hp) : "-");
+		Double koChance = fightEntry.getKoChance();
+		row[COLIDX_KO_CHANCE] = koChance != null ? nfPercent.format(koChance) : "-";
+		row[COLIDX_SPEC] = fightEntry.getAnimationData().isSpecial ? "✔" : "";
+		row[COLIDX_OFF_PRAY] = fightEntry.success() ? "✔" : "";
+		row[COLIDX_DEF_PRAYER] = buildDefPrayerCell(fightEntry);
+
+		// Splash
+		if (attackStyle == AnimationData.AttackStyle.MAGIC)
+		{
+			row[COLIDX_SPLASH] = IconCell.sprite(fightEntry.isSplash() ? SpriteID.SPELL_ICE_BARRAGE_DISABLED : SpriteID.SPELL_ICE_BARRAGE, null);
+		}
+		else
+		{
+			row[COLIDX_SPLASH] = "";
+		}
+
+		// Offensive Pray
+		row[COLIDX_OFFENSIVE_PRAY] = fightEntry.getAttackerOffensivePray() > 0
+			? IconCell.sprite(fightEntry.getAttackerOffensivePray(), null)
+			: "";
+
+		int tickDuration = fightEntry.getTick() - initialTick;
+		int durationMillis = (tickDuration * 600); // (* 0.6) to get duration in secs from ticks, so *600 for ms
+		Duration duration = Duration.ofMillis(durationMillis);
+		row[COLIDX_TIME] = String.format("%02d:%02d.%01d",
+			duration.toMinutes(),
+			duration.getSeconds() % 60,
+			durationMillis % 1000 / 100) + " (" + tickDuration + ")";
+
+		return row;
+	}
+
+	// Def Prayer + sotd/ely
+	private static Object buildDefPrayerCell(FightLogEntry fightEntry)
+	{
+		int prayIcon = PvpUtils.getSpriteForHeadIcon(fightEntry.getDefenderOverhead());
+		boolean hasPray = prayIcon > 0;
+		boolean hasEly = fightEntry.isDefenderElyProc();
+		boolean hasStaffReduction = fightEntry.isDefenderSotdMeleeReductionProc();
+
+		if (!hasPray && !hasEly && !hasStaffReduction)
+		{
+			return "";
+		}
+
+		StringBuilder tooltip = new StringBuilder();
+		int[] itemIds = new int[(hasEly ? 1 : 0) + (hasStaffReduction ? 1 : 0)];
+		int itemCount = 0;
+		if (hasPray)
+		{
+			tooltip.append("Defensive Prayer");
+		}
+		if (hasEly)
+		{
+			itemIds[itemCount++] = ItemID.ELYSIAN_SPIRIT_SHIELD;
+			tooltip.append(tooltip.length() > 0 ? ", " : "").append("Elysian proc");
+		}
+		if (hasStaffReduction)
+		{
+			itemIds[itemCount++] = ItemID.STAFF_OF_THE_DEAD;
+			tooltip.append(tooltip.length() > 0 ? ", " : "").append("Staff spec damage reduction");
+		}
+
+		return new IconCell(null, tooltip.toString(), null, hasPray ? new int[] {prayIcon} : NO_IDS, itemIds);
+	}
+
+	// a cell showing sprites & items, followed by text. Sprites are shown before items.
+	static final class IconCell
+	{
+		final String text;
+		final String tooltip;
+		final Color foreground; // null to use the table's
+		final int[] spriteIds;
+		final int[] itemIds;
+
+		IconCell(String text, String tooltip, Color foreground, int[] spriteIds, int[] itemIds)
+		{
+			this.text = text;
+			this.tooltip = tooltip;
+			this.foreground = foreground;
+			this.spriteIds = spriteIds;
+			this.itemIds = itemIds;
+		}
+
+		static IconCell sprite(int spriteId, String tooltip)
+		{
+			return new IconCell(null, tooltip, null, new int[] {spriteId}, NO_IDS);
+		}
+	}
+}
@@ -34,8 +34,10 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import javax.swing.BorderFactory;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
@@ -49,8 +51,8 @@ import lombok.extern.slf4j.Slf4j;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPanel.FULL_PANEL_WIDTH;
 import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
 import matsyir.pvpperformancetracker.controllers.FightPerformance;
+import matsyir.pvpperformancetracker.controllers.FightStatsAggregate;
 import matsyir.pvpperformancetracker.controllers.Fighter;
-import matsyir.pvpperformancetracker.models.FightLogEntry;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.CONFIG;
 import static matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin.PLUGIN;
 import matsyir.pvpperformancetracker.models.TrackedStatistic;
@@ -96,71 +98,9 @@ public class TotalStatsPanel extends JPanel
 
 	private JShadowedLabel settingsWarningLabel; // to be hidden/shown
 
-	private Fighter totalStats;
-
-	private int numFights = 0;
-
-	private int numKills = 0;
-	private int numDeaths = 0;
-
-	private double totalExpectedDmg = 0;
-	private double totalExpectedDmgDiff = 0;
-	private double avgExpectedDmg = 0;
-	private double avgExpectedDmgDiff = 0;
-
-	private double killTotalExpectedDmg = 0;
-	private double killTotalExpectedDmgDiff = 0;
-	private double killAvgExpectedDmg = 0;
-	private double killAvgExpectedDmgDiff = 0;
-
-	private double deathTotalExpectedDmg = 0;
-	private double deathTotalExpectedDmgDiff = 0;
-	private double deathAvgExpectedDmg = 0;
-	private double deathAvgExpectedDmgDiff = 0;
-
-	private double totalDmgDealt = 0;
-	private double totalDmgDealtDiff = 0;
-	private double avgDmgDealt = 0;
-	private double avgDmgDealtDiff = 0;
-
-	private double killTotalDmgDealt = 0;
-	private double killTotalDmgDealtDiff = 0;
-	private double killAvgDmgDealt = 0;
-	private double killAvgDmgDealtDiff = 0;
-
-	private double deathTotalDmgDealt = 0;
-	private double deathTotalDmgDealtDiff = 0;
-	private double deathAvgDmgDealt = 0;
-	private double deathAvgDmgDealtDiff = 0;
-
-	private double avgHpHealed = 0;
-
-	// KO Chance totals/averages
-	private double totalCompetitorKoChances = 0;
-	private double totalOpponentKoChances = 0;
-	private double totalCompetitorKoProbSum = 0; // Sum of overall KO probabilities from each fight
-	private double totalOpponentKoProbSum = 0; // Sum of overall KO probabilities from each fight
-	private double avgCompetitorKoChances = 0;
-	private double avgOpponentKoChances = 0;
-	private double avgCompetitorKoProb = 0; // Average overall KO probability per fight
-	private double avgOpponentKoProb = 0; // Average overall KO probability per fight
-	private int numFightsWithKoChance = 0; // Counter for fights that have KO chance data
-
-	// Accumulators for robe hits
-	private double totalCompetitorRobeHits = 0;
-	private double totalCompetitorRobeHitsAttempted = 0; // 'total attacks attempted', i.e the statistic shows totalCompetitorRobeHits / totalCompetitorRobeHitsAttempted
-	private double totalOpponentRobeHits = 0;
-	private double totalOpponentRobeHitsAttempted = 0;
-	private double avgCompetitorRobeHits = 0;
-	private double avgCompetitorRobeHitsPercentage = 0;
-	private double avgOpponentRobeHits = 0;
-	private double avgOpponentRobeHitsPercentage = 0;
-
-	// let's keep ghost barrage as the bottom-most statistic:
-	// It's only relevant to people fighting in PvP Arena, and it's mostly only relevant
-	// to people who can share their tracker with each-other - so pretty rarely useful.
-	private double avgGhostBarrageCount = 0;
-	private double avgGhostBarrageExpectedDamage = 0;
+	// totals of the displayed fights, updated as fights get added/removed
+	private final FightStatsAggregate stats = new FightStatsAggregate();
+	private boolean labelsUpdateQueued = false;
 
 	// both these JMenuITems will be re-used directly on their respective buttons.
 	// it seems to cause issues to literally reference it on 2 JPopupMenus,
@@ -170,8 +110,6 @@ public class TotalStatsPanel extends JPanel
 
 	public TotalStatsPanel()
 	{
-		totalStats = new Fighter("Player");
-
 		setLayout(new GridLayout(CONFIG.settingsConfigured() ? LAYOUT_ROWS_WITHOUT_WARNING : LAYOUT_ROWS_WITH_WARNING, 1));
 
 		setBorder(BorderFactory.createEmptyBorder(3, 6, 4, 6));
@@ -294,13 +232,13 @@ public class TotalStatsPanel extends JPanel
 
 		// left label to show kills
 		killsLabel = new JShadowedLabel();
-		killsLabel.setText(numKills + " Kills");
+		killsLabel.setText(stats.getKillCount() + " Kills");
 
 		killDeathPanel.add(killsLabel, BorderLayout.WEST);
 
 		// right label to show deaths
 		deathsLabel = new JShadowedLabel();
-		deathsLabel.setText(numDeaths + " Deaths");
+		deathsLabel.setText(stats.getDeathCount() + " Deaths");
 
 		killDeathPanel.add(deathsLabel, BorderLayout.EAST);
 		add(killDeathPanel);
@@ -471,6 +409,26 @@ public class TotalStatsPanel extends JPanel
 
 	public void setLabels()
 	{
+		labelsUpdateQueued = false;
+
+		Fighter totalStats = stats.createTotalStatsFighter("Player");
+		int numFights = stats.getFightCount();
+		int numKills = stats.getKillCount();
+		int numDeaths = stats.getDeathCount();
+		double avgExpectedDmg = stats.getAvgExpectedDamage();
+		double avgExpectedDmgDiff = stats.getAvgExpectedDamageDiff();
+		double killAvgExpectedDmg = stats.getKillAvgExpectedDamage();
+		double killAvgExpectedDmgDiff = stats.getKillAvgExpectedDamageDiff();
+		double deathAvgExpectedDmg = stats.getDeathAvgExpectedDamage();
+		double deathAvgExpectedDmgDiff = stats.getDeathAvgExpectedDamageDiff();
+		double avgDmgDealt = stats.getAvgDamageDealt();
+		double avgDmgDealtDiff = stats.getAvgDamageDealtDiff();
+		double killAvgDmgDealt = stats.getKillAvgDamageDealt();
+		double killAvgDmgDealtDiff = stats.getKillAvgDamageDealtDiff();
+		double deathAvgDmgDealt = stats.getDeathAvgDamageDealt();
+		double deathAvgDmgDealtDiff = stats.getDeathAvgDamageDealtDiff();
+		double avgHpHealed = stats.getAvgHpHealed();
+
 		String avgExpectedDmgDiffOneDecimal = nf1.format(avgExpectedDmgDiff);
 		String avgDmgDealtDiffOneDecimal = nf1.format(avgDmgDealtDiff);
 
@@ -578,6 +536,11 @@ public class TotalStatsPanel extends JPanel
 		// Avg Hits on Robes label
 		if (numFights > 0)
 		{
+			double avgCompetitorRobeHits = stats.getAvgCompetitorRobeHits();
+			double avgCompetitorRobeHitsPercentage = stats.getCompetitorRobeHitsPercentage();
+			double avgOpponentRobeHits = stats.getAvgOpponentRobeHits();
+			double avgOpponentRobeHitsPercentage = stats.getOpponentRobeHitsPercentage();
+
 			avgRobeHitsStatsLabel.setText(nf1.format(avgCompetitorRobeHits) + " / " + nf1.format(avgOpponentRobeHits));
 			applyTooltipRecursively(avgRobeHitsStatsLabel.getParent(),
 				"<html>Average melee/range hits taken while wearing robes per fight:<br>" +
@@ -594,12 +557,12 @@ public class TotalStatsPanel extends JPanel
 		applyFgColorToSiblingsOf(avgRobeHitsStatsLabel, PvpColorScheme.neutralColor());
 
 		// Set Avg KO Chance label
-		if (numFightsWithKoChance > 0)
+		if (stats.getFightsWithKoChanceCount() > 0)
 		{
-			avgCompetitorKoChances = totalCompetitorKoChances / numFightsWithKoChance;
-			avgOpponentKoChances = totalOpponentKoChances / numFightsWithKoChance;
-			avgCompetitorKoProb = totalCompetitorKoProbSum / numFightsWithKoChance;
-			avgOpponentKoProb = totalOpponentKoProbSum / numFightsWithKoChance;
+			double avgCompetitorKoChances = stats.getAvgCompetitorKoChances();
+			double avgOpponentKoChances = stats.getAvgOpponentKoChances();
+			double avgCompetitorKoProb = stats.getAvgCompetitorKoProbability();
+			double avgOpponentKoProb = stats.getAvgOpponentKoProbability();
 
 			// too long of a line to include both chances & percent/sum, so only include those in tooltip
 			avgKoChanceStatsLabel.setText(nf1.format(avgCompetitorKoChances) + " / " + nf1.format(avgOpponentKoChances));
@@ -609,7 +572,7 @@ public class TotalStatsPanel extends JPanel
 					+ ")<br>Opponent: "
 					+ nf1.format(avgOpponentKoChances) + " (" + nfP1.format(avgOpponentKoProb)
 					+ ")<br>Total KO Chances: Player: "
-					+ nf.format(totalCompetitorKoChances) + ", Opponent: " + nf.format(totalOpponentKoChances)
+					+ nf.format(stats.getCompetitorKoChances()) + ", Opponent: " + nf.format(stats.getOpponentKoChances())
 					+ TrackedStatistic.KO_CHANCES.getPrefixedAcronymTooltip()
 			);
 		}
@@ -620,6 +583,8 @@ public class TotalStatsPanel extends JPanel
 		}
 		applyFgColorToSiblingsOf(avgKoChanceStatsLabel, PvpColorScheme.neutralColor());
 
+		double avgGhostBarrageCount = stats.getAvgGhostBarrageCount();
+		double avgGhostBarrageExpectedDamage = stats.getAvgGhostBarrageExpectedDamage();
 		ghostBarrageStatsLabel.setText(nf1.format(avgGhostBarrageCount) + " G.B. (" + nf.format(avgGhostBarrageExpectedDamage) + ")");
 		applyTooltipRecursively(ghostBarrageStatsLabel.getParent(),
 			"<html>You had an average of " + nf1.format(avgGhostBarrageCount)
@@ -641,328 +606,58 @@ public class TotalStatsPanel extends JPanel
 		return nf1.format(number / 1000.0) + "k";
 	}
 
+	// add a fight to the totals. The stats are taken from its PvP-Hub synced version, when there is one.
 	public void addFight(FightPerformance fight)
 	{
-		numFights++;
-
-		totalStats.addAttacks(fight.getCompetitor().getOffPraySuccessCount(), fight.getCompetitor().getAttackCount(),
-			fight.getCompetitor().getExpectedDamage(), fight.getCompetitor().getDamageDealt(),
-			fight.getCompetitor().getMagicAttackCount(), fight.getCompetitor().getMagicHitCount(),
-			fight.getCompetitor().getMagicHitCountExpected(), fight.getCompetitor().getOffensivePraySuccessCount(),
-			fight.getCompetitor().getHpHealed(), fight.getCompetitor().getGhostBarrageCount(),
-			fight.getCompetitor().getGhostBarrageExpectedDamage());
-
-		// Accumulate robe hits
-		totalCompetitorRobeHits += fight.getCompetitor().getRobeHits();
-		totalCompetitorRobeHitsAttempted += fight.getOpponent().getAttackCount() - fight.getOpponent().getTotalMagicAttackCount();
-		totalOpponentRobeHits += fight.getOpponent().getRobeHits();
-		totalOpponentRobeHitsAttempted += fight.getCompetitor().getAttackCount() - fight.getCompetitor().getTotalMagicAttackCount();
-
-		avgCompetitorRobeHits = totalCompetitorRobeHits / numFights;
-		avgCompetitorRobeHitsPercentage = totalCompetitorRobeHitsAttempted != 0 ? (totalCompetitorRobeHits / totalCompetitorRobeHitsAttempted) * 100.0 : 0;
-		avgOpponentRobeHits = totalOpponentRobeHits / numFights;
-		avgOpponentRobeHitsPercentage = totalOpponentRobeHitsAttempted != 0 ? (totalOpponentRobeHits / totalOpponentRobeHitsAttempted) * 100.0 : 0;
-
-		// add kill-specific or death-specific stats
-		if (fight.getCompetitor().isDead())
-		{
-			numDeaths++;
-
-			deathTotalExpectedDmg += fight.getCompetitor().getExpectedDamage();
-			deathTotalExpectedDmgDiff += fight.getCompetitorExpectedDmgDiff();
-
-			deathTotalDmgDealt += fight.getCompetitor().getDamageDealt();
-			deathTotalDmgDealtDiff += fight.getCompetitorDmgDealtDiff();
-
-			deathAvgExpectedDmg = deathTotalExpectedDmg / numDeaths;
-			deathAvgExpectedDmgDiff = deathTotalExpectedDmgDiff / numDeaths;
-
-			deathAvgDmgDealt = deathTotalDmgDealt / numDeaths;
-			deathAvgDmgDealtDiff = deathTotalDmgDealtDiff / numDeaths;
-		}
-
-		if (fight.getOpponent().isDead())
-		{
-			numKills++;
-
-			killTotalExpectedDmg += fight.getCompetitor().getExpectedDamage();
-			killTotalExpectedDmgDiff += fight.getCompetitorExpectedDmgDiff();
-
-			killTotalDmgDealt += fight.getCompetitor().getDamageDealt();
-			killTotalDmgDealtDiff += fight.getCompetitorDmgDealtDiff();
-
-			killAvgExpectedDmg = killTotalExpectedDmg / numKills;
-			killAvgExpectedDmgDiff = killTotalExpectedDmgDiff / numKills;
-
-			killAvgDmgDealt = killTotalDmgDealt / numKills;
-			killAvgDmgDealtDiff = killTotalDmgDealtDiff / numKills;
-		}
-
-		totalExpectedDmg += fight.getCompetitor().getExpectedDamage();
-		totalExpectedDmgDiff += fight.getCompetitorExpectedDmgDiff();
-
-		totalDmgDealt += fight.getCompetitor().getDamageDealt();
-		totalDmgDealtDiff += fight.getCompetitorDmgDealtDiff();
-
-		// calculate avg stats based on total/numFights
-		avgExpectedDmg = totalExpectedDmg / numFights;
-		avgExpectedDmgDiff = totalExpectedDmgDiff / numFights;
-
-		avgDmgDealt = totalDmgDealt / numFights;
-		avgDmgDealtDiff = totalDmgDealtDiff / numFights;
-
-		avgHpHealed = (double) totalStats.getHpHealed() / numFights;
-
-		// Calculate KO chances & sum % for this fight and add to totals
-		int fightCompetitorKoChances = 0;
-		double fightCompetitorSurvivalProb = 1.0;
-		int fightOpponentKoChances = 0;
-		double fightOpponentSurvivalProb = 1.0;
-		boolean fightHasKoData = false;
-		List<FightLogEntry> logs = fight.getAllFightLogEntries();
-		for (FightLogEntry log : logs)
-		{
-			Double koChance = log.getKoChance();
-			if (koChance != null)
-			{
-				fightHasKoData = true; // Mark that this fight has KO data
-				if (log.attackerName.equals(fight.getCompetitor().getName()))
-				{
-					fightCompetitorKoChances++;
-					fightCompetitorSurvivalProb *= (1.0 - koChance);
-				}
-				else
-				{
-					fightOpponentKoChances++;
-					fightOpponentSurvivalProb *= (1.0 - koChance);
-				}
-			}
-		}
-
-		// Only include this fight in KO averages if it had KO data
-		if (fightHasKoData)
-		{
-			numFightsWithKoChance++;
-			totalCompetitorKoChances += fightCompetitorKoChances;
-			totalOpponentKoChances += fightOpponentKoChances;
-			double fightCompetitorKoProb = (fightCompetitorKoChances > 0) ? (1.0 - fightCompetitorSurvivalProb) : 0.0;
-			double fightOpponentKoProb = (fightOpponentKoChances > 0) ? (1.0 - fightOpponentSurvivalProb) : 0.0;
-			totalCompetitorKoProbSum += fightCompetitorKoProb;
-			totalOpponentKoProbSum += fightOpponentKoProb;
-		}
-
-		// Recalculate averages using the count of fights with data
-		avgCompetitorKoChances = numFightsWithKoChance != 0 ? totalCompetitorKoChances / numFightsWithKoChance : 0;
-		avgOpponentKoChances = numFightsWithKoChance != 0 ? totalOpponentKoChances / numFightsWithKoChance : 0;
-		avgCompetitorKoProb = numFightsWithKoChance != 0 ? totalCompetitorKoProbSum / numFightsWithKoChance : 0;
-		avgOpponentKoProb = numFightsWithKoChance != 0 ? totalOpponentKoProbSum / numFightsWithKoChance : 0;
-
-		avgGhostBarrageCount = (double) totalStats.getGhostBarrageCount() / numFights;
-		avgGhostBarrageExpectedDamage = totalStats.getGhostBarrageCount() != 0 ? totalStats.getGhostBarrageExpectedDamage() / totalStats.getGhostBarrageCount() : 0;
-
-		SwingUtilities.invokeLater(this::setLabels);
+		stats.add(fight, fight.getPvpHubDisplayFight());
+		queueLabelsUpdate();
 	}
 
-	public void addFights(ArrayList<FightPerformance> fights)
+	public void addFights(Collection<FightPerformance> fights)
 	{
-		if (fights == null || fights.isEmpty())
+		for (FightPerformance fight : fights)
 		{
-			SwingUtilities.invokeLater(this::setLabels);
-			return;
+			stats.add(fight, fight.getPvpHubDisplayFight());
 		}
+		queueLabelsUpdate();
+	}
 
-		numFights += fights.size();
-
-		// Reset robe hits totals
-		totalCompetitorRobeHits = 0;
-		totalCompetitorRobeHitsAttempted = 0;
-		totalOpponentRobeHits = 0;
-		totalOpponentRobeHitsAttempted = 0;
-
-		// Reset KO chance totals before recalculating for all fights
-		totalCompetitorKoChances = 0;
-		totalOpponentKoChances = 0;
-		totalCompetitorKoProbSum = 0;
-		totalOpponentKoProbSum = 0;
-		numFightsWithKoChance = 0;
+	// update the totals to only include the given fights, by only adding/removing the fights that changed.
+	public void setFights(Collection<FightPerformance> fights)
+	{
+		Set<FightPerformance> fightSet = Collections.newSetFromMap(new IdentityHashMap<>());
+		fightSet.addAll(fights);
+		stats.retainAll(fightSet);
+		addFights(fights);
+	}
 
-		for (FightPerformance fight : fights)
+	public void removeFight(FightPerformance fight)
+	{
+		if (stats.remove(fight))
 		{
-			totalStats.addAttacks(fight.getCompetitor().getOffPraySuccessCount(), fight.getCompetitor().getAttackCount(),
-				fight.getCompetitor().getExpectedDamage(), fight.getCompetitor().getDamageDealt(),
-				fight.getCompetitor().getMagicAttackCount(), fight.getCompetitor().getMagicHitCount(),
-				fight.getCompetitor().getMagicHitCountExpected(), fight.getCompetitor().getOffensivePraySuccessCount(),
-				fight.getCompetitor().getHpHealed(), fight.getCompetitor().getGhostBarrageCount(),
-				fight.getCompetitor().getGhostBarrageExpectedDamage());
-
-			// Accumulate robe hits
-			totalCompetitorRobeHits += fight.getCompetitor().getRobeHits();
-			totalCompetitorRobeHitsAttempted += fight.getOpponent().getAttackCount() - fight.getOpponent().getTotalMagicAttackCount();
-			totalOpponentRobeHits += fight.getOpponent().getRobeHits();
-			totalOpponentRobeHitsAttempted += fight.getCompetitor().getAttackCount() - fight.getCompetitor().getTotalMagicAttackCount();
-
-			if (fight.getCompetitor().isDead())
-			{
-				numDeaths++;
-
-				deathTotalExpectedDmg += fight.getCompetitor().getExpectedDamage();
-				deathTotalExpectedDmgDiff += fight.getCompetitorExpectedDmgDiff();
-
-				deathTotalDmgDealt += fight.getCompetitor().getDamageDealt();
-				deathTotalDmgDealtDiff += fight.getCompetitorDmgDealtDiff();
-			}
-			if (fight.getOpponent().isDead())
-			{
-				numKills++;
-
-				killTotalExpectedDmg += fight.getCompetitor().getExpectedDamage();
-				killTotalExpectedDmgDiff += fight.getCompetitorExpectedDmgDiff();
-
-				killTotalDmgDealt += fight.getCompetitor().getDamageDealt();
-				killTotalDmgDealtDiff += fight.getCompetitorDmgDealtDiff();
-			}
-
-			totalExpectedDmg += fight.getCompetitor().getExpectedDamage();
-			totalExpectedDmgDiff += fight.getCompetitorExpectedDmgDiff();
-
-			totalDmgDealt += fight.getCompetitor().getDamageDealt();
-			totalDmgDealtDiff += fight.getCompetitorDmgDealtDiff();
-
-			// Calculate KO chances & sum % for this fight and add to totals if applicable
-			int fightCompetitorKoChances = 0;
-			double fightCompetitorSurvivalProb = 1.0;
-			int fightOpponentKoChances = 0;
-			double fightOpponentSurvivalProb = 1.0;
-			boolean fightHasKoData = false;
-			List<FightLogEntry> logs = fight.getAllFightLogEntries();
-			for (FightLogEntry log : logs)
-			{
-				Double koChance = log.getKoChance();
-				if (koChance != null)
-				{
-					fightHasKoData = true;
-					if (log.attackerName.equals(fight.getCompetitor().getName()))
-					{
-						fightCompetitorKoChances++;
-						fightCompetitorSurvivalProb *= (1.0 - koChance);
-					}
-					else
-					{
-						fightOpponentKoChances++;
-						fightOpponentSurvivalProb *= (1.0 - koChance);
-					}
-				}
-			}
-			if (fightHasKoData)
-			{
-				numFightsWithKoChance++;
-				totalCompetitorKoChances += fightCompetitorKoChances;
-				totalOpponentKoChances += fightOpponentKoChances;
-				double fightCompetitorKoProb = (fightCompetitorKoChances > 0) ? (1.0 - fightCompetitorSurvivalProb) : 0.0;
-				double fightOpponentKoProb = (fightOpponentKoChances > 0) ? (1.0 - fightOpponentSurvivalProb) : 0.0;
-				totalCompetitorKoProbSum += fightCompetitorKoProb;
-				totalOpponentKoProbSum += fightOpponentKoProb;
-			}
+			queueLabelsUpdate();
 		}
+	}
 
-		// Calculate average robe hits
-		avgCompetitorRobeHits = numFights != 0 ? totalCompetitorRobeHits / numFights : 0;
-		avgCompetitorRobeHitsPercentage = totalCompetitorRobeHitsAttempted != 0 ? (totalCompetitorRobeHits / totalCompetitorRobeHitsAttempted) * 100.0 : 0;
-		avgOpponentRobeHits = numFights != 0 ? totalOpponentRobeHits / numFights : 0;
-		avgOpponentRobeHitsPercentage = totalOpponentRobeHitsAttempted != 0 ? (totalOpponentRobeHits / totalOpponentRobeHitsAttempted) * 100.0 : 0;
-
-		// Recalculate averages for all stats
-		avgExpectedDmg = numFights != 0 ? totalExpectedDmg / numFights : 0;
-		avgExpectedDmgDiff = numFights != 0 ? totalExpectedDmgDiff / numFights : 0;
-
-		avgDmgDealt = numFights != 0 ? totalDmgDealt / numFights : 0;
-		avgDmgDealtDiff = numFights != 0 ? totalDmgDealtDiff / numFights : 0;
-
-		killAvgExpectedDmg = numKills != 0 ? killTotalExpectedDmg / numKills : 0;
-		killAvgExpectedDmgDiff = numKills != 0 ? killTotalExpectedDmgDiff / numKills : 0;
-
-		deathAvgExpectedDmg = numDeaths != 0 ? deathTotalExpectedDmg / numDeaths : 0;
-		deathAvgExpectedDmgDiff = numDeaths != 0 ? deathTotalExpectedDmgDiff / numDeaths : 0;
-
-		killAvgDmgDealt = numKills != 0 ? killTotalDmgDealt / numKills : 0;
-		killAvgDmgDealtDiff = numKills != 0 ? killTotalDmgDealtDiff / numKills : 0;
-
-		deathAvgDmgDealt = numDeaths != 0 ? deathTotalDmgDealt / numDeaths : 0;
-		deathAvgDmgDealtDiff = numDeaths != 0 ? deathTotalDmgDealtDiff / numDeaths : 0;
-
-		avgHpHealed = numFights != 0 ? (double) totalStats.getHpHealed() / numFights : 0;
-
-		// Recalculate KO averages using the count of fights with data
-		avgCompetitorKoChances = numFightsWithKoChance != 0 ? totalCompetitorKoChances / numFightsWithKoChance : 0;
-		avgOpponentKoChances = numFightsWithKoChance != 0 ? totalOpponentKoChances / numFightsWithKoChance : 0;
-		avgCompetitorKoProb = numFightsWithKoChance != 0 ? totalCompetitorKoProbSum / numFightsWithKoChance : 0;
-		avgOpponentKoProb = numFightsWithKoChance != 0 ? totalOpponentKoProbSum / numFightsWithKoChance : 0;
-
-		avgGhostBarrageCount = numFights != 0 ? (double) totalStats.getGhostBarrageCount() / numFights : 0;
-		avgGhostBarrageExpectedDamage = totalStats.getGhostBarrageCount() != 0 ? totalStats.getGhostBarrageExpectedDamage() / totalStats.getGhostBarrageCount() : 0;
-
-		SwingUtilities.invokeLater(this::setLabels);
+	public boolean hasFight(FightPerformance fight)
+	{
+		return stats.contains(fight);
 	}
 
 	// resets only data, not ui
 	public void reset()
 	{
-		numFights = 0;
-		numDeaths = 0;
-		numKills = 0;
-
-		totalExpectedDmg = 0;
-		totalExpectedDmgDiff = 0;
-		killTotalExpectedDmg = 0;
-		killTotalExpectedDmgDiff = 0;
-		deathTotalExpectedDmg = 0;
-		deathTotalExpectedDmgDiff = 0;
-		totalDmgDealt = 0;
-		totalDmgDealtDiff = 0;
-		killTotalDmgDealt = 0;
-		killTotalDmgDealtDiff = 0;
-		deathTotalDmgDealt = 0;
-		deathTotalDmgDealtDiff = 0;
-
-		avgExpectedDmg = 0;
-		avgExpectedDmgDiff = 0;
-		killAvgExpectedDmg = 0;
-		killAvgExpectedDmgDiff = 0;
-		deathAvgExpectedDmg = 0;
-		deathAvgExpectedDmgDiff = 0;
-		avgDmgDealt = 0;
-		avgDmgDealtDiff = 0;
-		killAvgDmgDealt = 0;
-		killAvgDmgDealtDiff = 0;
-		deathAvgDmgDealt = 0;
-		deathAvgDmgDealtDiff = 0;
-
-		avgHpHealed = 0;
-
-		totalCompetitorRobeHits = 0;
-		totalCompetitorRobeHitsAttempted = 0;
-		totalOpponentRobeHits = 0;
-		totalOpponentRobeHitsAttempted = 0;
-		avgCompetitorRobeHits = 0;
-		avgCompetitorRobeHitsPercentage = 0;
-		avgOpponentRobeHits = 0;
-		avgOpponentRobeHitsPercentage = 0;
-
-		// Reset KO chance stats
-		totalCompetitorKoChances = 0;
-		totalOpponentKoChances = 0;
-		totalCompetitorKoProbSum = 0;
-		totalOpponentKoProbSum = 0;
-		avgCompetitorKoChances = 0;
-		avgOpponentKoChances = 0;
-		avgCompetitorKoProb = 0;
-		avgOpponentKoProb = 0;
-		numFightsWithKoChance = 0; // Reset new counter
-
-		avgGhostBarrageCount = 0;
-		avgGhostBarrageExpectedDamage = 0;
-
-		totalStats = new Fighter("Player");
+		stats.reset();
+	}
+
+	// update the labels once for any number of fights added/removed before the UI thread gets to it
+	private void queueLabelsUpdate()
+	{
+		if (!labelsUpdateQueued)
+		{
+			labelsUpdateQueued = true;
+			SwingUtilities.invokeLater(this::setLabels);
+		}
 	}
 
 	public void setConfigWarning(boolean enable)
@@ -0,0 +1,184 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import matsyir.pvpperformancetracker.models.FightType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledFightFilterTest
+{
+	private final Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+
+	private final FightPerformance aliceKill = fight("Alice", true, 330, "LMS_MAXMED", "2026-01-10");
+	private final FightPerformance bobDeath = fight("Bob", false, 330, "NORMAL", "2026-02-20");
+	private final FightPerformance albertKill = fight("Albert", true, 420, "NORMAL", "2026-03-30");
+	private final List<FightPerformance> history = Arrays.asList(aliceKill, bobDeath, albertKill);
+
+	// fights evaluated by the non-indexed "kill" term, to check which fights the index skipped
+	private final AtomicInteger killTermEvaluations = new AtomicInteger();
+
+	@Test
+	public void emptyFiltersMatchEveryFight()
+	{
+		assertSame(CompiledFightFilter.MATCH_ALL, compile(null));
+		assertSame(CompiledFightFilter.MATCH_ALL, compile("  "));
+		assertSame(CompiledFightFilter.MATCH_ALL, compile(" & | "));
+		assertEquals(history, compile("").select(index()));
+	}
+
+	@Test
+	public void orMatchesAnyTermInHistoryOrder()
+	{
+		List<FightPerformance> fights = compile("bob | alice").select(index());
+
+		assertEquals(Arrays.asList(aliceKill, bobDeath), fights);
+	}
+
+	@Test
+	public void andRequiresEveryTerm()
+	{
+		assertEquals(Collections.singletonList(aliceKill), compile("al & w330").select(index()));
+		assertEquals(Arrays.asList(aliceKill, albertKill), compile("kill & al").select(index()));
+		assertEquals(Collections.emptyList(), compile("bob & kill").select(index()));
+	}
+
+	@Test
+	public void andBindsTighterThanOr()
+	{
+		List<FightPerformance> fights = compile("kill & w420 | bob").select(index());
+
+		assertEquals(Arrays.asList(bobDeath, albertKill), fights);
+	}
+
+	@Test
+	public void indexedTermsSkipOtherFights()
+	{
+		compile("bob & kill").select(index());
+		assertEquals(1, killTermEvaluations.get());
+
+		killTermEvaluations.set(0);
+		compile("kill").select(index());
+		assertEquals(history.size(), killTermEvaluations.get());
+	}
+
+	@Test
+	public void fightsMatchedByManyTermsAreOnlySelectedOnce()
+	{
+		List<FightPerformance> fights = compile("a | al | alice | w330").select(index());
+
+		assertEquals(Arrays.asList(aliceKill, bobDeath, albertKill), fights);
+	}
+
+	@Test
+	public void indexFindsNamesByPrefixOrExactly()
+	{
+		FightFilterIndex index = index();
+
+		assertEquals(2, index.findByName("al", false).size());
+		assertEquals(0, index.findByName("al", true).size());
+		assertEquals(1, index.findByName("alice", true).size());
+		// every fight has the same competitor
+		assertEquals(3, index.findByName("me", true).size());
+		assertEquals(2, index.findByFightType(FightType.NORMAL).size());
+		assertEquals(2, index.getByWorld().get(330).size());
+	}
+
+	@Test
+	public void namesAreNormalized()
+	{
+		FightFilterIndex index = new FightFilterIndex();
+		FightPerformance fight = fight("Iron_Man-Btw", true, 330, "NORMAL", "2026-01-10");
+		index.sync(Collections.singletonList(fight));
+
+		assertEquals("iron man btw", index.get(fight).getOpponentName());
+		assertEquals(1, index.findByName(FightFilterIndex.normalizeName("IRON-MAN_BTW"), true).size());
+		assertEquals(1, index.findByName(FightFilterIndex.normalizeName("iron\u00A0m"), false).size());
+	}
+
+	@Test
+	public void syncKeepsOnlyTheGivenFights()
+	{
+		FightFilterIndex index = index();
+		FightFilterIndex.Entry aliceEntry = index.get(aliceKill);
+
+		index.sync(Arrays.asList(aliceKill, albertKill));
+
+		assertEquals(2, index.size());
+		assertSame(aliceEntry, index.get(aliceKill));
+		assertEquals(0, index.findByName("bob", false).size());
+		assertEquals(Collections.singletonList(albertKill), compile("w420 | bob").select(index));
+	}
+
+	@Test
+	public void removedFightsAreNoLongerSelected()
+	{
+		FightFilterIndex index = index();
+
+		assertTrue(index.remove(aliceKill));
+		assertFalse(index.remove(aliceKill));
+		assertEquals(Collections.singletonList(albertKill), compile("al").select(index));
+		assertEquals(1, index.getByWorld().get(330).size());
+	}
+
+	@Test
+	public void datesAreComparableInts()
+	{
+		long time = LocalDate.of(2026, 1, 31).atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+		assertEquals(20260131, FightFilterIndex.toDateInt(time));
+		assertEquals(20260220, index().get(bobDeath).getDate());
+	}
+
+	private FightFilterIndex index()
+	{
+		FightFilterIndex index = new FightFilterIndex();
+		index.sync(history);
+		return index;
+	}
+
+	private CompiledFightFilter compile(String filter)
+	{
+		return CompiledFightFilter.compile(filter, this::compileTerm);
+	}
+
+	// a few simple terms: "kill", "w<world>", or an opponent name prefix
+	private CompiledFightFilter.Term compileTerm(String term)
+	{
+		if (term.equals("kill"))
+		{
+			return e ->
+			{
+				killTermEvaluations.incrementAndGet();
+				return e.getFight().getOpponent().isDead();
+			};
+		}
+		if (term.startsWith("w"))
+		{
+			int world = Integer.parseInt(term.substring(1));
+			return CompiledFightFilter.indexed(e -> e.getWorld() == world,
+				index -> index.getByWorld().getOrDefault(world, new ArrayList<>()));
+		}
+
+		return CompiledFightFilter.indexed(e -> e.getOpponentName().startsWith(term),
+			index -> index.findByName(term, false));
+	}
+
+	private FightPerformance fight(String opponentName, boolean opponentDied, int world, String fightType, String date)
+	{
+		long time = LocalDate.parse(date).atTime(20, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		return gson.fromJson("{\"c\":{\"n\":\"Me\",\"x\":false},\"o\":{\"n\":\"" + opponentName + "\",\"x\":" + opponentDied + "},"
+			+ "\"t\":" + time + ",\"l\":\"" + fightType + "\",\"w\":" + world + "}", FightPerformance.class);
+	}
+}
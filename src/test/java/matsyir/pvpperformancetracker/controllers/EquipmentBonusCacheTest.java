@@ -0,0 +1,170 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import matsyir.pvpperformancetracker.models.RingData;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EquipmentBonusCacheTest
+{
+	private int calculations;
+
+	private EquipmentBonuses countingCalculator(int[] itemIds, RingData ringUsed)
+	{
+		calculations++;
+		int total = ringUsed == null ? 0 : ringUsed.ordinal();
+		for (int itemId : itemIds)
+		{
+			total += itemId;
+		}
+		// gear with a negative item id stands in for items whose stats couldn't be looked up
+		boolean complete = itemIds.length == 0 || itemIds[0] >= 0;
+		return new EquipmentBonuses(new int[] {total}, complete);
+	}
+
+	@Test
+	public void repeatedGearIsOnlyCalculatedOnce()
+	{
+		EquipmentBonusCache cache = new EquipmentBonusCache(4, this::countingCalculator);
+		EquipmentBonuses first = cache.get(new int[] {1, 2, 3}, RingData.NONE);
+		EquipmentBonuses second = cache.get(new int[] {1, 2, 3}, RingData.NONE);
+
+		assertSame(first, second);
+		assertEquals(1, calculations);
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(0.5, cache.getHitRate(), 0);
+	}
+
+	@Test
+	public void ringIsPartOfTheKey()
+	{
+		EquipmentBonusCache cache = new EquipmentBonusCache(4, this::countingCalculator);
+		cache.get(new int[] {1, 2, 3}, RingData.NONE);
+		cache.get(new int[] {1, 2, 3}, RingData.BERSERKER_RING_I);
+		cache.get(new int[] {1, 2, 3}, null);
+
+		assertEquals(3, calculations);
+		assertEquals(3, cache.size());
+	}
+
+	@Test
+	public void callerArrayChangesDontAffectCachedKeys()
+	{
+		EquipmentBonusCache cache = new EquipmentBonusCache(4, this::countingCalculator);
+		int[] gear = {1, 2, 3};
+		cache.get(gear, RingData.NONE);
+		gear[0] = 10;
+
+		assertArrayEquals(new int[] {15 + RingData.NONE.ordinal()}, cache.get(gear, RingData.NONE).toArray());
+		assertEquals(2, calculations);
+	}
+
+	@Test
+	public void leastRecentlyUsedGearIsEvicted()
+	{
+		EquipmentBonusCache cache = new EquipmentBonusCache(2, this::countingCalculator);
+		cache.get(new int[] {1}, RingData.NONE);
+		cache.get(new int[] {2}, RingData.NONE);
+		cache.get(new int[] {1}, RingData.NONE); // {2} is now the least recently used
+		cache.get(new int[] {3}, RingData.NONE);
+
+		assertEquals(2, cache.size());
+		cache.get(new int[] {1}, RingData.NONE);
+		assertEquals(3, calculations);
+		cache.get(new int[] {2}, RingData.NONE);
+		assertEquals(4, calculations);
+	}
+
+	@Test
+	public void clearResetsEntriesAndCounters()
+	{
+		EquipmentBonusCache cache = new EquipmentBonusCache(4, this::countingCalculator);
+		cache.get(new int[] {1}, RingData.NONE);
+		cache.get(new int[] {1}, RingData.NONE);
+
+		cache.clear();
+
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void incompleteBonusesAreNotCached()
+	{
+		EquipmentBonusCache cache = new EquipmentBonusCache(4, this::countingCalculator);
+		EquipmentBonuses bonuses = cache.get(new int[] {-1, 2}, RingData.NONE);
+		cache.get(new int[] {-1, 2}, RingData.NONE);
+
+		assertFalse(bonuses.isComplete());
+		assertEquals(1 + RingData.NONE.ordinal(), bonuses.get(0));
+		assertEquals(2, calculations);
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void modifyingReturnedBonusesDoesntAffectTheCache()
+	{
+		EquipmentBonusCache cache = new EquipmentBonusCache(4, this::countingCalculator);
+		int[] bonuses = {7};
+		cache.put(new int[] {1}, RingData.NONE, bonuses);
+		bonuses[0] = 0;
+		cache.get(new int[] {1}, RingData.NONE).toArray()[0] = 0;
+
+		assertEquals(7, cache.get(new int[] {1}, RingData.NONE).get(0));
+	}
+
+	@Test
+	public void missesDontBlockOtherLookups() throws Exception
+	{
+		CountDownLatch calculating = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		EquipmentBonusCache cache = new EquipmentBonusCache(4, (itemIds, ringUsed) ->
+		{
+			if (itemIds[0] == 1)
+			{
+				calculating.countDown();
+				try
+				{
+					release.await();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			return new EquipmentBonuses(new int[] {itemIds[0]}, true);
+		});
+		cache.put(new int[] {2}, RingData.NONE, new int[] {2});
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			Future<EquipmentBonuses> slowMiss = executor.submit(() -> cache.get(new int[] {1}, RingData.NONE));
+			assertTrue(calculating.await(5, TimeUnit.SECONDS));
+
+			// the slow calculation is still running, but cached & other missed gear can be looked up meanwhile
+			assertEquals(2, cache.get(new int[] {2}, RingData.NONE).get(0));
+			assertEquals(3, cache.get(new int[] {3}, RingData.NONE).get(0));
+
+			release.countDown();
+			assertEquals(1, slowMiss.get(5, TimeUnit.SECONDS).get(0));
+			assertEquals(3, cache.size());
+		}
+		finally
+		{
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.models.CombatLevels;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.FightType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FightChunkBinaryCodecTest
+{
+	private static final int[] MELEE_GEAR = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+	private static final int[] MAGE_GEAR = {13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24};
+
+	@BeforeClass
+	public static void setUpGson()
+	{
+		PvpPerformanceTrackerPlugin.GSON = PvpPerformanceTrackerPlugin.createFightDataGson(new Gson());
+	}
+
+	@Test
+	public void fightsAreReadBackAsTheyWereWritten() throws IOException
+	{
+		List<FightPerformance> fights = List.of(fight(1000), fight(5000));
+
+		FightPerformance[] readFights = FightChunkBinaryCodec.read(new ByteArrayInputStream(write(fights)));
+
+		assertEquals(2, readFights.length);
+		for (int i = 0; i < fights.size(); i++)
+		{
+			assertEquals(PvpPerformanceTrackerPlugin.GSON.toJson(fights.get(i)), PvpPerformanceTrackerPlugin.GSON.toJson(readFights[i]));
+		}
+	}
+
+	@Test
+	public void repeatedGearSetsShareTheSameArray() throws IOException
+	{
+		FightPerformance[] readFights = FightChunkBinaryCodec.read(new ByteArrayInputStream(write(List.of(fight(1000)))));
+
+		ArrayList<FightLogEntry> entries = readFights[0].competitor.getFightLogEntries();
+		assertSame(entries.get(0).getAttackerGear(), entries.get(2).getAttackerGear());
+		assertSame(entries.get(0).getDefenderGear(), readFights[0].opponent.getFightLogEntries().get(1).getAttackerGear());
+	}
+
+	@Test
+	public void releasedFightLogsStayReleased() throws IOException
+	{
+		FightPerformance fight = fight(1000);
+		fight.competitor.releaseFightLogEntries();
+
+		FightPerformance[] readFights = FightChunkBinaryCodec.read(new ByteArrayInputStream(write(List.of(fight))));
+
+		assertNull(readFights[0].competitor.getFightLogEntries());
+		assertEquals(fight.opponent.getFightLogEntries().size(), readFights[0].opponent.getFightLogEntries().size());
+	}
+
+	@Test
+	public void binaryChunkIsSmallerThanJson() throws IOException
+	{
+		List<FightPerformance> fights = List.of(fight(1000), fight(5000), fight(9000));
+
+		byte[] json = PvpPerformanceTrackerPlugin.GSON.toJson(fights).getBytes(StandardCharsets.UTF_8);
+
+		assertTrue(write(fights).length * 2 < json.length);
+	}
+
+	@Test
+	public void binaryChunksAreDetected() throws IOException
+	{
+		byte[] json = PvpPerformanceTrackerPlugin.GSON.toJson(List.of(fight(1000))).getBytes(StandardCharsets.UTF_8);
+		BufferedInputStream jsonIn = new BufferedInputStream(new ByteArrayInputStream(json));
+		BufferedInputStream binaryIn = new BufferedInputStream(new ByteArrayInputStream(write(List.of(fight(1000)))));
+
+		assertFalse(FightChunkBinaryCodec.isBinaryChunk(jsonIn));
+		assertTrue(FightChunkBinaryCodec.isBinaryChunk(binaryIn));
+		// the stream is reset, so it can still be read from the start
+		assertEquals(1, FightChunkBinaryCodec.read(binaryIn).length);
+	}
+
+	@Test(expected = IOException.class)
+	public void otherStreamsAreRejected() throws IOException
+	{
+		FightChunkBinaryCodec.read(new ByteArrayInputStream("[{}]".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static byte[] write(List<FightPerformance> fights) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FightChunkBinaryCodec.write(fights, out);
+		return out.toByteArray();
+	}
+
+	private static FightPerformance fight(int startTick)
+	{
+		FightPerformance fight = new FightPerformance();
+		fight.fightType = FightType.LMS_MAXMED;
+		fight.lastFightTime = startTick * 600L;
+		fight.competitor = new Fighter("Competitor");
+		fight.opponent = new Fighter("Opponent");
+		for (int i = 0; i < 30; i++)
+		{
+			int tick = startTick + i * 4;
+			FightLogEntry attack = new FightLogEntry(i % 2 == 0 ? MELEE_GEAR : MAGE_GEAR, 20 + i, 0.4 + i / 100.0, 0, 40 + i,
+				MAGE_GEAR, "Competitor", tick, tick * 600L);
+			attack.setAttackerLevels(new CombatLevels(118, 118, 99, 112, 99, 99 - i));
+			attack.setKoChance(i % 3 == 0 ? null : i / 30.0);
+			attack.setEstimatedHpBeforeHit(i % 4 == 0 ? null : 99 - i);
+			attack.setDisplayHpAfter(-i);
+			fight.competitor.getFightLogEntries().add(attack);
+
+			fight.opponent.getFightLogEntries().add(new FightLogEntry(MAGE_GEAR, 30, 0.6, 0, 30, MELEE_GEAR, "Opponent",
+				tick + 2, (tick + 2) * 600L));
+		}
+		return fight;
+	}
+}
@@ -0,0 +1,120 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import java.io.IOException;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.FightType;
+import net.runelite.api.HeadIcon;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FightDataTypeAdapterFactoryTest
+{
+	// a saved fight using every serialized field, with a sparse entry and a fighter without base levels
+	private static final String FIGHT_JSON = "{"
+		+ "\"c\":{\"n\":\"Competitor\",\"a\":2,\"s\":1,\"d\":31.25,\"h\":40,\"z\":1,\"m\":1,\"M\":0.75,\"p\":2,\"g\":1,\"y\":12.5,"
+		+ "\"H\":12,\"rh\":1,\"x\":false,\"l\":["
+		+ "{\"t\":600000,\"T\":1000,\"f\":true,\"G\":[1,2,3],\"O\":\"MAGIC\",\"m\":\"MELEE_DAGGER_SLASH\",\"d\":20.5,\"a\":0.4567,"
+		+ "\"h\":45,\"l\":0,\"s\":false,\"C\":{\"a\":118,\"s\":118,\"d\":99,\"r\":112,\"m\":99,\"h\":99},\"k\":0.1254,\"eH\":80,"
+		+ "\"oH\":99,\"mC\":1,\"aD\":30,\"g\":[4,5,6],\"o\":\"RANGED\",\"E\":true,\"S\":false,\"p\":1234,\"R\":11773,\"A\":20997,"
+		+ "\"expectedHits\":2,\"GMS\":false,\"displayHpBefore\":80,\"displayHpAfter\":50,\"displayKoChance\":0.125,"
+		+ "\"isPartOfTickGroup\":true},"
+		+ "{\"t\":603000,\"T\":1005,\"f\":false,\"G\":[1,2,3],\"d\":0.0,\"a\":0.0,\"h\":0,\"l\":0,\"s\":true,\"mC\":0,\"E\":false,"
+		+ "\"S\":false,\"p\":0,\"expectedHits\":0,\"GMS\":true,\"isPartOfTickGroup\":false}],"
+		+ "\"b\":{\"a\":99,\"s\":99,\"d\":99,\"r\":99,\"m\":99,\"h\":99}},"
+		+ "\"o\":{\"n\":\"Opponent\",\"a\":1,\"s\":0,\"d\":10.0,\"h\":0,\"z\":0,\"m\":0,\"M\":0.0,\"p\":0,\"g\":0,\"y\":0.0,"
+		+ "\"H\":0,\"rh\":0,\"x\":true,\"l\":[]},"
+		+ "\"t\":603000,\"l\":\"LMS_MAXMED\",\"w\":390,\"fightID\":\"fight-1\",\"v\":\"1.7.0\",\"pn\":\"Uploader\","
+		+ "\"i\":{\"s\":[1,2],\"e\":[3],\"c\":[0,64]}}";
+
+	private final Gson reflectiveGson = new GsonBuilder()
+		.excludeFieldsWithoutExposeAnnotation()
+		.registerTypeAdapter(Double.class, (JsonSerializer<Double>) (value, theType, context) ->
+			new JsonPrimitive(FightDataTypeAdapterFactory.roundDouble(value)))
+		.create();
+	private final Gson streamingGson = PvpPerformanceTrackerPlugin.createFightDataGson(new Gson());
+
+	@Test
+	public void writesTheSameJsonAsReflection()
+	{
+		FightPerformance fight = reflectiveGson.fromJson(FIGHT_JSON, FightPerformance.class);
+
+		assertEquals(reflectiveGson.toJson(fight), streamingGson.toJson(fight));
+	}
+
+	@Test
+	public void readsTheSameFightAsReflection()
+	{
+		FightPerformance reflectiveFight = reflectiveGson.fromJson(FIGHT_JSON, FightPerformance.class);
+		FightPerformance streamedFight = streamingGson.fromJson(FIGHT_JSON, FightPerformance.class);
+
+		assertEquals(reflectiveGson.toJson(reflectiveFight), reflectiveGson.toJson(streamedFight));
+		FightLogEntry entry = streamedFight.competitor.getFightLogEntries().get(0);
+		assertEquals(HeadIcon.RANGED, entry.getDefenderOverhead());
+		assertEquals(FightType.LMS_MAXMED, streamedFight.fightType);
+		assertArrayEquals(new int[] {0, 64}, streamedFight.getInventorySnapshots().getChanges());
+	}
+
+	@Test
+	public void fightArraysRoundTrip()
+	{
+		FightPerformance[] fights = streamingGson.fromJson("[" + FIGHT_JSON + "," + FIGHT_JSON + "]", FightPerformance[].class);
+
+		assertEquals(reflectiveGson.toJson(fights), streamingGson.toJson(fights));
+	}
+
+	@Test
+	public void nullAndUnknownFieldsAreSkipped()
+	{
+		String json = "{\"c\":{\"n\":null,\"a\":3,\"future\":{\"x\":[1,{\"y\":2}]},\"l\":[{\"T\":5,\"k\":null}]},\"o\":null,\"zz\":1}";
+
+		FightPerformance fight = streamingGson.fromJson(json, FightPerformance.class);
+
+		assertNull(fight.competitor.getName());
+		assertEquals(3, fight.competitor.getAttackCount());
+		assertEquals(5, fight.competitor.getFightLogEntries().get(0).getTick());
+		assertNull(fight.competitor.getFightLogEntries().get(0).getKoChance());
+		assertNull(fight.opponent);
+	}
+
+	@Test
+	public void fightLogsCanBeLeftOut()
+	{
+		Gson noFightLogsGson = streamingGson.newBuilder().registerTypeAdapterFactory(new FightDataTypeAdapterFactory(false)).create();
+		FightPerformance fight = streamingGson.fromJson(FIGHT_JSON, FightPerformance.class);
+
+		JsonObject json = streamingGson.fromJson(noFightLogsGson.toJson(fight), JsonObject.class);
+
+		assertFalse(json.getAsJsonObject("c").has("l"));
+		assertFalse(json.getAsJsonObject("o").has("l"));
+		assertTrue(json.getAsJsonObject("c").has("b"));
+	}
+
+	@Test
+	public void uploadPayloadUsesTheHiddenName() throws IOException
+	{
+		FightPerformance fight = streamingGson.fromJson(FIGHT_JSON, FightPerformance.class);
+
+		String json = PvpHubUploader.serializeFightUpload(fight, streamingGson, 600, "Hidden");
+		JsonObject payload = streamingGson.fromJson(json, JsonObject.class);
+
+		assertTrue(json.startsWith("{\"c\":{\"n\":\"Hidden\","));
+		assertEquals("Opponent", payload.getAsJsonObject("o").get("n").getAsString());
+		assertEquals("fight-1", payload.get("fightID").getAsString());
+		assertEquals(600, payload.get("publicDelaySeconds").getAsInt());
+		assertEquals(2, payload.getAsJsonObject("c").getAsJsonArray("l").size());
+		assertFalse(payload.has("pn"));
+		assertEquals(1, payload.getAsJsonObject("i").getAsJsonArray("e").size());
+		assertFalse(payload.getAsJsonObject("i").has("c"));
+	}
+}
@@ -0,0 +1,143 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerConfig;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.AssumedPrayers;
+import matsyir.pvpperformancetracker.models.CombatLevels;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.FightType;
+import matsyir.pvpperformancetracker.models.LocalPlayerState;
+import matsyir.pvpperformancetracker.models.RingData;
+import net.runelite.api.HitsplatID;
+import net.runelite.api.ItemID;
+import net.runelite.api.Player;
+import net.runelite.api.PlayerComposition;
+import net.runelite.api.SpriteID;
+import net.runelite.api.kit.KitType;
+import org.junit.Test;
+
+import static matsyir.pvpperformancetracker.controllers.TestFixtures.player;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("deprecation") // ItemID deprecation isnt a problem
+public class FightEventRecorderTest
+{
+	private static final int TICK = 1000;
+
+	private static final int[] MELEE_BONUSES = {41, 98, 13, -22, -6, 118, 111, 106, -11, 122, 89, 0, 0};
+	private static final int[] MAGE_BONUSES = {0, 0, 0, 119, 0, 28, 24, 36, 82, 0, 4, 0, 20};
+
+	@Test
+	public void recordingIsReplayedRecordForRecord() throws IOException
+	{
+		Player competitor = player("Local", 10, 10);
+		Player opponent = player("Opponent", 30, 30);
+		FightPerformance fight = new FightPerformance(competitor, opponent, FightType.LMS_MAXMED, 390, 0,
+			new CombatLevels(99, 99, 99, 99, 99, 99), 99, 0);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FightEventRecorder recorder = new FightEventRecorder(bytes);
+		recorder.recordFightStart(TICK, fight, new CombatLevels(99, 99, 99, 99, 99, 99), 99, 0);
+		recorder.recordHitsplat(TICK, opponent, "Opponent", HitsplatID.DAMAGE_ME, 25);
+		recorder.recordHpPoll();
+		recorder.recordCompetitorHp(80);
+		recorder.recordCompetitorLevels(TICK, new CombatLevels(118, 118, 99, 112, 99, 80));
+		recorder.recordFightEndCheck(TICK, fight);
+		recorder.recordFightEnd(TICK, "Opponent");
+		recorder.close();
+
+		FightEventReplayer.Result result = FightEventReplayer.replay(new ByteArrayInputStream(bytes.toByteArray()));
+
+		assertEquals(recorder.getRecordCount(), result.getRecordCount());
+		// the fight never started, so it isn't kept
+		assertTrue(result.getFights().isEmpty());
+	}
+
+	@Test
+	public void attacksAreReplayedWithTheRecordedLocalPlayerState() throws IOException
+	{
+		PvpPerformanceTrackerConfig previousConfig = PvpPerformanceTrackerPlugin.CONFIG;
+		PvpPerformanceTrackerPlugin.CONFIG = TestFixtures.defaultConfig();
+		try
+		{
+			// only the bonuses with the recorded ring are known: the configured ring would need the ItemManager
+			int[] attackerGear = gear(KitType.WEAPON, ItemID.ABYSSAL_WHIP);
+			int[] defenderGear = gear(KitType.TORSO, ItemID.ANCESTRAL_ROBE_TOP);
+			PvpDamageCalc.getBonusCache().put(attackerGear, RingData.BRIMSTONE_RING, MELEE_BONUSES);
+			PvpDamageCalc.getBonusCache().put(defenderGear, PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), MAGE_BONUSES);
+
+			Player competitor = player("Local", 10, 10, attackerGear);
+			Player opponent = player("Opponent", 30, 30, defenderGear);
+			CombatLevels levels = new CombatLevels(99, 99, 99, 99, 99, 99);
+			LocalPlayerState localPlayerState = new LocalPlayerState("Local", 52, ItemID.BRIMSTONE_RING, null);
+			FightPerformance fight = new FightPerformance(competitor, opponent, FightType.NORMAL, 390, 0, levels, 99, 0);
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			FightEventRecorder recorder = new FightEventRecorder(bytes);
+			recorder.recordFightStart(TICK, fight, levels, 99, 0);
+			recorder.recordAnimation(TICK, System.currentTimeMillis(), competitor, opponent, AnimationData.MELEE_ABYSSAL_WHIP,
+				levels, localPlayerState, SpriteID.PRAYER_PIETY);
+			recorder.recordFightEnd(TICK + 1, "Opponent");
+			recorder.close();
+
+			// nothing is read from the client while replaying, there is none here.
+			FightEventReplayer.Result result = FightEventReplayer.replay(new ByteArrayInputStream(bytes.toByteArray()));
+
+			assertEquals(1, result.getFights().size());
+			Fighter replayedCompetitor = result.getFights().get(0).getCompetitor();
+			assertEquals(1, replayedCompetitor.getAttackCount());
+			FightLogEntry attack = replayedCompetitor.getFightLogEntries().get(0);
+
+			PvpDamageCalc expected = new PvpDamageCalc(FightType.NORMAL);
+			expected.updateDamageStats(competitor, opponent, true, AnimationData.MELEE_ABYSSAL_WHIP,
+				AssumedPrayers.assumedOffensivePray(AnimationData.AttackStyle.SLASH, FightType.NORMAL, 52, levels.def), localPlayerState);
+			assertEquals(expected.getAverageHit(), attack.getExpectedDamage(), 0);
+			assertEquals(expected.getAccuracy(), attack.getAccuracy(), 0);
+			assertEquals(expected.getMaxHit(), attack.getMaxHit());
+			assertEquals(expected.getAverageHit(), replayedCompetitor.getExpectedDamage(), 0);
+			assertEquals(Integer.valueOf(ItemID.BRIMSTONE_RING), attack.getAttackerRingItemId());
+			assertNull(attack.getAttackerAmmoItemId());
+		}
+		finally
+		{
+			PvpPerformanceTrackerPlugin.CONFIG = previousConfig;
+		}
+	}
+
+	@Test
+	public void unchangedPlayerStatesAreOnlyRecordedOnce() throws IOException
+	{
+		Player competitor = player("Local", 10, 10);
+		Player opponent = player("Opponent", 30, 30);
+		FightPerformance fight = new FightPerformance(competitor, opponent, FightType.LMS_MAXMED, 390, 0,
+			null, 99, 0);
+
+		FightEventRecorder recorder = new FightEventRecorder(new ByteArrayOutputStream());
+		recorder.recordFightEndCheck(TICK, fight);
+		int firstCheckRecords = recorder.getRecordCount();
+		recorder.recordFightEndCheck(TICK + 1, fight);
+
+		// 2 player states + the check, then only the check
+		assertEquals(3, firstCheckRecords);
+		assertEquals(4, recorder.getRecordCount());
+	}
+
+	@Test(expected = IOException.class)
+	public void otherStreamsAreRejected() throws IOException
+	{
+		FightEventReplayer.replay(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}));
+	}
+
+	private static int[] gear(KitType slot, int itemId)
+	{
+		int[] equipmentIds = new int[KitType.values().length];
+		equipmentIds[slot.getIndex()] = itemId + PlayerComposition.ITEM_OFFSET;
+		return equipmentIds;
+	}
+}
@@ -0,0 +1,155 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.util.Arrays;
+import java.util.List;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerConfig;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.FightType;
+import net.runelite.api.ItemID;
+import net.runelite.api.PlayerComposition;
+import net.runelite.api.SpriteID;
+import net.runelite.api.kit.KitType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("deprecation") // ItemID deprecation isnt a problem
+public class FightHistoryRecalculatorTest
+{
+	private static final double DELTA = 0.0001;
+
+	private static final int[] MELEE_BONUSES = {41, 98, 13, -22, -6, 118, 111, 106, -11, 122, 89, 0, 0};
+	private static final int[] MAGE_BONUSES = {0, 0, 0, 119, 0, 28, 24, 36, 82, 0, 4, 0, 20};
+	private static final int[] ATTACKER_GEAR = gear(KitType.WEAPON, ItemID.GRANITE_MAUL);
+	private static final int[] DEFENDER_GEAR = gear(KitType.TORSO, ItemID.ANCESTRAL_ROBE_TOP);
+
+	private static final Gson GSON = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+
+	private static PvpPerformanceTrackerConfig previousConfig;
+
+	@BeforeClass
+	public static void installConfig()
+	{
+		previousConfig = PvpPerformanceTrackerPlugin.CONFIG;
+		PvpPerformanceTrackerPlugin.CONFIG = TestFixtures.defaultConfig();
+		PvpDamageCalc.getBonusCache().put(ATTACKER_GEAR, PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), MELEE_BONUSES);
+		PvpDamageCalc.getBonusCache().put(DEFENDER_GEAR, PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), MAGE_BONUSES);
+	}
+
+	@AfterClass
+	public static void restoreConfig()
+	{
+		PvpPerformanceTrackerPlugin.CONFIG = previousConfig;
+	}
+
+	@Test
+	public void gmaulSpecsHittingTwiceInATickKeepTheirScaledDamage()
+	{
+		FightPerformance fight = fight("Me", "Them", "[" + gmaulSpec(5, 20) + "," + gmaulSpec(5, null) + "]");
+		PvpDamageCalc single = singleSpecStats();
+
+		FightHistoryRecalculator.recalculate(fight, fight).apply();
+
+		List<FightLogEntry> entries = fight.getCompetitor().getFightLogEntries();
+		for (FightLogEntry entry : entries)
+		{
+			assertEquals(2 * single.getAverageHit(), entry.getExpectedDamage(), DELTA);
+			assertEquals(2 * single.getMinHit(), entry.getMinHit());
+			assertEquals(2 * single.getMaxHit(), entry.getMaxHit());
+		}
+		// like when they're logged, the fighter's totals don't include the scaling
+		assertEquals(2 * single.getAverageHit(), fight.getCompetitor().getExpectedDamage(), DELTA);
+	}
+
+	@Test
+	public void koChancesAreRecalculatedFromTheDisplayedHp()
+	{
+		FightPerformance fight = fight("Me", "Them", "[" + gmaulSpec(5, 20) + "," + gmaulSpec(5, null) + "]");
+		PvpDamageCalc single = singleSpecStats();
+
+		FightHistoryRecalculator.recalculate(fight, fight).apply();
+
+		FightLogEntry withHp = fight.getCompetitor().getFightLogEntries().get(0);
+		Double expectedKoChance = HitsplatMatcher.calculateKoChance(withHp, 20, single.getAccuracy(),
+			2 * single.getMinHit(), 2 * single.getMaxHit(), single.getDamageRollDistribution(), single.getDamageRollHitCount());
+		assertNotNull(withHp.getKoChance());
+		assertEquals(expectedKoChance, withHp.getKoChance(), DELTA);
+		assertEquals(withHp.getKoChance(), withHp.getDisplayKoChance());
+
+		// the previously saved KO chance is dropped without an hp to compare against
+		FightLogEntry withoutHp = fight.getCompetitor().getFightLogEntries().get(1);
+		assertNull(withoutHp.getKoChance());
+		assertNull(withoutHp.getDisplayKoChance());
+	}
+
+	@Test
+	public void swappedSavedCopiesUpdateTheMatchingFighter()
+	{
+		FightPerformance savedCopy = fight("Them", "Me", "[" + gmaulSpec(5, 20) + "]");
+		FightPerformance released = GSON.fromJson("{\"c\":{\"n\":\"Me\",\"x\":false},\"o\":{\"n\":\"Them\",\"x\":false}}",
+			FightPerformance.class);
+		released.fightType = FightType.NORMAL;
+
+		FightHistoryRecalculator.recalculate(released, savedCopy).apply();
+
+		assertEquals(0, released.getCompetitor().getExpectedDamage(), DELTA);
+		assertEquals(singleSpecStats().getAverageHit(), released.getOpponent().getExpectedDamage(), DELTA);
+	}
+
+	@Test
+	public void recalculatingWithUnchangedSettingsLeavesTheSavedValues()
+	{
+		FightPerformance savedCopy = fight("Me", "Them", "[" + gmaulSpec(5, 20) + "," + gmaulSpec(5, null) + "]");
+		FightHistoryRecalculator.Result result = FightHistoryRecalculator.recalculate(savedCopy, savedCopy);
+		assertTrue(result.changesLogSource());
+		result.applyToLogSource();
+
+		// e.g a setting toggled back before the results were saved: the chunk doesn't need to be re-written
+		assertFalse(FightHistoryRecalculator.recalculate(savedCopy, savedCopy).changesLogSource());
+	}
+
+	private static PvpDamageCalc singleSpecStats()
+	{
+		PvpDamageCalc calc = new PvpDamageCalc(FightType.NORMAL);
+		calc.updateDamageStats(GSON.fromJson(gmaulSpec(5, null), FightLogEntry.class), null);
+		return calc;
+	}
+
+	private static FightPerformance fight(String competitorName, String opponentName, String competitorEntries)
+	{
+		FightPerformance fight = GSON.fromJson("{\"c\":{\"n\":\"" + competitorName + "\",\"x\":false,\"l\":" + competitorEntries + "},"
+			+ "\"o\":{\"n\":\"" + opponentName + "\",\"x\":false,\"l\":[]}}", FightPerformance.class);
+		fight.fightType = FightType.NORMAL;
+		return fight;
+	}
+
+	// a gmaul spec which matched one hitsplat, with a stale KO chance from before the recalculation.
+	private static String gmaulSpec(int tick, Integer displayHpBefore)
+	{
+		return "{\"f\":true,\"T\":" + tick
+			+ ",\"G\":" + Arrays.toString(ATTACKER_GEAR)
+			+ ",\"m\":\"" + AnimationData.MELEE_GRANITE_MAUL_SPEC.name() + "\""
+			+ ",\"g\":" + Arrays.toString(DEFENDER_GEAR)
+			+ ",\"p\":" + SpriteID.PRAYER_PIETY
+			+ ",\"GMS\":true,\"mC\":1,\"k\":0.5"
+			+ (displayHpBefore == null ? "" : ",\"displayHpBefore\":" + displayHpBefore)
+			+ "}";
+	}
+
+	private static int[] gear(KitType slot, int itemId)
+	{
+		int[] equipmentIds = new int[KitType.values().length];
+		equipmentIds[slot.getIndex()] = itemId + PlayerComposition.ITEM_OFFSET;
+		return equipmentIds;
+	}
+}
@@ -0,0 +1,79 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FightJournalTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void setUpGson()
+	{
+		PvpPerformanceTrackerPlugin.GSON = PvpPerformanceTrackerPlugin.createFightDataGson(new Gson());
+	}
+
+	@Test
+	public void recordsAreReadBackInOrder() throws IOException
+	{
+		File journal = folder.newFile();
+
+		assertTrue(FightJournal.appendTo(journal, record(FightJournal.RecordType.DELETED, "fight-1")));
+		assertTrue(FightJournal.appendTo(journal, record(FightJournal.RecordType.FAVORITED, "fight-2")));
+
+		List<FightJournal.Record> records = FightJournal.readRecordsFrom(journal);
+		assertEquals(2, records.size());
+		assertEquals(FightJournal.RecordType.DELETED, records.get(0).getType());
+		assertEquals("fight-2", records.get(1).getFightKey());
+	}
+
+	@Test
+	public void appendingAfterATruncatedRecordKeepsTheNewRecord() throws IOException
+	{
+		File journal = folder.newFile();
+		FightJournal.appendTo(journal, record(FightJournal.RecordType.DELETED, "fight-1"));
+		// the client crashed while writing the second record
+		String partialRecord = record(FightJournal.RecordType.DELETED, "fight-2").toJson().substring(0, 10);
+		Files.write(journal.toPath(), partialRecord.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+		assertTrue(FightJournal.appendTo(journal, record(FightJournal.RecordType.DELETED, "fight-3")));
+
+		List<FightJournal.Record> records = FightJournal.readRecordsFrom(journal);
+		assertEquals(2, records.size());
+		assertEquals("fight-1", records.get(0).getFightKey());
+		assertEquals("fight-3", records.get(1).getFightKey());
+		assertTrue(new String(Files.readAllBytes(journal.toPath()), StandardCharsets.UTF_8).endsWith("\n"));
+	}
+
+	@Test
+	public void appendingToAJournalWithOnlyATruncatedRecordStartsOver() throws IOException
+	{
+		File journal = folder.newFile();
+		Files.write(journal.toPath(), "{\"t\":\"d\",\"c\":".getBytes(StandardCharsets.UTF_8));
+
+		FightJournal.appendTo(journal, record(FightJournal.RecordType.DELETED, "fight-1"));
+
+		List<FightJournal.Record> records = FightJournal.readRecordsFrom(journal);
+		assertEquals(1, records.size());
+		assertEquals("fight-1", records.get(0).getFightKey());
+	}
+
+	private static FightJournal.Record record(FightJournal.RecordType type, String fightKey)
+	{
+		return new FightJournal.Record(type, "Fights-1.json.gz", fightKey);
+	}
+}
@@ -0,0 +1,168 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import matsyir.pvpperformancetracker.models.FightType;
+import net.runelite.api.Player;
+import org.junit.Test;
+
+import static matsyir.pvpperformancetracker.controllers.TestFixtures.player;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FightRegistryTest
+{
+	private final Player localPlayer = player("Local", null);
+
+	@Test
+	public void fightsAreFoundByOpponentName()
+	{
+		FightRegistry registry = new FightRegistry();
+		FightRegistry.TrackedFight first = registry.add(fight(player("First", null)));
+		FightRegistry.TrackedFight second = registry.add(fight(player("Second", null)));
+
+		assertSame(first, registry.get("First"));
+		assertSame(second, registry.get("Second"));
+		assertNull(registry.get("Third"));
+		assertEquals(2, registry.getFights().size());
+	}
+
+	@Test
+	public void eachFightHasItsOwnHitsplatMatcher()
+	{
+		FightRegistry registry = new FightRegistry();
+		FightRegistry.TrackedFight first = registry.add(fight(player("First", null)));
+		FightRegistry.TrackedFight second = registry.add(fight(player("Second", null)));
+
+		assertNotNull(first.getHitsplatMatcher());
+		assertNotNull(second.getHitsplatMatcher());
+		assertNotSame(first.getHitsplatMatcher(), second.getHitsplatMatcher());
+	}
+
+	@Test
+	public void newFightAgainstTheSameOpponentReplacesTheOldOne()
+	{
+		FightRegistry registry = new FightRegistry();
+		registry.add(fight(player("First", null)));
+		FightRegistry.TrackedFight replacement = registry.add(fight(player("First", null)));
+
+		assertSame(replacement, registry.get("First"));
+		assertEquals(1, registry.getFights().size());
+	}
+
+	@Test
+	public void oldestUnstartedFightIsEvictedOnceFull()
+	{
+		FightRegistry registry = new FightRegistry();
+		for (int i = 0; i < FightRegistry.MAX_TRACKED_FIGHTS; i++)
+		{
+			registry.add(fight(player("Opponent" + i, null)));
+		}
+
+		assertNotNull(registry.add(fight(player("Newest", null))));
+		assertEquals(FightRegistry.MAX_TRACKED_FIGHTS, registry.getFights().size());
+		assertNull(registry.get("Opponent0"));
+		assertNotNull(registry.get("Opponent1"));
+	}
+
+	@Test
+	public void primaryFightMovesToTheNewestUnstartedFight()
+	{
+		FightRegistry registry = new FightRegistry();
+		FightRegistry.TrackedFight first = registry.add(fight(player("First", null)));
+		FightRegistry.TrackedFight second = registry.add(fight(player("Second", null)));
+
+		assertSame(second, registry.getPrimary());
+
+		registry.onAttack(first);
+		assertSame(first, registry.getPrimary());
+
+		registry.remove(first);
+		assertSame(second, registry.getPrimary());
+
+		registry.remove(second);
+		assertNull(registry.getPrimary());
+		assertTrue(registry.isEmpty());
+	}
+
+	@Test
+	public void hitsplatsOnOpponentsGoToTheirFight()
+	{
+		FightRegistry registry = new FightRegistry();
+		Player first = player("First", null);
+		Player second = player("Second", null);
+		FightRegistry.TrackedFight firstFight = registry.add(fight(first));
+		FightRegistry.TrackedFight secondFight = registry.add(fight(second));
+
+		assertSame(firstFight, registry.getFightForHitsplat(first, localPlayer));
+		assertSame(secondFight, registry.getFightForHitsplat(second, localPlayer));
+		assertNull(registry.getFightForHitsplat(player("Bystander", null), localPlayer));
+	}
+
+	@Test
+	public void hitsplatsOnTheLocalPlayerGoToAnOpponentTargetingThem()
+	{
+		FightRegistry registry = new FightRegistry();
+		FightRegistry.TrackedFight attacking = registry.add(fight(player("Attacking", localPlayer)));
+		FightRegistry.TrackedFight idle = registry.add(fight(player("Idle", null)));
+
+		// the newest fight is the primary one, but its opponent isn't targeting the local player
+		assertSame(idle, registry.getPrimary());
+		assertSame(attacking, registry.getFightForHitsplat(localPlayer, localPlayer));
+
+		registry.remove(attacking);
+		assertSame(idle, registry.getFightForHitsplat(localPlayer, localPlayer));
+	}
+
+	@Test
+	public void pendingOpponentsDontHaveAFightUntilItStarts()
+	{
+		FightRegistry registry = new FightRegistry();
+		Player opponent = player("Opponent", null);
+		registry.addPendingOpponent(opponent);
+
+		assertTrue(registry.isEmpty());
+		assertTrue(registry.hasPendingOpponents());
+		assertNull(registry.get("Opponent"));
+
+		registry.add(fight(opponent));
+		assertFalse(registry.hasPendingOpponents());
+		assertNull(registry.removePendingOpponent("Opponent"));
+	}
+
+	@Test
+	public void onlyTheLatestPendingOpponentsAreKept()
+	{
+		FightRegistry registry = new FightRegistry();
+		for (int i = 0; i <= FightRegistry.MAX_TRACKED_FIGHTS; i++)
+		{
+			registry.addPendingOpponent(player("Opponent" + i, null));
+		}
+
+		assertNull(registry.removePendingOpponent("Opponent0"));
+		assertNotNull(registry.removePendingOpponent("Opponent1"));
+		assertNotNull(registry.removePendingOpponent("Opponent" + FightRegistry.MAX_TRACKED_FIGHTS));
+	}
+
+	@Test
+	public void pendingOpponentsTargetingTheLocalPlayerAreOnlyUsedWithoutATrackedOne()
+	{
+		FightRegistry registry = new FightRegistry();
+		Player pending = player("Pending", localPlayer);
+		registry.addPendingOpponent(player("Idle", null));
+		registry.addPendingOpponent(pending);
+
+		assertSame(pending, registry.getPendingOpponentTargeting(localPlayer));
+
+		registry.add(fight(player("Attacking", localPlayer)));
+		assertNull(registry.getPendingOpponentTargeting(localPlayer));
+	}
+
+	private FightPerformance fight(Player opponent)
+	{
+		return new FightPerformance(localPlayer, opponent, FightType.LMS_MAXMED, 390, 0, null, 99, 0);
+	}
+}
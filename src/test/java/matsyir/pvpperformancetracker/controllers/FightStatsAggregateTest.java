@@ -0,0 +1,162 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FightStatsAggregateTest
+{
+	private static final double DELTA = 0.0001;
+
+	private final Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+	// skips the summary's background style, which can't be loaded without the plugin's resources
+	private final Gson summaryGson = new GsonBuilder()
+		.excludeFieldsWithoutExposeAnnotation()
+		.setExclusionStrategies(new ExclusionStrategy()
+		{
+			@Override
+			public boolean shouldSkipField(FieldAttributes f)
+			{
+				return f.getName().equals("bgStyle");
+			}
+
+			@Override
+			public boolean shouldSkipClass(Class<?> clazz)
+			{
+				return false;
+			}
+		})
+		.create();
+
+	@Test
+	public void averagesCoverEveryAddedFight()
+	{
+		FightStatsAggregate stats = new FightStatsAggregate();
+		stats.add(kill(), kill(), noKoChances());
+		stats.add(death(), death(), noKoChances());
+
+		assertEquals(2, stats.getFightCount());
+		assertEquals(1, stats.getKillCount());
+		assertEquals(1, stats.getDeathCount());
+		assertEquals(35, stats.getAvgExpectedDamage(), DELTA);
+		assertEquals(30, stats.getAvgDamageDealt(), DELTA);
+		assertEquals(40, stats.getKillAvgDamageDealt(), DELTA);
+		assertEquals(20, stats.getDeathAvgDamageDealt(), DELTA);
+		assertEquals(0, stats.getAvgDamageDealtDiff(), DELTA);
+		assertEquals(60, stats.createTotalStatsFighter("Player").getDamageDealt());
+	}
+
+	@Test
+	public void removingAFightRestoresThePreviousTotals()
+	{
+		FightStatsAggregate stats = new FightStatsAggregate();
+		FightPerformance kill = kill();
+		FightPerformance death = death();
+		stats.add(kill, kill, noKoChances());
+		double avgExpectedDamage = stats.getAvgExpectedDamage();
+
+		stats.add(death, death, noKoChances());
+		assertTrue(stats.remove(death));
+
+		assertEquals(1, stats.getFightCount());
+		assertEquals(0, stats.getDeathCount());
+		assertEquals(avgExpectedDamage, stats.getAvgExpectedDamage(), DELTA);
+		assertEquals(0, stats.getDeathAvgDamageDealt(), DELTA);
+		assertFalse(stats.remove(death));
+	}
+
+	@Test
+	public void fightsAreOnlyAddedOnce()
+	{
+		FightStatsAggregate stats = new FightStatsAggregate();
+		FightPerformance kill = kill();
+
+		assertTrue(stats.add(kill, kill, noKoChances()));
+		assertFalse(stats.add(kill, kill, noKoChances()));
+		assertEquals(1, stats.getFightCount());
+	}
+
+	@Test
+	public void retainAllRemovesFilteredOutFights()
+	{
+		FightStatsAggregate stats = new FightStatsAggregate();
+		FightPerformance kill = kill();
+		FightPerformance death = death();
+		stats.add(kill, kill, noKoChances());
+		stats.add(death, death, noKoChances());
+
+		Set<FightPerformance> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+		kept.add(kill);
+
+		assertEquals(1, stats.retainAll(kept));
+		assertTrue(stats.contains(kill));
+		assertFalse(stats.contains(death));
+		assertEquals(40, stats.getAvgDamageDealt(), DELTA);
+	}
+
+	@Test
+	public void koAveragesOnlyCountFightsWithKoChances()
+	{
+		FightStatsAggregate stats = new FightStatsAggregate();
+		stats.add(kill(), kill(), summary("{\"ck\":2,\"cs\":0.5,\"ok\":1,\"os\":0.75}"));
+		stats.add(kill(), kill(), summary("{\"ck\":1,\"cs\":0.9,\"ok\":0,\"os\":1.0}"));
+		stats.add(death(), death(), noKoChances());
+
+		assertEquals(2, stats.getFightsWithKoChanceCount());
+		assertEquals(3, stats.getCompetitorKoChances());
+		assertEquals(1.5, stats.getAvgCompetitorKoChances(), DELTA);
+		assertEquals(0.3, stats.getAvgCompetitorKoProbability(), DELTA);
+		assertEquals(0.125, stats.getAvgOpponentKoProbability(), DELTA);
+	}
+
+	@Test
+	public void removingEveryFightClearsTheTotals()
+	{
+		FightStatsAggregate stats = new FightStatsAggregate();
+		FightPerformance kill = kill();
+		stats.add(kill, kill, summary("{\"ck\":1,\"cs\":0.3}"));
+
+		stats.remove(kill);
+
+		assertEquals(0, stats.getFightCount());
+		assertEquals(0, stats.getFightsWithKoChanceCount());
+		assertEquals(0, stats.getAvgCompetitorKoProbability(), DELTA);
+		assertEquals(0, stats.createTotalStatsFighter("Player").getExpectedDamage(), DELTA);
+	}
+
+	private FightPerformance kill()
+	{
+		return fight("{\"c\":{\"n\":\"Player\",\"a\":5,\"d\":45.5,\"h\":40,\"x\":false},"
+			+ "\"o\":{\"n\":\"Opponent\",\"a\":4,\"d\":30.0,\"h\":25,\"x\":true}}");
+	}
+
+	private FightPerformance death()
+	{
+		return fight("{\"c\":{\"n\":\"Player\",\"a\":3,\"d\":24.5,\"h\":20,\"x\":true},"
+			+ "\"o\":{\"n\":\"Opponent\",\"a\":6,\"d\":40.0,\"h\":35,\"x\":false}}");
+	}
+
+	private FightPerformance fight(String json)
+	{
+		return gson.fromJson(json, FightPerformance.class);
+	}
+
+	private FightSummary noKoChances()
+	{
+		return summary("{}");
+	}
+
+	private FightSummary summary(String json)
+	{
+		return summaryGson.fromJson(json, FightSummary.class);
+	}
+}
@@ -0,0 +1,64 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class HitsplatMatcherPendingAttacksTest
+{
+	private static final Gson GSON = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+
+	@Test
+	public void attacksThatCantBeMatchedArePruned()
+	{
+		FightPerformance fight = fight();
+		PendingAttackQueue pending = fight.getCompetitor().getPendingAttacks();
+		FightLogEntry expired = entry(100, true, false);
+		FightLogEntry recent = entry(104, true, false);
+		FightLogEntry splashed = entry(104, true, true);
+		FightLogEntry notFull = entry(104, false, false);
+		FightLogEntry processed = entry(104, true, false);
+		processed.setKoChanceCalculated(true);
+		pending.add(expired);
+		pending.add(recent);
+		pending.add(splashed);
+		pending.add(notFull);
+		pending.add(processed);
+
+		// melee attacks can still land up to 5 ticks after their match tick
+		new HitsplatMatcher().prunePendingAttacks(fight, 107);
+
+		assertEquals(1, pending.size());
+		assertSame(recent, pending.get(0));
+	}
+
+	@Test
+	public void pruningRunsOnTicksWithoutHitsplats()
+	{
+		FightPerformance fight = fight();
+		PendingAttackQueue pending = fight.getOpponent().getPendingAttacks();
+		pending.add(entry(100, true, false));
+
+		new HitsplatMatcher().processTick(fight, 120, TestFixtures.player("Me"), 99);
+
+		assertEquals(0, pending.size());
+	}
+
+	private static FightPerformance fight()
+	{
+		FightPerformance fight = new FightPerformance();
+		fight.competitor = new Fighter("Me");
+		fight.opponent = new Fighter("Them");
+		return fight;
+	}
+
+	private static FightLogEntry entry(int tick, boolean fullEntry, boolean splash)
+	{
+		return GSON.fromJson("{\"T\":" + tick + ",\"f\":" + fullEntry + ",\"s\":" + splash + ",\"m\":\"MELEE_DAGGER_SLASH\"}",
+			FightLogEntry.class);
+	}
+}
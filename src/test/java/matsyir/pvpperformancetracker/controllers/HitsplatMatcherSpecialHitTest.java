@@ -0,0 +1,171 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import matsyir.pvpperformancetracker.models.HitsplatInfo;
+import net.runelite.api.Actor;
+import net.runelite.api.Hitsplat;
+import net.runelite.api.HitsplatID;
+import net.runelite.api.Player;
+import net.runelite.api.events.HitsplatApplied;
+import org.junit.Test;
+
+import static matsyir.pvpperformancetracker.controllers.TestFixtures.player;
+import static org.junit.Assert.assertEquals;
+
+public class HitsplatMatcherSpecialHitTest
+{
+	private static final int TICK = 1000;
+
+	private final Player localPlayer = player("Local");
+	private final Player opponentPlayer = player("Opponent");
+	private final Player bystander = player("Bystander");
+
+	@Test
+	public void vengeanceHitOnOpponentIsRemoved()
+	{
+		HitsplatMatcher matcher = new HitsplatMatcher();
+		List<HitsplatInfo> hits = new ArrayList<>();
+		hits.add(buffer(matcher, opponentPlayer, 40));
+		hits.add(buffer(matcher, localPlayer, 30)); // 75% of 40
+
+		int removed = matcher.removeVengeanceAndRecoilHits(hits, 1, localPlayer, opponentPlayer, TICK);
+
+		assertEquals(1, removed);
+		assertEquals(1, hits.size());
+		assertEquals(40, hits.get(0).getAmount());
+	}
+
+	@Test
+	public void recoilHitIsRemoved()
+	{
+		HitsplatMatcher matcher = new HitsplatMatcher();
+		List<HitsplatInfo> hits = new ArrayList<>();
+		hits.add(buffer(matcher, localPlayer, 25));
+		hits.add(buffer(matcher, opponentPlayer, 3)); // 10% of 25, plus 1
+
+		int removed = matcher.removeVengeanceAndRecoilHits(hits, 1, localPlayer, opponentPlayer, TICK);
+
+		assertEquals(1, removed);
+		assertEquals(25, hits.get(0).getAmount());
+	}
+
+	@Test
+	public void removalsStopOnceObservedHitsMatchExpectedHits()
+	{
+		HitsplatMatcher matcher = new HitsplatMatcher();
+		List<HitsplatInfo> hits = new ArrayList<>();
+		hits.add(buffer(matcher, opponentPlayer, 40));
+		hits.add(buffer(matcher, localPlayer, 30));
+		hits.add(buffer(matcher, localPlayer, 5));
+
+		int removed = matcher.removeVengeanceAndRecoilHits(hits, 0, localPlayer, opponentPlayer, TICK);
+
+		assertEquals(0, removed);
+		assertEquals(3, hits.size());
+	}
+
+	@Test
+	public void removalsMatchPreviousNestedScan()
+	{
+		Random random = new Random(1234);
+		Player[] targets = {localPlayer, opponentPlayer, bystander};
+		for (int scenario = 0; scenario < 2000; scenario++)
+		{
+			HitsplatMatcher matcher = new HitsplatMatcher();
+			List<HitsplatInfo> hits = new ArrayList<>();
+			List<HitsplatInfo> incomingHits = new ArrayList<>();
+			int hitCount = 1 + random.nextInt(8);
+			for (int i = 0; i < hitCount; i++)
+			{
+				Player target = targets[random.nextInt(targets.length)];
+				int amount = random.nextInt(10) == 0 ? 250 + random.nextInt(200) : random.nextInt(60);
+				HitsplatInfo hit = buffer(matcher, target, amount);
+				hits.add(hit);
+				if (target != bystander)
+				{
+					incomingHits.add(hit);
+				}
+			}
+			int expectedAttackHits = random.nextInt(hitCount + 1);
+
+			List<HitsplatInfo> previousResult = new ArrayList<>(hits);
+			previousNestedScan(previousResult, incomingHits, expectedAttackHits);
+
+			List<HitsplatInfo> result = new ArrayList<>(hits);
+			matcher.removeVengeanceAndRecoilHits(result, hits.size() - expectedAttackHits, localPlayer, opponentPlayer, TICK);
+
+			assertEquals("scenario " + scenario, previousResult, result);
+		}
+	}
+
+	// the pre-processing loop previously used in onGameTick, kept to compare results
+	private void previousNestedScan(List<HitsplatInfo> hitsplatsToProcess, List<HitsplatInfo> incomingHitsOnOther, int totalExpectedAttackHits)
+	{
+		int safetyBreakCounter = 0;
+		int maxIterations = hitsplatsToProcess.size() * 2;
+		while (hitsplatsToProcess.size() > totalExpectedAttackHits && safetyBreakCounter++ < maxIterations)
+		{
+			boolean removedHitInIteration = false;
+			Iterator<HitsplatInfo> iterator = hitsplatsToProcess.iterator();
+			while (iterator.hasNext())
+			{
+				HitsplatInfo potentialSpecialHit = iterator.next();
+				Actor target = potentialSpecialHit.getEvent().getActor();
+				int hitAmount = potentialSpecialHit.getEvent().getHitsplat().getAmount();
+				boolean isCandidate = false;
+
+				Actor otherPlayer = null;
+				if (target == localPlayer)
+				{
+					otherPlayer = opponentPlayer;
+				}
+				else if (target == opponentPlayer)
+				{
+					otherPlayer = localPlayer;
+				}
+
+				if (otherPlayer != null)
+				{
+					for (HitsplatInfo incomingHit : incomingHitsOnOther)
+					{
+						if (incomingHit.getEvent().getActor() == otherPlayer)
+						{
+							int incomingDamage = incomingHit.getEvent().getHitsplat().getAmount();
+							int expectedVengeance = Math.max(1, (int) Math.floor(incomingDamage * 0.75));
+							int expectedRecoil = Math.max(1, (int) Math.floor(incomingDamage * 0.10) + 1);
+							if (hitAmount == expectedVengeance || hitAmount == expectedRecoil)
+							{
+								isCandidate = true;
+								break;
+							}
+						}
+					}
+				}
+
+				if (isCandidate)
+				{
+					iterator.remove();
+					removedHitInIteration = true;
+					break;
+				}
+			}
+
+			if (!removedHitInIteration)
+			{
+				break;
+			}
+		}
+	}
+
+	private HitsplatInfo buffer(HitsplatMatcher matcher, Player target, int amount)
+	{
+		HitsplatApplied event = new HitsplatApplied();
+		event.setActor(target);
+		event.setHitsplat(new Hitsplat(HitsplatID.DAMAGE_OTHER, amount, 0));
+		matcher.bufferHitsplat(TICK, event, localPlayer, opponentPlayer);
+		return new HitsplatInfo(event);
+	}
+}
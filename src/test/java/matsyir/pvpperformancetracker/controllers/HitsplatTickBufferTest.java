@@ -0,0 +1,111 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import matsyir.pvpperformancetracker.models.HitsplatInfo;
+import net.runelite.api.Hitsplat;
+import net.runelite.api.HitsplatID;
+import net.runelite.api.events.HitsplatApplied;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class HitsplatTickBufferTest
+{
+	@Test
+	public void hitsplatsAreKeptPerTickInOrder()
+	{
+		HitsplatTickBuffer buffer = new HitsplatTickBuffer(5);
+		buffer.add(100, hitsplat(10));
+		buffer.add(100, hitsplat(20));
+		buffer.add(101, hitsplat(30));
+
+		assertEquals(2, buffer.size(100));
+		assertEquals(10, buffer.get(100, 0).getAmount());
+		assertEquals(20, buffer.get(100, 1).getAmount());
+		assertEquals(1, buffer.size(101));
+		assertEquals(0, buffer.size(102));
+	}
+
+	@Test
+	public void expiredTicksAreReplacedOnceTheRingWrapsAround()
+	{
+		HitsplatTickBuffer buffer = new HitsplatTickBuffer(5);
+		buffer.add(100, hitsplat(10));
+
+		assertEquals(1, buffer.size(100));
+
+		buffer.add(106, hitsplat(15));
+
+		assertEquals(0, buffer.size(100));
+		assertEquals(1, buffer.size(106));
+		assertEquals(15, buffer.get(106, 0).getAmount());
+	}
+
+	@Test
+	public void slotInstancesArePooledAcrossTicks()
+	{
+		HitsplatTickBuffer buffer = new HitsplatTickBuffer(5);
+		HitsplatInfo first = buffer.add(100, hitsplat(10));
+		first.setHp(10, 30);
+
+		HitsplatInfo reused = buffer.add(106, hitsplat(15));
+
+		assertSame(first, reused);
+		assertEquals(15, reused.getAmount());
+		assertEquals(-1, reused.getHealthRatio());
+	}
+
+	@Test
+	public void removeKeepsRemainingOrder()
+	{
+		HitsplatTickBuffer buffer = new HitsplatTickBuffer(5);
+		buffer.add(100, hitsplat(1));
+		buffer.add(100, hitsplat(2));
+		buffer.add(100, hitsplat(3));
+
+		buffer.remove(100, 1);
+
+		assertEquals(2, buffer.size(100));
+		assertEquals(1, buffer.get(100, 0).getAmount());
+		assertEquals(3, buffer.get(100, 1).getAmount());
+	}
+
+	@Test
+	public void drainToEmptiesTheSlot()
+	{
+		HitsplatTickBuffer buffer = new HitsplatTickBuffer(5);
+		for (int i = 0; i < 20; i++)
+		{
+			buffer.add(100, hitsplat(i));
+		}
+
+		List<HitsplatInfo> drained = new ArrayList<>();
+		assertEquals(20, buffer.drainTo(100, drained));
+
+		assertEquals(20, drained.size());
+		assertEquals(19, drained.get(19).getAmount());
+		assertEquals(0, buffer.size(100));
+	}
+
+	@Test
+	public void clearDropsAllTicks()
+	{
+		HitsplatTickBuffer buffer = new HitsplatTickBuffer(5);
+		buffer.add(100, hitsplat(10));
+		buffer.add(101, hitsplat(10));
+
+		buffer.clear();
+
+		assertEquals(0, buffer.size(100));
+		assertEquals(0, buffer.size(101));
+	}
+
+	private static HitsplatApplied hitsplat(int amount)
+	{
+		HitsplatApplied event = new HitsplatApplied();
+		event.setHitsplat(new Hitsplat(HitsplatID.DAMAGE_OTHER, amount, 0));
+		return event;
+	}
+}
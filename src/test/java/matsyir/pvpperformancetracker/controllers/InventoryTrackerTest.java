@@ -0,0 +1,97 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import net.runelite.api.Item;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTrackerTest
+{
+	private static final int SHARK = 385;
+	private static final int BREW = 6685;
+	private static final int WHIP = 4151;
+
+	@Test
+	public void unchangedInventoryIsNotLogged()
+	{
+		InventoryTracker tracker = new InventoryTracker();
+		tracker.reset(items(SHARK, BREW, WHIP));
+
+		assertFalse(tracker.update(100, items(SHARK, BREW, WHIP)));
+		assertEquals(0, tracker.getChangeCount());
+		assertArrayEquals(new int[] {SHARK, BREW, WHIP}, tracker.getCurrentItemIds());
+	}
+
+	@Test
+	public void onlyChangedSlotsAreLogged()
+	{
+		InventoryTracker tracker = new InventoryTracker();
+		tracker.reset(items(SHARK, BREW, WHIP));
+
+		assertTrue(tracker.update(100, items(-1, BREW, WHIP)));
+		assertTrue(tracker.update(103, items(-1, BREW + 2, WHIP)));
+
+		int[] changes = tracker.getChanges();
+		assertEquals(2, tracker.getChangeCount());
+		assertEquals(100, changes[0]);
+		assertEquals(0, InventoryTracker.getSlot(changes[1]));
+		assertEquals(InventoryTracker.EMPTY_SLOT, InventoryTracker.getItemId(changes[1]));
+		assertEquals(103, changes[2]);
+		assertEquals(1, InventoryTracker.getSlot(changes[3]));
+		assertEquals(BREW + 2, InventoryTracker.getItemId(changes[3]));
+	}
+
+	@Test
+	public void lastNonEmptyInventoryIsKeptOnceEmptied()
+	{
+		InventoryTracker tracker = new InventoryTracker();
+		tracker.reset(items(SHARK, BREW, WHIP));
+		tracker.update(100, items(SHARK, -1, WHIP));
+		tracker.update(101, items(-1, -1, -1));
+
+		assertTrue(tracker.isEmpty());
+		assertArrayEquals(new int[] {SHARK, -1, WHIP}, tracker.getLastNonEmptyItemIds());
+	}
+
+	@Test
+	public void inventorySizeChangesAreNotLoggedAsSlotChanges()
+	{
+		InventoryTracker tracker = new InventoryTracker();
+		tracker.reset(new Item[0]);
+
+		assertNull(tracker.getLastNonEmptyItemIds());
+		assertTrue(tracker.update(100, items(SHARK, BREW)));
+		assertEquals(0, tracker.getChangeCount());
+		assertArrayEquals(new int[] {SHARK, BREW}, tracker.getLastNonEmptyItemIds());
+	}
+
+	@Test
+	public void logGrowsPastItsInitialCapacity()
+	{
+		InventoryTracker tracker = new InventoryTracker();
+		tracker.reset(items(SHARK));
+		for (int tick = 1; tick <= 100; tick++)
+		{
+			tracker.update(tick, items(tick % 2 == 0 ? SHARK : -1));
+		}
+
+		int[] changes = tracker.getChanges();
+		assertEquals(100, tracker.getChangeCount());
+		assertEquals(100, changes[198]);
+		assertEquals(SHARK, InventoryTracker.getItemId(changes[199]));
+	}
+
+	private static Item[] items(int... itemIds)
+	{
+		Item[] items = new Item[itemIds.length];
+		for (int i = 0; i < itemIds.length; i++)
+		{
+			items[i] = new Item(itemIds[i], 1);
+		}
+		return items;
+	}
+}
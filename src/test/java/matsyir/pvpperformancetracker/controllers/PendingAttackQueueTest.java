@@ -0,0 +1,67 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PendingAttackQueueTest
+{
+	@Test
+	public void attacksAreKeptOrderedByMatchTick()
+	{
+		PendingAttackQueue queue = new PendingAttackQueue();
+		FightLogEntry late = entry(105);
+		FightLogEntry early = entry(100);
+		FightLogEntry middle = entry(102);
+
+		queue.add(late);
+		queue.add(early);
+		queue.add(middle);
+
+		assertSame(early, queue.get(0));
+		assertSame(middle, queue.get(1));
+		assertSame(late, queue.get(2));
+	}
+
+	@Test
+	public void sameTickAttacksKeepInsertionOrder()
+	{
+		PendingAttackQueue queue = new PendingAttackQueue();
+		FightLogEntry first = entry(100);
+		FightLogEntry second = entry(100);
+
+		queue.add(first);
+		queue.add(second);
+
+		assertSame(first, queue.get(0));
+		assertSame(second, queue.get(1));
+	}
+
+	@Test
+	public void truncateDropsEntriesPastTheKeptOnes()
+	{
+		PendingAttackQueue queue = new PendingAttackQueue();
+		for (int tick = 0; tick < 40; tick++)
+		{
+			queue.add(entry(tick));
+		}
+		FightLogEntry kept = queue.get(39);
+
+		queue.set(0, kept);
+		queue.truncate(1);
+
+		assertEquals(1, queue.size());
+		assertSame(kept, queue.get(0));
+
+		queue.clear();
+		assertTrue(queue.isEmpty());
+	}
+
+	private static FightLogEntry entry(int tick)
+	{
+		return new FightLogEntry(new int[] {1, 2, 3}, 10, 0.5, 0, 20, new int[] {4, 5, 6}, "attacker", tick, 1000L);
+	}
+}
@@ -0,0 +1,365 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerConfig;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerPlugin;
+import matsyir.pvpperformancetracker.models.AnimationData;
+import matsyir.pvpperformancetracker.models.EquipmentData;
+import matsyir.pvpperformancetracker.models.FightLogEntry;
+import matsyir.pvpperformancetracker.models.FightType;
+import matsyir.pvpperformancetracker.models.RangeAmmoData;
+import net.runelite.api.ItemID;
+import net.runelite.api.PlayerComposition;
+import net.runelite.api.SpriteID;
+import net.runelite.api.kit.KitType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+// compares the closed-form average hit math against the per-roll loops it replaced, which are kept below,
+// and pins full damage calculations to the results from before that change.
+@SuppressWarnings("deprecation") // ItemID deprecation isnt a problem
+public class PvpDamageCalcAverageHitTest
+{
+	private static final double[] ACCURACIES = {0, 1e-9, 0.1, 0.25, 1 / 3.0, 0.5, 0.6180339887, 0.7, 0.999999999, 1};
+	private static final int MAX_TESTED_HIT = 200;
+
+	private static final int[] MELEE_BONUSES = {41, 98, 13, -22, -6, 118, 111, 106, -11, 122, 89, 0, 0};
+	private static final int[] RANGED_BONUSES = {0, 0, 0, -20, 137, 93, 87, 99, 82, 96, 4, 60, 0};
+	private static final int[] MAGE_BONUSES = {0, 0, 0, 119, 0, 28, 24, 36, 82, 0, 4, 0, 20};
+	private static final int[] DEFENDER_GEAR = gear(KitType.TORSO, ItemID.ANCESTRAL_ROBE_TOP);
+
+	private static final Gson GSON = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+
+	private static PvpPerformanceTrackerConfig previousConfig;
+
+	@BeforeClass
+	public static void installConfig()
+	{
+		previousConfig = PvpPerformanceTrackerPlugin.CONFIG;
+		PvpPerformanceTrackerPlugin.CONFIG = TestFixtures.defaultConfig();
+
+		// bonus lookups go through the ItemManager on a cache miss, so pre-fill the cache with fixed bonuses.
+		seedBonuses(ItemID.DARK_BOW, RANGED_BONUSES);
+		seedBonuses(ItemID.MAGIC_SHORTBOW, RANGED_BONUSES);
+		seedBonuses(ItemID.VESTAS_LONGSWORD, MELEE_BONUSES);
+		seedBonuses(ItemID.STATIUSS_WARHAMMER, MELEE_BONUSES);
+		seedBonuses(ItemID.BURNING_CLAWS, MELEE_BONUSES);
+		seedBonuses(ItemID.ABYSSAL_WHIP, MELEE_BONUSES);
+		PvpDamageCalc.getBonusCache().put(DEFENDER_GEAR, PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), MAGE_BONUSES);
+	}
+
+	@AfterClass
+	public static void restoreConfig()
+	{
+		PvpPerformanceTrackerPlugin.CONFIG = previousConfig;
+	}
+
+	@Test
+	public void darkBowSpecMatchesPreviousResults()
+	{
+		assertDamageStats(attack(ItemID.DARK_BOW, AnimationData.RANGED_DARK_BOW_SPEC, null, SpriteID.PRAYER_RIGOUR, null),
+			41.669082664287835, 0.8264942016057092, 16, 96);
+		assertDamageStats(attack(ItemID.DARK_BOW, AnimationData.RANGED_DARK_BOW_SPEC, "RANGED", SpriteID.PRAYER_RIGOUR, null),
+			25.0014495985727, 0.8264942016057092, 9, 57);
+	}
+
+	@Test
+	public void minimumHitMeleeSpecsMatchPreviousResults()
+	{
+		assertDamageStats(attack(ItemID.VESTAS_LONGSWORD, AnimationData.MELEE_VLS_SPEC, null, SpriteID.PRAYER_PIETY, null),
+			21.56200076074553, 0.9246861924686193, 8, 44);
+		assertDamageStats(attack(ItemID.STATIUSS_WARHAMMER, AnimationData.MELEE_DRAGON_WARHAMMER_SPEC, "MELEE", SpriteID.PRAYER_PIETY, null),
+			5.4314934662913466, 0.36304664261755587, 6, 27);
+	}
+
+	@Test
+	public void burningClawsSpecMatchesPreviousResults()
+	{
+		assertDamageStats(attack(ItemID.BURNING_CLAWS, AnimationData.MELEE_BURNING_CLAWS_SPEC, null, SpriteID.PRAYER_PIETY, null),
+			40.94108675830526, 0.7119598989187621, 0, 64);
+	}
+
+	@Test
+	public void seekingArrowsMatchPreviousResults()
+	{
+		int seekingArrow = RangeAmmoData.OtherAmmo.SEEKING_DRAGON_ARROW.getItemId();
+		assertDamageStats(attack(ItemID.MAGIC_SHORTBOW, AnimationData.RANGED_MAGIC_SHORTBOW_SPEC, null, SpriteID.PRAYER_RIGOUR, seekingArrow),
+			35.46629674338573, 0.8388618041614887, 6, 84);
+		assertDamageStats(attack(ItemID.MAGIC_SHORTBOW, AnimationData.RANGED_SHORTBOW, null, SpriteID.PRAYER_RIGOUR, seekingArrow),
+			17.733148371692867, 0.8388618041614887, 3, 42);
+	}
+
+	@Test
+	public void standardAttackMatchesPreviousResults()
+	{
+		assertDamageStats(attack(ItemID.ABYSSAL_WHIP, AnimationData.MELEE_ABYSSAL_WHIP, null, SpriteID.PRAYER_PIETY, null),
+			13.1712581299971, 0.7119598989187621, 0, 37);
+	}
+
+	@Test
+	public void averageRollWithMinimumMatchesPerRollSum()
+	{
+		for (int min = -2; min <= MAX_TESTED_HIT; min++)
+		{
+			for (int max = -2; max <= MAX_TESTED_HIT; max++)
+			{
+				assertEquals("min " + min + ", max " + max,
+					previousAverageRollWithMinimum(min, max), PvpDamageCalc.getAverageRollWithMinimum(min, max), 0);
+			}
+		}
+	}
+
+	@Test
+	public void clampedRollSumMatchesPerRollSum()
+	{
+		for (int min = -2; min <= MAX_TESTED_HIT; min++)
+		{
+			for (int max = -2; max <= MAX_TESTED_HIT; max++)
+			{
+				// dbow spec clamps to min hit / accuracy, vls & swh clamp to the min hit itself
+				assertEquals(previousClampedRollSum(min, max, 1), PvpDamageCalc.sumRollsClampedToMinimum(min, max, min));
+				for (double accuracy : ACCURACIES)
+				{
+					assertEquals("min " + min + ", max " + max + ", accuracy " + accuracy,
+						previousClampedRollSum(min, max, accuracy), PvpDamageCalc.sumRollsClampedToMinimum(min, max, min / accuracy));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void rollSumsOverflowLikeThePerRollSums()
+	{
+		// rolls 0 to 65535 still fit in an int, adding 65536 goes past Integer.MAX_VALUE
+		for (int max = 65530; max <= 65545; max++)
+		{
+			for (int min : new int[] {0, 16, 100})
+			{
+				assertEquals("min " + min + ", max " + max,
+					previousClampedRollSum(min, max, 1), PvpDamageCalc.sumRollsClampedToMinimum(min, max, min));
+				assertEquals("min " + min + ", max " + max,
+					previousClampedRollSum(min, max, 0.7), PvpDamageCalc.sumRollsClampedToMinimum(min, max, min / 0.7));
+				assertEquals("min " + min + ", max " + max,
+					previousAverageRollWithMinimum(min, max), PvpDamageCalc.getAverageRollWithMinimum(min, max), 0);
+			}
+		}
+
+		// the clamped roll sum saturates, since the rolls were added as doubles, while the int average sum wraps around
+		assertEquals(2147450880, PvpDamageCalc.sumRollsClampedToMinimum(0, 65535, 0));
+		assertEquals(Integer.MAX_VALUE, PvpDamageCalc.sumRollsClampedToMinimum(0, 65536, 0));
+		assertEquals(-2147450880.0 / 65537, PvpDamageCalc.getAverageRollWithMinimum(0, 65536), 0);
+	}
+
+	@Test
+	public void burningClawDamageMatchesPerRollSum()
+	{
+		for (int minD = -10; minD <= MAX_TESTED_HIT * 2; minD++)
+		{
+			for (int maxD = minD - 1; maxD <= MAX_TESTED_HIT * 2; maxD++)
+			{
+				assertEquals("minD " + minD + ", maxD " + maxD,
+					previousAverageBurningClawDamage(minD, maxD), PvpDamageCalc.getAverageBurningClawDamage(minD, maxD), 0);
+			}
+		}
+	}
+
+	@Test
+	public void averageHitMatchesPreviousResultsForEveryWeapon() throws Exception
+	{
+		Method getAverageHit = PvpDamageCalc.class.getDeclaredMethod("getAverageHit", boolean.class, EquipmentData.class, boolean.class);
+		getAverageHit.setAccessible(true);
+
+		for (EquipmentData weapon : EquipmentData.values())
+		{
+			for (int maxHit = 0; maxHit <= MAX_TESTED_HIT; maxHit++)
+			{
+				for (double accuracy : ACCURACIES)
+				{
+					for (boolean success : new boolean[] {true, false})
+					{
+						PvpDamageCalc calc = newCalc(maxHit, accuracy);
+						getAverageHit.invoke(calc, success, weapon, true);
+
+						Double expected = previousSpecAverageHit(weapon, maxHit, accuracy, success);
+						if (expected != null)
+						{
+							assertEquals(weapon + " spec, max " + maxHit + ", accuracy " + accuracy,
+								expected, calc.getAverageHit(), 0);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void seekingArrowAverageHitMatchesPreviousResults() throws Exception
+	{
+		Method getAverageHit = PvpDamageCalc.class.getDeclaredMethod("getAverageHit", boolean.class, EquipmentData.class, boolean.class);
+		getAverageHit.setAccessible(true);
+
+		for (int hitCount = 1; hitCount <= 2; hitCount++)
+		{
+			for (int seekingMinHit = 1; seekingMinHit <= 30; seekingMinHit++)
+			{
+				for (int maxHit = 0; maxHit <= MAX_TESTED_HIT; maxHit++)
+				{
+					PvpDamageCalc calc = newCalc(maxHit, 0.5);
+					setField(calc, "seekingArrowMinHit", seekingMinHit);
+					setField(calc, "damageRollHitCount", hitCount);
+					setField(calc, "damageRollDistribution", hitCount > 1 ?
+						PvpDamageCalc.DamageRollDistribution.MULTI_HIT_CLAMPED_TO_MINIMUM :
+						PvpDamageCalc.DamageRollDistribution.CLAMPED_TO_MINIMUM);
+					getAverageHit.invoke(calc, true, EquipmentData.MAGIC_SHORTBOW, false);
+
+					int expectedMin;
+					int expectedMax;
+					double expectedAverageSuccessfulHit;
+					if (hitCount > 1)
+					{
+						int perHitMinimum = seekingMinHit / hitCount;
+						int perHitMaximum = Math.max(perHitMinimum, maxHit / hitCount);
+						expectedMax = Math.max(maxHit, perHitMaximum * hitCount);
+						expectedMin = perHitMinimum * hitCount;
+						expectedAverageSuccessfulHit = hitCount * previousAverageRollWithMinimum(perHitMinimum, perHitMaximum);
+					}
+					else
+					{
+						expectedMax = Math.max(maxHit, seekingMinHit);
+						expectedMin = seekingMinHit;
+						expectedAverageSuccessfulHit = previousAverageRollWithMinimum(seekingMinHit, expectedMax);
+					}
+
+					assertEquals(0.5 * expectedAverageSuccessfulHit, calc.getAverageHit(), 0);
+					assertEquals(expectedMax, calc.getMaxHit());
+					assertEquals(expectedMin, calc.getMinHit());
+				}
+			}
+		}
+	}
+
+	// average hit of the specs that used to loop over every roll, or null for other weapons
+	private static Double previousSpecAverageHit(EquipmentData weapon, int maxHit, double accuracy, boolean success)
+	{
+		double prayerModifier = success ? 1 : 0.6;
+		if (weapon == EquipmentData.DARK_BOW || weapon == EquipmentData.VESTAS_LONGSWORD || weapon == EquipmentData.STATIUS_WARHAMMER)
+		{
+			double accuracyAdjuster = weapon == EquipmentData.DARK_BOW ? accuracy : 1;
+			int minHit = weapon == EquipmentData.DARK_BOW ? 16 :
+				weapon == EquipmentData.VESTAS_LONGSWORD ? (int) (maxHit * .2) : (int) (maxHit * .25);
+			int total = 0;
+			for (int i = 0; i <= maxHit; i++)
+			{
+				total += i < minHit ? minHit / accuracyAdjuster : i;
+			}
+			return accuracy * ((double) total / maxHit) * prayerModifier;
+		}
+		else if (weapon == EquipmentData.BURNING_CLAWS)
+		{
+			double miss = 1 - accuracy;
+			double expectedDamage =
+				accuracy * previousAverageBurningClawDamage((int) Math.floor(0.75 * maxHit), (int) Math.floor(1.75 * maxHit)) +
+					(miss * accuracy) * previousAverageBurningClawDamage((int) Math.floor(0.50 * maxHit), (int) Math.floor(1.50 * maxHit)) +
+					(miss * miss * accuracy) * previousAverageBurningClawDamage((int) Math.floor(0.25 * maxHit), (int) Math.floor(1.25 * maxHit)) +
+					(miss * miss * miss) * previousAverageBurningClawDamage(0, maxHit);
+			return expectedDamage * prayerModifier;
+		}
+		return null;
+	}
+
+	private static int previousClampedRollSum(int minHit, int maxHit, double accuracyAdjuster)
+	{
+		int total = 0;
+		for (int i = 0; i <= maxHit; i++)
+		{
+			total += i < minHit ? minHit / accuracyAdjuster : i;
+		}
+		return total;
+	}
+
+	private static double previousAverageRollWithMinimum(int minimumHit, int maximumHit)
+	{
+		int total = 0;
+		for (int i = 0; i <= maximumHit; i++)
+		{
+			total += Math.max(i, minimumHit);
+		}
+		return (double) total / (maximumHit + 1);
+	}
+
+	private static double previousAverageBurningClawDamage(int minD, int maxD)
+	{
+		if (minD > maxD)
+		{
+			return 0;
+		}
+		double totalDamageSum = 0;
+		for (int D = minD; D <= maxD; D++)
+		{
+			totalDamageSum += (int) Math.floor(0.25 * D) + (int) Math.floor(0.25 * D) + (int) Math.floor(0.5 * D);
+		}
+		return totalDamageSum / (maxD - minD + 1);
+	}
+
+	private static void assertDamageStats(FightLogEntry attack, double averageHit, double accuracy, int minHit, int maxHit)
+	{
+		PvpDamageCalc calc = new PvpDamageCalc(FightType.NORMAL);
+		// the defender's log has no levels, so both fighters use the default levels
+		calc.updateDamageStats(attack, GSON.fromJson("{}", FightLogEntry.class));
+
+		String attackName = attack.getAnimationData().toString();
+		assertEquals(attackName, averageHit, calc.getAverageHit(), 0);
+		assertEquals(attackName, accuracy, calc.getAccuracy(), 0);
+		assertEquals(attackName, minHit, calc.getMinHit());
+		assertEquals(attackName, maxHit, calc.getMaxHit());
+	}
+
+	// a full attack against DEFENDER_GEAR, as it would be saved in the fight log.
+	private static FightLogEntry attack(int weapon, AnimationData animationData, String defenderOverhead, int offensivePray, Integer ammoItemId)
+	{
+		return GSON.fromJson("{\"f\":true"
+			+ ",\"G\":" + Arrays.toString(gear(KitType.WEAPON, weapon))
+			+ ",\"m\":\"" + animationData.name() + "\""
+			+ ",\"g\":" + Arrays.toString(DEFENDER_GEAR)
+			+ (defenderOverhead == null ? "" : ",\"o\":\"" + defenderOverhead + "\"")
+			+ ",\"p\":" + offensivePray
+			+ (ammoItemId == null ? "" : ",\"A\":" + ammoItemId)
+			+ "}", FightLogEntry.class);
+	}
+
+	private static int[] gear(KitType slot, int itemId)
+	{
+		int[] equipmentIds = new int[KitType.values().length];
+		equipmentIds[slot.getIndex()] = itemId + PlayerComposition.ITEM_OFFSET;
+		return equipmentIds;
+	}
+
+	private static void seedBonuses(int weapon, int[] bonuses)
+	{
+		PvpDamageCalc.getBonusCache().put(gear(KitType.WEAPON, weapon), PvpPerformanceTrackerPlugin.CONFIG.ringChoice(), bonuses);
+	}
+
+	private static PvpDamageCalc newCalc(int maxHit, double accuracy) throws Exception
+	{
+		PvpDamageCalc calc = new PvpDamageCalc(FightType.NORMAL);
+		setField(calc, "maxHit", maxHit);
+		setField(calc, "accuracy", accuracy);
+		setField(calc, "damageRollDistribution", PvpDamageCalc.DamageRollDistribution.STANDARD);
+		setField(calc, "damageRollHitCount", 1);
+		return calc;
+	}
+
+	private static void setField(PvpDamageCalc calc, String fieldName, Object value) throws Exception
+	{
+		Field field = PvpDamageCalc.class.getDeclaredField(fieldName);
+		field.setAccessible(true);
+		field.set(calc, value);
+	}
+}
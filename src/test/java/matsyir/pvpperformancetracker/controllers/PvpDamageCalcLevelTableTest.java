@@ -0,0 +1,135 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import matsyir.pvpperformancetracker.models.CombatLevels;
+import matsyir.pvpperformancetracker.models.EquipmentData.VoidStyle;
+import net.runelite.api.SpriteID;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PvpDamageCalcLevelTableTest
+{
+	private static final int[] OFFENSIVE_PRAYERS = {
+		0, SpriteID.PRAYER_PIETY, SpriteID.PRAYER_ULTIMATE_STRENGTH, SpriteID.PRAYER_RIGOUR, SpriteID.PRAYER_DEADEYE,
+		SpriteID.PRAYER_EAGLE_EYE, SpriteID.PRAYER_AUGURY, SpriteID.PRAYER_MYSTIC_VIGOUR, SpriteID.PRAYER_MYSTIC_MIGHT
+	};
+
+	@Test
+	public void baseDamageMatchesPreviousFormulas()
+	{
+		for (int level : new int[] {1, 75, 99, 118})
+		{
+			PvpDamageCalc.LevelTable table = new PvpDamageCalc.LevelTable(levels(level));
+			for (int pray : OFFENSIVE_PRAYERS)
+			{
+				for (VoidStyle voidStyle : VoidStyle.values())
+				{
+					for (int bonus = -20; bonus < 300; bonus++)
+					{
+						assertEquals(previousMeleeBaseDamage(level, pray, voidStyle, bonus), table.getMeleeBaseDamage(pray, voidStyle, bonus));
+						assertEquals(previousRangedBaseDamage(level, pray, voidStyle, bonus), table.getRangedBaseDamage(pray, voidStyle, bonus));
+						// memoized values must stay the same
+						assertEquals(previousMeleeBaseDamage(level, pray, voidStyle, bonus), table.getMeleeBaseDamage(pray, voidStyle, bonus));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void effectiveLevelsMatchPreviousFormulas()
+	{
+		for (int level = 1; level <= 120; level++)
+		{
+			PvpDamageCalc.LevelTable table = new PvpDamageCalc.LevelTable(levels(level));
+			for (int pray : OFFENSIVE_PRAYERS)
+			{
+				for (VoidStyle voidStyle : VoidStyle.values())
+				{
+					double melee = Math.floor(level * (pray == SpriteID.PRAYER_PIETY ? 1.2 : 1) + 8);
+					if (voidStyle == VoidStyle.VOID_MELEE || voidStyle == VoidStyle.VOID_ELITE_MELEE)
+					{
+						melee *= voidStyle.accuracyModifier;
+					}
+					assertEquals(melee, table.getMeleeAttackLevel(pray, voidStyle), 0);
+
+					double ranged = Math.floor(level * rangedAttackModifier(pray) + 8);
+					double rangedAccurate = Math.floor(level * rangedAttackModifier(pray) + 3 + 8);
+					if (voidStyle == VoidStyle.VOID_RANGE || voidStyle == VoidStyle.VOID_ELITE_RANGE)
+					{
+						ranged *= voidStyle.accuracyModifier;
+						rangedAccurate *= voidStyle.accuracyModifier;
+					}
+					assertEquals(ranged, table.getRangedAttackLevel(pray, voidStyle, false), 0);
+					assertEquals(rangedAccurate, table.getRangedAttackLevel(pray, voidStyle, true), 0);
+
+					double magic = Math.floor(level * magicAttackModifier(pray) + 8);
+					if (voidStyle == VoidStyle.VOID_MAGE || voidStyle == VoidStyle.VOID_ELITE_MAGE)
+					{
+						magic *= voidStyle.accuracyModifier;
+					}
+					assertEquals(magic, table.getMagicAttackLevel(pray, voidStyle), 0);
+				}
+			}
+
+			for (double defencePrayerModifier : new double[] {1, 1.15, 1.2, 1.25})
+			{
+				assertEquals(Math.floor(level * defencePrayerModifier + 8), table.getDefenceLevel(defencePrayerModifier), 0);
+			}
+			assertEquals(Math.floor(level * 0.70), table.getMagicDefenceLevel(false), 0);
+			assertEquals(Math.floor(level * 1.25 * 0.70), table.getMagicDefenceLevel(true), 0);
+		}
+	}
+
+	@Test
+	public void matchesOnlyTheSameLevels()
+	{
+		PvpDamageCalc.LevelTable table = new PvpDamageCalc.LevelTable(new CombatLevels(99, 99, 75, 99, 99, 99));
+
+		assertTrue(table.matches(new CombatLevels(99, 99, 75, 99, 99, 50)));
+		assertFalse(table.matches(new CombatLevels(99, 99, 99, 99, 99, 99)));
+		assertFalse(table.matches(null));
+	}
+
+	private static CombatLevels levels(int level)
+	{
+		return new CombatLevels(level, level, level, level, level, 99);
+	}
+
+	private static int previousMeleeBaseDamage(int str, int pray, VoidStyle voidStyle, int meleeStrength)
+	{
+		double prayerModifier = pray == SpriteID.PRAYER_PIETY ? 1.23 : pray == SpriteID.PRAYER_ULTIMATE_STRENGTH ? 1.15 : 1;
+		int effectiveLevel = (int) Math.floor((str * prayerModifier) + 8 + 3);
+		if (voidStyle == VoidStyle.VOID_ELITE_MELEE || voidStyle == VoidStyle.VOID_MELEE)
+		{
+			effectiveLevel *= voidStyle.dmgModifier;
+		}
+		return (int) Math.floor(0.5 + effectiveLevel * (meleeStrength + 64) / 640.0);
+	}
+
+	private static int previousRangedBaseDamage(int range, int pray, VoidStyle voidStyle, int rangeStrength)
+	{
+		double prayerModifier = pray == SpriteID.PRAYER_RIGOUR ? 1.23 : pray == SpriteID.PRAYER_DEADEYE ? 1.18 :
+			pray == SpriteID.PRAYER_EAGLE_EYE ? 1.15 : 1;
+		double effectiveLevel = Math.floor((range * prayerModifier) + 8);
+		if (voidStyle == VoidStyle.VOID_ELITE_RANGE || voidStyle == VoidStyle.VOID_RANGE)
+		{
+			effectiveLevel *= voidStyle.dmgModifier;
+		}
+		return (int) Math.floor(0.5 + (effectiveLevel * (rangeStrength + 64) / 640.0));
+	}
+
+	private static double rangedAttackModifier(int pray)
+	{
+		return pray == SpriteID.PRAYER_RIGOUR ? 1.2 : pray == SpriteID.PRAYER_DEADEYE ? 1.18 :
+			pray == SpriteID.PRAYER_EAGLE_EYE ? 1.15 : 1;
+	}
+
+	private static double magicAttackModifier(int pray)
+	{
+		return pray == SpriteID.PRAYER_AUGURY ? 1.25 : pray == SpriteID.PRAYER_MYSTIC_VIGOUR ? 1.18 :
+			pray == SpriteID.PRAYER_MYSTIC_MIGHT ? 1.15 : 1;
+	}
+}
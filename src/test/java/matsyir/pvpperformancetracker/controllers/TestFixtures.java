@@ -0,0 +1,128 @@
+package matsyir.pvpperformancetracker.controllers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Proxy;
+import matsyir.pvpperformancetracker.PvpPerformanceTrackerConfig;
+import net.runelite.api.Actor;
+import net.runelite.api.Player;
+import net.runelite.api.PlayerComposition;
+import net.runelite.api.kit.KitType;
+
+// Client-free stand-ins shared by the tests & benchmarks.
+final class TestFixtures
+{
+	private TestFixtures()
+	{
+	}
+
+	// a config returning every setting's default value, for the default levels, ring & ammo choices.
+	static PvpPerformanceTrackerConfig defaultConfig()
+	{
+		return (PvpPerformanceTrackerConfig) Proxy.newProxyInstance(
+			PvpPerformanceTrackerConfig.class.getClassLoader(),
+			new Class<?>[] {PvpPerformanceTrackerConfig.class},
+			(proxy, method, args) -> method.isDefault() ?
+				MethodHandles.privateLookupIn(PvpPerformanceTrackerConfig.class, MethodHandles.lookup())
+					.unreflectSpecial(method, PvpPerformanceTrackerConfig.class)
+					.bindTo(proxy)
+					.invokeWithArguments(args) :
+				defaultValue(method.getReturnType()));
+	}
+
+	static Player player(String name)
+	{
+		return player(name, null);
+	}
+
+	static Player player(String name, Actor interacting)
+	{
+		return player(name, interacting, -1, -1, new int[KitType.values().length]);
+	}
+
+	static Player player(String name, int healthRatio, int healthScale)
+	{
+		return player(name, healthRatio, healthScale, new int[KitType.values().length]);
+	}
+
+	static Player player(String name, int healthRatio, int healthScale, int[] equipmentIds)
+	{
+		return player(name, null, healthRatio, healthScale, equipmentIds);
+	}
+
+	// a player answering the methods used by the fight tracking code, with identity equals/hashCode like the
+	// client's players. Anything else returns null, or the default value of primitives.
+	static Player player(String name, Actor interacting, int healthRatio, int healthScale, int[] equipmentIds)
+	{
+		PlayerComposition composition = (PlayerComposition) Proxy.newProxyInstance(
+			PlayerComposition.class.getClassLoader(),
+			new Class<?>[] {PlayerComposition.class},
+			(proxy, method, args) -> method.getName().equals("getEquipmentIds") ? equipmentIds : defaultValue(method.getReturnType()));
+
+		return (Player) Proxy.newProxyInstance(
+			Player.class.getClassLoader(),
+			new Class<?>[] {Player.class},
+			(proxy, method, args) ->
+			{
+				switch (method.getName())
+				{
+					case "getName":
+					case "toString":
+						return name;
+					case "getInteracting":
+						return interacting;
+					case "getPlayerComposition":
+						return composition;
+					case "getHealthRatio":
+						return healthRatio;
+					case "getHealthScale":
+						return healthScale;
+					case "getAnimation":
+					case "getGraphic":
+						return -1;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						return defaultValue(method.getReturnType());
+				}
+			});
+	}
+
+	static Object defaultValue(Class<?> type)
+	{
+		if (type == boolean.class)
+		{
+			return false;
+		}
+		if (type == int.class)
+		{
+			return 0;
+		}
+		if (type == long.class)
+		{
+			return 0L;
+		}
+		if (type == double.class)
+		{
+			return 0.0;
+		}
+		if (type == float.class)
+		{
+			return 0f;
+		}
+		if (type == short.class)
+		{
+			return (short) 0;
+		}
+		if (type == byte.class)
+		{
+			return (byte) 0;
+		}
+		if (type == char.class)
+		{
+			return (char) 0;
+		}
+		return null;
+	}
+}
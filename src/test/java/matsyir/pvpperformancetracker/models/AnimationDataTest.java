@@ -0,0 +1,51 @@
+package matsyir.pvpperformancetracker.models;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class AnimationDataTest
+{
+	// the map fromId was previously backed by
+	private static Map<Integer, AnimationData> previousLookup()
+	{
+		Map<Integer, AnimationData> lookup = new HashMap<>();
+		for (AnimationData data : AnimationData.values())
+		{
+			if (data.animationId <= 0) { continue; }
+			lookup.put(data.animationId, data);
+		}
+		return lookup;
+	}
+
+	@Test
+	public void everyConstantIsFoundByItsAnimationId()
+	{
+		for (AnimationData data : AnimationData.values())
+		{
+			if (data.animationId <= 0)
+			{
+				assertNull(data.name(), AnimationData.fromId(data.animationId));
+				continue;
+			}
+			assertSame(data.name(), data, AnimationData.fromId(data.animationId));
+		}
+	}
+
+	@Test
+	public void lookupsMatchThePreviousMapForEveryId()
+	{
+		Map<Integer, AnimationData> previous = previousLookup();
+		for (int animationId = -1000; animationId <= 20000; animationId++)
+		{
+			assertEquals("animation " + animationId, previous.get(animationId), AnimationData.fromId(animationId));
+		}
+
+		assertNull(AnimationData.fromId(Integer.MAX_VALUE));
+		assertNull(AnimationData.fromId(Integer.MIN_VALUE));
+	}
+}
@@ -0,0 +1,60 @@
+package matsyir.pvpperformancetracker.models;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EquipmentDataTest
+{
+	// the map fromId was previously backed by
+	private static Map<Integer, EquipmentData> previousLookup()
+	{
+		Map<Integer, EquipmentData> lookup = new HashMap<>();
+		for (EquipmentData data : EquipmentData.values())
+		{
+			lookup.putIfAbsent(data.getItemId(), data);
+			if (data.getAdditionalIds() != null)
+			{
+				for (int id : data.getAdditionalIds())
+				{
+					lookup.putIfAbsent(id, data);
+				}
+			}
+		}
+		return lookup;
+	}
+
+	@Test
+	public void everyConstantIdMatchesThePreviousMap()
+	{
+		Map<Integer, EquipmentData> previous = previousLookup();
+		for (EquipmentData data : EquipmentData.values())
+		{
+			assertEquals(data.name(), previous.get(data.getItemId()), EquipmentData.fromId(data.getItemId()));
+			if (data.getAdditionalIds() != null)
+			{
+				for (int id : data.getAdditionalIds())
+				{
+					assertEquals(data.name() + " " + id, previous.get(id), EquipmentData.fromId(id));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void lookupsMatchThePreviousMapForEveryId()
+	{
+		Map<Integer, EquipmentData> previous = previousLookup();
+		// covers every item id, including the PlayerComposition ids offset by ITEM_OFFSET
+		for (int itemId = -1000; itemId <= 70000; itemId++)
+		{
+			assertEquals("item " + itemId, previous.get(itemId), EquipmentData.fromId(itemId));
+		}
+
+		assertNull(EquipmentData.fromId(Integer.MAX_VALUE));
+		assertNull(EquipmentData.fromId(Integer.MIN_VALUE));
+	}
+}
@@ -0,0 +1,25 @@
+package matsyir.pvpperformancetracker.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedLruMapTest
+{
+	@Test
+	public void evictsTheLeastRecentlyUsedEntry()
+	{
+		BoundedLruMap<String, Integer> map = new BoundedLruMap<>(2);
+		map.put("a", 1);
+		map.put("b", 2);
+		map.get("a");
+		map.put("c", 3);
+
+		assertEquals(2, map.size());
+		assertTrue(map.containsKey("a"));
+		assertFalse(map.containsKey("b"));
+		assertTrue(map.containsKey("c"));
+	}
+}
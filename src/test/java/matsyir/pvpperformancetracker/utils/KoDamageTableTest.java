@@ -0,0 +1,38 @@
+package matsyir.pvpperformancetracker.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class KoDamageTableTest
+{
+	private final KoDamageTable table = KoDamageTable.fromDistribution(new double[] {0.5, 0.25, 0.125, 0.125});
+
+	@Test
+	public void chanceAtLeastIsTheSuffixSumOfTheDistribution()
+	{
+		assertEquals(3, table.getMaxDamage());
+		assertEquals(1.0, table.chanceAtLeast(0), 1e-12);
+		assertEquals(0.5, table.chanceAtLeast(1), 1e-12);
+		assertEquals(0.25, table.chanceAtLeast(2), 1e-12);
+		assertEquals(0.125, table.chanceAtLeast(3), 1e-12);
+	}
+
+	@Test
+	public void chanceOfGivesBackTheDistribution()
+	{
+		assertEquals(0.5, table.chanceOf(0), 1e-12);
+		assertEquals(0.25, table.chanceOf(1), 1e-12);
+		assertEquals(0.125, table.chanceOf(3), 1e-12);
+	}
+
+	@Test
+	public void queriesOutsideTheDamageRangeAreSafe()
+	{
+		assertEquals(1.0, table.chanceAtLeast(-5), 1e-12);
+		assertEquals(0.0, table.chanceAtLeast(4), 0);
+		assertEquals(0.0, table.chanceAtLeast(100), 0);
+		assertEquals(0.0, table.chanceOf(-1), 0);
+		assertEquals(0.0, table.chanceOf(4), 0);
+	}
+}
@@ -0,0 +1,130 @@
+package matsyir.pvpperformancetracker.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class KoDistributionCacheTest
+{
+	private int builds;
+
+	private double[] countingBuilder(boolean clampedToMinimum, double accuracy, int minHit, int maxHit, int hitCount, int perHitCap)
+	{
+		builds++;
+		if (maxHit < 0)
+		{
+			return null;
+		}
+		double[] dist = new double[maxHit + 1];
+		dist[0] = 1.0 - accuracy;
+		dist[maxHit] += accuracy;
+		return dist;
+	}
+
+	@Test
+	public void repeatedAttacksAreOnlyBuiltOnce()
+	{
+		KoDistributionCache cache = new KoDistributionCache(4, this::countingBuilder);
+		KoDamageTable first = cache.get(true, 0.5, 0, 10, 1, 0);
+		KoDamageTable second = cache.get(true, 0.5, 0, 10, 1, 0);
+
+		assertSame(first, second);
+		assertEquals(1, builds);
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(0.5, cache.getHitRate(), 0);
+	}
+
+	@Test
+	public void everyParameterIsPartOfTheKey()
+	{
+		KoDistributionCache cache = new KoDistributionCache(8, this::countingBuilder);
+		cache.get(true, 0.5, 0, 10, 1, 0);
+		cache.get(true, 0.51, 0, 10, 1, 0);
+		cache.get(true, 0.5, 1, 10, 1, 0);
+		cache.get(true, 0.5, 0, 11, 1, 0);
+		cache.get(true, 0.5, 0, 10, 2, 0);
+		cache.get(true, 0.5, 0, 10, 1, 48);
+		cache.get(false, 0.5, 0, 10, 1, 0);
+
+		assertEquals(7, builds);
+		assertEquals(7, cache.size());
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryIsEvicted()
+	{
+		KoDistributionCache cache = new KoDistributionCache(2, this::countingBuilder);
+		cache.get(true, 0.5, 0, 10, 1, 0);
+		cache.get(true, 0.5, 0, 20, 1, 0);
+		cache.get(true, 0.5, 0, 10, 1, 0);
+		cache.get(true, 0.5, 0, 30, 1, 0);
+
+		assertEquals(2, cache.size());
+		cache.get(true, 0.5, 0, 10, 1, 0);
+		assertEquals(3, builds);
+		cache.get(true, 0.5, 0, 20, 1, 0);
+		assertEquals(4, builds);
+	}
+
+	@Test
+	public void invalidDistributionsAreNotCached()
+	{
+		KoDistributionCache cache = new KoDistributionCache(4, this::countingBuilder);
+
+		assertNull(cache.get(true, 0.5, 0, -1, 1, 0));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void standardKoChanceMatchesTheClosedForm()
+	{
+		for (int minHit = 0; minHit <= 20; minHit += 5)
+		{
+			for (int hp = 1; hp <= 40; hp++)
+			{
+				int koHits = 40 - Math.max(minHit, hp) + 1;
+				double expected = 0.7 * koHits / (40 - minHit + 1);
+				assertEquals("min " + minHit + ", hp " + hp, expected, PvpUtils.calculateKoChance(0.7, minHit, 40, hp), 1e-9);
+			}
+		}
+		assertNull(PvpUtils.calculateKoChance(0.7, 0, 40, 41));
+	}
+
+	@Test
+	public void cachedKoChancesMatchSummingTheDistribution()
+	{
+		// previous approach: sum the convolved distribution from the needed hp to the max damage
+		double accuracy = 0.58;
+		int minHit = 16;
+		int maxHit = 96;
+		int perHitMin = minHit / 2;
+		int perHitMax = maxHit / 2;
+		double[] perHit = new double[perHitMax + 1];
+		for (int roll = 0; roll <= perHitMax; roll++)
+		{
+			perHit[Math.max(roll, perHitMin)] += accuracy / (perHitMax + 1);
+		}
+		perHit[0] += 1.0 - accuracy;
+		double[] total = new double[perHitMax * 2 + 1];
+		for (int i = 0; i <= perHitMax; i++)
+		{
+			for (int j = 0; j <= perHitMax; j++)
+			{
+				total[i + j] += perHit[i] * perHit[j];
+			}
+		}
+
+		for (int hp = 1; hp <= maxHit; hp++)
+		{
+			double expected = 0.0;
+			for (int damage = hp; damage < total.length; damage++)
+			{
+				expected += total[damage];
+			}
+			assertEquals("hp " + hp, expected, PvpUtils.calculateMultiHitClampedKoChance(accuracy, minHit, maxHit, 2, hp), 1e-9);
+		}
+	}
+}